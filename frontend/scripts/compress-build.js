@@ -0,0 +1,53 @@
+// Writes a brotli (.br) and a gzip (.gz) copy next to each compressible file in
+// build/, so the backend can send them precompressed (see FrontendAssetsConfig).
+// Runs automatically after `npm run build`.
+
+const fs = require("fs");
+const path = require("path");
+const zlib = require("zlib");
+
+const BUILD_DIR = path.join(__dirname, "..", "build");
+const EXTENSIONS = [".js", ".css", ".html", ".json", ".svg", ".txt", ".map", ".ico"];
+const MIN_SIZE = 1024;
+
+function* files(dir) {
+  for (const entry of fs.readdirSync(dir, { withFileTypes: true })) {
+    const file = path.join(dir, entry.name);
+    if (entry.isDirectory()) {
+      yield* files(file);
+    } else if (EXTENSIONS.includes(path.extname(entry.name))) {
+      yield file;
+    }
+  }
+}
+
+function writeIfSmaller(file, original, compressed) {
+  if (compressed.length < original.length) {
+    fs.writeFileSync(file, compressed);
+    return compressed.length;
+  }
+  return 0;
+}
+
+let count = 0;
+let before = 0;
+let after = 0;
+for (const file of files(BUILD_DIR)) {
+  const original = fs.readFileSync(file);
+  if (original.length < MIN_SIZE) {
+    continue;
+  }
+  const br = zlib.brotliCompressSync(original, {
+    params: {
+      [zlib.constants.BROTLI_PARAM_QUALITY]: zlib.constants.BROTLI_MAX_QUALITY,
+      [zlib.constants.BROTLI_PARAM_SIZE_HINT]: original.length,
+    },
+  });
+  const gz = zlib.gzipSync(original, { level: zlib.constants.Z_BEST_COMPRESSION });
+  const brSize = writeIfSmaller(`${file}.br`, original, br);
+  writeIfSmaller(`${file}.gz`, original, gz);
+  count++;
+  before += original.length;
+  after += brSize || original.length;
+}
+console.log(`Precompressed ${count} files in build/: ${before} bytes, ${after} bytes with brotli`);
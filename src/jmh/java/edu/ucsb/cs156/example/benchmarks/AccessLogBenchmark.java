@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.accesslog.AccessLogFilter;
+import edu.ucsb.cs156.example.accesslog.AccessLogWriter;
+import edu.ucsb.cs156.example.controllers.UCSBDatesController;
+
+import jakarta.servlet.FilterChain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what the access log adds to each controller request on the request
+ * thread (LoggingAspect's replacement): the filter plus handing the record to the
+ * background writer, which discards it here so that only the hot path is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AccessLogBenchmark {
+
+  AccessLogWriter writer;
+  AccessLogFilter filter;
+  FilterChain chain = (request, response) -> { };
+
+  @Setup(Level.Trial)
+  public void setup() {
+    writer = new AccessLogWriter(8192, record -> { });
+    writer.start();
+    filter = new AccessLogFilter(writer);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() throws InterruptedException {
+    writer.stop();
+  }
+
+  @State(Scope.Thread)
+  public static class Request {
+    MockHttpServletRequest request;
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Setup(Level.Trial)
+    public void setup() throws NoSuchMethodException {
+      request = new MockHttpServletRequest("GET", "/api/ucsbdates/all");
+      request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, new HandlerMethod(
+          new UCSBDatesController(), UCSBDatesController.class.getMethod("allUCSBDates", WebRequest.class)));
+      request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/ucsbdates/all");
+      request.setUserPrincipal(new TestingAuthenticationToken("cgaucho@ucsb.edu", null));
+    }
+  }
+
+  @Benchmark
+  public MockHttpServletResponse accessLogFilter(Request request) throws Exception {
+    filter.doFilter(request.request, request.response, chain);
+    return request.response;
+  }
+}
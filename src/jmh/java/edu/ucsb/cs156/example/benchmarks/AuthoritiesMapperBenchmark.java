@@ -0,0 +1,74 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.config.SecurityConfig;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.AdminRoleService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.authority.mapping.GrantedAuthoritiesMapper;
+import org.springframework.security.oauth2.core.user.OAuth2UserAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Measures the authorities mapper that SecurityConfig runs at every OAuth2 login,
+ * for an admin found in {@code app.admin.emails} and for a regular user whose
+ * admin flag comes from the (cached) users table.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AuthoritiesMapperBenchmark {
+
+  @Param({ "phtcon@ucsb.edu", "cgaucho@ucsb.edu" })
+  String email;
+
+  GrantedAuthoritiesMapper mapper;
+  List<GrantedAuthority> authorities;
+
+  @Setup
+  public void setup() {
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.findByEmail(anyString())).thenReturn(Optional.empty());
+
+    AdminRoleService adminRoleService = new AdminRoleService();
+    ReflectionTestUtils.setField(adminRoleService, "userRepository", userRepository);
+    ReflectionTestUtils.setField(adminRoleService, "configuredAdminEmails",
+        IntStream.range(0, 50).mapToObj(i -> "ta" + i + "@ucsb.edu").collect(Collectors.joining(","))
+            + ",phtcon@ucsb.edu");
+    ReflectionTestUtils.invokeMethod(adminRoleService, "loadConfiguredAdminEmails");
+
+    SecurityConfig securityConfig = new SecurityConfig();
+    ReflectionTestUtils.setField(securityConfig, "adminRoleService", adminRoleService);
+    mapper = ReflectionTestUtils.invokeMethod(securityConfig, "userAuthoritiesMapper");
+
+    authorities = List.of(
+        new OAuth2UserAuthority(Map.of("sub", "115856948234298493496", "email", email)),
+        new SimpleGrantedAuthority("SCOPE_openid"));
+  }
+
+  @Benchmark
+  public Collection<? extends GrantedAuthority> mapAuthorities() {
+    return mapper.mapAuthorities(authorities);
+  }
+}
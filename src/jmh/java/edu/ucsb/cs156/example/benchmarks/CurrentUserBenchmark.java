@@ -0,0 +1,78 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.CurrentUser;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.AdminRoleService;
+import edu.ucsb.cs156.example.services.CurrentUserServiceImpl;
+import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@code CurrentUserServiceImpl.getCurrentUser()} for a logged in OAuth2
+ * user whose User is already cached, i.e. the cost paid by every request after the first.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CurrentUserBenchmark {
+
+  CurrentUserServiceImpl currentUserService;
+
+  @Setup
+  public void setup() {
+    Map<String, Object> attributes = Map.of(
+        "sub", "115856948234298493496",
+        "email", "cgaucho@ucsb.edu",
+        "name", "Chris Gaucho",
+        "given_name", "Chris",
+        "family_name", "Gaucho",
+        "email_verified", true,
+        "locale", "en",
+        "hd", "ucsb.edu",
+        "picture", "https://lh3.googleusercontent.com/a/picture");
+    List<SimpleGrantedAuthority> authorities = List.of(
+        new SimpleGrantedAuthority("ROLE_USER"), new SimpleGrantedAuthority("ROLE_MEMBER"));
+    SecurityContextHolder.getContext().setAuthentication(new OAuth2AuthenticationToken(
+        new DefaultOAuth2User(authorities, attributes, "sub"), authorities, "google"));
+
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.findByEmail(anyString()))
+        .thenReturn(Optional.of(User.builder().id(1L).email("cgaucho@ucsb.edu").build()));
+
+    AdminRoleService adminRoleService = new AdminRoleService();
+    ReflectionTestUtils.setField(adminRoleService, "configuredAdminEmails", "phtcon@ucsb.edu");
+    ReflectionTestUtils.invokeMethod(adminRoleService, "loadConfiguredAdminEmails");
+
+    currentUserService = new CurrentUserServiceImpl();
+    ReflectionTestUtils.setField(currentUserService, "userRepository", userRepository);
+    ReflectionTestUtils.setField(currentUserService, "adminRoleService", adminRoleService);
+    ReflectionTestUtils.setField(currentUserService, "grantedAuthoritiesService", new GrantedAuthoritiesService());
+  }
+
+  @Benchmark
+  public CurrentUser getCurrentUser() {
+    return currentUserService.getCurrentUser();
+  }
+}
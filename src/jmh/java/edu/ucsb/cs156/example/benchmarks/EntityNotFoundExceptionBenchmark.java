@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the construction of the EntityNotFoundException thrown by every
+ * {@code getById}, {@code PUT} and {@code DELETE} for a missing id.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityNotFoundExceptionBenchmark {
+
+  long id = 7L;
+
+  @Benchmark
+  public EntityNotFoundException construct() {
+    return new EntityNotFoundException(HelpRequest.class, id);
+  }
+}
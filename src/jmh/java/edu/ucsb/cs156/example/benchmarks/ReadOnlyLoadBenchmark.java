@@ -0,0 +1,106 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+
+import org.hibernate.FlushMode;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading every row of a table in a transaction, the way
+ * {@code /api/helprequests/all} does, with Hibernate on an in-memory H2 database:
+ *
+ * <ul>
+ * <li>{@code managed}: entities loaded in a read-write transaction, which keeps a
+ * snapshot of each row and dirty checks every one of them when it commits;</li>
+ * <li>{@code readOnly}: entities loaded in a read-only session with manual flush,
+ * which is what {@code @Transactional(readOnly = true)} sets up, so no snapshots
+ * are kept;</li>
+ * <li>{@code projection}: a {@code select new} of a record with the same columns,
+ * which is not an entity at all.</li>
+ * </ul>
+ *
+ * Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm} (bytes per call)
+ * divided by {@code rows}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadOnlyLoadBenchmark {
+
+  /** The columns of a HelpRequest that the client sees */
+  public record HelpRequestRow(long id, String requesterEmail, String teamId, String tableOrBreakoutRoom,
+      LocalDateTime requestTime, String explanation, boolean solved, long version) {
+  }
+
+  static final String ENTITIES = "from helprequests order by id";
+
+  static final String PROJECTION = "select new " + HelpRequestRow.class.getName()
+      + "(id, requesterEmail, teamId, tableOrBreakoutRoom, requestTime, explanation, solved, version)"
+      + " from helprequests order by id";
+
+  @Param({ "100", "10000" })
+  int rows;
+
+  SessionFactory sessionFactory;
+
+  @Setup
+  public void setup() {
+    sessionFactory = new Configuration()
+        .addAnnotatedClass(HelpRequest.class)
+        .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:readonly;DB_CLOSE_DELAY=-1")
+        .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+        .setPhysicalNamingStrategy(new CamelCaseToUnderscoresNamingStrategy())
+        .buildSessionFactory();
+    sessionFactory.inTransaction(session -> session.doWork(connection -> {
+      try (Statement statement = connection.createStatement()) {
+        statement.execute("INSERT INTO helprequests"
+            + " (id, requester_email, team_id, table_or_breakout_room, request_time, explanation, solved, version)"
+            + " SELECT x, 'cgaucho@ucsb.edu', 's22-5pm-3', '7', TIMESTAMP '2024-10-17 12:00:00',"
+            + " 'Need help with Swagger-ui', FALSE, 0 FROM SYSTEM_RANGE(1, " + rows + ")");
+      }
+    }));
+  }
+
+  @TearDown
+  public void tearDown() {
+    sessionFactory.close();
+  }
+
+  @Benchmark
+  public List<HelpRequest> managed() {
+    return sessionFactory.fromTransaction(session ->
+        session.createSelectionQuery(ENTITIES, HelpRequest.class).getResultList());
+  }
+
+  @Benchmark
+  public List<HelpRequest> readOnly() {
+    return sessionFactory.fromTransaction(session -> {
+      session.setDefaultReadOnly(true);
+      session.setHibernateFlushMode(FlushMode.MANUAL);
+      return session.createSelectionQuery(ENTITIES, HelpRequest.class).getResultList();
+    });
+  }
+
+  @Benchmark
+  public List<HelpRequestRow> projection() {
+    return sessionFactory.fromTransaction(session ->
+        session.createSelectionQuery(PROJECTION, HelpRequestRow.class).getResultList());
+  }
+}
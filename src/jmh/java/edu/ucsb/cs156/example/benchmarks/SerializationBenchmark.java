@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.Articles;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Measures the Jackson serialization of the entity lists returned by the
+ * {@code /all} endpoints, with an ObjectMapper configured the way Spring Boot
+ * configures it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+  @Param({ "10", "1000" })
+  int rows;
+
+  ObjectMapper mapper;
+  List<HelpRequest> helpRequests;
+  List<MenuItemReview> menuItemReviews;
+  List<Articles> articles;
+  List<UCSBDiningCommonsMenuItem> menuItems;
+
+  @Setup
+  public void setup() {
+    mapper = Jackson2ObjectMapperBuilder.json().build();
+    LocalDateTime when = LocalDateTime.parse("2024-10-17T12:00:00");
+
+    helpRequests = LongStream.rangeClosed(1, rows).mapToObj(id -> HelpRequest.builder()
+        .id(id)
+        .requesterEmail("cgaucho@ucsb.edu")
+        .teamId("s22-5pm-3")
+        .tableOrBreakoutRoom("7")
+        .requestTime(when)
+        .explanation("Need help with Swagger-ui")
+        .solved(false)
+        .build()).toList();
+
+    menuItemReviews = LongStream.rangeClosed(1, rows).mapToObj(id -> MenuItemReview.builder()
+        .id(id)
+        .itemId(id % 20)
+        .reviewerEmail("cgaucho@ucsb.edu")
+        .stars(4)
+        .dateReviewed(when)
+        .comments("Pretty good, a little salty")
+        .build()).toList();
+
+    articles = LongStream.rangeClosed(1, rows).mapToObj(id -> Articles.builder()
+        .id(id)
+        .title("Using testing-playground with React Testing Library")
+        .url("https://dev.to/katieraby/using-testing-playground-with-react-testing-library-26j7")
+        .explanation("Helpful when we get to front end development")
+        .email("phtcon@ucsb.edu")
+        .dateAdded(when)
+        .build()).toList();
+
+    menuItems = LongStream.rangeClosed(1, rows).mapToObj(id -> UCSBDiningCommonsMenuItem.builder()
+        .id(id)
+        .diningCommonsCode("ortega")
+        .name("Baked Pesto Pasta with Chicken")
+        .station("Entree Specials")
+        .build()).toList();
+  }
+
+  @Benchmark
+  public byte[] helpRequests() throws Exception {
+    return mapper.writeValueAsBytes(helpRequests);
+  }
+
+  @Benchmark
+  public byte[] menuItemReviews() throws Exception {
+    return mapper.writeValueAsBytes(menuItemReviews);
+  }
+
+  @Benchmark
+  public byte[] articles() throws Exception {
+    return mapper.writeValueAsBytes(articles);
+  }
+
+  @Benchmark
+  public byte[] menuItems() throws Exception {
+    return mapper.writeValueAsBytes(menuItems);
+  }
+}
@@ -0,0 +1,151 @@
+package edu.ucsb.cs156.example.benchmarks;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares Tomcat's default pool of 200 platform threads with a virtual thread per
+ * request ({@code spring.threads.virtual.enabled=true}) for a burst of requests that
+ * each hold a Hikari connection through a query with simulated database latency
+ * ({@code dbLatencyMillis}), plus some latency outside the database (e.g. the
+ * frontend proxy or an OAuth call; {@code otherLatencyMillis}).
+ *
+ * The score is the time to finish the whole burst; {@code peakInFlight} is the most
+ * requests that were being handled at once.  With platform threads it cannot exceed
+ * the pool size; with virtual threads every request in the burst is accepted at
+ * once, and the Hikari pool ({@code poolSize}) becomes the limit on database work.
+ * (JMH sums {@code peakInFlight} over the iterations; the per-iteration value is
+ * the min/avg/max line.)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ThreadingBenchmark {
+
+  static final int TOMCAT_MAX_THREADS = 200;
+
+  @Param({"platform", "virtual"})
+  String threads;
+
+  @Param({"10", "50"})
+  int poolSize;
+
+  @Param({"2000"})
+  int requests;
+
+  @Param({"5"})
+  int dbLatencyMillis;
+
+  @Param({"20"})
+  int otherLatencyMillis;
+
+  HikariDataSource dataSource;
+  ExecutorService executor;
+
+  /**
+   * H2 calls this through the {@code SLEEP} alias, on the thread that runs the query.
+   * @param millis how long to sleep
+   * @return always 0
+   * @throws InterruptedException if interrupted
+   */
+  public static int sleep(int millis) throws InterruptedException {
+    Thread.sleep(millis);
+    return 0;
+  }
+
+  @Setup(Level.Trial)
+  public void setup() throws Exception {
+    HikariConfig config = new HikariConfig();
+    config.setJdbcUrl("jdbc:h2:mem:threading;DB_CLOSE_DELAY=-1");
+    config.setMaximumPoolSize(poolSize);
+    config.setMinimumIdle(poolSize);
+    config.setConnectionTimeout(TimeUnit.MINUTES.toMillis(1));
+    dataSource = new HikariDataSource(config);
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("CREATE ALIAS IF NOT EXISTS SLEEP FOR '" + ThreadingBenchmark.class.getName() + ".sleep'");
+    }
+    executor = threads.equals("virtual")
+        ? Executors.newVirtualThreadPerTaskExecutor()
+        : Executors.newFixedThreadPool(TOMCAT_MAX_THREADS);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    executor.close();
+    dataSource.close();
+  }
+
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class InFlight {
+    AtomicInteger current = new AtomicInteger();
+    AtomicInteger peak = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void reset() {
+      current.set(0);
+      peak.set(0);
+    }
+
+    public int peakInFlight() {
+      return peak.get();
+    }
+
+    void enter() {
+      peak.accumulateAndGet(current.incrementAndGet(), Math::max);
+    }
+
+    void exit() {
+      current.decrementAndGet();
+    }
+  }
+
+  private void handle(InFlight inFlight) throws Exception {
+    inFlight.enter();
+    try {
+      Thread.sleep(otherLatencyMillis);
+      try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+        statement.execute("SELECT SLEEP(" + dbLatencyMillis + ")");
+      }
+    } finally {
+      inFlight.exit();
+    }
+  }
+
+  @Benchmark
+  public int burst(InFlight inFlight) throws Exception {
+    List<Future<?>> futures = new ArrayList<>(requests);
+    for (int i = 0; i < requests; i++) {
+      futures.add(executor.submit(() -> {
+        handle(inFlight);
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+    return inFlight.peakInFlight();
+  }
+}
@@ -0,0 +1,123 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Drives mixed traffic from many synthetic users against a running instance of the
+ * application started with the wiremock profile ({@code WIREMOCK=true mvn spring-boot:run}),
+ * and writes a JSON report of throughput, latency percentiles and error rates.
+ *
+ * Options are given as {@code name=value} arguments:
+ * <ul>
+ * <li>{@code baseUrl} (default http://localhost:8080/)</li>
+ * <li>{@code users}: the number of synthetic users (default 1000)</li>
+ * <li>{@code admins}: how many of them are admins and so also create, update and delete (default 20)</li>
+ * <li>{@code concurrency}: the number of requests in flight at once (default 50)</li>
+ * <li>{@code duration}: how long to run, e.g. 60s or 5m (default 60s)</li>
+ * <li>{@code registration}: the OAuth2 client registration (default my-oauth-provider)</li>
+ * <li>{@code report}: where to write the report (default target/loadtest-report.json)</li>
+ * </ul>
+ */
+public class LoadTest {
+
+  public static void main(String[] args) throws Exception {
+    Map<String, String> options = Arrays.stream(args)
+        .map(arg -> arg.split("=", 2))
+        .collect(Collectors.toMap(nameValue -> nameValue[0], nameValue -> nameValue[1]));
+    URI baseUrl = URI.create(options.getOrDefault("baseUrl", "http://localhost:8080/"));
+    int users = Integer.parseInt(options.getOrDefault("users", "1000"));
+    int admins = Math.min(users, Integer.parseInt(options.getOrDefault("admins", "20")));
+    int concurrency = Math.min(users, Integer.parseInt(options.getOrDefault("concurrency", "50")));
+    Duration duration = Duration.parse("PT" + options.getOrDefault("duration", "60s"));
+    String registration = options.getOrDefault("registration", "my-oauth-provider");
+    Path reportPath = Path.of(options.getOrDefault("report", "target/loadtest-report.json"));
+
+    HttpClient client = HttpClient.newBuilder()
+        .followRedirects(HttpClient.Redirect.NEVER)
+        .connectTimeout(Duration.ofSeconds(10))
+        .build();
+    Stats stats = new Stats();
+    List<VirtualUser> pool = IntStream.range(0, users)
+        .mapToObj(n -> new VirtualUser(n, n < admins, client, baseUrl, stats))
+        .toList();
+
+    grantAdmin(pool.get(0), registration, admins);
+
+    Traffic traffic = new Traffic();
+    Instant startedAt = Instant.now();
+    long start = System.nanoTime();
+    long deadline = start + duration.toNanos();
+    try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int w = 0; w < concurrency; w++) {
+        int worker = w;
+        workers.submit(() -> {
+          Random random = new Random(worker);
+          int next = worker;
+          while (System.nanoTime() < deadline) {
+            VirtualUser user = pool.get(next);
+            next = next + concurrency < users ? next + concurrency : worker;
+            if (user.isLoggedIn() || user.login(registration)) {
+              traffic.step(user, random);
+            }
+          }
+        });
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+
+    LoadTestReport report = new LoadTestReport(startedAt, baseUrl.toString(), users, admins, concurrency,
+        seconds, stats.report(seconds));
+    ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+        .enable(SerializationFeature.INDENT_OUTPUT);
+    Files.createDirectories(reportPath.toAbsolutePath().getParent());
+    mapper.writeValue(reportPath.toFile(), report);
+
+    report.operations().forEach((name, operation) -> System.out.printf(
+        "%-50s %8d req %8.1f req/s  p50 %8.1f ms  p99 %8.1f ms  errors %6.2f%%%n",
+        name, operation.count(), operation.throughputPerSecond(), operation.p50Millis(),
+        operation.p99Millis(), operation.errorRate() * 100));
+    System.out.println("Report written to " + reportPath.toAbsolutePath());
+  }
+
+  /**
+   * Log in user 0 (an admin through app.admin.emails in the wiremock profile)
+   * and add the first {@code admins} synthetic users to the admin emails.
+   */
+  private static void grantAdmin(VirtualUser firstAdmin, String registration, int admins) throws Exception {
+    if (!firstAdmin.login(registration)) {
+      throw new IllegalStateException("Could not log in loadtest0@ucsb.edu; is the app running with the wiremock profile?");
+    }
+    HttpResponse<String> current = firstAdmin.call("GET /api/admin/adminemails", "GET", "/api/admin/adminemails", null);
+    if (current == null || current.statusCode() != 200) {
+      throw new IllegalStateException("loadtest0@ucsb.edu is not an admin; add it to app.admin.emails");
+    }
+    Set<String> emails = new LinkedHashSet<>(Arrays.asList(new ObjectMapper().readValue(current.body(), String[].class)));
+    IntStream.range(0, admins).forEach(n -> emails.add("loadtest%d@ucsb.edu".formatted(n)));
+    String query = emails.stream()
+        .map(email -> URLEncoder.encode(email, StandardCharsets.UTF_8))
+        .collect(Collectors.joining(","));
+    firstAdmin.call("PUT /api/admin/adminemails", "PUT", "/api/admin/adminemails?emails=" + query, null);
+  }
+}
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * The machine-readable result of a load test, written as JSON.
+ *
+ * @param startedAt when the run started
+ * @param baseUrl the application under test
+ * @param users the number of synthetic users
+ * @param admins how many of them were admins
+ * @param concurrency the number of requests in flight at once
+ * @param durationSeconds how long the traffic ran
+ * @param operations summaries by operation (e.g. "GET /api/articles/all"), plus "TOTAL"
+ */
+public record LoadTestReport(Instant startedAt, String baseUrl, int users, int admins, int concurrency,
+    double durationSeconds, Map<String, OperationReport> operations) {
+
+  /**
+   * The summary of one operation.
+   *
+   * @param count the number of requests
+   * @param errors the number of requests that failed (status 400 or above, or no response)
+   * @param errorRate errors / count
+   * @param throughputPerSecond count / duration
+   * @param p50Millis the median latency
+   * @param p90Millis the 90th percentile latency
+   * @param p99Millis the 99th percentile latency
+   * @param maxMillis the slowest request
+   * @param statuses the number of responses with each HTTP status (-1 for no response)
+   */
+  public record OperationReport(long count, long errors, double errorRate, double throughputPerSecond,
+      double p50Millis, double p90Millis, double p99Millis, double maxMillis, Map<Integer, Integer> statuses) {
+  }
+}
@@ -0,0 +1,92 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latencies, statuses and errors of the requests made during a load test,
+ * grouped by operation (e.g. "GET /api/articles/all").
+ */
+public class Stats {
+
+  /** The requests of one operation; latencies are kept in full so percentiles are exact. */
+  static class Operation {
+    private long[] latencies = new long[1024];
+    private int count;
+    private int errors;
+    private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+    synchronized void record(int status, boolean ok, long nanos) {
+      if (count == latencies.length) {
+        latencies = Arrays.copyOf(latencies, count * 2);
+      }
+      latencies[count++] = nanos;
+      if (!ok) {
+        errors++;
+      }
+      statuses.merge(status, 1, Integer::sum);
+    }
+
+    synchronized void addTo(Operation total) {
+      total.latencies = Arrays.copyOf(total.latencies, Math.max(total.latencies.length, total.count + count));
+      System.arraycopy(latencies, 0, total.latencies, total.count, count);
+      total.count += count;
+      total.errors += errors;
+      statuses.forEach((status, n) -> total.statuses.merge(status, n, Integer::sum));
+    }
+
+    synchronized LoadTestReport.OperationReport report(double seconds) {
+      long[] sorted = Arrays.copyOf(latencies, count);
+      Arrays.sort(sorted);
+      return new LoadTestReport.OperationReport(
+          count,
+          errors,
+          count == 0 ? 0 : (double) errors / count,
+          count / seconds,
+          millis(sorted, 0.50),
+          millis(sorted, 0.90),
+          millis(sorted, 0.99),
+          count == 0 ? 0 : sorted[count - 1] / 1e6,
+          Map.copyOf(statuses));
+    }
+
+    private static double millis(long[] sorted, double quantile) {
+      if (sorted.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(quantile * sorted.length) - 1;
+      return sorted[Math.max(index, 0)] / 1e6;
+    }
+  }
+
+  private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+  /**
+   * Record one request.
+   * @param operation the operation name
+   * @param status the HTTP status, or -1 if the request failed with an exception
+   * @param ok whether the request counts as a success
+   * @param nanos how long the request took
+   */
+  public void record(String operation, int status, boolean ok, long nanos) {
+    operations.computeIfAbsent(operation, name -> new Operation()).record(status, ok, nanos);
+  }
+
+  /**
+   * Summarize every operation, plus a "TOTAL" over all of them.
+   * @param seconds the length of the run, used to compute throughput
+   * @return the summaries, by operation name
+   */
+  public Map<String, LoadTestReport.OperationReport> report(double seconds) {
+    Map<String, LoadTestReport.OperationReport> result = new TreeMap<>();
+    Operation total = new Operation();
+    operations.forEach((name, operation) -> {
+      result.put(name, operation.report(seconds));
+      operation.addTo(total);
+    });
+    result.put("TOTAL", total.report(seconds));
+    return result;
+  }
+}
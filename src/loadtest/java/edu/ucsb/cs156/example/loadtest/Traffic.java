@@ -0,0 +1,90 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/**
+ * The mix of requests a synthetic user makes: mostly reads of the {@code /all}
+ * endpoints, some current user lookups, and (for admins) create / read / update /
+ * delete cycles on each table.
+ */
+public class Traffic {
+
+  /**
+   * A table with a long id and the usual {@code /all}, {@code /post}, {@code ?id=} endpoints.
+   *
+   * @param path the base path of the controller
+   * @param createQuery the query string for {@code POST /post}, given the number of the user
+   */
+  record Resource(String path, IntFunction<String> createQuery) {
+  }
+
+  private static final String WHEN = "2024-10-17T12:00:00";
+
+  static final List<Resource> RESOURCES = List.of(
+      new Resource("/api/articles", n -> "title=Load+test+%d&url=https://example.org/%d&explanation=load+test&email=loadtest%d@ucsb.edu&dateAdded=%s"
+          .formatted(n, n, n, WHEN)),
+      new Resource("/api/helprequests", n -> "requesterEmail=loadtest%d@ucsb.edu&teamId=f24-08&tableOrBreakoutRoom=7&requestTime=%s&explanation=load+test&solved=false"
+          .formatted(n, WHEN)),
+      new Resource("/api/menuitemreview", n -> "itemId=%d&reviewerEmail=loadtest%d@ucsb.edu&stars=4&comments=load+test&dateReviewed=%s"
+          .formatted(n % 20 + 1, n, WHEN)),
+      new Resource("/api/recommendationrequest", n -> "requesterEmail=loadtest%d@ucsb.edu&professorEmail=phtcon@ucsb.edu&explanation=load+test&dateRequested=%s&dateNeeded=%s&done=false"
+          .formatted(n, WHEN, WHEN)),
+      new Resource("/api/restaurants", n -> "name=Load+test+%d&description=load+test".formatted(n)),
+      new Resource("/api/ucsbdates", n -> "quarterYYYYQ=20244&name=load+test+%d&localDateTime=%s".formatted(n, WHEN)),
+      new Resource("/api/ucsbdiningcommonsmenuitem", n -> "diningCommonsCode=ortega&name=Load+test+%d&station=Entrees"
+          .formatted(n)));
+
+  static final List<String> REFERENCE_DATA = List.of("/api/ucsbdiningcommons", "/api/ucsborganization");
+
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  /**
+   * Make one request (or, for an admin, one create / read / update / delete cycle) as the given user.
+   * @param user a logged in user
+   * @param random the source of randomness of the calling worker
+   */
+  public void step(VirtualUser user, Random random) {
+    int dice = random.nextInt(100);
+    if (dice < 10) {
+      user.call("GET /api/currentUser", "GET", "/api/currentUser", null);
+    } else if (dice < 70 || !user.isAdmin()) {
+      String path = dice % 5 == 0
+          ? REFERENCE_DATA.get(random.nextInt(REFERENCE_DATA.size()))
+          : RESOURCES.get(random.nextInt(RESOURCES.size())).path();
+      user.call("GET " + path + "/all", "GET", path + "/all", null);
+    } else {
+      crud(user, RESOURCES.get(random.nextInt(RESOURCES.size())));
+    }
+  }
+
+  private void crud(VirtualUser user, Resource resource) {
+    String path = resource.path();
+    HttpResponse<String> created = user.call("POST " + path + "/post", "POST",
+        path + "/post?" + resource.createQuery().apply(user.getNumber()), null);
+    JsonNode body = json(created);
+    if (body == null || !body.hasNonNull("id")) {
+      return;
+    }
+    String byId = path + "?id=" + body.get("id").asLong();
+    user.call("GET " + path + "?id", "GET", byId, null);
+    user.call("PUT " + path + "?id", "PUT", byId, created.body());
+    user.call("DELETE " + path + "?id", "DELETE", byId, null);
+  }
+
+  private JsonNode json(HttpResponse<String> response) {
+    if (response == null || response.statusCode() != 200) {
+      return null;
+    }
+    try {
+      return mapper.readTree(response.body());
+    } catch (Exception e) {
+      return null;
+    }
+  }
+}
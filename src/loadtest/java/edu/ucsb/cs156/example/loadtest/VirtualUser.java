@@ -0,0 +1,156 @@
+package edu.ucsb.cs156.example.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * One synthetic user, with its own cookies (session and CSRF token), driving the
+ * application through the same filter chain a browser would.
+ *
+ * Users log in through the real OAuth2 authorization code flow; the WireMock
+ * stand-in (WiremockServiceImpl.setupLoadTestOauthMocks) accepts the code
+ * {@code loadtest-N} as user N.
+ */
+public class VirtualUser {
+
+  private final int number;
+  private final boolean admin;
+  private final HttpClient client;
+  private final URI baseUrl;
+  private final Stats stats;
+  private final Map<String, String> cookies = new ConcurrentHashMap<>();
+  private boolean loggedIn;
+
+  /**
+   * Create a user that is not yet logged in.
+   * @param number the number of the user (its email is loadtestN@ucsb.edu)
+   * @param admin whether the user is an admin
+   * @param client the HTTP client (shared by all users; it must not follow redirects)
+   * @param baseUrl the URL of the application
+   * @param stats where to record the outcome of each request
+   */
+  public VirtualUser(int number, boolean admin, HttpClient client, URI baseUrl, Stats stats) {
+    this.number = number;
+    this.admin = admin;
+    this.client = client;
+    this.baseUrl = baseUrl;
+    this.stats = stats;
+  }
+
+  public int getNumber() {
+    return number;
+  }
+
+  public boolean isAdmin() {
+    return admin;
+  }
+
+  public boolean isLoggedIn() {
+    return loggedIn;
+  }
+
+  /**
+   * Log in through the OAuth2 authorization code flow, then fetch the current
+   * user (which also hands out the CSRF cookie).
+   * @param registrationId the OAuth2 client registration (e.g. my-oauth-provider)
+   * @return whether the login succeeded
+   */
+  public boolean login(String registrationId) {
+    long start = System.nanoTime();
+    int status = -1;
+    try {
+      HttpResponse<String> authorize = send("GET", "/oauth2/authorization/" + registrationId, null);
+      status = authorize.statusCode();
+      Optional<String> state = authorize.headers().firstValue("Location").flatMap(VirtualUser::state);
+      if (status == 302 && state.isPresent()) {
+        HttpResponse<String> callback = send("GET", "/login/oauth2/code/%s?code=loadtest-%d&state=%s"
+            .formatted(registrationId, number, state.get()), null);
+        status = callback.statusCode();
+        String location = callback.headers().firstValue("Location").orElse("");
+        if (status == 302 && !location.contains("error")) {
+          HttpResponse<String> currentUser = send("GET", "/api/currentUser", null);
+          status = currentUser.statusCode();
+          loggedIn = status == 200;
+        }
+      }
+    } catch (IOException e) {
+      status = -1;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    stats.record("LOGIN", status, loggedIn, System.nanoTime() - start);
+    return loggedIn;
+  }
+
+  /**
+   * Send a request and record its latency and status under the given operation name.
+   * @param operation the name to record the request under (e.g. "GET /api/articles/all")
+   * @param method the HTTP method
+   * @param pathAndQuery the path (and query string) relative to the base URL
+   * @param jsonBody the JSON request body, or null
+   * @return the response, or null if the request failed with an exception
+   */
+  public HttpResponse<String> call(String operation, String method, String pathAndQuery, String jsonBody) {
+    long start = System.nanoTime();
+    try {
+      HttpResponse<String> response = send(method, pathAndQuery, jsonBody);
+      int status = response.statusCode();
+      stats.record(operation, status, status < 400, System.nanoTime() - start);
+      return response;
+    } catch (IOException e) {
+      stats.record(operation, -1, false, System.nanoTime() - start);
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  private HttpResponse<String> send(String method, String pathAndQuery, String jsonBody)
+      throws IOException, InterruptedException {
+    HttpRequest.Builder request = HttpRequest.newBuilder(baseUrl.resolve(pathAndQuery))
+        .method(method, jsonBody == null
+            ? HttpRequest.BodyPublishers.noBody()
+            : HttpRequest.BodyPublishers.ofString(jsonBody));
+    if (jsonBody != null) {
+      request.header("Content-Type", "application/json");
+    }
+    if (!cookies.isEmpty()) {
+      request.header("Cookie", cookies.entrySet().stream()
+          .map(cookie -> cookie.getKey() + "=" + cookie.getValue())
+          .collect(Collectors.joining("; ")));
+    }
+    String xsrf = cookies.get("XSRF-TOKEN");
+    if (xsrf != null && !method.equals("GET")) {
+      request.header("X-XSRF-TOKEN", xsrf);
+    }
+    HttpResponse<String> response = client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    for (String setCookie : response.headers().allValues("Set-Cookie")) {
+      String[] nameValue = setCookie.split(";", 2)[0].split("=", 2);
+      if (nameValue.length == 2) {
+        cookies.put(nameValue[0].trim(), nameValue[1].trim());
+      }
+    }
+    return response;
+  }
+
+  /** The (still URL-encoded) state parameter of the redirect to the authorization endpoint. */
+  private static Optional<String> state(String location) {
+    String query = URI.create(location).getRawQuery();
+    if (query == null) {
+      return Optional.empty();
+    }
+    return Arrays.stream(query.split("&"))
+        .filter(parameter -> parameter.startsWith("state="))
+        .map(parameter -> parameter.substring("state=".length()))
+        .findFirst();
+  }
+}
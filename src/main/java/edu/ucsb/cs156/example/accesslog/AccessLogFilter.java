@@ -0,0 +1,116 @@
+package edu.ucsb.cs156.example.accesslog;
+
+import edu.ucsb.cs156.example.controllers.FrontendProxyController;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.security.Principal;
+import java.util.Set;
+import java.util.function.IntSupplier;
+
+/**
+ * This filter records every request handled by a controller method (other than
+ * those in the stoplist) and hands the record to an {@link AccessLogWriter}.
+ *
+ * All the request thread does is read a few request attributes and queue one
+ * record; formatting and writing happen on the writer thread.  For asynchronous
+ * requests (e.g. streaming exports) the record is queued when the response completes,
+ * so that the status and duration are those of the whole response.
+ *
+ * When the handler throws, the status has not been set yet: Spring Security's
+ * {@code ExceptionTranslationFilter} or the error page sets it once the exception has
+ * passed this filter.  So the filter records the status they will send instead:
+ * 403 for an access denied or authentication failure (this application's entry
+ * point also answers 403), and 500 for anything else.
+ *
+ * It is registered to run inside the Spring Security filter chain (see AccessLogConfig),
+ * so that the authenticated principal is known.
+ */
+public class AccessLogFilter extends OncePerRequestFilter {
+
+  private static final Set<Class<?>> STOPLIST = Set.of(FrontendProxyController.class);
+
+  private final AccessLogWriter writer;
+
+  /**
+   * Create a filter that sends records to the given writer.
+   * @param writer the access log writer
+   */
+  public AccessLogFilter(AccessLogWriter writer) {
+    this.writer = writer;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    long timestamp = System.currentTimeMillis();
+    long start = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } catch (Throwable e) {
+      record(request, timestamp, start, () -> statusFor(e, response));
+      throw e;
+    }
+    record(request, timestamp, start, response::getStatus);
+  }
+
+  private static int statusFor(Throwable e, HttpServletResponse response) {
+    if (response.isCommitted()) {
+      return response.getStatus();
+    }
+    for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof AccessDeniedException || cause instanceof AuthenticationException) {
+        return HttpServletResponse.SC_FORBIDDEN;
+      }
+    }
+    return HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+  }
+
+  private void record(HttpServletRequest request, long timestamp, long start, IntSupplier status) {
+    if (!(request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler)
+        || STOPLIST.contains(handler.getBeanType())) {
+      return;
+    }
+    String method = request.getMethod();
+    String uriTemplate = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String handlerName = handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    Principal principal = request.getUserPrincipal();
+    String user = principal == null ? null : principal.getName();
+
+    if (request.isAsyncStarted()) {
+      request.getAsyncContext().addListener(new AsyncListener() {
+        @Override
+        public void onComplete(AsyncEvent event) {
+          writer.submit(new AccessLogRecord(timestamp, method, uriTemplate, handlerName, user,
+              status.getAsInt(), (System.nanoTime() - start) / 1000));
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+      });
+    } else {
+      writer.submit(new AccessLogRecord(timestamp, method, uriTemplate, handlerName, user,
+          status.getAsInt(), (System.nanoTime() - start) / 1000));
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package edu.ucsb.cs156.example.accesslog;
+
+/**
+ * This is a record of one request handled by a controller method, as written to
+ * the access log by {@link AccessLogWriter}.
+ *
+ * @param timestamp when the request started, in milliseconds since the epoch
+ * @param method the HTTP method
+ * @param uriTemplate the matched URI template (e.g. {@code /api/helprequests}), not the raw URI
+ * @param handler the controller method (e.g. {@code HelpRequestController.getById})
+ * @param user the name of the authenticated principal, or null if not logged in
+ * @param status the HTTP status of the response
+ * @param durationMicros how long the request took, in microseconds
+ */
+public record AccessLogRecord(long timestamp, String method, String uriTemplate, String handler,
+    String user, int status, long durationMicros) {
+}
@@ -0,0 +1,119 @@
+package edu.ucsb.cs156.example.accesslog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * This class takes access log records off the request threads and writes them
+ * from a single background thread.
+ *
+ * Records are handed over through a {@link RingBuffer}, so {@link #submit(AccessLogRecord)}
+ * costs one compare-and-set and never blocks.  The policy when the buffer is full is
+ * to drop the record: a request is never slowed down for the sake of its log line.
+ * Drops are counted (see {@link #getDroppedCount()}) and reported by the writer
+ * thread the next time it runs.
+ */
+@Slf4j
+public class AccessLogWriter {
+
+  private static final long IDLE_PARK_NANOS = Duration.ofMillis(20).toNanos();
+
+  private final RingBuffer<AccessLogRecord> buffer;
+  private final Consumer<AccessLogRecord> sink;
+  private final AtomicLong dropped = new AtomicLong();
+  private long reportedDropped;
+
+  private volatile boolean running;
+  private Thread thread;
+
+  /**
+   * Create a writer that writes each record to the log.
+   * @param capacity the number of records that may wait to be written; must be a power of two
+   */
+  public AccessLogWriter(int capacity) {
+    this(capacity, AccessLogWriter::log);
+  }
+
+  /**
+   * Create a writer that passes each record to the given sink.
+   * @param capacity the number of records that may wait to be written; must be a power of two
+   * @param sink called on the writer thread for each record
+   */
+  public AccessLogWriter(int capacity, Consumer<AccessLogRecord> sink) {
+    this.buffer = new RingBuffer<>(capacity);
+    this.sink = sink;
+  }
+
+  /**
+   * Queue a record to be written, or drop it if the queue is full.
+   * @param record the record
+   */
+  public void submit(AccessLogRecord record) {
+    if (!buffer.offer(record)) {
+      dropped.incrementAndGet();
+    }
+  }
+
+  /**
+   * @return the number of records dropped because the queue was full
+   */
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  /**
+   * Start the background writer thread.
+   */
+  public void start() {
+    running = true;
+    thread = Thread.ofPlatform().name("access-log-writer").daemon().start(this::run);
+  }
+
+  /**
+   * Stop the background writer thread, after it writes everything already queued.
+   * @throws InterruptedException if interrupted while waiting for the thread
+   */
+  public void stop() throws InterruptedException {
+    running = false;
+    LockSupport.unpark(thread);
+    thread.join();
+  }
+
+  private void run() {
+    while (running) {
+      if (drain() == 0) {
+        LockSupport.parkNanos(IDLE_PARK_NANOS);
+      }
+    }
+    drain();
+  }
+
+  /**
+   * Write every queued record, and report any drops since the last call.
+   * Must only be called from one thread at a time.
+   * @return the number of records written
+   */
+  int drain() {
+    int written = 0;
+    for (AccessLogRecord record = buffer.poll(); record != null; record = buffer.poll()) {
+      sink.accept(record);
+      written++;
+    }
+    long droppedNow = dropped.get();
+    if (droppedNow != reportedDropped) {
+      log.warn("Access log buffer full: dropped {} records", droppedNow - reportedDropped);
+      reportedDropped = droppedNow;
+    }
+    return written;
+  }
+
+  private static void log(AccessLogRecord record) {
+    log.info("method={} uri={} handler={} user={} status={} durationMicros={}",
+        record.method(), record.uriTemplate(), record.handler(), record.user(),
+        record.status(), record.durationMicros());
+  }
+}
@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.accesslog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * This is a bounded, lock-free queue for many producers and a single consumer.
+ *
+ * Each slot has a sequence number saying whose turn it is: a producer may fill slot
+ * {@code i} for position {@code p} once its sequence is {@code p}, and the consumer
+ * may empty it once its sequence is {@code p + 1}.  Producers claim positions with a
+ * compare-and-set on the tail, so {@link #offer(Object)} never blocks; when the
+ * buffer is full it returns false and leaves the choice of policy to the caller.
+ *
+ * @param <E> the type of the elements
+ */
+public class RingBuffer<E> {
+
+  private final int mask;
+  private final AtomicReferenceArray<E> elements;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+
+  /** Only ever read or written by the consumer thread. */
+  private long head;
+
+  /**
+   * Create an empty ring buffer.
+   * @param capacity the number of slots; must be a power of two
+   */
+  public RingBuffer(int capacity) {
+    if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("capacity must be a power of two, but was " + capacity);
+    }
+    mask = capacity - 1;
+    elements = new AtomicReferenceArray<>(capacity);
+    sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  /**
+   * Add an element, if there is room.  Safe to call from any number of threads.
+   * @param element the element to add
+   * @return true if the element was added, false if the buffer was full
+   */
+  public boolean offer(E element) {
+    while (true) {
+      long position = readTail();
+      int index = (int) (position & mask);
+      long sequence = sequences.get(index);
+      if (sequence < position) {
+        return false;
+      }
+      if (sequence == position && claim(position)) {
+        elements.set(index, element);
+        sequences.set(index, position + 1);
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Read the next position for a producer to claim.  Package-private so tests can stand
+   * in for a producer whose read was overtaken by another producer.
+   * @return the tail position
+   */
+  long readTail() {
+    return tail.get();
+  }
+
+  /**
+   * Claim a position for the calling producer.
+   * @param position the position the producer read from the tail
+   * @return true if the tail was still at that position and now belongs to the caller
+   */
+  boolean claim(long position) {
+    return tail.compareAndSet(position, position + 1);
+  }
+
+  /**
+   * Remove the oldest element.  Must only be called from the single consumer thread.
+   * @return the oldest element, or null if the buffer is empty
+   */
+  public E poll() {
+    int index = (int) (head & mask);
+    if (sequences.get(index) != head + 1) {
+      return null;
+    }
+    E element = elements.get(index);
+    elements.set(index, null);
+    sequences.set(index, head + mask + 1);
+    head++;
+    return element;
+  }
+
+  /**
+   * @return the number of slots
+   */
+  public int capacity() {
+    return mask + 1;
+  }
+}
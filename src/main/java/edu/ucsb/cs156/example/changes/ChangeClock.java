@@ -0,0 +1,37 @@
+package edu.ucsb.cs156.example.changes;
+
+import org.hibernate.dialect.Dialect;
+
+/**
+ * This class holds the SQL for the change clock: the one row of CHANGE_CLOCK,
+ * which says how far the numbering of changes has committed.
+ *
+ * A transaction that changed tracked rows numbers its changes as it commits (see
+ * {@link PendingChanges}): it locks the clock, takes a number from
+ * {@value ChangeSequence#SEQUENCE} for each change, and finally sets the clock to
+ * one more number.  The lock is held until the commit, so transactions number their
+ * changes in the order they commit, and every change numbered below the clock has
+ * committed.  The change feed reads the clock first and serves nothing at or above it.
+ */
+public final class ChangeClock {
+
+  /** Name of the table (created in db/migration/ChangeTracking.json) */
+  public static final String TABLE = "CHANGE_CLOCK";
+
+  /** Query for the clock: every change numbered below it has committed */
+  public static final String READ_SQL = "select VERSION from " + TABLE + " where ID = 1";
+
+  /** Statement that locks the clock until the end of the transaction, without changing it */
+  static final String LOCK_SQL = "update " + TABLE + " set VERSION = VERSION where ID = 1";
+
+  private ChangeClock() {
+  }
+
+  /**
+   * @param dialect the dialect of the database
+   * @return a statement that moves the clock past every number taken so far
+   */
+  static String advanceSql(Dialect dialect) {
+    return "update " + TABLE + " set VERSION = " + ChangeSequence.nextValueSql(dialect) + " where ID = 1";
+  }
+}
@@ -0,0 +1,64 @@
+package edu.ucsb.cs156.example.changes;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This Hibernate listener records each insert, update and delete of a
+ * {@link ChangeTracked} row, so that the change is numbered, and a deleted row gets
+ * its tombstone, when the transaction commits (see {@link PendingChanges}).  It is
+ * registered by ChangeTrackingConfig.
+ *
+ * Deletes that bypass Hibernate's entity events (e.g. bulk JPQL statements) must
+ * record their own, with {@link #recordDeletions}.
+ */
+public class ChangeRecorder implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+  @Override
+  public void onPostInsert(PostInsertEvent event) {
+    if (event.getEntity() instanceof ChangeTracked) {
+      PendingChanges.of(event.getSession()).written(event.getPersister(), event.getId());
+    }
+  }
+
+  @Override
+  public void onPostUpdate(PostUpdateEvent event) {
+    if (event.getEntity() instanceof ChangeTracked) {
+      PendingChanges.of(event.getSession()).written(event.getPersister(), event.getId());
+    }
+  }
+
+  @Override
+  public void onPostDelete(PostDeleteEvent event) {
+    if (event.getEntity() instanceof ChangeTracked) {
+      SharedSessionContractImplementor session = event.getSession();
+      recordDeletions(session, session.getFactory().getJpaMetamodel().entity(event.getEntity().getClass()).getName(),
+          List.of(event.getId()));
+    }
+  }
+
+  /**
+   * Record the deletion of rows of a tracked entity; their tombstones are inserted
+   * when the session's transaction commits.  For deletes that bypass the entity events.
+   * @param session the session that deleted the rows
+   * @param entityType the JPA entity name of the rows
+   * @param ids the ids of the deleted rows
+   */
+  public static void recordDeletions(SharedSessionContractImplementor session, String entityType, Collection<?> ids) {
+    PendingChanges.of(session).deleted(entityType, ids);
+  }
+
+  @Override
+  public boolean requiresPostCommitHandling(EntityPersister persister) {
+    return false;
+  }
+}
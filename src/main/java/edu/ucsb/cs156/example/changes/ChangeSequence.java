@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.changes;
+
+import org.hibernate.dialect.Dialect;
+
+/**
+ * This class names the sequence that numbers every change to the tracked tables.
+ *
+ * Values are taken as the transaction that made the changes commits, while it holds
+ * the {@link ChangeClock}; unlike the pooled id sequences, this keeps the numbers in
+ * the order the changes became visible, which is the order the change feed serves
+ * them in.
+ */
+public final class ChangeSequence {
+
+  /** Name of the sequence (created in db/migration/ChangeTracking.json) */
+  public static final String SEQUENCE = "CHANGE_SEQ";
+
+  private ChangeSequence() {
+  }
+
+  /**
+   * @param dialect the dialect of the database
+   * @return a SQL expression for the next value of the sequence
+   */
+  public static String nextValueSql(Dialect dialect) {
+    return dialect.getSequenceSupport().getSelectSequenceNextValString(SEQUENCE);
+  }
+}
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.changes;
+
+import java.time.LocalDateTime;
+
+/**
+ * This interface is implemented by the entities whose changes are served by the
+ * {@code /api/changes} delta-sync feed (see ChangeFeedService).
+ *
+ * Each row carries the change version of its last insert or update, taken from a
+ * sequence shared by every tracked table (see {@link ChangeVersion}), and the time
+ * of that change.  Deletes leave a Tombstone behind (see {@link ChangeRecorder}).
+ */
+public interface ChangeTracked {
+
+  /**
+   * @return the change version of the last insert or update of this row
+   */
+  Long getChangeVersion();
+
+  /**
+   * @return the time of the last insert or update of this row
+   */
+  LocalDateTime getUpdatedAt();
+}
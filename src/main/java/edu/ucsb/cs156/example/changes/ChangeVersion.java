@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.changes;
+
+import org.hibernate.annotations.ValueGenerationType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * This annotation marks the field that holds a row's change version: each time the
+ * row is inserted or updated, the column is set to the next value of
+ * {@value ChangeSequence#SEQUENCE} as the transaction commits (see ChangeRecorder).
+ *
+ * The column is written as null and numbered afterwards, and the new number is not
+ * read back, so after a write the field is null until the row is read again from
+ * the database.
+ */
+@ValueGenerationType(generatedBy = ChangeVersionGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface ChangeVersion {
+}
@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.changes;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.util.EnumSet;
+
+/**
+ * This is the Hibernate generator behind {@link ChangeVersion}.  It runs only when
+ * a row is actually written, so an entity that is saved unchanged keeps its version.
+ *
+ * It clears the field rather than numbering the change itself: the change is
+ * numbered when the transaction commits (see {@link ChangeClock}), so that numbers
+ * follow commit order rather than the order of the writes.
+ */
+public class ChangeVersionGenerator implements BeforeExecutionGenerator {
+
+  @Override
+  public EnumSet<EventType> getEventTypes() {
+    return EventTypeSets.INSERT_AND_UPDATE;
+  }
+
+  @Override
+  public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+      EventType eventType) {
+    return null;
+  }
+}
@@ -0,0 +1,135 @@
+package edu.ucsb.cs156.example.changes;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class collects the changes one transaction makes to the tracked tables, and
+ * numbers them as the transaction commits.
+ *
+ * It is registered with the session's action queue by {@link #of} the first time the
+ * transaction changes a tracked row, and runs after Hibernate's last flush, on the
+ * transaction's own connection.  It locks the {@link ChangeClock}, sets the change
+ * version of each inserted or updated row, inserts a tombstone for each deleted row,
+ * and moves the clock on.  Every transaction that changed tracked rows therefore
+ * waits for the previous one to commit before numbering its own changes.  That
+ * costs one short step per commit, and it is what lets the change feed's cursor
+ * follow commit order.
+ */
+final class PendingChanges implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+  /** The property behind {@link ChangeTracked#getChangeVersion()} */
+  static final String CHANGE_VERSION_PROPERTY = "changeVersion";
+
+  static final String TOMBSTONE_SQL =
+      "insert into TOMBSTONES (CHANGE_VERSION, ENTITY_TYPE, ENTITY_ID, DELETED_AT) values (%s, ?, ?, ?)";
+
+  private static final Map<SharedSessionContractImplementor, PendingChanges> BY_SESSION = new ConcurrentHashMap<>();
+
+  private final Map<EntityPersister, Set<Object>> written = new LinkedHashMap<>();
+  private final Map<String, Set<Object>> deleted = new LinkedHashMap<>();
+
+  private interface Binder<T> {
+    void bind(PreparedStatement statement, T value) throws SQLException;
+  }
+
+  /**
+   * @param session the session of the transaction
+   * @return the changes of the session's current transaction
+   */
+  static PendingChanges of(SharedSessionContractImplementor session) {
+    return BY_SESSION.computeIfAbsent(session, s -> {
+      PendingChanges pending = new PendingChanges();
+      ActionQueue actionQueue = s.asEventSource().getActionQueue();
+      actionQueue.registerProcess((BeforeTransactionCompletionProcess) pending);
+      actionQueue.registerProcess((AfterTransactionCompletionProcess) pending);
+      return pending;
+    });
+  }
+
+  /**
+   * Record that a row was inserted or updated.
+   * @param persister the persister of the row's entity
+   * @param id the id of the row
+   */
+  void written(EntityPersister persister, Object id) {
+    written.computeIfAbsent(persister, p -> new LinkedHashSet<>()).add(id);
+  }
+
+  /**
+   * Record that rows were deleted.
+   * @param entityType the JPA entity name of the rows
+   * @param ids the ids of the rows
+   */
+  void deleted(String entityType, Collection<?> ids) {
+    deleted.computeIfAbsent(entityType, t -> new LinkedHashSet<>()).addAll(ids);
+  }
+
+  @Override
+  public void doBeforeTransactionCompletion(SessionImplementor session) {
+    Dialect dialect = session.getJdbcServices().getDialect();
+    String nextValue = ChangeSequence.nextValueSql(dialect);
+
+    execute(session, ChangeClock.LOCK_SQL, List.of(ChangeClock.TABLE), (statement, table) -> { });
+    written.forEach((persister, ids) -> {
+      AbstractEntityPersister entity = (AbstractEntityPersister) persister;
+      String sql = "update %s set %s = %s where %s = ?".formatted(entity.getIdentifierTableName(),
+          entity.getPropertyColumnNames(CHANGE_VERSION_PROPERTY)[0], nextValue,
+          entity.getIdentifierColumnNames()[0]);
+      execute(session, sql, ids, (statement, id) -> statement.setObject(1, id));
+    });
+    Timestamp deletedAt = Timestamp.valueOf(LocalDateTime.now());
+    deleted.forEach((entityType, ids) -> execute(session, TOMBSTONE_SQL.formatted(nextValue), ids,
+        (statement, id) -> {
+          statement.setString(1, entityType);
+          statement.setString(2, String.valueOf(id));
+          statement.setTimestamp(3, deletedAt);
+        }));
+    execute(session, ChangeClock.advanceSql(dialect), List.of(ChangeClock.TABLE), (statement, table) -> { });
+  }
+
+  @Override
+  public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+    BY_SESSION.remove(session);
+  }
+
+  /**
+   * Run a statement once per value, as one JDBC batch on the session's connection.
+   */
+  private static <T> void execute(SharedSessionContractImplementor session, String sql, Collection<T> values,
+      Binder<T> binder) {
+    JdbcCoordinator jdbc = session.getJdbcCoordinator();
+    PreparedStatement statement = jdbc.getStatementPreparer().prepareStatement(sql);
+    try {
+      for (T value : values) {
+        binder.bind(statement, value);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    } catch (SQLException e) {
+      throw session.getJdbcServices().getSqlExceptionHelper().convert(e, "could not number changes", sql);
+    } finally {
+      jdbc.getLogicalConnection().getResourceRegistry().release(statement);
+      jdbc.afterStatementExecution();
+    }
+  }
+}
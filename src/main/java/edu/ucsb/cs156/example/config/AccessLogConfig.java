@@ -0,0 +1,39 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.accesslog.AccessLogFilter;
+import edu.ucsb.cs156.example.accesslog.AccessLogWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The `AccessLogConfig` class sets up the access log: an {@link AccessLogWriter}
+ * with its background thread, and an {@link AccessLogFilter} that runs just inside
+ * the Spring Security filter chain.  Records dropped because the writer fell behind
+ * are counted in the {@code accesslog.dropped} metric.
+ */
+@Configuration
+public class AccessLogConfig {
+
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  public AccessLogWriter accessLogWriter(@Value("${app.accesslog.capacity}") int capacity,
+      MeterRegistry meterRegistry) {
+    AccessLogWriter writer = new AccessLogWriter(capacity);
+    FunctionCounter.builder("accesslog.dropped", writer, AccessLogWriter::getDroppedCount)
+        .description("Access log records dropped because the buffer was full")
+        .register(meterRegistry);
+    return writer;
+  }
+
+  @Bean
+  public FilterRegistrationBean<AccessLogFilter> accessLogFilter(AccessLogWriter accessLogWriter) {
+    FilterRegistrationBean<AccessLogFilter> registration = new FilterRegistrationBean<>(new AccessLogFilter(accessLogWriter));
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+    return registration;
+  }
+}
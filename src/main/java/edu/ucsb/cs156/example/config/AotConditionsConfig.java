@@ -0,0 +1,49 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.diagnostics.VirtualThreadPinningMonitor;
+import edu.ucsb.cs156.example.replica.ReplicaLagMonitor;
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * The `AotConditionsConfig` class stops the application at startup when a config var
+ * that switches beans on or off has a different value than it had at build time.
+ *
+ * With Spring AOT (the {@code cds} profile, used by the Dockerfile) the conditions on
+ * {@link ThreadingConfig} and {@link ReplicaDataSourceConfig} are evaluated once, at
+ * build time, and not again at startup; so setting {@code VIRTUAL_THREADS} or
+ * {@code REPLICA_JDBC_DATABASE_URL} only at run time would silently be ignored.
+ * Without AOT the conditions are evaluated at startup and this check always passes.
+ */
+@Configuration
+public class AotConditionsConfig {
+
+  @Autowired
+  Environment environment;
+
+  @Autowired
+  ListableBeanFactory beanFactory;
+
+  @PostConstruct
+  public void checkConditions() {
+    check("VIRTUAL_THREADS (spring.threads.virtual.enabled)",
+        Threading.VIRTUAL.isActive(environment), VirtualThreadPinningMonitor.class);
+    check("REPLICA_JDBC_DATABASE_URL (app.datasource.replica.url)",
+        !environment.getProperty("app.datasource.replica.url", "").isEmpty(), ReplicaLagMonitor.class);
+  }
+
+  private void check(String setting, boolean enabled, Class<?> beanType) {
+    boolean built = beanFactory.getBeanNamesForType(beanType, true, false).length > 0;
+    if (enabled != built) {
+      throw new IllegalStateException(String.format(
+          "%s is %s at run time but was %s when the application was built with Spring AOT; "
+              + "rebuild with the same setting (e.g. docker build --build-arg)",
+          setting, enabled ? "on" : "off", built ? "on" : "off"));
+    }
+  }
+}
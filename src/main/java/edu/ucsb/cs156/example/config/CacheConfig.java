@@ -0,0 +1,80 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBOrgs;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrgsRepository;
+import edu.ucsb.cs156.example.services.DiningCommonsLocator;
+import edu.ucsb.cs156.example.services.ReferenceDataCacheService;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.util.Streamable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * The `CacheConfig` class turns on Spring's cache abstraction, and preloads the
+ * reference data caches served by {@link ReferenceDataCacheService}, along with the
+ * spatial index of dining commons ({@link DiningCommonsLocator}).
+ *
+ * The cache provider (Caffeine), the cache names and their size/TTL bounds are
+ * set by the spring.cache.* properties in application.properties.
+ */
+@Slf4j
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+  @Autowired
+  CacheManager cacheManager;
+
+  @Autowired
+  DiningCommonsLocator diningCommonsLocator;
+
+  @Autowired
+  ReferenceDataCacheService referenceDataCache;
+
+  @Autowired
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired
+  UCSBOrgsRepository ucsbOrgsRepository;
+
+  @Autowired
+  PlatformTransactionManager transactionManager;
+
+  /**
+   * Load the dining commons and organizations tables into their caches once the
+   * application is up, so the first requests do not go to the database.  This runs
+   * in a read-write transaction, which always uses the primary (see ReplicaRouting),
+   * so nothing is cached from a read replica that is behind.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void preloadReferenceData() {
+    new TransactionTemplate(transactionManager).executeWithoutResult(status -> preload());
+  }
+
+  private void preload() {
+    Cache commonsCache = cacheManager.getCache(ReferenceDataCacheService.DINING_COMMONS_CACHE);
+    List<UCSBDiningCommons> commons = Streamable.of(ucsbDiningCommonsRepository.findAll()).toList();
+    commonsCache.put(referenceDataCache.diningCommonsKey(ReferenceDataCacheService.ALL_KEY), commons);
+    commons.forEach(c -> commonsCache.put(referenceDataCache.diningCommonsKey(c.getCode()), c));
+    diningCommonsLocator.load(commons);
+
+    Cache orgsCache = cacheManager.getCache(ReferenceDataCacheService.ORGS_CACHE);
+    List<UCSBOrgs> orgs = Streamable.of(ucsbOrgsRepository.findAll()).toList();
+    orgsCache.put(referenceDataCache.orgKey(ReferenceDataCacheService.ALL_KEY), orgs);
+    orgs.forEach(o -> orgsCache.put(referenceDataCache.orgKey(o.getOrgCode()), o));
+
+    log.info("preloaded {} dining commons and {} organizations", commons.size(), orgs.size());
+  }
+}
@@ -0,0 +1,34 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.changes.ChangeRecorder;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The `ChangeTrackingConfig` class registers {@link ChangeRecorder} with Hibernate,
+ * so that every entity insert, update and delete of a tracked row is numbered for the
+ * change feed, and every delete leaves a tombstone.
+ */
+@Configuration
+public class ChangeTrackingConfig {
+
+  @Autowired
+  EntityManagerFactory entityManagerFactory;
+
+  @PostConstruct
+  public void registerListeners() {
+    EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class);
+    ChangeRecorder recorder = new ChangeRecorder();
+    registry.appendListeners(EventType.POST_INSERT, recorder);
+    registry.appendListeners(EventType.POST_UPDATE, recorder);
+    registry.appendListeners(EventType.POST_DELETE, recorder);
+  }
+}
@@ -0,0 +1,133 @@
+package edu.ucsb.cs156.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.http.CacheControl;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The `FrontendAssetsConfig` class serves the production build of the frontend
+ * (copied to {@code classpath:/public} by the production profile in pom.xml).
+ *
+ * <ul>
+ * <li>Files under {@code /static} have a content hash in their names, so they are
+ * cached for a year and marked immutable.</li>
+ * <li>Other files, in particular {@code index.html} (which FrontendController forwards
+ * to), must be revalidated on every use, so a new deployment is picked up at once.</li>
+ * <li>If the browser accepts it, the brotli ({@code .br}) or gzip ({@code .gz}) copy
+ * made by the frontend build is sent instead, with {@code Vary: Accept-Encoding}.</li>
+ * <li>When running from a jar, the files are first copied to a temporary directory,
+ * so that Tomcat can send them with sendfile (see
+ * {@link SendfileResourceHttpMessageConverter}).</li>
+ * </ul>
+ */
+@Slf4j
+@Profile("!development")
+@Configuration
+public class FrontendAssetsConfig {
+
+  private static final String ASSETS = "public/";
+
+  private Path extractedAssets;
+
+  @Bean
+  public ResourceHttpRequestHandler hashedAssetHandler() throws IOException {
+    return assetHandler("static/", CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable());
+  }
+
+  @Bean
+  public ResourceHttpRequestHandler topLevelAssetHandler() throws IOException {
+    return assetHandler("", CacheControl.noCache());
+  }
+
+  /**
+   * Maps the frontend files ahead of Spring Boot's default static resource mapping,
+   * which would serve them uncompressed and without a caching policy.
+   */
+  @Bean
+  public SimpleUrlHandlerMapping frontendAssetHandlerMapping(ResourceHttpRequestHandler hashedAssetHandler,
+      ResourceHttpRequestHandler topLevelAssetHandler) {
+    return new SimpleUrlHandlerMapping(
+        Map.of("/static/**", hashedAssetHandler, "/*.*", topLevelAssetHandler),
+        Ordered.LOWEST_PRECEDENCE - 2);
+  }
+
+  @PreDestroy
+  void deleteExtractedAssets() throws IOException {
+    if (extractedAssets != null) {
+      FileSystemUtils.deleteRecursively(extractedAssets);
+    }
+  }
+
+  private ResourceHttpRequestHandler assetHandler(String path, CacheControl cacheControl) throws IOException {
+    List<String> locations = new ArrayList<>();
+    Path extracted = extractedAssets();
+    if (extracted != null) {
+      locations.add(extracted.resolve(path).toUri().toString());
+    }
+    locations.add("classpath:/" + ASSETS + path);
+
+    ResourceHttpRequestHandler handler = new ResourceHttpRequestHandler();
+    handler.setLocationValues(locations);
+    handler.setResourceResolvers(List.of(new EncodedResourceResolver(), new PathResourceResolver()));
+    handler.setCacheControl(cacheControl);
+    handler.setResourceHttpMessageConverter(new SendfileResourceHttpMessageConverter());
+    return handler;
+  }
+
+  /**
+   * Copy the frontend files out of the jar, if they are in one.
+   * @return the directory they were copied to, or null if they are already files
+   */
+  private synchronized Path extractedAssets() throws IOException {
+    if (extractedAssets != null) {
+      return extractedAssets;
+    }
+    PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+    Resource index = resolver.getResource("classpath:/" + ASSETS + "index.html");
+    if (!index.exists() || index.isFile()) {
+      return null;
+    }
+    Path directory = Files.createTempDirectory("frontend");
+    int count = 0;
+    for (Resource resource : resolver.getResources("classpath:/" + ASSETS + "**/*")) {
+      String url = resource.getURL().toString();
+      if (url.endsWith("/") || !resource.isReadable()) {
+        continue;
+      }
+      Path target = directory.resolve(url.substring(url.indexOf("!/" + ASSETS) + ASSETS.length() + 2));
+      Files.createDirectories(target.getParent());
+      try (InputStream in = resource.getInputStream()) {
+        Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+      }
+      Files.setLastModifiedTime(target, FileTime.fromMillis(resource.lastModified()));
+      count++;
+    }
+    log.info("Copied {} frontend files to {}", count, directory);
+    extractedAssets = directory;
+    return directory;
+  }
+}
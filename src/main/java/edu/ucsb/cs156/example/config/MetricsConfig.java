@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.example.config;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.http.server.observation.ServerRequestObservationConvention;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * The `MetricsConfig` class adds a {@code handler} tag (e.g.
+ * {@code HelpRequestController.allHelpRequests}) to the {@code http.server.requests}
+ * timer, so that the latency, throughput and status code of each controller method
+ * can be read straight off {@code /actuator/prometheus}.
+ */
+@Configuration
+public class MetricsConfig {
+
+  @Bean
+  public ServerRequestObservationConvention handlerTaggingObservationConvention() {
+    return new DefaultServerRequestObservationConvention() {
+      @Override
+      public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(handler(context.getCarrier()));
+      }
+    };
+  }
+
+  private static KeyValue handler(HttpServletRequest request) {
+    if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handlerMethod) {
+      return KeyValue.of("handler",
+          handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+    }
+    return KeyValue.of("handler", "none");
+  }
+}
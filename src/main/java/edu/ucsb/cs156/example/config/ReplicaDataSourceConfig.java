@@ -0,0 +1,77 @@
+package edu.ucsb.cs156.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import edu.ucsb.cs156.example.replica.ReplicaLagMonitor;
+import edu.ucsb.cs156.example.replica.ReplicaRouting;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * The `ReplicaDataSourceConfig` class adds a read replica when
+ * {@code app.datasource.replica.url} (the {@code REPLICA_JDBC_DATABASE_URL} config
+ * var) is set; otherwise Spring Boot sets up the single {@code spring.datasource}
+ * as usual.
+ *
+ * The primary ({@code spring.datasource.*}) and the replica
+ * ({@code app.datasource.replica.*}) each get their own Hikari pool, named
+ * {@code primary} and {@code replica}, so the {@code hikaricp.connections.*}
+ * metrics are reported per pool.  The application's DataSource routes between
+ * them; see {@link ReplicaRouting}.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isEmpty()")
+public class ReplicaDataSourceConfig {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    primary.setPoolName("primary");
+    return primary;
+  }
+
+  @Bean
+  @ConfigurationProperties("app.datasource.replica.hikari")
+  public HikariDataSource replicaDataSource(@Value("${app.datasource.replica.url}") String url,
+      @Value("${app.datasource.replica.username}") String username,
+      @Value("${app.datasource.replica.password}") String password) {
+    HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class)
+        .url(url)
+        .username(username)
+        .password(password)
+        .build();
+    replica.setPoolName("replica");
+    replica.setReadOnly(true);
+    // start even if the replica is down; the lag monitor keeps reads on the primary until it is back
+    replica.setInitializationFailTimeout(-1);
+    return replica;
+  }
+
+  @Bean(initMethod = "check")
+  public ReplicaLagMonitor replicaLagMonitor(@Qualifier("replicaDataSource") DataSource replica,
+      @Value("${app.datasource.replica.lag-query}") String lagQuery,
+      @Value("${app.datasource.replica.max-lag}") Duration maxLag, MeterRegistry meterRegistry) {
+    return new ReplicaLagMonitor(replica, lagQuery, maxLag, meterRegistry);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary,
+      @Qualifier("replicaDataSource") DataSource replica, ReplicaLagMonitor replicaLagMonitor,
+      @Value("${app.datasource.replica.sticky-for}") Duration stickyFor, MeterRegistry meterRegistry) {
+    return new ReplicaRouting(primary, replica, replicaLagMonitor, stickyFor, meterRegistry).dataSource();
+  }
+}
@@ -0,0 +1,83 @@
+package edu.ucsb.cs156.example.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+
+import edu.ucsb.cs156.example.entities.CacheRegions;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * The `SecondLevelCacheConfig` class turns on Hibernate's second-level cache and
+ * query cache for the read-mostly tables (see {@link CacheRegions}), backed by
+ * Caffeine through JCache.
+ *
+ * Hibernate keeps the regions up to date when rows are written through it; the
+ * expiry only bounds how stale an entry can get after a change made directly in
+ * the database.  Hit/miss statistics for each region are at
+ * {@code /api/admin/caches/hibernate}.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+  record Region(String name, long maximumSize, Duration expireAfterWrite) {
+  }
+
+  static final List<Region> REGIONS = List.of(
+      new Region(CacheRegions.UCSB_DATES, 10_000, Duration.ofHours(1)),
+      new Region(CacheRegions.UCSB_DATES_QUERIES, 1_000, Duration.ofMinutes(10)),
+      new Region(CacheRegions.UCSB_DINING_COMMONS, 1_000, Duration.ofHours(1)),
+      new Region(CacheRegions.UCSB_DINING_COMMONS_QUERIES, 100, Duration.ofMinutes(10)),
+      new Region(CacheRegions.UCSB_DINING_COMMONS_MENU_ITEMS, 10_000, Duration.ofHours(1)),
+      new Region(CacheRegions.UCSB_DINING_COMMONS_MENU_ITEMS_QUERIES, 1_000, Duration.ofMinutes(10)),
+      new Region(CacheRegions.UCSB_ORGS, 5_000, Duration.ofHours(1)),
+      new Region(CacheRegions.UCSB_ORGS_QUERIES, 100, Duration.ofMinutes(10)),
+      new Region(CacheRegions.RESTAURANTS, 5_000, Duration.ofHours(1)),
+      new Region(CacheRegions.RESTAURANTS_QUERIES, 100, Duration.ofMinutes(10)),
+      new Region(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, 1_000, Duration.ofMinutes(10)));
+
+  /**
+   * Each application context gets its own cache manager, so that test contexts
+   * cached side by side do not share regions.
+   */
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager() {
+    CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+        .getCacheManager(URI.create("hibernate-" + UUID.randomUUID()), getClass().getClassLoader());
+    for (Region region : REGIONS) {
+      cacheManager.createCache(region.name(), new CaffeineConfiguration<>()
+          .setMaximumSize(OptionalLong.of(region.maximumSize()))
+          .setExpireAfterWrite(OptionalLong.of(region.expireAfterWrite().toNanos()))
+          .setNativeStatisticsEnabled(true));
+    }
+    // Must be neither bounded nor expired, or cached query results could outlive a write
+    cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+        new CaffeineConfiguration<>().setNativeStatisticsEnabled(true));
+    return cacheManager;
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+    return properties -> {
+      properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+      properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+      properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+      properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+      properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+    };
+  }
+}
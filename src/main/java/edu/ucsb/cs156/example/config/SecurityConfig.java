@@ -1,14 +1,12 @@
 package edu.ucsb.cs156.example.config;
 
-import edu.ucsb.cs156.example.entities.User;
-import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.AdminRoleService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.Customizer;
@@ -40,11 +38,8 @@ import static org.springframework.security.web.util.matcher.AntPathRequestMatche
 
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -59,11 +54,8 @@ import java.util.function.Supplier;
 @Slf4j
 public class SecurityConfig {
 
-  @Value("${app.admin.emails}")
-  private final List<String> adminEmails = new ArrayList<>();
-
   @Autowired
-  UserRepository userRepository;
+  AdminRoleService adminRoleService;
 
   /**
    * The `filterChain` method in this Java code configures various security
@@ -85,7 +77,9 @@ public class SecurityConfig {
             .csrfTokenRepository(CookieCsrfTokenRepository.withHttpOnlyFalse())
             .csrfTokenRequestHandler(new SpaCsrfTokenRequestHandler()))
         .addFilterAfter(new CsrfCookieFilter(), BasicAuthenticationFilter.class)
-        .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+        .authorizeHttpRequests(auth -> auth
+            .requestMatchers(antMatcher("/actuator/prometheus")).hasRole("ADMIN")
+            .anyRequest().permitAll())
         .logout(logout -> logout.logoutRequestMatcher(new AntPathRequestMatcher("/logout")).logoutSuccessUrl("/"));
     return http.build();
   }
@@ -133,17 +127,13 @@ public class SecurityConfig {
   /**
    * This method checks if the given email belongs to an admin user either from a
    * predefined
-   * list or by querying the user repository.
+   * list or by querying the user repository (see AdminRoleService).
    * 
    * @param email email address of the user
    * @return whether the user with the given email is an admin
    */
   public boolean getAdmin(String email) {
-    if (adminEmails.contains(email)) {
-      return true;
-    }
-    Optional<User> u = userRepository.findByEmail(email);
-    return u.isPresent() && u.get().getAdmin();
+    return adminRoleService.isAdmin(email);
   }
 }
 
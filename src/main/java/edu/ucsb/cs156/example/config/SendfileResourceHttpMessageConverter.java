@@ -0,0 +1,50 @@
+package edu.ucsb.cs156.example.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.ResourceHttpMessageConverter;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * The `SendfileResourceHttpMessageConverter` writes a resource that is a file on disk
+ * by asking Tomcat to send it with {@code sendfile}, so that the kernel copies the
+ * file straight to the socket instead of it being read into and written out of the
+ * JVM.
+ *
+ * Anything else (e.g. a resource inside a jar, or a request in MockMvc, where the
+ * connector does not support sendfile) is copied as usual.
+ */
+public class SendfileResourceHttpMessageConverter extends ResourceHttpMessageConverter {
+
+  static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+  static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+  static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+  static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+  @Override
+  protected void writeContent(Resource resource, HttpOutputMessage outputMessage) throws IOException {
+    HttpServletRequest request = currentRequest();
+    if (request != null && resource.isFile() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+      // Content-Length is already set; Tomcat sends the file once the response is committed
+      File file = resource.getFile();
+      request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+      request.setAttribute(SENDFILE_START, 0L);
+      request.setAttribute(SENDFILE_END, file.length());
+      return;
+    }
+    super.writeContent(resource, outputMessage);
+  }
+
+  private static HttpServletRequest currentRequest() {
+    if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+      return attributes.getRequest();
+    }
+    return null;
+  }
+}
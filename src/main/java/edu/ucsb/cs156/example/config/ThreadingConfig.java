@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.diagnostics.VirtualThreadPinningMonitor;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.time.Duration;
+
+/**
+ * The `ThreadingConfig` class turns on {@code @Async} and {@code @Scheduled} methods.
+ *
+ * Which threads run them, and which threads Tomcat runs requests on, is chosen by
+ * {@code spring.threads.virtual.enabled} (the {@code VIRTUAL_THREADS} config var):
+ * a pool of platform threads by default, or a new virtual thread per task when true.
+ * In virtual thread mode a {@link VirtualThreadPinningMonitor} also reports any
+ * virtual thread that blocks while pinned to its carrier thread.
+ */
+@Configuration
+@EnableAsync
+@EnableScheduling
+public class ThreadingConfig {
+
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  @ConditionalOnThreading(Threading.VIRTUAL)
+  public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+      @Value("${app.virtualthreads.pinned-threshold}") Duration threshold, MeterRegistry meterRegistry) {
+    return new VirtualThreadPinningMonitor(threshold, meterRegistry);
+  }
+}
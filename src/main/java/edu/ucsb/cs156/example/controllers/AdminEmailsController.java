@@ -0,0 +1,64 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.services.AdminRoleService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+/**
+ * This is a REST controller for viewing and replacing the list of admin emails
+ * without restarting the application.
+ *
+ * These endpoints are only accessible to users with the role "ROLE_ADMIN".
+ */
+
+@Tag(name="Admin emails (admin only)")
+@RequestMapping("/api/admin/adminemails")
+@RestController
+public class AdminEmailsController extends ApiController {
+    @Autowired
+    AdminRoleService adminRoleService;
+
+    /**
+     * This method returns the current list of admin emails.  Accessible only to users with the role "ROLE_ADMIN".
+     * @return the admin emails, sorted
+     */
+    @Operation(summary= "Get the list of admin emails")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public List<String> adminEmails() {
+        return adminRoleService.getAdminEmails().stream().sorted().toList();
+    }
+
+    /**
+     * This method replaces the list of admin emails, on every instance of the application and across restarts.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     * Users taken off the list are no longer admins in the users table either.
+     * The change applies to logins from now on; users already logged in keep their roles until they log in again.
+     * @param emails the new list of admin emails
+     * @return the new admin emails, sorted
+     * @throws ResponseStatusException with status 400 if the list is empty, which would leave no admins
+     */
+    @Operation(summary= "Replace the list of admin emails")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PutMapping("")
+    public List<String> reloadAdminEmails(
+            @Parameter(name="emails") @RequestParam List<String> emails) {
+        if (emails.stream().allMatch(String::isBlank)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "at least one admin email is required");
+        }
+        return adminRoleService.reloadAdminEmails(emails).stream().sorted().toList();
+    }
+}
@@ -1,14 +1,22 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.changes.ChangeTracked;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 
 import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.TableVersionService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 
@@ -18,9 +26,17 @@ import java.util.Map;
 
 @Slf4j
 public abstract class ApiController {
+  /**
+   * Largest page size accepted by the keyset (cursor) paginated listing endpoints.
+   */
+  public static final int MAX_PAGE_SIZE = 1000;
+
   @Autowired
   private CurrentUserService currentUserService;
 
+  @Autowired
+  private TableVersionService tableVersionService;
+
   /**
    * This method returns the current user.
    * @return the current user
@@ -38,6 +54,85 @@ public abstract class ApiController {
     return Map.of("message", message);
   }
 
+  /**
+   * This method converts the requested page size of a keyset paginated listing
+   * into a query limit, clamped to between 1 and {@link #MAX_PAGE_SIZE}.
+   * @param limit the requested page size
+   * @return the limit to pass to the repository
+   */
+  protected Limit pageLimit(int limit) {
+    return Limit.of(Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+  }
+
+  /**
+   * This method handles a conditional GET against the current version of a table.
+   *
+   * It sets the ETag header of the response; if the client's If-None-Match shows
+   * it already has this version, it also sets the status to 304 and the handler
+   * should return null straight away, without loading or serializing anything.
+   *
+   * The handler must be {@code @Transactional(readOnly = true)}, so that the version
+   * is read on the same connection as the response, and before it: a response is
+   * then never older than its ETag, even when it is read from a replica that is
+   * behind the primary (see ReplicaRouting); the replica just gives an older ETag.
+   * @param webRequest the current request
+   * @param entityClass the entity class mapped to the table the response is built from
+   * @return true if the client's copy is up to date
+   */
+  protected boolean notModified(WebRequest webRequest, Class<? extends ChangeTracked> entityClass) {
+    return webRequest.checkNotModified(tableVersionService.eTag(entityClass));
+  }
+
+  /**
+   * This method handles a conditional update (If-Match) of a single row.
+   *
+   * The ETag of a row is its version (the {@code version} property of its JSON),
+   * which goes up by one each time the row is updated.  If the client's If-Match
+   * shows it last saw another version, this sets the status to 412 and the handler
+   * should return null straight away, without writing anything; an update without
+   * If-Match is not checked.
+   * @param webRequest the current request
+   * @param version the version of the row as it is now
+   * @return true if the client's copy is out of date
+   */
+  protected boolean preconditionFailed(WebRequest webRequest, long version) {
+    return webRequest.checkNotModified(rowETag(version));
+  }
+
+  /**
+   * This method sets the ETag header of the response to the version of a row,
+   * for the client to send back as If-Match with its next update.
+   * @param <T> the type of the row
+   * @param webRequest the current request
+   * @param row the row, as it is after the update
+   * @param version the version of the row
+   * @return the row
+   */
+  protected <T> T withRowETag(WebRequest webRequest, T row, long version) {
+    ((NativeWebRequest) webRequest).getNativeResponse(HttpServletResponse.class)
+        .setHeader(HttpHeaders.ETAG, rowETag(version));
+    return row;
+  }
+
+  private static String rowETag(long version) {
+    return "\"" + version + "\"";
+  }
+
+  /**
+   * This method handles an update that lost a race with another update of the
+   * same row (the row's version changed between reading and writing it).
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({ OptimisticLockingFailureException.class })
+  @ResponseStatus(HttpStatus.CONFLICT)
+  public Object handleConcurrentUpdate(OptimisticLockingFailureException e) {
+    return Map.of(
+      "type", e.getClass().getSimpleName(),
+      "message", "The row was changed by someone else; reload it and try again"
+    );
+  }
+
   /**
    * This method handles the EntityNotFoundException.
    * @param e the exception
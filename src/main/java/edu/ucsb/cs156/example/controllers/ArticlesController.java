@@ -3,7 +3,9 @@ package edu.ucsb.cs156.example.controllers;
 import java.time.LocalDateTime;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,14 +14,22 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import edu.ucsb.cs156.example.entities.Articles;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.ArticlesView;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.SearchPage;
 import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import edu.ucsb.cs156.example.services.ArticlesViewService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,6 +37,8 @@ import lombok.extern.slf4j.Slf4j;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+
 @Tag(name = "Articles")
 @RequestMapping("/api/articles")
 @RestController
@@ -35,22 +47,80 @@ public class ArticlesController extends ApiController {
     @Autowired
     ArticlesRepository articlesRepository;
 
+    @Autowired
+    ArticlesViewService articlesViews;
+
+    @Autowired
+    RowDeleteService rowDeletes;
+
     @Operation(summary = "List all articles")
     @GetMapping("/all")
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('ROLE_USER')")
+    public Iterable<ArticlesView> allArticles(WebRequest webRequest) {
+        if (notModified(webRequest, Articles.class)) {
+            return null;
+        }
+        return articlesViews.allArticles();
+    }
+
+    /**
+     * List articles one page at a time, in id order
+     * @param after the id of the last article on the previous page (the nextCursor), or 0 for the first page
+     * @param limit the maximum number of articles to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of articles and the cursor for the next page
+     */
+    @Operation(summary= "List articles one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<Articles> pageOfArticles(
+            @Parameter(name="after") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<Articles> page = articlesRepository.findByIdGreaterThanOrderByIdAsc(after, pageLimit);
+        return KeysetPage.of(page, pageLimit.max(), Articles::getId);
+    }
+
+    /**
+     * Search the title and explanation of articles, best matches first
+     * @param q the words to search for; an article must contain all of them
+     * @param page the page of results to return, starting from 0 (the nextPage of the previous page)
+     * @param size the maximum number of articles per page (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of matching articles and the number of the next page
+     * @throws ResponseStatusException with status 400 if the page lies beyond the largest offset
+     */
+    @Operation(summary = "Search articles by keyword")
     @PreAuthorize("hasRole('ROLE_USER')")
-    public Iterable<Articles> allArticles() {
-        Iterable<Articles> article = articlesRepository.findAll();
-        return article;
+    @GetMapping("/search")
+    public SearchPage<Articles> searchArticles(
+            @Parameter(name = "q") @RequestParam String q,
+            @Parameter(name = "page") @RequestParam(defaultValue = "0") int page,
+            @Parameter(name = "size") @RequestParam(defaultValue = "20") int size) {
+        int pageSize = pageLimit(size).max();
+        int pageNumber = Math.max(page, 0);
+        int offset;
+        try {
+            // the end of the page must fit in an int, so that the offset and nextPage do too
+            offset = Math.multiplyExact(Math.addExact(pageNumber, 1), pageSize) - pageSize;
+        } catch (ArithmeticException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "page is too large");
+        }
+        List<Articles> rows = articlesRepository.search(q, offset, pageSize + 1);
+        return SearchPage.of(rows, pageNumber, pageSize);
     }
 
     @Operation(summary = "Get a single article")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public Articles getById(
-            @Parameter(name = "id") @RequestParam Long id) {
-        Articles article = articlesRepository.findById(id)
+    @Transactional(readOnly = true)
+    public ArticlesView getById(
+            @Parameter(name = "id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (notModified(webRequest, Articles.class)) {
+            return null;
+        }
+        return articlesViews.findArticle(id)
                 .orElseThrow(() -> new EntityNotFoundException(Articles.class, id));
-        return article;
     }
 
     @Operation(summary = "Create a new article")
@@ -90,18 +160,35 @@ public class ArticlesController extends ApiController {
     @DeleteMapping("")
     public Object deleteArticle(
             @Parameter(name = "id") @RequestParam Long id) {
-        Articles article = articlesRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Articles.class, id));
-
-        articlesRepository.delete(article);
+        if (!rowDeletes.deleteById(Articles.class, id)) {
+            throw new EntityNotFoundException(Articles.class, id);
+        }
         return genericMessage("Article with id %s deleted".formatted(id));
     }
 
+    /**
+     * Delete many articles at once, e.g. to clean up after a quarter.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are deleted in a single transaction, many per statement;
+     * ids that do not exist are skipped.
+     * @param ids the ids of the articles to delete
+     * @return the ids of the articles that were deleted
+     */
+    @Operation(summary= "Delete many articles at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk-delete")
+    public List<Long> deleteArticlesBulk(
+            @RequestBody List<Long> ids) {
+        return rowDeletes.deleteAllById(Articles.class, ids);
+    }
+
     /**
      * Update a single date
      * 
      * @param id       id of the date to update
      * @param incoming the new date
+     * @param webRequest the request, for its If-Match header
      * @return the updated date object
      */
     @Operation(summary = "Update a single article")
@@ -109,10 +196,15 @@ public class ArticlesController extends ApiController {
     @PutMapping("")
     public Articles updateaArticles(
             @Parameter(name = "id") @RequestParam Long id,
-            @RequestBody @Valid Articles incoming) {
+            @RequestBody @Valid Articles incoming,
+            WebRequest webRequest) {
 
         Articles article = articlesRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Articles.class, id));
+        if (preconditionFailed(webRequest, article.getVersion())) {
+            return null;
+        }
+        Articles unchanged = article.toBuilder().build();
 
         article.setTitle(incoming.getTitle()); // private String title;
         article.setUrl(incoming.getUrl()); // private String url;
@@ -120,8 +212,10 @@ public class ArticlesController extends ApiController {
         article.setEmail(incoming.getEmail()); // private String email;
         article.setDateAdded(incoming.getDateAdded()); // private LocalDateTime dateAdded;
 
-        articlesRepository.save(article);
+        if (!article.equals(unchanged)) {
+            article = articlesRepository.save(article);
+        }
 
-        return article;
+        return withRowETag(webRequest, article, article.getVersion());
     }
 }
@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.controllers;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This is a REST controller for getting statistics about the application's caches:
+ * the Spring caches (see CacheConfig) and the Hibernate second-level cache regions
+ * (see SecondLevelCacheConfig).
+ *
+ * These endpoints are only accessible to users with the role "ROLE_ADMIN".
+ */
+
+@Tag(name="Cache statistics (admin only)")
+@RequestMapping("/api/admin/caches")
+@RestController
+public class CachesController extends ApiController {
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    javax.cache.CacheManager hibernateCacheManager;
+
+    /**
+     * This method returns the hit/miss statistics of every cache.  Accessible only to users with the role "ROLE_ADMIN".
+     * @return a list of statistics, one per cache
+     */
+    @Operation(summary= "Get hit/miss statistics for each cache")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("")
+    public List<CacheStatistics> caches() {
+        List<CacheStatistics> result = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            if (cacheManager.getCache(name) instanceof CaffeineCache caffeineCache) {
+                result.add(statistics(name, caffeineCache.getNativeCache()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This method returns the hit/miss statistics of each Hibernate second-level cache region
+     * (entities and query results).  Accessible only to users with the role "ROLE_ADMIN".
+     * @return a list of statistics, one per region, sorted by name
+     */
+    @Operation(summary= "Get hit/miss statistics for each Hibernate second-level cache region")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping("/hibernate")
+    public List<CacheStatistics> hibernateRegions() {
+        List<CacheStatistics> result = new ArrayList<>();
+        for (String name : hibernateCacheManager.getCacheNames()) {
+            result.add(statistics(name, hibernateCacheManager.getCache(name).unwrap(Cache.class)));
+        }
+        result.sort(Comparator.comparing(CacheStatistics::getName));
+        return result;
+    }
+
+    private static CacheStatistics statistics(String name, Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return CacheStatistics.builder()
+                .name(name)
+                .size(cache.estimatedSize())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .build();
+    }
+}
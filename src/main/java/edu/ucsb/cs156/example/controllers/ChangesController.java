@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.ChangeFeedPage;
+import edu.ucsb.cs156.example.services.ChangeFeedService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller for the delta-sync change feed: a client that keeps
+ * local copies of the tables asks for the changes after the last cursor it saw,
+ * instead of reloading every table.
+ */
+
+@Tag(name = "Changes")
+@RequestMapping("/api/changes")
+@RestController
+public class ChangesController extends ApiController {
+
+    @Autowired
+    ChangeFeedService changeFeed;
+
+    /**
+     * List the inserts, updates and deletes across all tracked tables after a cursor, oldest first
+     * @param since the cursor returned with the previous page, or 0 to start from the beginning
+     * @param limit the maximum number of changes to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of changes and the cursor for the next request
+     */
+    @Operation(summary = "List changes to all tables since a cursor")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("")
+    public ChangeFeedPage changesSince(
+            @Parameter(name = "since") @RequestParam(defaultValue = "0") long since,
+            @Parameter(name = "limit") @RequestParam(defaultValue = "100") int limit) {
+        return changeFeed.changesSince(since, pageLimit(limit).max());
+    }
+}
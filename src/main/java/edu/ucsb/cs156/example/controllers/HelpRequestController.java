@@ -3,8 +3,15 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.HelpRequest;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.HelpRequestChange;
+import edu.ucsb.cs156.example.models.HelpRequestView;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.services.HelpRequestExportService;
+import edu.ucsb.cs156.example.services.HelpRequestFeedService;
+import edu.ucsb.cs156.example.services.HelpRequestViewService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -15,7 +22,11 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.jknack.handlebars.HelperRegistry;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -25,10 +36,15 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * This is a REST controller for HelpRequest
@@ -43,32 +59,117 @@ public class HelpRequestController extends ApiController {
     @Autowired
     HelpRequestRepository helpRequestRepository; 
 
+    @Autowired
+    HelpRequestViewService helpRequestViews;
+
+    @Autowired
+    RowDeleteService rowDeletes;
+
+    @Autowired
+    HelpRequestExportService helpRequestExportService;
+
+    @Autowired
+    HelpRequestFeedService helpRequestFeed;
+
     /**
-     * List all help requests
+     * List all help requests, optionally filtered on the server.
+     * With no filters this returns the whole table, as before.
+     * @param solved only help requests with this solved status
+     * @param teamId only help requests from this team
+     * @param tableOrBreakoutRoom only help requests from this table or breakout room
+     * @param requestTimeFrom only help requests submitted at or after this time
+     * @param requestTimeTo only help requests submitted before this time
+     * @param webRequest the request, for its conditional GET headers
      * @return an iterable of help requests
      */
     @Operation(summary= "List all help requests")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<HelpRequest> allHelpRequests() {
-        Iterable<HelpRequest> help_requests = helpRequestRepository.findAll();
-        return help_requests;
+    @Transactional(readOnly = true)
+    public Iterable<HelpRequestView> allHelpRequests(
+            @Parameter(name="solved") @RequestParam(required = false) Boolean solved,
+            @Parameter(name="teamId") @RequestParam(required = false) String teamId,
+            @Parameter(name="tableOrBreakoutRoom") @RequestParam(required = false) String tableOrBreakoutRoom,
+            @Parameter(name="requestTimeFrom", description="date (in iso format, e.g. YYYY-mm-ddTHH:MM:SS; see https://en.wikipedia.org/wiki/ISO_8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime requestTimeFrom,
+            @Parameter(name="requestTimeTo", description="date (in iso format, e.g. YYYY-mm-ddTHH:MM:SS; see https://en.wikipedia.org/wiki/ISO_8601)") @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime requestTimeTo,
+            WebRequest webRequest) {
+        if (notModified(webRequest, HelpRequest.class)) {
+            return null;
+        }
+        if (solved == null && teamId == null && tableOrBreakoutRoom == null
+                && requestTimeFrom == null && requestTimeTo == null) {
+            return helpRequestViews.allHelpRequests();
+        }
+        return helpRequestViews.matchingHelpRequests(
+                solved, teamId, tableOrBreakoutRoom, requestTimeFrom, requestTimeTo);
+    }
+
+    /**
+     * List help requests one page at a time, in id order
+     * @param after the id of the last help request on the previous page (the nextCursor), or 0 for the first page
+     * @param limit the maximum number of help requests to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of help requests and the cursor for the next page
+     */
+    @Operation(summary= "List help requests one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<HelpRequest> pageOfHelpRequests(
+            @Parameter(name="after") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<HelpRequest> page = helpRequestRepository.findByIdGreaterThanOrderByIdAsc(after, pageLimit);
+        return KeysetPage.of(page, pageLimit.max(), HelpRequest::getId);
+    }
+
+    /**
+     * Export all help requests as newline-delimited JSON (one object per line).
+     * Rows are streamed from the database as they are written, so the response
+     * starts immediately and memory use does not depend on the size of the table.
+     * @return a streaming response of help requests
+     */
+    @Operation(summary= "Export all help requests as newline-delimited JSON")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportHelpRequests() {
+        StreamingResponseBody body = out -> helpRequestExportService.writeNdjson(out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"helprequests.ndjson\"")
+                .body(body);
+    }
+
+    /**
+     * Follow changes to the help requests as they happen, as Server-Sent Events.
+     * Each event is named created, updated or deleted, and carries the change as JSON;
+     * a comment is sent periodically as a heartbeat.  Subscribe before loading
+     * /api/helprequests/all, so that no change is missed in between.
+     * @return the event stream
+     */
+    @Operation(summary= "Follow changes to the help requests as Server-Sent Events")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/feed", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter helpRequestFeed() {
+        return helpRequestFeed.subscribe();
     }
 
     /**
      * Get a single request by id
      * @param id the id of the help request
+     * @param webRequest the request, for its conditional GET headers
      * @return a HelpRequest
      */
     @Operation(summary= "Get a single help request")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public HelpRequest getById(
-            @Parameter(name="id") @RequestParam Long id) {
-        HelpRequest helpRequest = helpRequestRepository.findById(id)
+    @Transactional(readOnly = true)
+    public HelpRequestView getById(
+            @Parameter(name="id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (notModified(webRequest, HelpRequest.class)) {
+            return null;
+        }
+        return helpRequestViews.findHelpRequest(id)
                 .orElseThrow(() -> new EntityNotFoundException(HelpRequest.class, id));
-
-        return helpRequest;
     }
 
      /**
@@ -106,10 +207,31 @@ public class HelpRequestController extends ApiController {
         helpRequest.setSolved(solved);
 
         helpRequestRepository.save(helpRequest);
+        helpRequestFeed.publish(HelpRequestChange.created(helpRequest));
 
         return helpRequest; 
     }
 
+    /**
+     * Create many help requests at once, e.g. to load a whole quarter's worth of data.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are inserted in a single transaction, as JDBC batches; any ids
+     * in the request are ignored.
+     * @param incoming the help requests to create
+     * @return the saved help requests, with their ids
+     */
+    @Operation(summary= "Create many help requests at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<HelpRequest> postHelpRequestsBulk(
+            @RequestBody List<HelpRequest> incoming) {
+        incoming.forEach(helpRequest -> helpRequest.setId(0));
+        Iterable<HelpRequest> saved = helpRequestRepository.saveAll(incoming);
+        saved.forEach(helpRequest -> helpRequestFeed.publish(HelpRequestChange.created(helpRequest)));
+        return saved;
+    }
+
      /**
      * Delete a HelpRequest
      * @param id the id of the helprequest to delete
@@ -120,17 +242,37 @@ public class HelpRequestController extends ApiController {
     @DeleteMapping("")
     public Object deleteHelpRequest(
             @Parameter(name="id") @RequestParam Long id) {
-        HelpRequest helpRequest = helpRequestRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(HelpRequest.class, id));
-
-        helpRequestRepository.delete(helpRequest);
+        if (!rowDeletes.deleteById(HelpRequest.class, id)) {
+            throw new EntityNotFoundException(HelpRequest.class, id);
+        }
+        helpRequestFeed.publish(HelpRequestChange.deleted(id));
         return genericMessage("HelpRequest with id %s deleted".formatted(id));
     }
 
+    /**
+     * Delete many help requests at once, e.g. to clean up after a quarter.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are deleted in a single transaction, many per statement;
+     * ids that do not exist are skipped.
+     * @param ids the ids of the help requests to delete
+     * @return the ids of the help requests that were deleted
+     */
+    @Operation(summary= "Delete many help requests at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk-delete")
+    public List<Long> deleteHelpRequestsBulk(
+            @RequestBody List<Long> ids) {
+        List<Long> deleted = rowDeletes.deleteAllById(HelpRequest.class, ids);
+        deleted.forEach(id -> helpRequestFeed.publish(HelpRequestChange.deleted(id)));
+        return deleted;
+    }
+
     /**
      * Update a single help request
      * @param id       id of the help request
      * @param incoming the new help request
+     * @param webRequest the request, for its If-Match header
      * @return the updated helpreuqest object
      */
     @Operation(summary= "Update a single help request")
@@ -138,10 +280,15 @@ public class HelpRequestController extends ApiController {
     @PutMapping("")
     public HelpRequest updateHelpRequest(
             @Parameter(name="id") @RequestParam Long id,
-            @RequestBody @Valid HelpRequest incoming) {
+            @RequestBody @Valid HelpRequest incoming,
+            WebRequest webRequest) {
 
         HelpRequest helpRequest = helpRequestRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(HelpRequest.class, id));
+        if (preconditionFailed(webRequest, helpRequest.getVersion())) {
+            return null;
+        }
+        HelpRequest unchanged = helpRequest.toBuilder().build();
 
         helpRequest.setExplanation(incoming.getExplanation());
         helpRequest.setRequestTime(incoming.getRequestTime());
@@ -150,9 +297,12 @@ public class HelpRequestController extends ApiController {
         helpRequest.setTableOrBreakoutRoom(incoming.getTableOrBreakoutRoom()); 
         helpRequest.setTeamId(incoming.getTeamId()); 
 
-        helpRequestRepository.save(helpRequest);
+        if (!helpRequest.equals(unchanged)) {
+            helpRequest = helpRequestRepository.save(helpRequest);
+            helpRequestFeed.publish(HelpRequestChange.updated(helpRequest));
+        }
 
-        return helpRequest;
+        return withRowETag(webRequest, helpRequest, helpRequest.getVersion());
     }
 
 
@@ -1,8 +1,13 @@
 package edu.ucsb.cs156.example.controllers;
 
+import edu.ucsb.cs156.example.entities.MenuItemRating;
 import edu.ucsb.cs156.example.entities.MenuItemReview;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.MenuItemReviewView;
 import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.services.MenuItemRatingService;
+import edu.ucsb.cs156.example.services.MenuItemReviewViewService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,8 +17,11 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -22,10 +30,14 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
+import jakarta.persistence.EntityManager;
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Tag(name = "MenuItemReview")
 @RequestMapping("/api/menuitemreview")
@@ -35,29 +47,77 @@ public class MenuItemReviewController  extends ApiController {
     @Autowired
     MenuItemReviewRepository menuItemReviewRepository;
 
+    @Autowired
+    MenuItemReviewViewService menuItemReviewViews;
+
+    @Autowired
+    MenuItemRatingService menuItemRatingService;
+
+    @Autowired
+    EntityManager entityManager;
+
     @Operation(summary= "List all menu item reviews")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<MenuItemReview> allMenuItemReviews() {
-        Iterable<MenuItemReview> reviews = menuItemReviewRepository.findAll();
-        return reviews;
+    @Transactional(readOnly = true)
+    public Iterable<MenuItemReviewView> allMenuItemReviews(WebRequest webRequest) {
+        if (notModified(webRequest, MenuItemReview.class)) {
+            return null;
+        }
+        return menuItemReviewViews.allMenuItemReviews();
+    }
+
+    /**
+     * List menu item reviews one page at a time, in id order
+     * @param after the id of the last menu item review on the previous page (the nextCursor), or 0 for the first page
+     * @param limit the maximum number of menu item reviews to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of menu item reviews and the cursor for the next page
+     */
+    @Operation(summary= "List menu item reviews one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<MenuItemReview> pageOfMenuItemReviews(
+            @Parameter(name="after") @RequestParam(defaultValue = "0") Long after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<MenuItemReview> page = menuItemReviewRepository.findByIdGreaterThanOrderByIdAsc(after, pageLimit);
+        return KeysetPage.of(page, pageLimit.max(), MenuItemReview::getId);
+    }
+
+    /**
+     * Get the rating totals for a menu item: review count, total stars,
+     * average and the number of 1 to 5 star reviews
+     * 
+     * @param itemId the id of the menu item
+     * @return the MenuItemRating for the item (all zero if it has no reviews)
+     */
+    @Operation(summary= "Get rating statistics for a menu item")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/stats")
+    public MenuItemRating getStats(
+            @Parameter(name="itemId") @RequestParam Long itemId) {
+        return menuItemRatingService.getRating(itemId);
     }
 
     /**
      * Get a single MenuItemReview by id
      * 
      * @param id the id of the review
+     * @param webRequest the request, for its conditional GET headers
      * @return a MenuItemReview
      */
     @Operation(summary= "Get a single menu item review")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public MenuItemReview getById(
-            @Parameter(name="id") @RequestParam Long id) {
-        MenuItemReview menuItemReview = menuItemReviewRepository.findById(id)
+    @Transactional(readOnly = true)
+    public MenuItemReviewView getById(
+            @Parameter(name="id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (notModified(webRequest, MenuItemReview.class)) {
+            return null;
+        }
+        return menuItemReviewViews.findMenuItemReview(id)
                 .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
-
-        return menuItemReview;
     }
 
     /**
@@ -65,14 +125,16 @@ public class MenuItemReviewController  extends ApiController {
      * 
      * @param itemId  the id of the item to be reviewed
      * @param reviewerEmail  the email of the reviewer
-     * @param stars  the number of stars given in the review
+     * @param stars  the number of stars given in the review, from 1 to 5
      * @param comments  the comments of the review
      * @param dateReviewed the date
      * @return the saved ucsbdate
+     * @throws ResponseStatusException with status 400 if stars is out of range
      */
     @Operation(summary= "Create a new review")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PostMapping("/post")
+    @Transactional
     public MenuItemReview postMenuItemReview(
             // @Parameter(name="quarterYYYYQ") @RequestParam String quarterYYYYQ,
             // @Parameter(name="name") @RequestParam String name,
@@ -87,6 +149,7 @@ public class MenuItemReviewController  extends ApiController {
         // See: https://www.baeldung.com/spring-date-parameters
 
         log.info("localDateTime={}", dateReviewed);
+        checkStars(stars);
 
         MenuItemReview menuItemReview = new MenuItemReview();
         menuItemReview.setItemId(itemId);
@@ -96,10 +159,34 @@ public class MenuItemReviewController  extends ApiController {
         menuItemReview.setDateReviewed(dateReviewed);
 
         MenuItemReview savedMenuItemReview = menuItemReviewRepository.save(menuItemReview);
+        menuItemRatingService.addReview(itemId, stars);
 
         return savedMenuItemReview;
     }
 
+    /**
+     * Create many reviews at once, e.g. to load a whole quarter's worth of data.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are inserted in a single transaction, as JDBC batches; any ids
+     * in the request are ignored.
+     * @param incoming the reviews to create
+     * @return the saved reviews, with their ids
+     * @throws ResponseStatusException with status 400 if any review's stars are out of range
+     */
+    @Operation(summary= "Create many reviews at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    @Transactional
+    public Iterable<MenuItemReview> postMenuItemReviewsBulk(
+            @RequestBody List<MenuItemReview> incoming) {
+        incoming.forEach(menuItemReview -> checkStars(menuItemReview.getStars()));
+        incoming.forEach(menuItemReview -> menuItemReview.setId(null));
+        Iterable<MenuItemReview> saved = menuItemReviewRepository.saveAll(incoming);
+        menuItemRatingService.addReviews(saved);
+        return saved;
+    }
+
         /**
      * Delete a MenuItemReview
      * 
@@ -109,12 +196,14 @@ public class MenuItemReviewController  extends ApiController {
     @Operation(summary= "Delete a MenuItemReview")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @DeleteMapping("")
+    @Transactional
     public Object deleteUCSBDate(
             @Parameter(name="id") @RequestParam Long id) {
         MenuItemReview menuItemReview = menuItemReviewRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
 
                 menuItemReviewRepository.delete(menuItemReview);
+        menuItemRatingService.removeReview(menuItemReview.getItemId(), menuItemReview.getStars());
         return genericMessage("MenuItemReview with id %s deleted".formatted(id));
     }
 
@@ -123,17 +212,30 @@ public class MenuItemReviewController  extends ApiController {
      * 
      * @param id       id of the review to update
      * @param incoming the new review
+     * @param webRequest the request, for its If-Match header
      * @return the updated date object
+     * @throws ResponseStatusException with status 400 if the new review has no itemId,
+     *         or its stars are out of range
      */
     @Operation(summary= "Update a single review")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PutMapping("")
+    @Transactional
     public MenuItemReview updateMenuItemReview(
             @Parameter(name="id") @RequestParam Long id,
-            @RequestBody @Valid MenuItemReview incoming) {
+            @RequestBody @Valid MenuItemReview incoming,
+            WebRequest webRequest) {
 
+        if (incoming.getItemId() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "itemId is required");
+        }
+        checkStars(incoming.getStars());
         MenuItemReview menuItemReview = menuItemReviewRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(MenuItemReview.class, id));
+        if (preconditionFailed(webRequest, menuItemReview.getVersion())) {
+            return null;
+        }
+        MenuItemReview unchanged = menuItemReview.toBuilder().build();
 
         menuItemReview.setItemId(incoming.getItemId());
         menuItemReview.setReviewerEmail(incoming.getReviewerEmail());
@@ -141,8 +243,21 @@ public class MenuItemReviewController  extends ApiController {
         menuItemReview.setComments(incoming.getComments());
         menuItemReview.setDateReviewed(incoming.getDateReviewed());
 
-        menuItemReviewRepository.save(menuItemReview);
+        if (!menuItemReview.equals(unchanged)) {
+            menuItemReviewRepository.save(menuItemReview);
+            menuItemRatingService.updateReview(unchanged.getItemId(), unchanged.getStars(),
+                    menuItemReview.getItemId(), menuItemReview.getStars());
+            // the row is managed by this transaction; flush it so its version is the new one
+            entityManager.flush();
+        }
+
+        return withRowETag(webRequest, menuItemReview, menuItemReview.getVersion());
+    }
 
-        return menuItemReview;
+    private static void checkStars(int stars) {
+        if (stars < MenuItemRating.MIN_STARS || stars > MenuItemRating.MAX_STARS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "stars must be between %d and %d".formatted(MenuItemRating.MIN_STARS, MenuItemRating.MAX_STARS));
+        }
     }
 }
@@ -2,7 +2,11 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.RecommendationRequest;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.RecommendationRequestView;
 import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+import edu.ucsb.cs156.example.services.RecommendationRequestViewService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,6 +16,7 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,10 +27,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 
 
@@ -40,34 +48,65 @@ public class RecommendationRequestController extends ApiController{
     @Autowired
     RecommendationRequestRepository recommendationRequestRepository;
 
+    @Autowired
+    RecommendationRequestViewService recommendationRequestViews;
+
+    @Autowired
+    RowDeleteService rowDeletes;
+
     /**
      * List all Recommendation requests
      * 
+     * @param webRequest the request, for its conditional GET headers
      * @return an iterable of RecommendationRequest
      */
     @Operation(summary= "List all recommendation requests")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<RecommendationRequest> allRecommendationRequests() {
-        Iterable<RecommendationRequest> requests = recommendationRequestRepository.findAll();
-        return requests;
+    @Transactional(readOnly = true)
+    public Iterable<RecommendationRequestView> allRecommendationRequests(WebRequest webRequest) {
+        if (notModified(webRequest, RecommendationRequest.class)) {
+            return null;
+        }
+        return recommendationRequestViews.allRecommendationRequests();
+    }
+
+    /**
+     * List recommendation requests one page at a time, in id order
+     * @param after the id of the last recommendation request on the previous page (the nextCursor), or 0 for the first page
+     * @param limit the maximum number of recommendation requests to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of recommendation requests and the cursor for the next page
+     */
+    @Operation(summary= "List recommendation requests one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<RecommendationRequest> pageOfRecommendationRequests(
+            @Parameter(name="after") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<RecommendationRequest> page = recommendationRequestRepository.findByIdGreaterThanOrderByIdAsc(after, pageLimit);
+        return KeysetPage.of(page, pageLimit.max(), RecommendationRequest::getId);
     }
 
     /**
      * Get a single recommendation request by id
      * 
      * @param id the id of the recommendation request
+     * @param webRequest the request, for its conditional GET headers
      * @return a RecommendationRequest
      */
     @Operation(summary= "Get a single recommendation request")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public RecommendationRequest getById(
-            @Parameter(name="id") @RequestParam Long id) {
-        RecommendationRequest recommendationRequest = recommendationRequestRepository.findById(id)
+    @Transactional(readOnly = true)
+    public RecommendationRequestView getById(
+            @Parameter(name="id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (notModified(webRequest, RecommendationRequest.class)) {
+            return null;
+        }
+        return recommendationRequestViews.findRecommendationRequest(id)
                 .orElseThrow(() -> new EntityNotFoundException(RecommendationRequest.class, id));
-
-        return recommendationRequest;
     }
 
     /**
@@ -122,18 +161,35 @@ public class RecommendationRequestController extends ApiController{
     @DeleteMapping("")
     public Object deleteRecommendationRequest(
             @Parameter(name="id") @RequestParam Long id) {
-        RecommendationRequest recommendationRequest = recommendationRequestRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(RecommendationRequest.class, id));
-
-        recommendationRequestRepository.delete(recommendationRequest);
+        if (!rowDeletes.deleteById(RecommendationRequest.class, id)) {
+            throw new EntityNotFoundException(RecommendationRequest.class, id);
+        }
         return genericMessage("Recommendation Request with id %s deleted".formatted(id));
     }
 
+    /**
+     * Delete many recommendation requests at once, e.g. to clean up after a quarter.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are deleted in a single transaction, many per statement;
+     * ids that do not exist are skipped.
+     * @param ids the ids of the recommendation requests to delete
+     * @return the ids of the recommendation requests that were deleted
+     */
+    @Operation(summary= "Delete many recommendation requests at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk-delete")
+    public List<Long> deleteRecommendationRequestsBulk(
+            @RequestBody List<Long> ids) {
+        return rowDeletes.deleteAllById(RecommendationRequest.class, ids);
+    }
+
     /**
      * Update a single recommendation request
      * 
      * @param id       id of the request to update
      * @param incoming the new request
+     * @param webRequest the request, for its If-Match header
      * @return the updated recommendation request object
      */
     @Operation(summary= "Update a single recommendation request")
@@ -141,10 +197,15 @@ public class RecommendationRequestController extends ApiController{
     @PutMapping("")
     public RecommendationRequest updateRecommendationRequest(
             @Parameter(name="id") @RequestParam Long id,
-            @RequestBody @Valid RecommendationRequest incoming) {
+            @RequestBody @Valid RecommendationRequest incoming,
+            WebRequest webRequest) {
 
         RecommendationRequest recommendationRequest = recommendationRequestRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(RecommendationRequest.class, id));
+        if (preconditionFailed(webRequest, recommendationRequest.getVersion())) {
+            return null;
+        }
+        RecommendationRequest unchanged = recommendationRequest.toBuilder().build();
 
         recommendationRequest.setRequesterEmail(incoming.getRequesterEmail());
         recommendationRequest.setProfessorEmail(incoming.getProfessorEmail());
@@ -153,8 +214,10 @@ public class RecommendationRequestController extends ApiController{
         recommendationRequest.setDateNeeded(incoming.getDateNeeded());
         recommendationRequest.setDone(incoming.getDone());
 
-        recommendationRequestRepository.save(recommendationRequest);
+        if (!recommendationRequest.equals(unchanged)) {
+            recommendationRequest = recommendationRequestRepository.save(recommendationRequest);
+        }
 
-        return recommendationRequest;
+        return withRowETag(webRequest, recommendationRequest, recommendationRequest.getVersion());
     }
 }
\ No newline at end of file
@@ -2,13 +2,16 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,9 +21,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+
 /**
  * This is a REST controller for Restaurants
  */
@@ -33,28 +40,59 @@ public class RestaurantsController extends ApiController {
     @Autowired
     RestaurantRepository restaurantRepository;
 
+    @Autowired
+    RowDeleteService rowDeletes;
+
     /**
      * This method returns a list of all restaurants.
+     * @param webRequest the request, for its conditional GET headers
      * @return a list of all restaurants
      */
     @Operation(summary = "List all restaurants")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<Restaurant> allRestaurants() {
+    @Transactional(readOnly = true)
+    public Iterable<Restaurant> allRestaurants(WebRequest webRequest) {
+        if (notModified(webRequest, Restaurant.class)) {
+            return null;
+        }
         Iterable<Restaurant> restaurants = restaurantRepository.findAll();
         return restaurants;
     }
 
+    /**
+     * List restaurants one page at a time, in id order
+     * @param after the id of the last restaurant on the previous page (the nextCursor), or 0 for the first page
+     * @param limit the maximum number of restaurants to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of restaurants and the cursor for the next page
+     */
+    @Operation(summary= "List restaurants one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<Restaurant> pageOfRestaurants(
+            @Parameter(name="after") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<Restaurant> page = restaurantRepository.findByIdGreaterThanOrderByIdAsc(after, pageLimit);
+        return KeysetPage.of(page, pageLimit.max(), Restaurant::getId);
+    }
+
     /**
      * This method returns a single restaurant.
      * @param id id of the restaurant to get
+     * @param webRequest the request, for its conditional GET headers
      * @return a single restaurant
      */
     @Operation(summary = "Get a single restaurant")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
+    @Transactional(readOnly = true)
     public Restaurant getById(
-            @Parameter(name = "id") @RequestParam Long id) {
+            @Parameter(name = "id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (notModified(webRequest, Restaurant.class)) {
+            return null;
+        }
         Restaurant restaurant = restaurantRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
 
@@ -92,17 +130,34 @@ public class RestaurantsController extends ApiController {
     @DeleteMapping("")
     public Object deleteRestaurant(
             @Parameter(name = "id") @RequestParam Long id) {
-        Restaurant restaurant = restaurantRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
-
-        restaurantRepository.delete(restaurant);
+        if (!rowDeletes.deleteById(Restaurant.class, id)) {
+            throw new EntityNotFoundException(Restaurant.class, id);
+        }
         return genericMessage("Restaurant with id %s deleted".formatted(id));
     }
 
+    /**
+     * Delete many restaurants at once, e.g. to clean up after a quarter.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are deleted in a single transaction, many per statement;
+     * ids that do not exist are skipped.
+     * @param ids the ids of the restaurants to delete
+     * @return the ids of the restaurants that were deleted
+     */
+    @Operation(summary= "Delete many restaurants at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk-delete")
+    public List<Long> deleteRestaurantsBulk(
+            @RequestBody List<Long> ids) {
+        return rowDeletes.deleteAllById(Restaurant.class, ids);
+    }
+
     /**
      * Update a single restaurant. Accessible only to users with the role "ROLE_ADMIN".
      * @param id id of the restaurant to update
      * @param incoming the new restaurant contents
+     * @param webRequest the request, for its If-Match header
      * @return the updated restaurant object
      */
     @Operation(summary = "Update a single restaurant")
@@ -110,16 +165,23 @@ public class RestaurantsController extends ApiController {
     @PutMapping("")
     public Restaurant updateRestaurant(
             @Parameter(name = "id") @RequestParam Long id,
-            @RequestBody @Valid Restaurant incoming) {
+            @RequestBody @Valid Restaurant incoming,
+            WebRequest webRequest) {
 
         Restaurant restaurant = restaurantRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(Restaurant.class, id));
+        if (preconditionFailed(webRequest, restaurant.getVersion())) {
+            return null;
+        }
+        Restaurant unchanged = restaurant.toBuilder().build();
 
         restaurant.setName(incoming.getName());
         restaurant.setDescription(incoming.getDescription());
 
-        restaurantRepository.save(restaurant);
+        if (!restaurant.equals(unchanged)) {
+            restaurant = restaurantRepository.save(restaurant);
+        }
 
-        return restaurant;
+        return withRowETag(webRequest, restaurant, restaurant.getVersion());
     }
 }
\ No newline at end of file
@@ -2,7 +2,9 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,6 +14,7 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -22,10 +25,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * This is a REST controller for UCSBDates
@@ -40,30 +46,61 @@ public class UCSBDatesController extends ApiController {
     @Autowired
     UCSBDateRepository ucsbDateRepository;
 
+    @Autowired
+    RowDeleteService rowDeletes;
+
     /**
      * List all UCSB dates
      * 
+     * @param webRequest the request, for its conditional GET headers
      * @return an iterable of UCSBDate
      */
     @Operation(summary= "List all ucsb dates")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDate> allUCSBDates() {
+    @Transactional(readOnly = true)
+    public Iterable<UCSBDate> allUCSBDates(WebRequest webRequest) {
+        if (notModified(webRequest, UCSBDate.class)) {
+            return null;
+        }
         Iterable<UCSBDate> dates = ucsbDateRepository.findAll();
         return dates;
     }
 
+    /**
+     * List ucsb dates one page at a time, in id order
+     * @param after the id of the last ucsb date on the previous page (the nextCursor), or 0 for the first page
+     * @param limit the maximum number of ucsb dates to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of ucsb dates and the cursor for the next page
+     */
+    @Operation(summary= "List ucsb dates one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBDate> pageOfUCSBDates(
+            @Parameter(name="after") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<UCSBDate> page = ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(after, pageLimit);
+        return KeysetPage.of(page, pageLimit.max(), UCSBDate::getId);
+    }
+
     /**
      * Get a single date by id
      * 
      * @param id the id of the date
+     * @param webRequest the request, for its conditional GET headers
      * @return a UCSBDate
      */
     @Operation(summary= "Get a single date")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
+    @Transactional(readOnly = true)
     public UCSBDate getById(
-            @Parameter(name="id") @RequestParam Long id) {
+            @Parameter(name="id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (notModified(webRequest, UCSBDate.class)) {
+            return null;
+        }
         UCSBDate ucsbDate = ucsbDateRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
 
@@ -102,6 +139,25 @@ public class UCSBDatesController extends ApiController {
         return savedUcsbDate;
     }
 
+    /**
+     * Create many ucsb dates at once, e.g. to load a whole quarter's worth of data.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are inserted in a single transaction, as JDBC batches; any ids
+     * in the request are ignored.
+     * @param incoming the ucsb dates to create
+     * @return the saved ucsb dates, with their ids
+     */
+    @Operation(summary= "Create many ucsb dates at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<UCSBDate> postUCSBDatesBulk(
+            @RequestBody List<UCSBDate> incoming) {
+        incoming.forEach(ucsbDate -> ucsbDate.setId(0));
+        Iterable<UCSBDate> saved = ucsbDateRepository.saveAll(incoming);
+        return saved;
+    }
+
     /**
      * Delete a UCSBDate
      * 
@@ -113,18 +169,35 @@ public class UCSBDatesController extends ApiController {
     @DeleteMapping("")
     public Object deleteUCSBDate(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDate ucsbDate = ucsbDateRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
-
-        ucsbDateRepository.delete(ucsbDate);
+        if (!rowDeletes.deleteById(UCSBDate.class, id)) {
+            throw new EntityNotFoundException(UCSBDate.class, id);
+        }
         return genericMessage("UCSBDate with id %s deleted".formatted(id));
     }
 
+    /**
+     * Delete many ucsb dates at once, e.g. to clean up after a quarter.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are deleted in a single transaction, many per statement;
+     * ids that do not exist are skipped.
+     * @param ids the ids of the ucsb dates to delete
+     * @return the ids of the ucsb dates that were deleted
+     */
+    @Operation(summary= "Delete many ucsb dates at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk-delete")
+    public List<Long> deleteUCSBDatesBulk(
+            @RequestBody List<Long> ids) {
+        return rowDeletes.deleteAllById(UCSBDate.class, ids);
+    }
+
     /**
      * Update a single date
      * 
      * @param id       id of the date to update
      * @param incoming the new date
+     * @param webRequest the request, for its If-Match header
      * @return the updated date object
      */
     @Operation(summary= "Update a single date")
@@ -132,17 +205,24 @@ public class UCSBDatesController extends ApiController {
     @PutMapping("")
     public UCSBDate updateUCSBDate(
             @Parameter(name="id") @RequestParam Long id,
-            @RequestBody @Valid UCSBDate incoming) {
+            @RequestBody @Valid UCSBDate incoming,
+            WebRequest webRequest) {
 
         UCSBDate ucsbDate = ucsbDateRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDate.class, id));
+        if (preconditionFailed(webRequest, ucsbDate.getVersion())) {
+            return null;
+        }
+        UCSBDate unchanged = ucsbDate.toBuilder().build();
 
         ucsbDate.setQuarterYYYYQ(incoming.getQuarterYYYYQ());
         ucsbDate.setName(incoming.getName());
         ucsbDate.setLocalDateTime(incoming.getLocalDateTime());
 
-        ucsbDateRepository.save(ucsbDate);
+        if (!ucsbDate.equals(unchanged)) {
+            ucsbDate = ucsbDateRepository.save(ucsbDate);
+        }
 
-        return ucsbDate;
+        return withRowETag(webRequest, ucsbDate, ucsbDate.getVersion());
     }
 }
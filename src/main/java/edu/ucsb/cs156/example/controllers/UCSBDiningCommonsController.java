@@ -2,7 +2,12 @@ package edu.ucsb.cs156.example.controllers;
 
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.services.DiningCommonsLocator;
+import edu.ucsb.cs156.example.services.ReferenceDataCacheService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,6 +15,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -19,9 +25,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+
 /**
  * This is a REST controller for UCSBDiningCommons
  */
@@ -35,29 +45,84 @@ public class UCSBDiningCommonsController extends ApiController {
     @Autowired
     UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+    @Autowired
+    RowDeleteService rowDeletes;
+
+    @Autowired
+    ReferenceDataCacheService referenceDataCache;
+
+    @Autowired
+    DiningCommonsLocator diningCommonsLocator;
+
     /**
      * THis method returns a list of all ucsbdiningcommons.
+     * @param webRequest the request, for its conditional GET headers
      * @return a list of all ucsbdiningcommons
      */
     @Operation(summary= "List all ucsb dining commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommons> allCommonss() {
-        Iterable<UCSBDiningCommons> commons = ucsbDiningCommonsRepository.findAll();
+    @Transactional(readOnly = true)
+    public Iterable<UCSBDiningCommons> allCommonss(WebRequest webRequest) {
+        if (notModified(webRequest, UCSBDiningCommons.class)) {
+            return null;
+        }
+        Iterable<UCSBDiningCommons> commons = referenceDataCache.allDiningCommons();
         return commons;
     }
 
+    /**
+     * List dining commons one page at a time, in code order
+     * @param after the code of the last dining commons on the previous page (the nextCursor), or omit for the first page
+     * @param limit the maximum number of dining commons to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of dining commons and the cursor for the next page
+     */
+    @Operation(summary= "List dining commons one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBDiningCommons> pageOfCommons(
+            @Parameter(name="after") @RequestParam(defaultValue = "") String after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<UCSBDiningCommons> page = ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(after, pageLimit);
+        return KeysetPage.of(page, pageLimit.max(), UCSBDiningCommons::getCode);
+    }
+
+    /**
+     * This method returns the dining commons nearest to a point, from the in-memory
+     * spatial index (commons without a location are never returned).
+     * @param lat latitude of the point, in degrees
+     * @param lon longitude of the point, in degrees
+     * @param k the maximum number of dining commons to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return up to k dining commons, nearest first, with their distance in meters
+     */
+    @Operation(summary= "List the dining commons nearest to a point")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping("/nearest")
+    public List<NearbyDiningCommons> nearestCommons(
+            @Parameter(name="lat") @RequestParam double lat,
+            @Parameter(name="lon") @RequestParam double lon,
+            @Parameter(name="k") @RequestParam(defaultValue = "1") int k) {
+        return diningCommonsLocator.nearest(lat, lon, pageLimit(k).max());
+    }
+
     /**
      * This method returns a single diningcommons.
      * @param code code of the diningcommons
+     * @param webRequest the request, for its conditional GET headers
      * @return a single diningcommons
      */
     @Operation(summary= "Get a single commons")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
+    @Transactional(readOnly = true)
     public UCSBDiningCommons getById(
-            @Parameter(name="code") @RequestParam String code) {
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
+            @Parameter(name="code") @RequestParam String code,
+            WebRequest webRequest) {
+        if (notModified(webRequest, UCSBDiningCommons.class)) {
+            return null;
+        }
+        UCSBDiningCommons commons = referenceDataCache.findDiningCommons(code)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
 
         return commons;
@@ -98,6 +163,7 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLongitude(longitude);
 
         UCSBDiningCommons savedCommons = ucsbDiningCommonsRepository.save(commons);
+        diningCommonsLocator.put(savedCommons);
 
         return savedCommons;
     }
@@ -112,17 +178,37 @@ public class UCSBDiningCommonsController extends ApiController {
     @DeleteMapping("")
     public Object deleteCommons(
             @Parameter(name="code") @RequestParam String code) {
-        UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
-
-        ucsbDiningCommonsRepository.delete(commons);
+        if (!rowDeletes.deleteById(UCSBDiningCommons.class, code)) {
+            throw new EntityNotFoundException(UCSBDiningCommons.class, code);
+        }
+        diningCommonsLocator.remove(code);
         return genericMessage("UCSBDiningCommons with id %s deleted".formatted(code));
     }
 
+    /**
+     * Delete many commons at once, e.g. to clean up after a quarter.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are deleted in a single transaction, many per statement;
+     * codes that do not exist are skipped.
+     * @param codes the codes of the commons to delete
+     * @return the codes of the commons that were deleted
+     */
+    @Operation(summary= "Delete many commons at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk-delete")
+    public List<String> deleteCommonsBulk(
+            @RequestBody List<String> codes) {
+        List<String> deleted = rowDeletes.deleteAllById(UCSBDiningCommons.class, codes);
+        deleted.forEach(diningCommonsLocator::remove);
+        return deleted;
+    }
+
     /**
      * Update a single diningcommons. Accessible only to users with the role "ROLE_ADMIN".
      * @param code code of the diningcommons
      * @param incoming the new commons contents
+     * @param webRequest the request, for its If-Match header
      * @return the updated commons object
      */
     @Operation(summary= "Update a single commons")
@@ -130,10 +216,15 @@ public class UCSBDiningCommonsController extends ApiController {
     @PutMapping("")
     public UCSBDiningCommons updateCommons(
             @Parameter(name="code") @RequestParam String code,
-            @RequestBody @Valid UCSBDiningCommons incoming) {
+            @RequestBody @Valid UCSBDiningCommons incoming,
+            WebRequest webRequest) {
 
         UCSBDiningCommons commons = ucsbDiningCommonsRepository.findById(code)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommons.class, code));
+        if (preconditionFailed(webRequest, commons.getVersion())) {
+            return null;
+        }
+        UCSBDiningCommons unchanged = commons.toBuilder().build();
 
 
         commons.setName(incoming.getName());  
@@ -143,8 +234,11 @@ public class UCSBDiningCommonsController extends ApiController {
         commons.setLatitude(incoming.getLatitude());
         commons.setLongitude(incoming.getLongitude());
 
-        ucsbDiningCommonsRepository.save(commons);
+        if (!commons.equals(unchanged)) {
+            commons = ucsbDiningCommonsRepository.save(commons);
+            diningCommonsLocator.put(commons);
+        }
 
-        return commons;
+        return withRowETag(webRequest, commons, commons.getVersion());
     }
 }
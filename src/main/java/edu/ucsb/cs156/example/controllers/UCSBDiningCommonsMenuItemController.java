@@ -3,8 +3,10 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -13,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import com.fasterxml.jackson.core.JsonProcessingException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -23,10 +26,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.Valid;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 
 @Tag(name = "UCSBDiningCommonsMenuItem")
@@ -37,19 +43,44 @@ public class UCSBDiningCommonsMenuItemController extends ApiController{
     @Autowired
     UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
 
+    @Autowired
+    RowDeleteService rowDeletes;
+
     /**
      * Get all records in the table and return as a JSON array
      * 
+     * @param webRequest the request, for its conditional GET headers
      * @return an iterable of UCSBDiningCommonsMenuItem
      */
     @Operation(summary= "Get all records in the table and return as a JSON array")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBDiningCommonsMenuItem> allUCSBDiningCommonsMenuItem() {
+    @Transactional(readOnly = true)
+    public Iterable<UCSBDiningCommonsMenuItem> allUCSBDiningCommonsMenuItem(WebRequest webRequest) {
+        if (notModified(webRequest, UCSBDiningCommonsMenuItem.class)) {
+            return null;
+        }
         Iterable<UCSBDiningCommonsMenuItem> records = ucsbDiningCommonsMenuItemRepository.findAll();
         return records;
     }
 
+    /**
+     * List menu items one page at a time, in id order
+     * @param after the id of the last menu item on the previous page (the nextCursor), or 0 for the first page
+     * @param limit the maximum number of menu items to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of menu items and the cursor for the next page
+     */
+    @Operation(summary= "List menu items one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBDiningCommonsMenuItem> pageOfUCSBDiningCommonsMenuItems(
+            @Parameter(name="after") @RequestParam(defaultValue = "0") long after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<UCSBDiningCommonsMenuItem> page = ucsbDiningCommonsMenuItemRepository.findByIdGreaterThanOrderByIdAsc(after, pageLimit);
+        return KeysetPage.of(page, pageLimit.max(), UCSBDiningCommonsMenuItem::getId);
+    }
+
     /**
      * Use the data in the input parameters to create a new row in the table and return the data as JSON
      */
@@ -72,6 +103,25 @@ public class UCSBDiningCommonsMenuItemController extends ApiController{
         return savedUCSBDiningCommonsMenuItem;
     }
 
+    /**
+     * Create many menu items at once, e.g. to load a whole quarter's worth of data.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are inserted in a single transaction, as JDBC batches; any ids
+     * in the request are ignored.
+     * @param incoming the menu items to create
+     * @return the saved menu items, with their ids
+     */
+    @Operation(summary= "Create many menu items at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk")
+    public Iterable<UCSBDiningCommonsMenuItem> postUcsbDiningCommonsMenuItemsBulk(
+            @RequestBody List<UCSBDiningCommonsMenuItem> incoming) {
+        incoming.forEach(menuItem -> menuItem.setId(0));
+        Iterable<UCSBDiningCommonsMenuItem> saved = ucsbDiningCommonsMenuItemRepository.saveAll(incoming);
+        return saved;
+    }
+
     /**
      * Delete a single record from the table; use the value passed in as a @RequestParam to do a lookup by id. If a matching row is not found, throw an EntityNotFoundException.
      */
@@ -80,37 +130,61 @@ public class UCSBDiningCommonsMenuItemController extends ApiController{
     @DeleteMapping("")
     public Object deleteUCSBDate(
             @Parameter(name="id") @RequestParam Long id) {
-        UCSBDiningCommonsMenuItem ucsbDiningCommonsMenuItem = ucsbDiningCommonsMenuItemRepository.findById(id)
-                .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
-
-        ucsbDiningCommonsMenuItemRepository.delete(ucsbDiningCommonsMenuItem);
+        if (!rowDeletes.deleteById(UCSBDiningCommonsMenuItem.class, id)) {
+            throw new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id);
+        }
         return genericMessage("UCSBDiningCommonsMenuItem with id %s deleted".formatted(id));
     }
 
+    /**
+     * Delete many menu items at once, e.g. to clean up after a quarter.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are deleted in a single transaction, many per statement;
+     * ids that do not exist are skipped.
+     * @param ids the ids of the menu items to delete
+     * @return the ids of the menu items that were deleted
+     */
+    @Operation(summary= "Delete many menu items at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk-delete")
+    public List<Long> deleteUCSBDiningCommonsMenuItemsBulk(
+            @RequestBody List<Long> ids) {
+        return rowDeletes.deleteAllById(UCSBDiningCommonsMenuItem.class, ids);
+    }
+
     /**
      * Get a single record from the table; use the value passed in 
      * as a @RequestParam to do a lookup by id. 
      * If a matching row is found, update that row 
      * with the values passed in as a JSON object. 
      * If a matching row is not found, throw an EntityNotFoundException.
+     * If the request has an If-Match header that does not match the row's version, leave it alone (412).
      */
     @Operation(summary= "Update a Dining Commons Menu Item")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
     @PutMapping("")
     public UCSBDiningCommonsMenuItem updateUCSBDiningCommonsMenuItem(
             @Parameter(name="id") @RequestParam Long id,
-            @RequestBody @Valid UCSBDiningCommonsMenuItem incoming) {
+            @RequestBody @Valid UCSBDiningCommonsMenuItem incoming,
+            WebRequest webRequest) {
 
         UCSBDiningCommonsMenuItem ucsbDCMI = ucsbDiningCommonsMenuItemRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
+        if (preconditionFailed(webRequest, ucsbDCMI.getVersion())) {
+            return null;
+        }
+        UCSBDiningCommonsMenuItem unchanged = ucsbDCMI.toBuilder().build();
 
         ucsbDCMI.setDiningCommonsCode((incoming.getDiningCommonsCode()));
         ucsbDCMI.setName(incoming.getName());
         ucsbDCMI.setStation(incoming.getStation());  
 
-        ucsbDiningCommonsMenuItemRepository.save(ucsbDCMI);
+        if (!ucsbDCMI.equals(unchanged)) {
+            ucsbDCMI = ucsbDiningCommonsMenuItemRepository.save(ucsbDCMI);
+        }
 
-        return ucsbDCMI;
+        return withRowETag(webRequest, ucsbDCMI, ucsbDCMI.getVersion());
     }
 
     /**
@@ -122,8 +196,13 @@ public class UCSBDiningCommonsMenuItemController extends ApiController{
     @Operation(summary= "Get a single UCSBDiningCommonsMenuItem by id")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
+    @Transactional(readOnly = true)
     public UCSBDiningCommonsMenuItem getById(
-            @Parameter(name="id") @RequestParam Long id) {
+            @Parameter(name="id") @RequestParam Long id,
+            WebRequest webRequest) {
+        if (notModified(webRequest, UCSBDiningCommonsMenuItem.class)) {
+            return null;
+        }
         UCSBDiningCommonsMenuItem ucsbDCMI = ucsbDiningCommonsMenuItemRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBDiningCommonsMenuItem.class, id));
 
@@ -3,14 +3,18 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.entities.UCSBOrgs;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
 import edu.ucsb.cs156.example.repositories.UCSBOrgsRepository;
+import edu.ucsb.cs156.example.services.ReferenceDataCacheService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -20,9 +24,13 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.validation.Valid;
 
+import java.util.List;
+
 /**
  * This is a REST controller for UCSBOrganization
  */
@@ -36,18 +44,46 @@ public class UCSBOrganizationController extends ApiController  {
     @Autowired
     UCSBOrgsRepository ucsbOrgsRepository;
 
+    @Autowired
+    RowDeleteService rowDeletes;
+
+    @Autowired
+    ReferenceDataCacheService referenceDataCache;
+
     /**
      * THis method returns a list of all ucsborgs.
+     * @param webRequest the request, for its conditional GET headers
      * @return a list of all ucsborgs
      */
     @Operation(summary= "List all ucsb organizations")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("/all")
-    public Iterable<UCSBOrgs> allOrganizations() {
-        Iterable<UCSBOrgs> orgs = ucsbOrgsRepository.findAll();
+    @Transactional(readOnly = true)
+    public Iterable<UCSBOrgs> allOrganizations(WebRequest webRequest) {
+        if (notModified(webRequest, UCSBOrgs.class)) {
+            return null;
+        }
+        Iterable<UCSBOrgs> orgs = referenceDataCache.allOrgs();
         return orgs;
     }
 
+    /**
+     * List ucsb organizations one page at a time, in orgCode order
+     * @param after the orgCode of the last ucsb organization on the previous page (the nextCursor), or omit for the first page
+     * @param limit the maximum number of ucsb organizations to return (at most {@value ApiController#MAX_PAGE_SIZE})
+     * @return a page of ucsb organizations and the cursor for the next page
+     */
+    @Operation(summary= "List ucsb organizations one page at a time")
+    @PreAuthorize("hasRole('ROLE_USER')")
+    @GetMapping(value = "/all", params = "limit")
+    public KeysetPage<UCSBOrgs> pageOfOrganizations(
+            @Parameter(name="after") @RequestParam(defaultValue = "") String after,
+            @Parameter(name="limit") @RequestParam int limit) {
+        Limit pageLimit = pageLimit(limit);
+        List<UCSBOrgs> page = ucsbOrgsRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(after, pageLimit);
+        return KeysetPage.of(page, pageLimit.max(), UCSBOrgs::getOrgCode);
+    }
+
     /**
      * This method creates a new organization. Accessible only to users with the role "ROLE_ADMIN".
      * @param orgCode 
@@ -81,13 +117,18 @@ public class UCSBOrganizationController extends ApiController  {
     /**
      * This method returns a single ucsborganization.
      * @param orgCode code of the ucsborganization
+     * @param webRequest the request, for its conditional GET headers
      * @return a single ucsborganization
      */
     @Operation(summary= "Get a single organization")
     @PreAuthorize("hasRole('ROLE_USER')")
     @GetMapping("")
-    public UCSBOrgs getById( @Parameter(name="orgCode") @RequestParam String orgCode) {
-        UCSBOrgs organization = ucsbOrgsRepository.findById(orgCode)
+    @Transactional(readOnly = true)
+    public UCSBOrgs getById( @Parameter(name="orgCode") @RequestParam String orgCode, WebRequest webRequest) {
+        if (notModified(webRequest, UCSBOrgs.class)) {
+            return null;
+        }
+        UCSBOrgs organization = referenceDataCache.findOrg(orgCode)
         .orElseThrow(() -> new EntityNotFoundException(UCSBOrgs.class, orgCode));
         return organization;
     }
@@ -104,16 +145,33 @@ public class UCSBOrganizationController extends ApiController  {
     public Object deleteOrganization(
             @Parameter(name = "orgCode") @RequestParam String orgCode) {
 
-        UCSBOrgs organization = ucsbOrgsRepository.findById(orgCode)
-        .orElseThrow(() -> new EntityNotFoundException(UCSBOrgs.class, orgCode));
-
-        ucsbOrgsRepository.delete(organization);
+        if (!rowDeletes.deleteById(UCSBOrgs.class, orgCode)) {
+            throw new EntityNotFoundException(UCSBOrgs.class, orgCode);
+        }
         return genericMessage("UCSBOrgs with id %s deleted".formatted(orgCode));
     }
+
+    /**
+     * Delete many organizations at once, e.g. to clean up after a quarter.
+     * Accessible only to users with the role "ROLE_ADMIN".
+     *
+     * The rows are deleted in a single transaction, many per statement;
+     * codes that do not exist are skipped.
+     * @param codes the codes of the organizations to delete
+     * @return the codes of the organizations that were deleted
+     */
+    @Operation(summary= "Delete many organizations at once")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @PostMapping("/bulk-delete")
+    public List<String> deleteOrganizationsBulk(
+            @RequestBody List<String> codes) {
+        return rowDeletes.deleteAllById(UCSBOrgs.class, codes);
+    }
     /* 
      * Update a single ucsborg. Accessible only to users with the role "ROLE_ADMIN".
      * @param orgCode code of the diningcommons
      * @param incoming the new commons contents
+     * @param webRequest the request, for its If-Match header
      * @return the updated commons object
      */
     @Operation(summary= "Update a single ucsb organization")
@@ -121,18 +179,25 @@ public class UCSBOrganizationController extends ApiController  {
     @PutMapping("")
     public UCSBOrgs updateOrgs(
             @Parameter(name="orgCode") @RequestParam String orgCode,
-            @RequestBody @Valid UCSBOrgs incoming) {
+            @RequestBody @Valid UCSBOrgs incoming,
+            WebRequest webRequest) {
 
         UCSBOrgs org = ucsbOrgsRepository.findById(orgCode)
                 .orElseThrow(() -> new EntityNotFoundException(UCSBOrgs.class, orgCode));
+        if (preconditionFailed(webRequest, org.getVersion())) {
+            return null;
+        }
+        UCSBOrgs unchanged = org.toBuilder().build();
 
 
         org.setOrgTranslationShort(incoming.getOrgTranslationShort());
         org.setOrgTranslation(incoming.getOrgTranslation());
         org.setInactive(incoming.getInactive());
 
-        ucsbOrgsRepository.save(org);
+        if (!org.equals(unchanged)) {
+            org = ucsbOrgsRepository.save(org);
+        }
 
-        return org;
+        return withRowETag(webRequest, org, org.getVersion());
     }
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * This class reports virtual threads that are pinned to their carrier thread,
+ * i.e. that block while inside a {@code synchronized} block or a native call
+ * (as some JDBC drivers and HTTP clients still do).  A pinned virtual thread
+ * holds on to one of the few carrier threads, so enough of them at once stall
+ * every other request.
+ *
+ * It listens for the JDK Flight Recorder event {@code jdk.VirtualThreadPinned}
+ * in-process; each event longer than the threshold is counted in the
+ * {@code jvm.threads.virtual.pinned} metric and logged with the top of its stack.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor {
+
+  static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+  private static final String VIRTUAL_THREAD_CLASS = "java.lang.VirtualThread";
+  private static final int LOGGED_FRAMES = 8;
+
+  private final Duration threshold;
+  private final Counter pinned;
+  private RecordingStream stream;
+
+  /**
+   * Create a monitor.
+   * @param threshold only pinning that lasts at least this long is reported
+   * @param meterRegistry where the {@code jvm.threads.virtual.pinned} counter is registered
+   */
+  public VirtualThreadPinningMonitor(Duration threshold, MeterRegistry meterRegistry) {
+    this.threshold = threshold;
+    this.pinned = Counter.builder("jvm.threads.virtual.pinned")
+        .description("Virtual threads that blocked while pinned to their carrier thread")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Start listening for pinning events.
+   */
+  public void start() {
+    stream = new RecordingStream();
+    stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+    stream.onEvent(PINNED_EVENT, this::onPinned);
+    stream.startAsync();
+  }
+
+  /**
+   * Stop listening for pinning events.
+   */
+  public void stop() {
+    stream.close();
+  }
+
+  void onPinned(RecordedEvent event) {
+    pinned.increment();
+    log.warn("Virtual thread pinned for {} ms:{}", event.getDuration().toMillis(), frames(event.getStackTrace()));
+  }
+
+  static String frames(RecordedStackTrace stackTrace) {
+    if (stackTrace == null) {
+      return " (no stack trace)";
+    }
+    return stackTrace.getFrames().stream()
+        .filter(frame -> !frame.getMethod().getType().getName().equals(VIRTUAL_THREAD_CLASS))
+        .limit(LOGGED_FRAMES)
+        .map(VirtualThreadPinningMonitor::frame)
+        .collect(Collectors.joining());
+  }
+
+  private static String frame(RecordedFrame frame) {
+    return "\n\tat " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+        + "(line " + frame.getLineNumber() + ")";
+  }
+}
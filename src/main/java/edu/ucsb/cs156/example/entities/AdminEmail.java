@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity for one entry in the list of admin emails, as last set
+ * through PUT /api/admin/adminemails (see AdminRoleService).
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "adminemails")
+public class AdminEmail {
+  @Id
+  private String email;
+}
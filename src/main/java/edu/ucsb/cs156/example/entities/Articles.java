@@ -4,19 +4,27 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import edu.ucsb.cs156.example.changes.ChangeTracked;
+import edu.ucsb.cs156.example.changes.ChangeVersion;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity(name = "articles")
-public class Articles {
+@DynamicUpdate
+public class Articles implements ChangeTracked {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private long id;
@@ -26,4 +34,16 @@ public class Articles {
   private String explanation;
   private String email;
   private LocalDateTime dateAdded;
+
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private long version;
+
+  @JsonIgnore
+  @ChangeVersion
+  private Long changeVersion;
+
+  @JsonIgnore
+  @UpdateTimestamp
+  private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.entities;
+
+/**
+ * Names of the Hibernate second-level cache regions: one region for the entities
+ * of each cached table, and one for the results of its cacheable queries.
+ *
+ * The size and expiry of each region are set in SecondLevelCacheConfig.
+ */
+public final class CacheRegions {
+
+  public static final String UCSB_DATES = "ucsbdates";
+  public static final String UCSB_DATES_QUERIES = "ucsbdates.queries";
+
+  public static final String UCSB_DINING_COMMONS = "ucsbdiningcommons";
+  public static final String UCSB_DINING_COMMONS_QUERIES = "ucsbdiningcommons.queries";
+
+  public static final String UCSB_DINING_COMMONS_MENU_ITEMS = "ucsbdiningcommonsmenuitem";
+  public static final String UCSB_DINING_COMMONS_MENU_ITEMS_QUERIES = "ucsbdiningcommonsmenuitem.queries";
+
+  public static final String UCSB_ORGS = "ucsborgs";
+  public static final String UCSB_ORGS_QUERIES = "ucsborgs.queries";
+
+  public static final String RESTAURANTS = "restaurants";
+  public static final String RESTAURANTS_QUERIES = "restaurants.queries";
+
+  private CacheRegions() {
+  }
+}
@@ -4,10 +4,18 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import edu.ucsb.cs156.example.changes.ChangeTracked;
+import edu.ucsb.cs156.example.changes.ChangeVersion;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -18,11 +26,13 @@ import java.time.LocalDateTime;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity(name = "helprequests")
-public class HelpRequest {
+@DynamicUpdate
+public class HelpRequest implements ChangeTracked {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "helprequests_seq")
+    @SequenceGenerator(name = "helprequests_seq", sequenceName = "HELPREQUESTS_SEQ", allocationSize = 50)
     private long id;
 
     private String requesterEmail;
@@ -31,4 +41,16 @@ public class HelpRequest {
     private LocalDateTime requestTime;
     private String explanation;
     private boolean solved;
+
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    @JsonIgnore
+    @ChangeVersion
+    private Long changeVersion;
+
+    @JsonIgnore
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
 }
\ No newline at end of file
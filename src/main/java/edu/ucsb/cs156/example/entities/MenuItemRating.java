@@ -0,0 +1,73 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity that holds the running rating totals for one menu item.
+ *
+ * It is kept up to date by MenuItemRatingService whenever a MenuItemReview
+ * is created, updated or deleted, so rating lookups never scan the reviews.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "menuitemratings")
+public class MenuItemRating {
+    @Id
+    private Long itemId;
+
+    private long reviewCount;
+    private long sumStars;
+    private long oneStar;
+    private long twoStars;
+    private long threeStars;
+    private long fourStars;
+    private long fiveStars;
+
+    /** The fewest stars a review can give. */
+    public static final int MIN_STARS = 1;
+
+    /** The most stars a review can give. */
+    public static final int MAX_STARS = 5;
+
+    /**
+     * Apply one review to the totals.
+     *
+     * A review with stars outside {@value #MIN_STARS} to {@value #MAX_STARS} cannot
+     * be added, since it would fall in no histogram bucket; one stored before stars
+     * were checked can still be removed.
+     * @param stars the number of stars in the review
+     * @param delta +1 when a review is added, -1 when it is removed
+     * @throws IllegalArgumentException if a review with out of range stars is added
+     */
+    public void apply(int stars, int delta) {
+        if (delta > 0 && (stars < MIN_STARS || stars > MAX_STARS)) {
+            throw new IllegalArgumentException("stars must be between %d and %d".formatted(MIN_STARS, MAX_STARS));
+        }
+        reviewCount += delta;
+        sumStars += (long) stars * delta;
+        switch (stars) {
+            case 1 -> oneStar += delta;
+            case 2 -> twoStars += delta;
+            case 3 -> threeStars += delta;
+            case 4 -> fourStars += delta;
+            case 5 -> fiveStars += delta;
+            default -> { }
+        }
+    }
+
+    /**
+     * The mean number of stars, or 0 if there are no reviews.
+     * @return the average rating
+     */
+    public double getAverageStars() {
+        return reviewCount == 0 ? 0.0 : (double) sumStars / reviewCount;
+    }
+}
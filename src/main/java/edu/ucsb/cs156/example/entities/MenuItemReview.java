@@ -4,20 +4,30 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import edu.ucsb.cs156.example.changes.ChangeTracked;
+import edu.ucsb.cs156.example.changes.ChangeVersion;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity(name = "menuitemreview")
-public class MenuItemReview {
+@DynamicUpdate
+public class MenuItemReview implements ChangeTracked {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "menuitemreview_seq")
+    @SequenceGenerator(name = "menuitemreview_seq", sequenceName = "MENUITEMREVIEW_SEQ", allocationSize = 50)
     private Long id;
 
     private Long itemId;
@@ -25,4 +35,16 @@ public class MenuItemReview {
     private int stars;
     private LocalDateTime dateReviewed;
     private String comments;
+
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private long version;
+
+    @JsonIgnore
+    @ChangeVersion
+    private Long changeVersion;
+
+    @JsonIgnore
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
 }
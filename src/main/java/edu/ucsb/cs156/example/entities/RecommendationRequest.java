@@ -4,19 +4,27 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import edu.ucsb.cs156.example.changes.ChangeTracked;
+import edu.ucsb.cs156.example.changes.ChangeVersion;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
 
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity(name = "recommendationrequest")
-public class RecommendationRequest {
+@DynamicUpdate
+public class RecommendationRequest implements ChangeTracked {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private long id;
@@ -29,4 +37,16 @@ public class RecommendationRequest {
   private LocalDateTime dateNeeded;
 
   private boolean done;
+
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private long version;
+
+  @JsonIgnore
+  @ChangeVersion
+  private Long changeVersion;
+
+  @JsonIgnore
+  @UpdateTimestamp
+  private LocalDateTime updatedAt;
 }
\ No newline at end of file
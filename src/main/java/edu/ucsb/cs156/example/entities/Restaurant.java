@@ -4,10 +4,21 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import edu.ucsb.cs156.example.changes.ChangeTracked;
+import edu.ucsb.cs156.example.changes.ChangeVersion;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 /**
  * This is a JPA entity that represents a restaurant.
@@ -16,13 +27,27 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity(name = "restaurants")
-public class Restaurant {
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.RESTAURANTS)
+public class Restaurant implements ChangeTracked {
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private long id;
 
   private String name;
   private String description;
+
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private long version;
+
+  @JsonIgnore
+  @ChangeVersion
+  private Long changeVersion;
+
+  @JsonIgnore
+  @UpdateTimestamp
+  private LocalDateTime updatedAt;
 }
\ No newline at end of file
@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * This is a JPA entity that records the deletion of a row from one of the tables
+ * served by the /api/changes feed.
+ *
+ * Tombstones are written by ChangeRecorder, as the transaction of the delete commits, and
+ * are only ever read through JPA.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "tombstones")
+public class Tombstone {
+  @Id
+  private long changeVersion;
+
+  private String entityType;
+  private String entityId;
+  private LocalDateTime deletedAt;
+}
@@ -2,10 +2,21 @@ package edu.ucsb.cs156.example.entities;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Version;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import edu.ucsb.cs156.example.changes.ChangeTracked;
+import edu.ucsb.cs156.example.changes.ChangeVersion;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
 
 /** 
  * This is a JPA entity that represents a UCSBDiningCommons
@@ -16,9 +27,11 @@ import lombok.NoArgsConstructor;
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @Entity(name = "ucsbdiningcommons")
-public class UCSBDiningCommons {
+@DynamicUpdate
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.UCSB_DINING_COMMONS)
+public class UCSBDiningCommons implements ChangeTracked {
   @Id
   private String code;
   private String name;
@@ -27,4 +40,16 @@ public class UCSBDiningCommons {
   private boolean hasDiningCam;
   private Double latitude;
   private Double longitude;
+
+  @Version
+  @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+  private long version;
+
+  @JsonIgnore
+  @ChangeVersion
+  private Long changeVersion;
+
+  @JsonIgnore
+  @UpdateTimestamp
+  private LocalDateTime updatedAt;
 }
\ No newline at end of file
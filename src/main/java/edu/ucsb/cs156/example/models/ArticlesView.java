@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.Articles;
+
+import java.time.LocalDateTime;
+
+/**
+ * This is a model class that represents an article as the GET endpoints send it:
+ * the columns of {@link Articles} that the client sees, read with a constructor
+ * expression rather than loaded as managed entities.
+ */
+
+public record ArticlesView(long id, String title, String url, String explanation, String email,
+    LocalDateTime dateAdded, long version) {
+
+  /**
+   * @param article the article
+   * @return the view of the article
+   */
+  public static ArticlesView of(Articles article) {
+    return new ArticlesView(
+        article.getId(),
+        article.getTitle(),
+        article.getUrl(),
+        article.getExplanation(),
+        article.getEmail(),
+        article.getDateAdded(),
+        article.getVersion());
+  }
+}
@@ -0,0 +1,26 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class that represents the hit/miss statistics of one cache.
+ *
+ * The counts are cumulative since the application started.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class CacheStatistics {
+  private String name;
+  private long size;
+  private long hitCount;
+  private long missCount;
+  private double hitRate;
+  private long evictionCount;
+}
@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+
+/**
+ * This is a model class that represents one page of the /api/changes feed.
+ *
+ * Unlike a KeysetPage, the cursor is always set: it is the version of the last
+ * change on the page (or the cursor that was passed in, if there were none), and
+ * the client keeps it to ask for the changes after it, now or later.  {@code more}
+ * says whether further changes are already waiting.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class ChangeFeedPage {
+  private List<EntityChange> changes;
+  private long cursor;
+  private boolean more;
+}
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.time.LocalDateTime;
+
+/**
+ * This is a model class that represents one change in the /api/changes feed: a row
+ * that was inserted or updated (an upsert, with the row as it is now) or deleted.
+ *
+ * {@code type} is the name of the entity (e.g. helprequests, ucsbdiningcommons) and
+ * {@code id} its primary key, as a string.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class EntityChange {
+
+  /** What happened to the row */
+  public enum Operation {
+    UPSERT, DELETE
+  }
+
+  private long version;
+  private String type;
+  private String id;
+  private Operation operation;
+  private LocalDateTime changedAt;
+  private Object data;
+}
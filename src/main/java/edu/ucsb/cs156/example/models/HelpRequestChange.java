@@ -0,0 +1,56 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+/**
+ * This is a model class that represents one change to the help request queue,
+ * as pushed to subscribers of the live feed.
+ *
+ * For a deletion only the id is sent; otherwise {@code helpRequest} holds the
+ * help request as it is after the change.
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class HelpRequestChange {
+
+  /** The kind of change */
+  public enum Type {
+    CREATED, UPDATED, DELETED
+  }
+
+  private Type type;
+  private long id;
+  private HelpRequest helpRequest;
+
+  /**
+   * @param helpRequest the help request that was created
+   * @return the change
+   */
+  public static HelpRequestChange created(HelpRequest helpRequest) {
+    return new HelpRequestChange(Type.CREATED, helpRequest.getId(), helpRequest);
+  }
+
+  /**
+   * @param helpRequest the help request, as updated
+   * @return the change
+   */
+  public static HelpRequestChange updated(HelpRequest helpRequest) {
+    return new HelpRequestChange(Type.UPDATED, helpRequest.getId(), helpRequest);
+  }
+
+  /**
+   * @param id the id of the help request that was deleted
+   * @return the change
+   */
+  public static HelpRequestChange deleted(long id) {
+    return new HelpRequestChange(Type.DELETED, id, null);
+  }
+}
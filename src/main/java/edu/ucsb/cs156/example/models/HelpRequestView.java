@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * This is a model class that represents a help request as the GET endpoints send it:
+ * the columns of {@link HelpRequest} that the client sees, read with a constructor
+ * expression rather than loaded as managed entities.
+ */
+
+public record HelpRequestView(long id, String requesterEmail, String teamId, String tableOrBreakoutRoom,
+    LocalDateTime requestTime, String explanation, boolean solved, long version) {
+
+  /**
+   * @param helpRequest the help request
+   * @return the view of the help request
+   */
+  public static HelpRequestView of(HelpRequest helpRequest) {
+    return new HelpRequestView(
+        helpRequest.getId(),
+        helpRequest.getRequesterEmail(),
+        helpRequest.getTeamId(),
+        helpRequest.getTableOrBreakoutRoom(),
+        helpRequest.getRequestTime(),
+        helpRequest.getExplanation(),
+        helpRequest.getSolved(),
+        helpRequest.getVersion());
+  }
+}
@@ -0,0 +1,45 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * This is a model class that represents one page of a keyset (cursor) paginated listing.
+ *
+ * The {@code nextCursor} is the primary key of the last row on this page; passing it back
+ * as {@code after} fetches the following page.  It is null when there are no more rows.
+ *
+ * @param <T> the type of the rows on the page
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class KeysetPage<T> {
+  private List<T> content;
+  private String nextCursor;
+
+  /**
+   * Build a page from the rows returned by a keyset query.
+   *
+   * @param <T> the type of the rows on the page
+   * @param content the rows returned by the query, in key order
+   * @param limit the maximum number of rows that were requested
+   * @param key function that extracts the primary key of a row
+   * @return the page, with a next cursor only if the page is full
+   */
+  public static <T> KeysetPage<T> of(List<T> content, int limit, Function<T, ?> key) {
+    String nextCursor = null;
+    if (content.size() >= limit) {
+      nextCursor = String.valueOf(key.apply(content.get(content.size() - 1)));
+    }
+    return new KeysetPage<>(content, nextCursor);
+  }
+}
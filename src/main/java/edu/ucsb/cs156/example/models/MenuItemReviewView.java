@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+
+import java.time.LocalDateTime;
+
+/**
+ * This is a model class that represents a menu item review as the GET endpoints send it:
+ * the columns of {@link MenuItemReview} that the client sees, read with a constructor
+ * expression rather than loaded as managed entities.
+ */
+
+public record MenuItemReviewView(Long id, Long itemId, String reviewerEmail, int stars,
+    LocalDateTime dateReviewed, String comments, long version) {
+
+  /**
+   * @param menuItemReview the menu item review
+   * @return the view of the menu item review
+   */
+  public static MenuItemReviewView of(MenuItemReview menuItemReview) {
+    return new MenuItemReviewView(
+        menuItemReview.getId(),
+        menuItemReview.getItemId(),
+        menuItemReview.getReviewerEmail(),
+        menuItemReview.getStars(),
+        menuItemReview.getDateReviewed(),
+        menuItemReview.getComments(),
+        menuItemReview.getVersion());
+  }
+}
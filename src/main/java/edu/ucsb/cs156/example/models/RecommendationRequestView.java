@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.RecommendationRequest;
+
+import java.time.LocalDateTime;
+
+/**
+ * This is a model class that represents a recommendation request as the GET endpoints send it:
+ * the columns of {@link RecommendationRequest} that the client sees, read with a constructor
+ * expression rather than loaded as managed entities.
+ */
+
+public record RecommendationRequestView(long id, String requesterEmail, String professorEmail,
+    String explanation, LocalDateTime dateRequested, LocalDateTime dateNeeded, boolean done, long version) {
+
+  /**
+   * @param recommendationRequest the recommendation request
+   * @return the view of the recommendation request
+   */
+  public static RecommendationRequestView of(RecommendationRequest recommendationRequest) {
+    return new RecommendationRequestView(
+        recommendationRequest.getId(),
+        recommendationRequest.getRequesterEmail(),
+        recommendationRequest.getProfessorEmail(),
+        recommendationRequest.getExplanation(),
+        recommendationRequest.getDateRequested(),
+        recommendationRequest.getDateNeeded(),
+        recommendationRequest.getDone(),
+        recommendationRequest.getVersion());
+  }
+}
@@ -0,0 +1,44 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.Data;
+import lombok.AllArgsConstructor;
+import lombok.NoArgsConstructor;
+import lombok.Builder;
+import lombok.AccessLevel;
+
+import java.util.List;
+
+/**
+ * This is a model class that represents one page of ranked search results.
+ *
+ * Pass {@code nextPage} back as {@code page} to fetch the following page.  It is
+ * null when there are no more results.
+ *
+ * @param <T> the type of the results on the page
+ */
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class SearchPage<T> {
+  private List<T> content;
+  private Integer nextPage;
+
+  /**
+   * Build a page from the rows returned by a search that asked for one row more
+   * than the page size, to find out whether there is a next page.
+   *
+   * @param <T> the type of the results on the page
+   * @param rows the rows returned by the search, in rank order
+   * @param page the number of this page, starting from 0
+   * @param size the number of results on a full page
+   * @return the page, with a next page number only if there were more rows
+   */
+  public static <T> SearchPage<T> of(List<T> rows, int page, int size) {
+    if (rows.size() > size) {
+      return new SearchPage<>(rows.subList(0, size), page + 1);
+    }
+    return new SearchPage<>(rows, null);
+  }
+}
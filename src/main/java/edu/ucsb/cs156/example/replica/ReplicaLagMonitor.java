@@ -0,0 +1,101 @@
+package edu.ucsb.cs156.example.replica;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * This class keeps track of how far the read replica is behind the primary, by
+ * running {@code app.datasource.replica.lag-query} on the replica every
+ * {@code app.datasource.replica.check-interval}.  The query returns the lag in
+ * seconds.
+ *
+ * While the lag is over {@code app.datasource.replica.max-lag}, or the replica
+ * cannot be reached, the replica is not usable and {@link ReplicaRouting} sends
+ * reads to the primary.  The lag and whether the replica is usable are the
+ * {@code datasource.replica.lag} and {@code datasource.replica.usable} metrics.
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+  private final DataSource replica;
+  private final String lagQuery;
+  private final double maxLagSeconds;
+
+  private volatile double lagSeconds = Double.NaN;
+  private volatile boolean usable;
+
+  /**
+   * Create a monitor.  The replica is not usable until it has been checked.
+   * @param replica the replica's data source
+   * @param lagQuery a query returning the replica's lag in seconds
+   * @param maxLag the most lag at which the replica is still used
+   * @param meterRegistry where the metrics are registered
+   */
+  public ReplicaLagMonitor(DataSource replica, String lagQuery, Duration maxLag, MeterRegistry meterRegistry) {
+    this.replica = replica;
+    this.lagQuery = lagQuery;
+    this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+    Gauge.builder("datasource.replica.lag", this, ReplicaLagMonitor::getLagSeconds)
+        .description("How far the read replica is behind the primary (NaN if it cannot be reached)")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    Gauge.builder("datasource.replica.usable", this, monitor -> monitor.isUsable() ? 1 : 0)
+        .description("1 while reads are sent to the read replica, 0 while they go to the primary")
+        .register(meterRegistry);
+  }
+
+  /**
+   * This method measures the replica's lag.
+   */
+  @Scheduled(fixedDelayString = "${app.datasource.replica.check-interval}")
+  public void check() {
+    boolean wasUsable = usable;
+    try (Connection connection = replica.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery(lagQuery)) {
+      if (!resultSet.next()) {
+        throw new SQLException("The replica lag query returned no rows");
+      }
+      lagSeconds = resultSet.getDouble(1);
+      usable = lagSeconds <= maxLagSeconds;
+    } catch (SQLException e) {
+      lagSeconds = Double.NaN;
+      usable = false;
+      if (wasUsable) {
+        log.warn("Cannot check the read replica; sending reads to the primary: {}", e.toString());
+      }
+      return;
+    }
+    if (usable && !wasUsable) {
+      log.info("Read replica is {} s behind; sending reads to it", lagSeconds);
+    } else if (!usable && wasUsable) {
+      log.warn("Read replica is {} s behind; sending reads to the primary", lagSeconds);
+    }
+  }
+
+  /**
+   * This method returns whether reads may be sent to the replica.
+   * @return true if the replica was reachable and close enough behind when last checked
+   */
+  public boolean isUsable() {
+    return usable;
+  }
+
+  /**
+   * This method returns the replica's lag when last checked.
+   * @return the lag in seconds, or NaN if the replica could not be reached
+   */
+  public double getLagSeconds() {
+    return lagSeconds;
+  }
+}
@@ -0,0 +1,131 @@
+package edu.ucsb.cs156.example.replica;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+/**
+ * This class sends read-only transactions to the read replica and everything else
+ * to the primary.
+ *
+ * The application's DataSource is a {@link LazyConnectionDataSourceProxy}, which
+ * only fetches a real connection when the first statement runs, by which time the
+ * transaction has been marked read-only (see {@code @Transactional(readOnly = true)}
+ * on the repositories).  Read-only connections come from {@link #readTarget()}:
+ * the replica, unless it is too far behind (see {@link ReplicaLagMonitor}) or the
+ * HTTP session wrote something in the last {@code app.datasource.replica.sticky-for},
+ * in which case the primary, so that a user always sees their own writes.
+ *
+ * Responses served under a table's ETag read the version of the table in the same
+ * read-only transaction as the response (see ApiController#notModified), so a
+ * replica that is behind gives them an older ETag rather than old data under a
+ * new one.
+ *
+ * Reads are counted in {@code datasource.reads}, tagged with the target.
+ */
+public class ReplicaRouting {
+
+  /** The session attribute holding the time until which the session reads from the primary */
+  static final String PRIMARY_UNTIL = ReplicaRouting.class.getName() + ".PRIMARY_UNTIL";
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final ReplicaLagMonitor lagMonitor;
+  private final Duration stickyFor;
+  private final Counter readsFromPrimary;
+  private final Counter readsFromReplica;
+
+  /**
+   * Create the routing.
+   * @param primary the primary's data source
+   * @param replica the replica's data source
+   * @param lagMonitor the monitor that says whether the replica may be used
+   * @param stickyFor how long a session reads from the primary after a write
+   * @param meterRegistry where the {@code datasource.reads} counters are registered
+   */
+  public ReplicaRouting(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor, Duration stickyFor,
+      MeterRegistry meterRegistry) {
+    this.primary = primary;
+    this.replica = replica;
+    this.lagMonitor = lagMonitor;
+    this.stickyFor = stickyFor;
+    this.readsFromPrimary = reads("primary", meterRegistry);
+    this.readsFromReplica = reads("replica", meterRegistry);
+  }
+
+  private static Counter reads(String target, MeterRegistry meterRegistry) {
+    return Counter.builder("datasource.reads")
+        .description("Read-only transactions, by the database they were sent to")
+        .tag("target", target)
+        .register(meterRegistry);
+  }
+
+  /**
+   * This method returns the DataSource for the application to use.
+   * @return a data source that routes each transaction's connection
+   */
+  public DataSource dataSource() {
+    LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy();
+    proxy.setTargetDataSource(new Routed(primary, this::writeTarget));
+    proxy.setReadOnlyDataSource(new Routed(replica, this::readTarget));
+    proxy.afterPropertiesSet();
+    return proxy;
+  }
+
+  DataSource readTarget() {
+    if (lagMonitor.isUsable() && !needsPrimary()) {
+      readsFromReplica.increment();
+      return replica;
+    }
+    readsFromPrimary.increment();
+    return primary;
+  }
+
+  DataSource writeTarget() {
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    if (request != null && TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      request.setAttribute(PRIMARY_UNTIL, Instant.now().plus(stickyFor), RequestAttributes.SCOPE_SESSION);
+    }
+    return primary;
+  }
+
+  private static boolean needsPrimary() {
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+    return request != null
+        && request.getAttribute(PRIMARY_UNTIL, RequestAttributes.SCOPE_SESSION) instanceof Instant until
+        && Instant.now().isBefore(until);
+  }
+
+  /** A data source that picks its target each time a connection is asked for */
+  private static class Routed extends DelegatingDataSource {
+    private final Supplier<DataSource> target;
+
+    Routed(DataSource usual, Supplier<DataSource> target) {
+      super(usual);
+      this.target = target;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return target.get().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return target.get().getConnection(username, password);
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.AdminEmail;
+
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The AdminEmailRepository is a repository for AdminEmail entities.
+ */
+@Repository
+public interface AdminEmailRepository extends CrudRepository<AdminEmail, String> {
+}
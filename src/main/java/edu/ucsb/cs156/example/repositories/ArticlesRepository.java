@@ -1,11 +1,41 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Articles;
+import edu.ucsb.cs156.example.models.ArticlesView;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ArticlesRepository extends CrudRepository<Articles, Long> {
+public interface ArticlesRepository extends CrudRepository<Articles, Long>, ArticlesSearchRepository {
+  /**
+   * This method returns the Articles entities whose id is greater than the given one,
+   * in id order; used for keyset (cursor) pagination.
+   * @param id the id of the last entity on the previous page
+   * @param limit the maximum number of entities to return
+   * @return up to limit Articles entities following the given id
+   */
+  @Transactional(readOnly = true)
+  List<Articles> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+  /**
+   * This method returns every Articles row as a ArticlesView, in id order, without
+   * loading the entities.
+   * @return all Articles rows, as views
+   */
+  @Transactional(readOnly = true)
+  List<ArticlesView> findAllViewsByOrderByIdAsc();
 
-}
\ No newline at end of file
+  /**
+   * This method returns one Articles row as a ArticlesView, without loading the entity.
+   * @param id the id of the row
+   * @return the view, if there is a row with that id
+   */
+  @Transactional(readOnly = true)
+  Optional<ArticlesView> findViewById(long id);
+}
@@ -0,0 +1,23 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.Articles;
+
+import java.util.List;
+
+/**
+ * Repository fragment for full-text search over the title and explanation of articles.
+ * It is mixed into ArticlesRepository by Spring Data.
+ */
+public interface ArticlesSearchRepository {
+  /**
+   * This method returns the articles that contain every word of the query, best
+   * matches first (a match in the title counts for more than one in the explanation).
+   * The search goes through a full-text index (see db/migration/changes/Articles.json),
+   * so its cost depends on the number of matches, not on the size of the table.
+   * @param query the words to search for
+   * @param offset the number of matches to skip
+   * @param limit the maximum number of matches to return
+   * @return the matching articles, in rank order
+   */
+  List<Articles> search(String query, int offset, int limit);
+}
@@ -0,0 +1,88 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.Articles;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Native SQL implementation of ArticlesSearchRepository.
+ *
+ * On Postgres it matches against the generated, GIN-indexed {@code search_vector}
+ * column and ranks with {@code ts_rank}.  Elsewhere (H2) it uses H2's built-in
+ * full-text index, and ranks each match by how many of the words appear in the
+ * title (weight 2) and the explanation (weight 1).
+ */
+public class ArticlesSearchRepositoryImpl implements ArticlesSearchRepository {
+
+  static final String COLUMNS = "a.id, a.title, a.url, a.explanation, a.email, a.date_added, a.change_version, a.updated_at, a.version";
+
+  static final String POSTGRES_SEARCH = "SELECT " + COLUMNS
+      + " FROM articles a, websearch_to_tsquery('english', :query) q"
+      + " WHERE a.search_vector @@ q"
+      + " ORDER BY ts_rank(a.search_vector, q) DESC, a.id"
+      + " LIMIT :limit OFFSET :offset";
+
+  static final String H2_SEARCH = "SELECT " + COLUMNS
+      + " FROM FT_SEARCH_DATA(:query, 0, 0) ft JOIN articles a ON a.id = CAST(ft.KEYS[1] AS BIGINT)"
+      + " WHERE ft.\"TABLE\" = 'ARTICLES'"
+      + " ORDER BY %s DESC, a.id"
+      + " LIMIT :limit OFFSET :offset";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional(readOnly = true)
+  @SuppressWarnings("unchecked")
+  public List<Articles> search(String query, int offset, int limit) {
+    String[] words = words(query);
+    if (words.length == 0) {
+      return List.of();
+    }
+    Query search;
+    if (isPostgres()) {
+      search = entityManager.createNativeQuery(POSTGRES_SEARCH, Articles.class)
+          .setParameter("query", query);
+    } else {
+      search = entityManager.createNativeQuery(H2_SEARCH.formatted(h2Rank(words.length)), Articles.class)
+          .setParameter("query", String.join(" ", words));
+      for (int i = 0; i < words.length; i++) {
+        search.setParameter("word" + i, "%" + words[i] + "%");
+      }
+    }
+    return search
+        .setParameter("limit", limit)
+        .setParameter("offset", offset)
+        .getResultList();
+  }
+
+  static String[] words(String query) {
+    return Arrays.stream(query.toUpperCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+        .filter(word -> !word.isEmpty())
+        .toArray(String[]::new);
+  }
+
+  static String h2Rank(int words) {
+    StringBuilder rank = new StringBuilder("(0");
+    for (int i = 0; i < words; i++) {
+      rank.append(" + CASE WHEN UPPER(a.title) LIKE :word").append(i).append(" THEN 2 ELSE 0 END")
+          .append(" + CASE WHEN UPPER(a.explanation) LIKE :word").append(i).append(" THEN 1 ELSE 0 END");
+    }
+    return rank.append(")").toString();
+  }
+
+  private boolean isPostgres() {
+    return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+        .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+  }
+}
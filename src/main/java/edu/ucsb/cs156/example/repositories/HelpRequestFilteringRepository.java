@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository fragment for filtering HelpRequest entities on the server.
+ * It is mixed into HelpRequestRepository by Spring Data.
+ */
+public interface HelpRequestFilteringRepository {
+  /**
+   * This method returns the help requests that match every non-null criterion, in id order.
+   * Only the criteria that are supplied end up in the WHERE clause, so each
+   * combination can use the matching index on the helprequests table
+   * (see db/migration/changes/HelpRequest.json).
+   * @param solved whether the help request has been solved, or null for any
+   * @param teamId the team id of the requester, or null for any
+   * @param tableOrBreakoutRoom where the help request is coming from, or null for any
+   * @param requestTimeFrom earliest request time (inclusive), or null for no lower bound
+   * @param requestTimeTo latest request time (exclusive), or null for no upper bound
+   * @return the matching help requests
+   */
+  List<HelpRequest> findAllMatching(Boolean solved, String teamId, String tableOrBreakoutRoom,
+      LocalDateTime requestTimeFrom, LocalDateTime requestTimeTo);
+}
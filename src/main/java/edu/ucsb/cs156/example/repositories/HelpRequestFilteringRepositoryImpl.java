@@ -0,0 +1,56 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria API implementation of HelpRequestFilteringRepository.
+ */
+public class HelpRequestFilteringRepositoryImpl implements HelpRequestFilteringRepository {
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  @Transactional(readOnly = true)
+  public List<HelpRequest> findAllMatching(Boolean solved, String teamId, String tableOrBreakoutRoom,
+      LocalDateTime requestTimeFrom, LocalDateTime requestTimeTo) {
+    CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+    CriteriaQuery<HelpRequest> query = cb.createQuery(HelpRequest.class);
+    Root<HelpRequest> root = query.from(HelpRequest.class);
+
+    List<Predicate> predicates = new ArrayList<>();
+    if (solved != null) {
+      predicates.add(cb.equal(root.get("solved"), solved));
+    }
+    if (teamId != null) {
+      predicates.add(cb.equal(root.get("teamId"), teamId));
+    }
+    if (tableOrBreakoutRoom != null) {
+      predicates.add(cb.equal(root.get("tableOrBreakoutRoom"), tableOrBreakoutRoom));
+    }
+    if (requestTimeFrom != null) {
+      predicates.add(cb.greaterThanOrEqualTo(root.get("requestTime"), requestTimeFrom));
+    }
+    if (requestTimeTo != null) {
+      predicates.add(cb.lessThan(root.get("requestTime"), requestTimeTo));
+    }
+
+    query.select(root);
+    query.where(predicates.toArray(new Predicate[0]));
+    query.orderBy(cb.asc(root.get("id")));
+    return entityManager.createQuery(query).getResultList();
+  }
+}
@@ -1,15 +1,68 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.HelpRequestView;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /*
 The HelpRequestRepository is a repository for HelpRequest entities.
+Filtered queries are implemented in HelpRequestFilteringRepositoryImpl.
 */
 
 @Repository
-public interface HelpRequestRepository extends CrudRepository<HelpRequest, Long> {
+public interface HelpRequestRepository extends CrudRepository<HelpRequest, Long>, HelpRequestFilteringRepository {
+  /**
+   * Number of rows the JDBC driver fetches per round trip when streaming.
+   */
+  String STREAM_FETCH_SIZE = "500";
+
+  /**
+   * This method returns the HelpRequest entities whose id is greater than the given one,
+   * in id order; used for keyset (cursor) pagination.
+   * @param id the id of the last entity on the previous page
+   * @param limit the maximum number of entities to return
+   * @return up to limit HelpRequest entities following the given id
+   */
+  @Transactional(readOnly = true)
+  List<HelpRequest> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+  /**
+   * This method returns every HelpRequest row as a HelpRequestView, in id order, without
+   * loading the entities.
+   * @return all HelpRequest rows, as views
+   */
+  @Transactional(readOnly = true)
+  List<HelpRequestView> findAllViewsByOrderByIdAsc();
+
+  /**
+   * This method returns one HelpRequest row as a HelpRequestView, without loading the entity.
+   * @param id the id of the row
+   * @return the view, if there is a row with that id
+   */
+  @Transactional(readOnly = true)
+  Optional<HelpRequestView> findViewById(long id);
 
-}
\ No newline at end of file
+  /**
+   * This method streams all HelpRequest entities in id order, using a server-side
+   * cursor rather than loading the whole table into memory.
+   * The stream must be consumed (and closed) inside a transaction.
+   * @return a stream of all HelpRequest entities
+   */
+  @QueryHints({
+    @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+    @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+  })
+  Stream<HelpRequest> streamAllByOrderByIdAsc();
+}
@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+
+import jakarta.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * The MenuItemRatingRepository is a repository for MenuItemRating entities.
+ */
+@Repository
+public interface MenuItemRatingRepository extends CrudRepository<MenuItemRating, Long>, MenuItemRatingUpsertRepository {
+  /**
+   * This method returns the rating totals for an item, locking the row so that
+   * concurrent reviews of the same item are applied one after the other.
+   * A row that does not exist cannot be locked, so call {@link #insertIfAbsent} first.
+   * @param itemId the id of the menu item
+   * @return Optional of MenuItemRating (empty if the item has no totals row)
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  Optional<MenuItemRating> findForUpdateByItemId(Long itemId);
+}
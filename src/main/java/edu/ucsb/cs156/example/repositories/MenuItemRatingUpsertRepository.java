@@ -0,0 +1,16 @@
+package edu.ucsb.cs156.example.repositories;
+
+/**
+ * Repository fragment that creates the rating totals row of an item if it does
+ * not exist yet.  It is mixed into MenuItemRatingRepository by Spring Data.
+ */
+public interface MenuItemRatingUpsertRepository {
+  /**
+   * This method inserts an all-zero totals row for an item unless there already
+   * is one, in a single statement, so that concurrent first reviews of the same
+   * item cannot both insert it.  Afterwards the row can be locked with
+   * {@link MenuItemRatingRepository#findForUpdateByItemId}.
+   * @param itemId the id of the menu item
+   */
+  void insertIfAbsent(Long itemId);
+}
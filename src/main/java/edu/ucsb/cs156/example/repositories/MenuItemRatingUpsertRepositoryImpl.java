@@ -0,0 +1,55 @@
+package edu.ucsb.cs156.example.repositories;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * JDBC implementation of MenuItemRatingUpsertRepository.
+ *
+ * On Postgres it is an {@code INSERT ... ON CONFLICT DO NOTHING}.  Elsewhere (H2)
+ * it is a {@code MERGE} that only inserts; H2 does not make a concurrent MERGE of
+ * the same key wait for the other one, so there the loser's unique key violation
+ * is ignored (H2 carries on with the transaction after a failed statement).  The
+ * other columns default to 0 (see db/migration/changes/MenuItemReview.json).
+ */
+public class MenuItemRatingUpsertRepositoryImpl implements MenuItemRatingUpsertRepository {
+
+  static final String POSTGRES_INSERT = "INSERT INTO menuitemratings (item_id) VALUES (?)"
+      + " ON CONFLICT (item_id) DO NOTHING";
+
+  static final String H2_INSERT = "MERGE INTO menuitemratings r"
+      + " USING (VALUES (CAST(? AS BIGINT))) AS n (item_id) ON r.item_id = n.item_id"
+      + " WHEN NOT MATCHED THEN INSERT (item_id) VALUES (n.item_id)";
+
+  static final String UNIQUE_VIOLATION = "23505";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Override
+  public void insertIfAbsent(Long itemId) {
+    String sql = isPostgres() ? POSTGRES_INSERT : H2_INSERT;
+    entityManager.unwrap(Session.class).doWork(connection -> {
+      try (PreparedStatement insert = connection.prepareStatement(sql)) {
+        insert.setLong(1, itemId);
+        insert.executeUpdate();
+      } catch (SQLException e) {
+        if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+          throw e;
+        }
+      }
+    });
+  }
+
+  private boolean isPostgres() {
+    return entityManager.getEntityManagerFactory().unwrap(SessionFactoryImplementor.class)
+        .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+  }
+}
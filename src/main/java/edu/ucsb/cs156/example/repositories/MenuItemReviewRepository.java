@@ -1,10 +1,41 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.MenuItemReviewView;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MenuItemReviewRepository extends CrudRepository<MenuItemReview, Long> {
+  /**
+   * This method returns the MenuItemReview entities whose id is greater than the given one,
+   * in id order; used for keyset (cursor) pagination.
+   * @param id the id of the last entity on the previous page
+   * @param limit the maximum number of entities to return
+   * @return up to limit MenuItemReview entities following the given id
+   */
+  @Transactional(readOnly = true)
+  List<MenuItemReview> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+  /**
+   * This method returns every MenuItemReview row as a MenuItemReviewView, in id order, without
+   * loading the entities.
+   * @return all MenuItemReview rows, as views
+   */
+  @Transactional(readOnly = true)
+  List<MenuItemReviewView> findAllViewsByOrderByIdAsc();
+
+  /**
+   * This method returns one MenuItemReview row as a MenuItemReviewView, without loading the entity.
+   * @param id the id of the row
+   * @return the view, if there is a row with that id
+   */
+  @Transactional(readOnly = true)
+  Optional<MenuItemReviewView> findViewById(Long id);
 }
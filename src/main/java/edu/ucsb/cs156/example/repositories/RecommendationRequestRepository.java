@@ -1,14 +1,44 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import edu.ucsb.cs156.example.models.RecommendationRequestView;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
 
 /**
  * The RecommendationRequestRepository is a repository for Recommendation entities.
  */
-
 @Repository
 public interface RecommendationRequestRepository extends CrudRepository<RecommendationRequest, Long> {
-}
\ No newline at end of file
+  /**
+   * This method returns the RecommendationRequest entities whose id is greater than the given one,
+   * in id order; used for keyset (cursor) pagination.
+   * @param id the id of the last entity on the previous page
+   * @param limit the maximum number of entities to return
+   * @return up to limit RecommendationRequest entities following the given id
+   */
+  @Transactional(readOnly = true)
+  List<RecommendationRequest> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+
+  /**
+   * This method returns every RecommendationRequest row as a RecommendationRequestView, in id order, without
+   * loading the entities.
+   * @return all RecommendationRequest rows, as views
+   */
+  @Transactional(readOnly = true)
+  List<RecommendationRequestView> findAllViewsByOrderByIdAsc();
+
+  /**
+   * This method returns one RecommendationRequest row as a RecommendationRequestView, without loading the entity.
+   * @param id the id of the row
+   * @return the view, if there is a row with that id
+   */
+  @Transactional(readOnly = true)
+  Optional<RecommendationRequestView> findViewById(long id);
+}
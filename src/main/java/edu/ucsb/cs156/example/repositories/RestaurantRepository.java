@@ -1,13 +1,40 @@
 package edu.ucsb.cs156.example.repositories;
 
+import edu.ucsb.cs156.example.entities.CacheRegions;
 import edu.ucsb.cs156.example.entities.Restaurant;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * The RestaurantRepository is a repository for Restaurant entities
  */
 @Repository
 public interface RestaurantRepository extends CrudRepository<Restaurant, Long> {
+  /**
+   * This method returns all Restaurant entities, from the query cache when possible.
+   * @return all Restaurant entities
+   */
+  @Override
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.RESTAURANTS_QUERIES) })
+  Iterable<Restaurant> findAll();
+
+  /**
+   * This method returns the Restaurant entities whose id is greater than the given one,
+   * in id order; used for keyset (cursor) pagination.
+   * @param id the id of the last entity on the previous page
+   * @param limit the maximum number of entities to return
+   * @return up to limit Restaurant entities following the given id
+   */
+  @Transactional(readOnly = true)
+  List<Restaurant> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
 }
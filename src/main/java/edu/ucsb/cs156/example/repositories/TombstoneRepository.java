@@ -0,0 +1,25 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.Tombstone;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * The TombstoneRepository is a repository for Tombstone entities
+ */
+@Repository
+public interface TombstoneRepository extends CrudRepository<Tombstone, Long> {
+  /**
+   * This method returns the tombstones recorded between two change versions, in order.
+   * @param after the change version to start after
+   * @param before the change version to stop before
+   * @param limit the maximum number of tombstones to return
+   * @return up to limit tombstones
+   */
+  List<Tombstone> findByChangeVersionGreaterThanAndChangeVersionLessThanOrderByChangeVersionAsc(long after,
+      long before, Limit limit);
+}
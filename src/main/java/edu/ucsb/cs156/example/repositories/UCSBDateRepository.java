@@ -1,20 +1,51 @@
 package edu.ucsb.cs156.example.repositories;
 
+import edu.ucsb.cs156.example.entities.CacheRegions;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * The UCSBDateRepository is a repository for UCSBDate entities.
  */
-
 @Repository
 public interface UCSBDateRepository extends CrudRepository<UCSBDate, Long> {
+  /**
+   * This method returns all UCSBDate entities, from the query cache when possible.
+   * @return all UCSBDate entities
+   */
+  @Override
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.UCSB_DATES_QUERIES) })
+  Iterable<UCSBDate> findAll();
+
   /**
    * This method returns all UCSBDate entities with a given quarterYYYYQ.
    * @param quarterYYYYQ quarter in the format YYYYQ (e.g. 20241 for Winter 2024, 20242 for Spring 2024, 20243 for Summer 2024, 20244 for Fall 2024)
    * @return all UCSBDate entities with a given quarterYYYYQ
    */
+  @Transactional(readOnly = true)
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.UCSB_DATES_QUERIES) })
   Iterable<UCSBDate> findAllByQuarterYYYYQ(String quarterYYYYQ);
-}
\ No newline at end of file
+
+  /**
+   * This method returns the UCSBDate entities whose id is greater than the given one,
+   * in id order; used for keyset (cursor) pagination.
+   * @param id the id of the last entity on the previous page
+   * @param limit the maximum number of entities to return
+   * @return up to limit UCSBDate entities following the given id
+   */
+  @Transactional(readOnly = true)
+  List<UCSBDate> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
+}
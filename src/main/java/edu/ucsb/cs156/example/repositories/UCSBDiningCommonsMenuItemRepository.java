@@ -1,12 +1,43 @@
 package edu.ucsb.cs156.example.repositories;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import edu.ucsb.cs156.example.entities.CacheRegions;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
 
+import java.util.List;
+
 @Repository
 public interface UCSBDiningCommonsMenuItemRepository extends CrudRepository<UCSBDiningCommonsMenuItem, Long> {
-    
+    /**
+     * This method returns all UCSBDiningCommonsMenuItem entities, from the query cache when possible.
+     * @return all UCSBDiningCommonsMenuItem entities
+     */
+    @Override
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.UCSB_DINING_COMMONS_MENU_ITEMS_QUERIES) })
+    Iterable<UCSBDiningCommonsMenuItem> findAll();
+
+    @Transactional(readOnly = true)
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.UCSB_DINING_COMMONS_MENU_ITEMS_QUERIES) })
     Iterable<UCSBDiningCommonsMenuItem> findAllByDiningCommonsCode(String diningCommonsCode);
+
+    /**
+     * This method returns the UCSBDiningCommonsMenuItem entities whose id is greater than the given one,
+     * in id order; used for keyset (cursor) pagination.
+     * @param id the id of the last entity on the previous page
+     * @param limit the maximum number of entities to return
+     * @return up to limit UCSBDiningCommonsMenuItem entities following the given id
+     */
+    @Transactional(readOnly = true)
+    List<UCSBDiningCommonsMenuItem> findByIdGreaterThanOrderByIdAsc(long id, Limit limit);
 }
@@ -1,15 +1,41 @@
 package edu.ucsb.cs156.example.repositories;
 
+import edu.ucsb.cs156.example.entities.CacheRegions;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * The UCSBDiningCommonsRepository is a repository for UCSBDiningCommons entities
  */
 @Repository
 public interface UCSBDiningCommonsRepository extends CrudRepository<UCSBDiningCommons, String> {
- 
-}
\ No newline at end of file
+  /**
+   * This method returns all UCSBDiningCommons entities, from the query cache when possible.
+   * @return all UCSBDiningCommons entities
+   */
+  @Override
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.UCSB_DINING_COMMONS_QUERIES) })
+  Iterable<UCSBDiningCommons> findAll();
+
+  /**
+   * This method returns the UCSBDiningCommons entities whose code is greater than the given one,
+   * in code order; used for keyset (cursor) pagination.
+   * @param code the code of the last entity on the previous page
+   * @param limit the maximum number of entities to return
+   * @return up to limit UCSBDiningCommons entities following the given code
+   */
+  @Transactional(readOnly = true)
+  List<UCSBDiningCommons> findByCodeGreaterThanOrderByCodeAsc(String code, Limit limit);
+}
@@ -1,15 +1,41 @@
 package edu.ucsb.cs156.example.repositories;
 
+import edu.ucsb.cs156.example.entities.CacheRegions;
 import edu.ucsb.cs156.example.entities.UCSBOrgs;
 
 import org.springframework.beans.propertyeditors.StringArrayPropertyEditor;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * The UCSBOrgsRepository is a repository for UCSBOrgs entities
  */
 @Repository
 public interface UCSBOrgsRepository extends CrudRepository<UCSBOrgs, String> {
- 
-}
\ No newline at end of file
+  /**
+   * This method returns all UCSBOrgs entities, from the query cache when possible.
+   * @return all UCSBOrgs entities
+   */
+  @Override
+  @QueryHints({
+      @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+      @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = CacheRegions.UCSB_ORGS_QUERIES) })
+  Iterable<UCSBOrgs> findAll();
+
+  /**
+   * This method returns the UCSBOrgs entities whose orgCode is greater than the given one,
+   * in orgCode order; used for keyset (cursor) pagination.
+   * @param orgCode the orgCode of the last entity on the previous page
+   * @param limit the maximum number of entities to return
+   * @return up to limit UCSBOrgs entities following the given orgCode
+   */
+  @Transactional(readOnly = true)
+  List<UCSBOrgs> findByOrgCodeGreaterThanOrderByOrgCodeAsc(String orgCode, Limit limit);
+}
@@ -1,9 +1,13 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.User;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Optional;
 
 /**
@@ -17,4 +21,14 @@ public interface UserRepository extends CrudRepository<User, Long> {
    * @return Optional of User (empty if not found)
    */
   Optional<User> findByEmail(String email);
+
+  /**
+   * This method clears the admin flag of the users with the given emails.
+   * @param emails email addresses of the users
+   * @return the number of users changed
+   */
+  @Transactional
+  @Modifying
+  @Query("update users u set u.admin = false where u.email in :emails and u.admin = true")
+  int clearAdmin(Collection<String> emails);
 }
@@ -0,0 +1,196 @@
+package edu.ucsb.cs156.example.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import edu.ucsb.cs156.example.entities.AdminEmail;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.AdminEmailRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.util.Streamable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * This is a service that decides whether a user is an admin, used both when
+ * mapping authorities at login (SecurityConfig) and when resolving the current
+ * user (CurrentUserServiceImpl).
+ *
+ * A user is an admin if their email is in the list of admin emails (held as an
+ * immutable hashed set) or if their row in the users table says so.  The database
+ * answer is cached for a few minutes, so a burst of logins at the start of class
+ * does not turn into a burst of queries.
+ *
+ * The list of admin emails is {@code app.admin.emails} until it is replaced with
+ * {@link #reloadAdminEmails(Collection)}, which stores the new list in the database
+ * (see AdminEmail).  From then on the stored list is used, and every instance
+ * rereads it each {@code app.admin.emails-refresh}.
+ */
+
+@Slf4j
+@Service("adminRoles")
+public class AdminRoleService {
+
+  /**
+   * This event is published after the list of admin emails changes, so that
+   * anything caching a user's admin status can drop it.
+   *
+   * @param previousAdminEmails the list of admin emails before the change
+   * @param adminEmails the new list of admin emails
+   */
+  public record AdminEmailsReloadedEvent(Set<String> previousAdminEmails, Set<String> adminEmails) {
+    /**
+     * The emails that were added to or removed from the list.
+     * @return the emails whose admin status changed
+     */
+    public Set<String> changedEmails() {
+      Set<String> changed = new HashSet<>(previousAdminEmails);
+      changed.addAll(adminEmails);
+      changed.removeIf(email -> previousAdminEmails.contains(email) && adminEmails.contains(email));
+      return changed;
+    }
+  }
+
+  @Autowired
+  private UserRepository userRepository;
+
+  @Autowired
+  private AdminEmailRepository adminEmailRepository;
+
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @Value("${app.admin.emails}")
+  private String configuredAdminEmails;
+
+  private volatile Set<String> adminEmails = Set.of();
+
+  private final Cache<String, Boolean> databaseAdmins = Caffeine.newBuilder()
+      .maximumSize(10_000)
+      .expireAfterWrite(Duration.ofMinutes(5))
+      .build();
+
+  @PostConstruct
+  void loadAdminEmails() {
+    adminEmails = readAdminEmails();
+  }
+
+  /**
+   * This method rereads the list of admin emails from the database, so that a
+   * change made through another instance of the application takes effect here.
+   */
+  @Scheduled(fixedDelayString = "${app.admin.emails-refresh}",
+      initialDelayString = "${app.admin.emails-refresh}")
+  public void refreshAdminEmails() {
+    Set<String> stored = readAdminEmails();
+    if (!stored.equals(adminEmails)) {
+      changeAdminEmails(stored);
+    }
+  }
+
+  private Set<String> readAdminEmails() {
+    Set<String> stored = normalize(Streamable.of(adminEmailRepository.findAll()).map(AdminEmail::getEmail).toList());
+    return stored.isEmpty() ? normalize(Arrays.asList(configuredAdminEmails.split(","))) : stored;
+  }
+
+  /**
+   * This method checks whether the email is in the list of admin emails.
+   * @param email email address of the user
+   * @return whether the email is in the list
+   */
+  public boolean isAdminEmail(String email) {
+    return email != null && adminEmails.contains(email);
+  }
+
+  /**
+   * This method checks if the given email belongs to an admin user, either from
+   * the list of admin emails or from the (cached) users table.
+   * @param email email address of the user
+   * @return whether the user with the given email is an admin
+   */
+  public boolean isAdmin(String email) {
+    if (email == null) {
+      return false;
+    }
+    if (adminEmails.contains(email)) {
+      return true;
+    }
+    return databaseAdmins.get(email,
+        key -> userRepository.findByEmail(key).map(User::getAdmin).orElse(false));
+  }
+
+  /**
+   * This method returns the current list of admin emails.
+   * @return the admin emails
+   */
+  public Set<String> getAdminEmails() {
+    return adminEmails;
+  }
+
+  /**
+   * This method replaces the list of admin emails, in the database and in memory.
+   * Users whose email is taken off the list stop being admins: the admin flag of
+   * their row in the users table is cleared too.
+   * @param emails the new list of admin emails
+   * @return the new list, with blanks and duplicates removed
+   */
+  @Transactional
+  public Set<String> reloadAdminEmails(Collection<String> emails) {
+    Set<String> reloaded = normalize(emails);
+    Set<String> removed = new HashSet<>(adminEmails);
+    removed.removeAll(reloaded);
+
+    adminEmailRepository.deleteAll();
+    adminEmailRepository.saveAll(reloaded.stream().map(AdminEmail::new).toList());
+    if (!removed.isEmpty()) {
+      userRepository.clearAdmin(removed);
+    }
+    // until the new list has committed, a request could cache the old admin flags again
+    afterCommit(() -> changeAdminEmails(reloaded));
+    return reloaded;
+  }
+
+  private void changeAdminEmails(Set<String> changed) {
+    Set<String> previousAdminEmails = adminEmails;
+    adminEmails = changed;
+    databaseAdmins.invalidateAll();
+    log.info("Admin emails are now: {}", adminEmails);
+    eventPublisher.publishEvent(new AdminEmailsReloadedEvent(previousAdminEmails, adminEmails));
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private static Set<String> normalize(Collection<String> emails) {
+    return emails.stream()
+        .map(String::trim)
+        .filter(email -> !email.isEmpty())
+        .collect(Collectors.toUnmodifiableSet());
+  }
+}
@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.ArticlesView;
+import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This is a service that reads articles for the GET endpoints, as
+ * {@link ArticlesView}s.
+ *
+ * Its methods run in read-only transactions, which Spring opens with Hibernate's
+ * flush mode set to MANUAL and the session read-only, so nothing read here is
+ * dirty checked or flushed.  The listing and the lookup by id are constructor
+ * expressions, so no entity is loaded at all.  Called from a GET handler, the
+ * methods join its read-only transaction (see ApiController#notModified).
+ */
+
+@Service("articlesViews")
+public class ArticlesViewService {
+
+  @Autowired
+  ArticlesRepository articlesRepository;
+
+  /**
+   * This method returns all articles, in id order.
+   * @return all articles
+   */
+  @Transactional(readOnly = true)
+  public List<ArticlesView> allArticles() {
+    return articlesRepository.findAllViewsByOrderByIdAsc();
+  }
+
+  /**
+   * This method returns a single article.
+   * @param id the id of the article
+   * @return the article, if there is one with that id
+   */
+  @Transactional(readOnly = true)
+  public Optional<ArticlesView> findArticle(long id) {
+    return articlesRepository.findViewById(id);
+  }
+}
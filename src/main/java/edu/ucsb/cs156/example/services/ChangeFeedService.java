@@ -0,0 +1,99 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.changes.ChangeClock;
+import edu.ucsb.cs156.example.changes.ChangeTracked;
+import edu.ucsb.cs156.example.entities.Tombstone;
+import edu.ucsb.cs156.example.models.ChangeFeedPage;
+import edu.ucsb.cs156.example.models.EntityChange;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.EntityType;
+
+import org.hibernate.jpa.SpecHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * This is a service that answers "what has changed since X" across every
+ * {@link ChangeTracked} table, so clients that keep a local copy can sync the
+ * changes instead of reloading whole tables.
+ *
+ * Every insert, update and delete of a tracked row is numbered from one shared
+ * sequence; the cursor is simply the last number a client has seen.  A page is
+ * built by reading, from each table and from the tombstones, the first rows after
+ * the cursor (an index range scan on CHANGE_VERSION) and merging them in order.
+ *
+ * Changes are numbered as their transaction commits, in commit order (see
+ * {@link ChangeClock}), and a page only goes up to the clock as it was read at the
+ * start of the page.  Every number below the clock has committed, so once the cursor
+ * has moved past a number, no change can show up below it later.
+ */
+
+@Service("changeFeed")
+public class ChangeFeedService {
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Autowired
+  TombstoneRepository tombstoneRepository;
+
+  /**
+   * This method returns the changes after a cursor, oldest first.
+   * @param since the cursor: the version of the last change the client has seen, or 0
+   * @param limit the maximum number of changes to return
+   * @return a page of changes, with the cursor to pass next time
+   */
+  @Transactional(readOnly = true)
+  public ChangeFeedPage changesSince(long since, int limit) {
+    long committed = ((Number) entityManager.createNativeQuery(ChangeClock.READ_SQL).getSingleResult()).longValue();
+    List<EntityChange> changes = new ArrayList<>();
+    for (EntityType<?> type : trackedTypes()) {
+      String jpql = "select e from %s e where e.changeVersion > :since and e.changeVersion < :committed"
+          + " order by e.changeVersion";
+      entityManager.createQuery(jpql.formatted(type.getName()), type.getJavaType())
+          .setParameter("since", since)
+          .setParameter("committed", committed)
+          .setMaxResults(limit + 1)
+          // the change version is not read back after a write, so cached copies may not have it
+          .setHint(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS)
+          .getResultList()
+          .forEach(row -> changes.add(upsert(type.getName(), (ChangeTracked) row)));
+    }
+    tombstoneRepository
+        .findByChangeVersionGreaterThanAndChangeVersionLessThanOrderByChangeVersionAsc(since, committed,
+            Limit.of(limit + 1))
+        .forEach(tombstone -> changes.add(deletion(tombstone)));
+
+    changes.sort(Comparator.comparingLong(EntityChange::getVersion));
+    List<EntityChange> page = changes.subList(0, Math.min(limit, changes.size()));
+    long cursor = page.isEmpty() ? since : page.get(page.size() - 1).getVersion();
+    return new ChangeFeedPage(List.copyOf(page), cursor, changes.size() > limit);
+  }
+
+  private List<EntityType<?>> trackedTypes() {
+    return entityManager.getMetamodel().getEntities().stream()
+        .filter(type -> ChangeTracked.class.isAssignableFrom(type.getJavaType()))
+        .sorted(Comparator.comparing(EntityType::getName))
+        .<EntityType<?>>map(type -> type)
+        .toList();
+  }
+
+  private EntityChange upsert(String type, ChangeTracked row) {
+    Object id = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(row);
+    return new EntityChange(row.getChangeVersion(), type, String.valueOf(id),
+        EntityChange.Operation.UPSERT, row.getUpdatedAt(), row);
+  }
+
+  private static EntityChange deletion(Tombstone tombstone) {
+    return new EntityChange(tombstone.getChangeVersion(), tombstone.getEntityType(), tombstone.getEntityId(),
+        EntityChange.Operation.DELETE, tombstone.getDeletedAt(), null);
+  }
+}
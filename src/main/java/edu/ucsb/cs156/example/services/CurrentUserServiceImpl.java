@@ -5,13 +5,15 @@ import edu.ucsb.cs156.example.models.CurrentUser;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.ArrayList;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
 import java.util.Collection;
-import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.context.annotation.Primary;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
@@ -37,8 +39,47 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   @Autowired
   GrantedAuthoritiesService grantedAuthoritiesService;
 
-  @Value("${app.admin.emails}")
-  final private List<String> adminEmails = new ArrayList<String>();
+  @Autowired
+  private AdminRoleService adminRoleService;
+
+  /**
+   * Users already resolved from their OAuth2 login, keyed by email.  The frontend
+   * asks for the current user on nearly every request, and this saves a query of
+   * the users table each time.  What is cached is an immutable copy of the row;
+   * each request gets a User of its own made from it.
+   */
+  private final Cache<String, ResolvedUser> resolvedUsers = Caffeine.newBuilder()
+      .maximumSize(10_000)
+      .expireAfterWrite(Duration.ofMinutes(5))
+      .build();
+
+  /** An immutable copy of a User, as cached in {@link #resolvedUsers} */
+  private record ResolvedUser(long id, String email, String googleSub, String pictureUrl, String fullName,
+      String givenName, String familyName, boolean emailVerified, String locale, String hostedDomain,
+      boolean admin) {
+
+    static ResolvedUser of(User u) {
+      return new ResolvedUser(u.getId(), u.getEmail(), u.getGoogleSub(), u.getPictureUrl(), u.getFullName(),
+          u.getGivenName(), u.getFamilyName(), u.getEmailVerified(), u.getLocale(), u.getHostedDomain(),
+          u.getAdmin());
+    }
+
+    User toUser() {
+      return User.builder()
+          .id(id)
+          .email(email)
+          .googleSub(googleSub)
+          .pictureUrl(pictureUrl)
+          .fullName(fullName)
+          .givenName(givenName)
+          .familyName(familyName)
+          .emailVerified(emailVerified)
+          .locale(locale)
+          .hostedDomain(hostedDomain)
+          .admin(admin)
+          .build();
+    }
+  }
 
   /**
    * This method returns the current user as a User object.
@@ -58,6 +99,9 @@ public class CurrentUserServiceImpl extends CurrentUserService {
    * The parameters are automatically injected by Spring.
    * 
    * This method also has a side effect of storing the user in the database if they are not already there.
+   * The result is cached per email (see {@link #resolvedUsers}), so the database is only
+   * consulted on the first request of a login, and again after the entry expires or is evicted.
+   * A login without an email is not cached.
    * 
    * @param securityContext the security context (provided by Spring)
    * @param authentication the authentication token (provided by Spring)
@@ -66,6 +110,21 @@ public class CurrentUserServiceImpl extends CurrentUserService {
   
   public User getOAuth2AuthenticatedUser(SecurityContext securityContext, Authentication authentication) {
     OAuth2User oAuthUser = ((OAuth2AuthenticationToken) authentication).getPrincipal();
+    String email = oAuthUser.getAttribute("email");
+    if (email == null) {
+      return findOrCreateUser(oAuthUser);
+    }
+    return resolvedUsers.get(email, key -> ResolvedUser.of(findOrCreateUser(oAuthUser))).toUser();
+  }
+
+  /**
+   * This method looks up the user with the given OAuth2 attributes in the database,
+   * storing them if they are not already there.
+   *
+   * @param oAuthUser the OAuth2 principal
+   * @return the User object representing that principal
+   */
+  private User findOrCreateUser(OAuth2User oAuthUser) {
     String email = oAuthUser.getAttribute("email");
     String googleSub = oAuthUser.getAttribute("sub");
     String pictureUrl = oAuthUser.getAttribute("picture");
@@ -82,7 +141,7 @@ public class CurrentUserServiceImpl extends CurrentUserService {
     Optional<User> ou = userRepository.findByEmail(email);
     if (ou.isPresent()) {
       User u = ou.get();
-      if (adminEmails.contains(email) && !u.getAdmin()) {
+      if (adminRoleService.isAdminEmail(email) && !u.getAdmin()) {
         u.setAdmin(true);
         userRepository.save(u);
       }
@@ -99,12 +158,32 @@ public class CurrentUserServiceImpl extends CurrentUserService {
         .emailVerified(emailVerified)
         .locale(locale)
         .hostedDomain(hostedDomain)
-        .admin(adminEmails.contains(email))
+        .admin(adminRoleService.isAdminEmail(email))
         .build();
     userRepository.save(u);
     return u;
   }
 
+  /**
+   * This method forgets the cached User for one email, so that it is reloaded
+   * from the database on that user's next request (e.g. after their admin
+   * status changes).
+   * @param email the email of the user
+   */
+  public void evictUser(String email) {
+    resolvedUsers.invalidate(email);
+  }
+
+  /**
+   * This method forgets the cached Users whose admin status changed when the list
+   * of admin emails was reloaded.
+   * @param event the event published by AdminRoleService
+   */
+  @EventListener
+  public void onAdminEmailsReloaded(AdminRoleService.AdminEmailsReloadedEvent event) {
+    event.changedEmails().forEach(this::evictUser);
+  }
+
   /**
    * This method returns the current user as a User object.
    * @return the current user
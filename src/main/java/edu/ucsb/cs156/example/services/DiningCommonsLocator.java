@@ -0,0 +1,198 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
+
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * This is a service that finds the dining commons nearest to a point, using an
+ * in-memory k-d tree over their latitude/longitude.
+ *
+ * Each location is stored as a point on the unit sphere (x, y, z), so the tree is
+ * an ordinary 3-d tree: the straight-line (chord) distance between two such points
+ * orders them exactly as the great-circle distance does, and there is no special
+ * case at the poles or the antimeridian.  A query visits only the branches that
+ * can still hold one of the k nearest commons, instead of computing the haversine
+ * distance to every row.
+ *
+ * The index is filled when the application starts (see CacheConfig) and updated by
+ * UCSBDiningCommonsController after each write, from the row that was written, so
+ * the table is never read again.  Each update publishes a new tree (rebuilt from
+ * the in-memory points, which is cheap for a table this size); queries read
+ * whichever tree is current without taking a lock.  Commons without a latitude or
+ * longitude are left out.
+ */
+
+@Service("diningCommonsLocator")
+public class DiningCommonsLocator {
+
+  /** Mean radius of the Earth, used to turn chord lengths back into distances */
+  public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+  private record Point(UCSBDiningCommons commons, double[] xyz) {
+  }
+
+  private record Candidate(Point point, double chord2) {
+  }
+
+  private static final Comparator<Candidate> FARTHEST_FIRST =
+      Comparator.comparingDouble(Candidate::chord2).reversed();
+
+  private final Map<String, Point> points = new HashMap<>();
+
+  /**
+   * The current tree, stored implicitly: the root of the range [lo, hi) is at its
+   * midpoint, split on axis (depth % 3), with its two subtrees on either side.
+   */
+  private volatile Point[] tree = new Point[0];
+
+  /**
+   * This method replaces the contents of the index.
+   * @param commons all dining commons
+   */
+  public synchronized void load(Iterable<UCSBDiningCommons> commons) {
+    points.clear();
+    commons.forEach(this::index);
+    rebuild();
+  }
+
+  /**
+   * This method adds a dining commons to the index, or moves it if it is already there.
+   * @param commons the dining commons, as saved
+   */
+  public synchronized void put(UCSBDiningCommons commons) {
+    points.remove(commons.getCode());
+    index(commons);
+    rebuild();
+  }
+
+  /**
+   * This method removes a dining commons from the index.
+   * @param code the code of the dining commons
+   */
+  public synchronized void remove(String code) {
+    if (points.remove(code) != null) {
+      rebuild();
+    }
+  }
+
+  /**
+   * This method returns the number of dining commons in the index.
+   * @return the number of dining commons that have a location
+   */
+  public int size() {
+    return tree.length;
+  }
+
+  /**
+   * This method finds the dining commons nearest to a point.
+   * @param latitude latitude of the point, in degrees
+   * @param longitude longitude of the point, in degrees
+   * @param k the maximum number of dining commons to return
+   * @return up to k dining commons, nearest first, with their distance from the point
+   */
+  public List<NearbyDiningCommons> nearest(double latitude, double longitude, int k) {
+    Point[] nodes = tree;
+    if (k <= 0 || nodes.length == 0) {
+      return List.of();
+    }
+    double[] target = unitVector(latitude, longitude);
+    PriorityQueue<Candidate> best = new PriorityQueue<>(k + 1, FARTHEST_FIRST);
+    search(nodes, 0, nodes.length, 0, target, k, best);
+
+    List<Candidate> found = new ArrayList<>(best);
+    found.sort(FARTHEST_FIRST.reversed());
+    return found.stream()
+        .map(c -> new NearbyDiningCommons(c.point().commons(), distanceMeters(c.chord2())))
+        .toList();
+  }
+
+  private void index(UCSBDiningCommons commons) {
+    if (commons.getLatitude() != null && commons.getLongitude() != null) {
+      points.put(commons.getCode(),
+          new Point(commons, unitVector(commons.getLatitude(), commons.getLongitude())));
+    }
+  }
+
+  private void rebuild() {
+    Point[] nodes = points.values().toArray(new Point[0]);
+    build(nodes, 0, nodes.length, 0);
+    tree = nodes;
+  }
+
+  private static void build(Point[] nodes, int lo, int hi, int axis) {
+    if (hi - lo <= 1) {
+      return;
+    }
+    Arrays.sort(nodes, lo, hi, Comparator.comparingDouble(p -> p.xyz()[axis]));
+    int mid = (lo + hi) >>> 1;
+    build(nodes, lo, mid, (axis + 1) % 3);
+    build(nodes, mid + 1, hi, (axis + 1) % 3);
+  }
+
+  private static void search(Point[] nodes, int lo, int hi, int axis, double[] target,
+      int k, PriorityQueue<Candidate> best) {
+    if (lo >= hi) {
+      return;
+    }
+    int mid = (lo + hi) >>> 1;
+    Point node = nodes[mid];
+    double chord2 = chord2(node.xyz(), target);
+    if (best.size() < k || chord2 < best.peek().chord2()) {
+      best.add(new Candidate(node, chord2));
+      if (best.size() > k) {
+        best.poll();
+      }
+    }
+
+    double offset = target[axis] - node.xyz()[axis];
+    int next = (axis + 1) % 3;
+    if (offset < 0) {
+      search(nodes, lo, mid, next, target, k, best);
+    } else {
+      search(nodes, mid + 1, hi, next, target, k, best);
+    }
+    // the other side can only help if the splitting plane is closer than the k-th best so far
+    if (best.size() < k || offset * offset < best.peek().chord2()) {
+      if (offset < 0) {
+        search(nodes, mid + 1, hi, next, target, k, best);
+      } else {
+        search(nodes, lo, mid, next, target, k, best);
+      }
+    }
+  }
+
+  private static double[] unitVector(double latitude, double longitude) {
+    double lat = Math.toRadians(latitude);
+    double lon = Math.toRadians(longitude);
+    return new double[] {
+        Math.cos(lat) * Math.cos(lon),
+        Math.cos(lat) * Math.sin(lon),
+        Math.sin(lat)
+    };
+  }
+
+  private static double chord2(double[] a, double[] b) {
+    double dx = a[0] - b[0];
+    double dy = a[1] - b[1];
+    double dz = a[2] - b[2];
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  /**
+   * Turn a squared chord length on the unit sphere into a great-circle distance;
+   * this is the same number the haversine formula gives.
+   */
+  private static double distanceMeters(double chord2) {
+    return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(chord2) / 2));
+  }
+}
@@ -0,0 +1,62 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.stream.Stream;
+
+/**
+ * This is a service that exports help requests as newline-delimited JSON (NDJSON).
+ *
+ * Rows are read through a server-side cursor and detached from the persistence
+ * context as soon as they are written, so memory use does not grow with the table.
+ */
+
+@Slf4j
+@Service("helpRequestExport")
+public class HelpRequestExportService {
+
+  @Autowired
+  HelpRequestRepository helpRequestRepository;
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  /**
+   * This method writes every help request to the output stream, one JSON object per line.
+   * @param out the stream to write to (not closed by this method)
+   * @return the number of help requests written
+   */
+  @Transactional(readOnly = true)
+  public long writeNdjson(OutputStream out) {
+    ObjectWriter writer = mapper.writerFor(HelpRequest.class);
+    long count = 0;
+    try (Stream<HelpRequest> rows = helpRequestRepository.streamAllByOrderByIdAsc()) {
+      for (HelpRequest row : (Iterable<HelpRequest>) rows::iterator) {
+        out.write(writer.writeValueAsBytes(row));
+        out.write('\n');
+        entityManager.detach(row);
+        count++;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    log.info("exported {} help requests", count);
+    return count;
+  }
+}
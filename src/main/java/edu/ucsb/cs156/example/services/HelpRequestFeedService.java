@@ -0,0 +1,196 @@
+package edu.ucsb.cs156.example.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.accesslog.RingBuffer;
+import edu.ucsb.cs156.example.models.HelpRequestChange;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This is a service that pushes changes to the help request queue to every open
+ * live feed (Server-Sent Events), so that pages showing the queue do not have to
+ * poll {@code /api/helprequests/all}.
+ *
+ * HelpRequestController calls {@link #publish(HelpRequestChange)} after each write.
+ * The change is serialized to JSON once, and the finished event is offered to each
+ * subscriber's own bounded {@link RingBuffer}, so publishing never waits on a client's
+ * network connection.  Each buffer is drained by at most one task at a time, on the
+ * feed's own executor: {@code app.helprequests.feed.threads} platform threads, or a
+ * virtual thread per drain when {@code spring.threads.virtual.enabled} is true.  Slow
+ * clients therefore never hold up {@code @Async} work or async requests.
+ *
+ * A subscriber that falls {@code app.helprequests.feed.buffer} events behind is
+ * disconnected rather than slowing everyone else down; the browser reconnects
+ * and reloads the queue.
+ *
+ * Every {@code app.helprequests.feed.heartbeat} each subscriber is also sent a
+ * comment, which keeps proxies from closing an idle connection and lets us notice
+ * clients that have gone away.
+ */
+
+@Slf4j
+@Service("helpRequestFeed")
+public class HelpRequestFeedService {
+
+  private static final Set<DataWithMediaType> HEARTBEAT = SseEmitter.event().comment("heartbeat").build();
+
+  private record Subscriber(SseEmitter emitter, RingBuffer<Set<DataWithMediaType>> buffer,
+      AtomicInteger pending) {
+  }
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Value("${app.helprequests.feed.buffer}")
+  int bufferCapacity;
+
+  @Value("${app.helprequests.feed.threads}")
+  int threads;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  boolean virtualThreads;
+
+  @Value("${app.helprequests.feed.timeout}")
+  Duration timeout;
+
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+  private final AtomicLong lastEventId = new AtomicLong();
+
+  /** Runs the drains; package-private so tests can run them one at a time */
+  Executor feedExecutor;
+
+  /**
+   * This method starts the threads that send events to subscribers.
+   */
+  @PostConstruct
+  void startExecutor() {
+    feedExecutor = virtualThreads
+        ? Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("helprequest-feed-", 0).factory())
+        : Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("helprequest-feed-", 0).daemon().factory());
+  }
+
+  /**
+   * This method stops the threads that send events to subscribers.
+   */
+  @PreDestroy
+  void stopExecutor() {
+    if (feedExecutor instanceof ExecutorService executorService) {
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * This method opens a new live feed.
+   * @return the emitter to return from the controller
+   */
+  public SseEmitter subscribe() {
+    return subscribe(new SseEmitter(timeout.toMillis()));
+  }
+
+  SseEmitter subscribe(SseEmitter emitter) {
+    Subscriber subscriber = new Subscriber(emitter, new RingBuffer<>(bufferCapacity), new AtomicInteger());
+    subscribers.add(subscriber);
+    emitter.onCompletion(() -> subscribers.remove(subscriber));
+    emitter.onError(e -> subscribers.remove(subscriber));
+    return emitter;
+  }
+
+  /**
+   * This method returns the number of open live feeds.
+   * @return the number of subscribers
+   */
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  /**
+   * This method sends a change to every open live feed.  The SSE event is named
+   * after the type of change (created, updated or deleted) and its data is the
+   * change as JSON.
+   * @param change the change
+   */
+  public void publish(HelpRequestChange change) {
+    if (subscribers.isEmpty()) {
+      return;
+    }
+    String json;
+    try {
+      json = mapper.writeValueAsString(change);
+    } catch (JsonProcessingException e) {
+      log.warn("Could not serialize help request change {}; not sending it", change, e);
+      return;
+    }
+    Set<DataWithMediaType> event = SseEmitter.event()
+        .id(Long.toString(lastEventId.incrementAndGet()))
+        .name(change.getType().name().toLowerCase())
+        .data(json, MediaType.APPLICATION_JSON)
+        .build();
+    subscribers.forEach(subscriber -> enqueue(subscriber, event));
+  }
+
+  /**
+   * This method sends a heartbeat comment to every open live feed.
+   */
+  @Scheduled(fixedRateString = "${app.helprequests.feed.heartbeat}")
+  public void heartbeat() {
+    subscribers.forEach(subscriber -> enqueue(subscriber, HEARTBEAT));
+  }
+
+  private void enqueue(Subscriber subscriber, Set<DataWithMediaType> event) {
+    if (!subscriber.buffer().offer(event)) {
+      log.info("Help request feed subscriber is {} events behind; disconnecting it", bufferCapacity);
+      subscribers.remove(subscriber);
+      subscriber.emitter().complete();
+      return;
+    }
+    // only the caller that takes pending from zero starts a drain, so there is one consumer at a time
+    if (subscriber.pending().getAndIncrement() == 0) {
+      feedExecutor.execute(() -> drain(subscriber));
+    }
+  }
+
+  private void drain(Subscriber subscriber) {
+    int missed = 1;
+    do {
+      for (Set<DataWithMediaType> event = subscriber.buffer().poll(); event != null; event = subscriber.buffer().poll()) {
+        send(subscriber, event);
+      }
+      missed = subscriber.pending().addAndGet(-missed);
+    } while (missed != 0);
+  }
+
+  private void send(Subscriber subscriber, Set<DataWithMediaType> event) {
+    if (!subscribers.contains(subscriber)) {
+      return;
+    }
+    try {
+      subscriber.emitter().send(event);
+    } catch (IOException | IllegalStateException e) {
+      // the client has gone away, or the emitter has already completed
+      log.debug("Dropping help request feed subscriber: {}", e.toString());
+      subscribers.remove(subscriber);
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.HelpRequestView;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This is a service that reads help requests for the GET endpoints, as
+ * {@link HelpRequestView}s.
+ *
+ * Its methods run in read-only transactions, which Spring opens with Hibernate's
+ * flush mode set to MANUAL and the session read-only, so nothing read here is
+ * dirty checked or flushed.  The listing and the lookup by id are constructor
+ * expressions, so no entity is loaded at all; the filtered listing loads the
+ * matching entities, read-only, and copies them.  Called from a GET handler, the
+ * methods join its read-only transaction (see ApiController#notModified).
+ */
+
+@Service("helpRequestViews")
+public class HelpRequestViewService {
+
+  @Autowired
+  HelpRequestRepository helpRequestRepository;
+
+  /**
+   * This method returns all help requests, in id order.
+   * @return all help requests
+   */
+  @Transactional(readOnly = true)
+  public List<HelpRequestView> allHelpRequests() {
+    return helpRequestRepository.findAllViewsByOrderByIdAsc();
+  }
+
+  /**
+   * This method returns the help requests that match the given filters, in id order.
+   * A null filter matches every help request.
+   * @param solved only help requests with this solved status
+   * @param teamId only help requests from this team
+   * @param tableOrBreakoutRoom only help requests from this table or breakout room
+   * @param requestTimeFrom only help requests submitted at or after this time
+   * @param requestTimeTo only help requests submitted before this time
+   * @return the matching help requests
+   */
+  @Transactional(readOnly = true)
+  public List<HelpRequestView> matchingHelpRequests(Boolean solved, String teamId, String tableOrBreakoutRoom,
+      LocalDateTime requestTimeFrom, LocalDateTime requestTimeTo) {
+    return helpRequestRepository.findAllMatching(solved, teamId, tableOrBreakoutRoom, requestTimeFrom, requestTimeTo)
+        .stream()
+        .map(HelpRequestView::of)
+        .toList();
+  }
+
+  /**
+   * This method returns a single help request.
+   * @param id the id of the help request
+   * @return the help request, if there is one with that id
+   */
+  @Transactional(readOnly = true)
+  public Optional<HelpRequestView> findHelpRequest(long id) {
+    return helpRequestRepository.findViewById(id);
+  }
+}
@@ -0,0 +1,131 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.repositories.MenuItemRatingRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This is a service that maintains the per-item rating totals (MenuItemRating)
+ * incrementally as menu item reviews are written.
+ *
+ * The methods join the caller's transaction, so the totals commit or roll back
+ * together with the review itself.  Reviews without an itemId are not counted.
+ */
+
+@Slf4j
+@Service("menuItemRatings")
+public class MenuItemRatingService {
+
+  @Autowired
+  MenuItemRatingRepository menuItemRatingRepository;
+
+  /**
+   * This method returns the rating totals for an item.
+   * @param itemId the id of the menu item
+   * @return the totals (all zero if the item has no reviews)
+   */
+  @Transactional(readOnly = true)
+  public MenuItemRating getRating(Long itemId) {
+    return menuItemRatingRepository.findById(itemId)
+        .orElseGet(() -> MenuItemRating.builder().itemId(itemId).build());
+  }
+
+  /**
+   * This method adds a review to the totals for its item.
+   * @param itemId the id of the reviewed item
+   * @param stars the number of stars in the review
+   */
+  @Transactional
+  public void addReview(Long itemId, int stars) {
+    adjust(itemId, stars, 1);
+  }
+
+  /**
+   * This method removes a review from the totals for its item.
+   * @param itemId the id of the reviewed item
+   * @param stars the number of stars in the review
+   */
+  @Transactional
+  public void removeReview(Long itemId, int stars) {
+    adjust(itemId, stars, -1);
+  }
+
+  /**
+   * This method moves a review from one item's totals to another's (or changes
+   * its stars), when the review is updated.  Both items are locked in id order
+   * before either is changed, so concurrent updates moving reviews in opposite
+   * directions between the same two items cannot deadlock.
+   * @param oldItemId the id of the item the review was for
+   * @param oldStars the number of stars the review gave
+   * @param newItemId the id of the item the review is now for
+   * @param newStars the number of stars the review now gives
+   */
+  @Transactional
+  public void updateReview(Long oldItemId, int oldStars, Long newItemId, int newStars) {
+    Map<Long, MenuItemRating> ratings = new TreeMap<>();
+    for (Long itemId : new Long[] { oldItemId, newItemId }) {
+      if (itemId != null) {
+        ratings.put(itemId, null);
+      }
+    }
+    ratings.replaceAll((itemId, unlocked) -> lockRating(itemId));
+    if (oldItemId != null) {
+      ratings.get(oldItemId).apply(oldStars, -1);
+    }
+    if (newItemId != null) {
+      ratings.get(newItemId).apply(newStars, 1);
+    }
+    ratings.forEach((itemId, rating) -> {
+      menuItemRatingRepository.save(rating);
+      log.info("rating for item {} is now {}", itemId, rating);
+    });
+  }
+
+  /**
+   * This method adds many reviews to the totals, locking and writing each
+   * item's totals only once (items are locked in id order, so concurrent
+   * bulk loads cannot deadlock).  Reviews without an itemId are skipped.
+   * @param reviews the reviews that were added
+   */
+  @Transactional
+  public void addReviews(Iterable<MenuItemReview> reviews) {
+    Map<Long, List<Integer>> starsByItem = new TreeMap<>();
+    for (MenuItemReview review : reviews) {
+      if (review.getItemId() != null) {
+        starsByItem.computeIfAbsent(review.getItemId(), itemId -> new ArrayList<>()).add(review.getStars());
+      }
+    }
+    starsByItem.forEach((itemId, stars) -> {
+      MenuItemRating rating = lockRating(itemId);
+      stars.forEach(s -> rating.apply(s, 1));
+      menuItemRatingRepository.save(rating);
+      log.info("rating for item {} is now {}", itemId, rating);
+    });
+  }
+
+  private MenuItemRating lockRating(Long itemId) {
+    // the first review of an item creates its row, which concurrent reviews then wait on
+    menuItemRatingRepository.insertIfAbsent(itemId);
+    return menuItemRatingRepository.findForUpdateByItemId(itemId).orElseThrow();
+  }
+
+  private void adjust(Long itemId, int stars, int delta) {
+    if (itemId == null) {
+      return;
+    }
+    MenuItemRating rating = lockRating(itemId);
+    rating.apply(stars, delta);
+    menuItemRatingRepository.save(rating);
+    log.info("rating for item {} is now {}", itemId, rating);
+  }
+}
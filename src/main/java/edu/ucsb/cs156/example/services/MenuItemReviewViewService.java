@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.MenuItemReviewView;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This is a service that reads menu item reviews for the GET endpoints, as
+ * {@link MenuItemReviewView}s.
+ *
+ * Its methods run in read-only transactions, which Spring opens with Hibernate's
+ * flush mode set to MANUAL and the session read-only, so nothing read here is
+ * dirty checked or flushed.  The listing and the lookup by id are constructor
+ * expressions, so no entity is loaded at all.  Called from a GET handler, the
+ * methods join its read-only transaction (see ApiController#notModified).
+ */
+
+@Service("menuItemReviewViews")
+public class MenuItemReviewViewService {
+
+  @Autowired
+  MenuItemReviewRepository menuItemReviewRepository;
+
+  /**
+   * This method returns all menu item reviews, in id order.
+   * @return all menu item reviews
+   */
+  @Transactional(readOnly = true)
+  public List<MenuItemReviewView> allMenuItemReviews() {
+    return menuItemReviewRepository.findAllViewsByOrderByIdAsc();
+  }
+
+  /**
+   * This method returns a single menu item review.
+   * @param id the id of the menu item review
+   * @return the menu item review, if there is one with that id
+   */
+  @Transactional(readOnly = true)
+  public Optional<MenuItemReviewView> findMenuItemReview(Long id) {
+    return menuItemReviewRepository.findViewById(id);
+  }
+}
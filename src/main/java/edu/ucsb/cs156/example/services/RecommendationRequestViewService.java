@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.models.RecommendationRequestView;
+import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * This is a service that reads recommendation requests for the GET endpoints, as
+ * {@link RecommendationRequestView}s.
+ *
+ * Its methods run in read-only transactions, which Spring opens with Hibernate's
+ * flush mode set to MANUAL and the session read-only, so nothing read here is
+ * dirty checked or flushed.  The listing and the lookup by id are constructor
+ * expressions, so no entity is loaded at all.  Called from a GET handler, the
+ * methods join its read-only transaction (see ApiController#notModified).
+ */
+
+@Service("recommendationRequestViews")
+public class RecommendationRequestViewService {
+
+  @Autowired
+  RecommendationRequestRepository recommendationRequestRepository;
+
+  /**
+   * This method returns all recommendation requests, in id order.
+   * @return all recommendation requests
+   */
+  @Transactional(readOnly = true)
+  public List<RecommendationRequestView> allRecommendationRequests() {
+    return recommendationRequestRepository.findAllViewsByOrderByIdAsc();
+  }
+
+  /**
+   * This method returns a single recommendation request.
+   * @param id the id of the recommendation request
+   * @return the recommendation request, if there is one with that id
+   */
+  @Transactional(readOnly = true)
+  public Optional<RecommendationRequestView> findRecommendationRequest(long id) {
+    return recommendationRequestRepository.findViewById(id);
+  }
+}
@@ -0,0 +1,107 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBOrgs;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrgsRepository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * This is a service that serves the small, rarely changing reference tables
+ * (dining commons and student organizations) from an in-process cache.
+ *
+ * The caches are filled when the application starts (see CacheConfig).  Each key
+ * starts with the version of its table (see {@link TableVersionService#version}),
+ * read from the database, which goes up only after a write has committed, in the
+ * same step as the ETag of the table, whichever instance made the write.  So once a
+ * GET sees the new ETag it also looks for new keys, and reads the table again; an
+ * entry loaded before the commit can only be stored under the old version, where
+ * nothing looks for it any more.  Old entries are dropped by
+ * the size and expiry bounds of the caches.  Entries returned from here are
+ * shared between requests, so callers must not modify them.
+ */
+
+@Service("referenceDataCache")
+public class ReferenceDataCacheService {
+
+  /** Name of the cache holding dining commons, keyed by code */
+  public static final String DINING_COMMONS_CACHE = "ucsbdiningcommons";
+
+  /** Name of the cache holding organizations, keyed by orgCode */
+  public static final String ORGS_CACHE = "ucsborgs";
+
+  /** Key under which the full listing of a table is cached */
+  public static final String ALL_KEY = "all";
+
+  @Autowired
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @Autowired
+  UCSBOrgsRepository ucsbOrgsRepository;
+
+  @Autowired
+  TableVersionService tableVersionService;
+
+  /**
+   * This method returns the key of a dining commons in its cache, as of the current
+   * version of the table.
+   * @param code the code of the dining commons, or {@link #ALL_KEY} for all of them
+   * @return the cache key
+   */
+  public String diningCommonsKey(String code) {
+    return tableVersionService.version(UCSBDiningCommons.class) + ":" + code;
+  }
+
+  /**
+   * This method returns the key of an organization in its cache, as of the current
+   * version of the table.
+   * @param orgCode the code of the organization, or {@link #ALL_KEY} for all of them
+   * @return the cache key
+   */
+  public String orgKey(String orgCode) {
+    return tableVersionService.version(UCSBOrgs.class) + ":" + orgCode;
+  }
+
+  /**
+   * This method returns all dining commons.
+   * @return a list of all dining commons
+   */
+  @Cacheable(cacheNames = DINING_COMMONS_CACHE, key = "#root.target.diningCommonsKey('" + ALL_KEY + "')")
+  public Iterable<UCSBDiningCommons> allDiningCommons() {
+    return ucsbDiningCommonsRepository.findAll();
+  }
+
+  /**
+   * This method returns a single dining commons.
+   * @param code the code of the dining commons
+   * @return the dining commons, if there is one with that code
+   */
+  @Cacheable(cacheNames = DINING_COMMONS_CACHE, key = "#root.target.diningCommonsKey(#code)")
+  public Optional<UCSBDiningCommons> findDiningCommons(String code) {
+    return ucsbDiningCommonsRepository.findById(code);
+  }
+
+  /**
+   * This method returns all organizations.
+   * @return a list of all organizations
+   */
+  @Cacheable(cacheNames = ORGS_CACHE, key = "#root.target.orgKey('" + ALL_KEY + "')")
+  public Iterable<UCSBOrgs> allOrgs() {
+    return ucsbOrgsRepository.findAll();
+  }
+
+  /**
+   * This method returns a single organization.
+   * @param orgCode the code of the organization
+   * @return the organization, if there is one with that code
+   */
+  @Cacheable(cacheNames = ORGS_CACHE, key = "#root.target.orgKey(#orgCode)")
+  public Optional<UCSBOrgs> findOrg(String orgCode) {
+    return ucsbOrgsRepository.findById(orgCode);
+  }
+}
@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.changes.ChangeTracked;
+import edu.ucsb.cs156.example.changes.ChangeRecorder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * This is a service that deletes rows by id with bulk JPQL statements, so that a
+ * delete is a single {@code DELETE ... WHERE id = ?} instead of loading the entity
+ * and then deleting it.
+ *
+ * Bulk statements skip Hibernate's entity events, so this service does what the
+ * listeners would have done: it records a tombstone for each deleted
+ * {@link ChangeTracked} row, written as the transaction commits, which also moves
+ * the table's version on (see TableVersionService).  Hibernate itself evicts the
+ * entity's second-level cache region.
+ */
+
+@Service("rowDeletes")
+public class RowDeleteService {
+
+  @Autowired
+  EntityManager entityManager;
+
+  @Value("${app.deletes.batch-size}")
+  int batchSize;
+
+  /**
+   * This method deletes one row.
+   * @param entityClass the entity class mapped to the table
+   * @param id the id of the row
+   * @return true if the row was deleted, false if there was no such row
+   */
+  @Transactional
+  public boolean deleteById(Class<?> entityClass, Object id) {
+    String entityName = entityManager.getMetamodel().entity(entityClass).getName();
+    int deleted = entityManager.createQuery("delete from %s e where id(e) = :id".formatted(entityName))
+        .setParameter("id", id)
+        .executeUpdate();
+    if (deleted == 0) {
+      return false;
+    }
+    rowsDeleted(entityClass, entityName, List.of(id));
+    return true;
+  }
+
+  /**
+   * This method deletes many rows, {@code app.deletes.batch-size} ids per statement.
+   * Ids without a row are skipped.
+   * @param <ID> the type of the ids
+   * @param entityClass the entity class mapped to the table
+   * @param ids the ids of the rows
+   * @return the ids of the rows that were deleted, in the order given
+   */
+  @Transactional
+  @SuppressWarnings("unchecked")
+  public <ID> List<ID> deleteAllById(Class<?> entityClass, Collection<ID> ids) {
+    String entityName = entityManager.getMetamodel().entity(entityClass).getName();
+    List<ID> distinct = List.copyOf(new LinkedHashSet<>(ids));
+    List<ID> deleted = new ArrayList<>();
+    for (int from = 0; from < distinct.size(); from += batchSize) {
+      List<ID> batch = distinct.subList(from, Math.min(from + batchSize, distinct.size()));
+      // the ids are read first (from the primary key index) so the caller knows which rows went;
+      // locking them keeps a concurrent delete from taking the same rows before ours runs
+      List<ID> found = entityManager.createQuery("select id(e) from %s e where id(e) in :ids".formatted(entityName))
+          .setParameter("ids", batch)
+          .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+          .getResultList();
+      if (found.isEmpty()) {
+        continue;
+      }
+      entityManager.createQuery("delete from %s e where id(e) in :ids".formatted(entityName))
+          .setParameter("ids", found)
+          .executeUpdate();
+      Set<ID> foundIds = new HashSet<>(found);
+      batch.stream().filter(foundIds::contains).forEach(deleted::add);
+    }
+    if (!deleted.isEmpty()) {
+      rowsDeleted(entityClass, entityName, deleted);
+    }
+    return deleted;
+  }
+
+  private void rowsDeleted(Class<?> entityClass, String entityName, List<?> ids) {
+    if (ChangeTracked.class.isAssignableFrom(entityClass)) {
+      ChangeRecorder.recordDeletions(entityManager.unwrap(SharedSessionContractImplementor.class), entityName, ids);
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package edu.ucsb.cs156.example.services;
+
+import edu.ucsb.cs156.example.changes.ChangeTracked;
+import jakarta.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * This is a service that reads a cheap version token for each table, used as the
+ * ETag of the API's GET endpoints.
+ *
+ * The version of a table is the highest change version (see {@link ChangeTracked})
+ * of its rows and of the tombstones of its deleted rows.  Change versions are
+ * assigned as a write commits and only go up, so the version moves on with every
+ * committed insert, update or delete, and is visible exactly when the write is.
+ * It is read from the database each time (two lookups on the CHANGE_VERSION
+ * indexes), so writes made through other instances of the application or by
+ * Liquibase are seen as well.  Rows written with plain SQL must take a new
+ * CHANGE_VERSION from CHANGE_SEQ to be seen.
+ */
+
+@Service("tableVersions")
+public class TableVersionService {
+
+  @Autowired
+  EntityManager entityManager;
+
+  /**
+   * This method returns the strong ETag for the current contents of a table.
+   * @param entityClass the entity class mapped to the table
+   * @return the ETag, including the surrounding quotes
+   */
+  @Transactional(readOnly = true)
+  public String eTag(Class<? extends ChangeTracked> entityClass) {
+    return "\"%d\"".formatted(version(entityClass));
+  }
+
+  /**
+   * This method returns the current version of a table.  It only goes up once a
+   * write has committed, so anything read from the table after it went up
+   * includes that write.
+   * @param entityClass the entity class mapped to the table
+   * @return the highest committed change version of the table, or 0 if it has none
+   */
+  @Transactional(readOnly = true)
+  public long version(Class<? extends ChangeTracked> entityClass) {
+    String entityName = entityManager.getMetamodel().entity(entityClass).getName();
+    Long written = entityManager.createQuery("select max(e.changeVersion) from %s e".formatted(entityName), Long.class)
+        .getSingleResult();
+    Long deleted = entityManager.createQuery(
+        "select max(t.changeVersion) from tombstones t where t.entityType = :entityType", Long.class)
+        .setParameter("entityType", entityName)
+        .getSingleResult();
+    return Math.max(written == null ? 0 : written, deleted == null ? 0 : deleted);
+  }
+}
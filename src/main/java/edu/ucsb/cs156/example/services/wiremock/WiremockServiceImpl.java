@@ -10,7 +10,9 @@ import com.github.tomakehurst.wiremock.extension.responsetemplating.ResponseTemp
 import com.github.tomakehurst.wiremock.junit.Stubbing;
 
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.matching;
 import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.temporaryRedirect;
@@ -106,6 +108,47 @@ public class WiremockServiceImpl extends WiremockService {
 
   }
 
+  /**
+   * This method sets up mocks for any number of synthetic users, for load testing
+   * (see src/loadtest/java).
+   *
+   * A load test logs user N in by completing the authorization code flow with the code
+   * {@code loadtest-N}; the token endpoint hands that code back as the access token, and
+   * the userinfo endpoint answers for {@code loadtestN@ucsb.edu}.  Requests with any other
+   * code or token fall through to the stubs set up by {@link #setupOauthMocks(Stubbing, boolean)}.
+   *
+   * @param s in an instance of a WireMockServer or WireMockExtension
+   */
+  public static void setupLoadTestOauthMocks(Stubbing s) {
+
+    s.stubFor(post(urlPathEqualTo("/oauth/token"))
+        .withRequestBody(containing("code=loadtest-"))
+        .willReturn(
+            okJson(
+                "{{formData request.body 'form' urlDecode=true}}{\"access_token\":\"{{{form.code}}}\",\"token_type\": \"Bearer\",\"expires_in\":\"3600\",\"scope\":\"https://www.googleapis.com/auth/userinfo.profile https://www.googleapis.com/auth/userinfo.email openid\"}")));
+
+    s.stubFor(get(urlPathMatching("/userinfo"))
+        .withHeader("Authorization", matching("Bearer loadtest-[0-9]+"))
+        .willReturn(aResponse()
+            .withStatus(200)
+            .withHeader("Content-Type", "application/json")
+            .withBody(
+                """
+                    {{#assign 'n'}}{{regexExtract request.headers.Authorization '[0-9]+$'}}{{/assign}}
+                    {
+                      "sub": "9{{n}}",
+                      "name": "Load Tester {{n}}",
+                      "given_name": "Load",
+                      "family_name": "Tester {{n}}",
+                      "picture": "https://lh3.googleusercontent.com/a/default-user=s96-c",
+                      "email": "loadtest{{n}}@ucsb.edu",
+                      "email_verified": true,
+                      "locale": "en",
+                      "hd": "ucsb.edu"
+                    }
+                    """)));
+  }
+
   /**
    * This method initializes the WireMockServer
    */
@@ -115,6 +158,7 @@ public class WiremockServiceImpl extends WiremockService {
     WireMockServer wireMockServer = new WireMockServer(options()
         .port(8090).globalTemplating(true));
     setupOauthMocks(wireMockServer, true);
+    setupLoadTestOauthMocks(wireMockServer);
 
     wireMockServer.start();
 
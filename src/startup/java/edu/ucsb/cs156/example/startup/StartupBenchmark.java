@@ -0,0 +1,132 @@
+package edu.ucsb.cs156.example.startup;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the application over and over and reports how long each start takes to
+ * answer {@code GET /api/systemInfo} with 200, for each way of running it:
+ *
+ * <ul>
+ * <li>{@code jar}: the jar that {@code mvn package} builds, as run before the cds profile;</li>
+ * <li>{@code extracted}: the same jar unpacked into target/application;</li>
+ * <li>{@code cds}: unpacked, with the AppCDS archive from the training start;</li>
+ * <li>{@code cds+aot}: unpacked, with the archive and Spring AOT.</li>
+ * </ul>
+ *
+ * Build with the cds profile first.  Options are given as {@code name=value}
+ * arguments, followed by {@code --} and the arguments to pass to the application:
+ * <ul>
+ * <li>{@code jar}: the unpacked jar (default target/application/team02-1.0.0.jar)</li>
+ * <li>{@code archive}: the AppCDS archive (default target/application/application.jsa)</li>
+ * <li>{@code fatJar}: the packaged jar (default target/team02-1.0.0.jar)</li>
+ * <li>{@code modes}: which of the above to run, comma separated (default all)</li>
+ * <li>{@code runs}: how many starts of each (default 5)</li>
+ * <li>{@code port}: the port to start the application on (default 8089)</li>
+ * <li>{@code timeout}: how long to wait for a start, e.g. 60s or 2m (default 2m)</li>
+ * </ul>
+ */
+public class StartupBenchmark {
+
+  static final List<String> MODES = List.of("jar", "extracted", "cds", "cds+aot");
+
+  public static void main(String[] args) throws Exception {
+    int separator = Arrays.asList(args).indexOf("--");
+    List<String> appArgs = separator < 0 ? List.of() : Arrays.asList(args).subList(separator + 1, args.length);
+    Map<String, String> options = new HashMap<>();
+    for (String arg : separator < 0 ? Arrays.asList(args) : Arrays.asList(args).subList(0, separator)) {
+      String[] nameValue = arg.split("=", 2);
+      options.put(nameValue[0], nameValue[1]);
+    }
+    Path jar = Path.of(options.getOrDefault("jar", "target/application/team02-1.0.0.jar"));
+    Path archive = Path.of(options.getOrDefault("archive", "target/application/application.jsa"));
+    Path fatJar = Path.of(options.getOrDefault("fatJar", "target/team02-1.0.0.jar"));
+    List<String> modes = Arrays.asList(options.getOrDefault("modes", String.join(",", MODES)).split(","));
+    int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+    int port = Integer.parseInt(options.getOrDefault("port", "8089"));
+    Duration timeout = Duration.parse("PT" + options.getOrDefault("timeout", "2m"));
+
+    for (Path file : List.of(jar, archive, fatJar)) {
+      if (!Files.exists(file)) {
+        throw new IllegalStateException(file + " does not exist; build with the cds profile first");
+      }
+    }
+
+    HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+    URI systemInfo = URI.create("http://localhost:" + port + "/api/systemInfo");
+    Map<String, List<Long>> results = new HashMap<>();
+    // alternate the modes, so that anything else happening on the machine affects them all alike
+    for (int run = 1; run <= runs; run++) {
+      for (String mode : modes) {
+        List<String> command = new ArrayList<>(List.of("java"));
+        switch (mode) {
+          case "jar" -> command.addAll(List.of("-jar", fatJar.toString()));
+          case "extracted" -> command.addAll(List.of("-jar", jar.toString()));
+          case "cds" -> command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-jar", jar.toString()));
+          case "cds+aot" -> command.addAll(List.of("-XX:SharedArchiveFile=" + archive, "-Dspring.aot.enabled=true",
+              "-jar", jar.toString()));
+          default -> throw new IllegalArgumentException("Unknown mode " + mode + "; expected one of " + MODES);
+        }
+        command.add("--server.port=" + port);
+        command.addAll(appArgs);
+        long millis = timeToFirstResponse(command, client, systemInfo, timeout);
+        System.out.printf("run %d %-9s %6d ms%n", run, mode, millis);
+        results.computeIfAbsent(mode, m -> new ArrayList<>()).add(millis);
+      }
+    }
+
+    System.out.printf("%nTime to first 200 from /api/systemInfo, over %d starts%n", runs);
+    System.out.printf("%-9s %8s %8s %8s%n", "mode", "min", "median", "max");
+    for (String mode : modes) {
+      List<Long> times = results.get(mode).stream().sorted().toList();
+      System.out.printf("%-9s %6d ms %5d ms %5d ms%n", mode, times.get(0), times.get(times.size() / 2),
+          times.get(times.size() - 1));
+    }
+  }
+
+  static long timeToFirstResponse(List<String> command, HttpClient client, URI uri, Duration timeout)
+      throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    Process app = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .start();
+    try {
+      long deadline = start + timeout.toNanos();
+      HttpRequest request = HttpRequest.newBuilder(uri).build();
+      while (System.nanoTime() < deadline) {
+        if (!app.isAlive()) {
+          throw new IllegalStateException("The application exited with status " + app.exitValue()
+              + ": " + String.join(" ", command));
+        }
+        try {
+          if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+          }
+        } catch (ConnectException e) {
+          // not listening yet
+        }
+        Thread.sleep(10);
+      }
+      throw new IllegalStateException("No response from " + uri + " within " + timeout);
+    } finally {
+      app.destroy();
+      if (!app.waitFor(30, TimeUnit.SECONDS)) {
+        app.destroyForcibly().waitFor();
+      }
+    }
+  }
+}
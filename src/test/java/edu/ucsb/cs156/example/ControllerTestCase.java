@@ -9,8 +9,10 @@ import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import edu.ucsb.cs156.example.repositories.AdminEmailRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.TableVersionService;
 import edu.ucsb.cs156.example.services.wiremock.WiremockService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import org.springframework.test.web.servlet.MvcResult;
@@ -27,6 +29,9 @@ public abstract class ControllerTestCase {
   @Autowired
   public GrantedAuthoritiesService grantedAuthoritiesService;
 
+  @MockBean
+  public TableVersionService tableVersionService;
+
   @Autowired
   public MockMvc mockMvc;
 
@@ -36,6 +41,9 @@ public abstract class ControllerTestCase {
   @MockBean
   WiremockService mockWiremockService;
 
+  @MockBean
+  AdminEmailRepository adminEmailRepository;
+
   protected Map<String, Object> responseToJson(MvcResult result) throws UnsupportedEncodingException, JsonProcessingException {
     String responseString = result.getResponse().getContentAsString();
     return mapper.readValue(responseString, Map.class);
@@ -0,0 +1,187 @@
+package edu.ucsb.cs156.example.accesslog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.InsufficientAuthenticationException;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.cloud.gateway.mvc.ProxyExchange;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import edu.ucsb.cs156.example.controllers.FrontendProxyController;
+import edu.ucsb.cs156.example.controllers.UCSBDatesController;
+
+class AccessLogFilterTests {
+
+  private final List<AccessLogRecord> written = new ArrayList<>();
+  private final AccessLogWriter writer = new AccessLogWriter(16, written::add);
+  private final AccessLogFilter filter = new AccessLogFilter(writer);
+
+  private static MockHttpServletRequest handledBy(Object controller, String methodName) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/ucsbdates/all");
+    HandlerMethod handler = new HandlerMethod(controller,
+        controller.getClass().getMethod(methodName, WebRequest.class));
+    request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE, handler);
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/ucsbdates/all");
+    return request;
+  }
+
+  private static MockFilterChain chainRespondingWith(int status) {
+    return new MockFilterChain(new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest req, HttpServletResponse resp) {
+        resp.setStatus(status);
+      }
+    });
+  }
+
+  @Test
+  void records_controller_requests() throws Exception {
+    MockHttpServletRequest request = handledBy(new UCSBDatesController(), "allUCSBDates");
+    request.setUserPrincipal(new TestingAuthenticationToken("cgaucho@ucsb.edu", null));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(request, response, chainRespondingWith(200));
+    writer.drain();
+
+    assertEquals(1, written.size());
+    AccessLogRecord record = written.get(0);
+    assertEquals("GET", record.method());
+    assertEquals("/api/ucsbdates/all", record.uriTemplate());
+    assertEquals("UCSBDatesController.allUCSBDates", record.handler());
+    assertEquals("cgaucho@ucsb.edu", record.user());
+    assertEquals(200, record.status());
+    assertTrue(record.durationMicros() >= 0);
+  }
+
+  @Test
+  void records_anonymous_requests_even_when_the_handler_throws() throws Exception {
+    MockHttpServletRequest request = handledBy(new UCSBDatesController(), "allUCSBDates");
+    MockFilterChain failingChain = new MockFilterChain(new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException {
+        throw new ServletException("boom");
+      }
+    });
+
+    assertThrows(ServletException.class,
+        () -> filter.doFilter(request, new MockHttpServletResponse(), failingChain));
+    writer.drain();
+
+    assertEquals(1, written.size());
+    assertNull(written.get(0).user());
+    assertEquals(500, written.get(0).status());
+  }
+
+  private static MockFilterChain chainThrowing(RuntimeException e) {
+    return new MockFilterChain(new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest req, HttpServletResponse resp) throws ServletException {
+        throw new ServletException("Request processing failed", e);
+      }
+    });
+  }
+
+  @Test
+  void records_access_denied_as_forbidden() throws Exception {
+    MockHttpServletRequest request = handledBy(new UCSBDatesController(), "allUCSBDates");
+
+    assertThrows(ServletException.class, () -> filter.doFilter(request, new MockHttpServletResponse(),
+        chainThrowing(new AccessDeniedException("Access Denied"))));
+    assertThrows(ServletException.class, () -> filter.doFilter(request, new MockHttpServletResponse(),
+        chainThrowing(new InsufficientAuthenticationException("Full authentication is required"))));
+    writer.drain();
+
+    assertEquals(List.of(403, 403), written.stream().map(AccessLogRecord::status).toList());
+  }
+
+  @Test
+  void records_the_status_already_sent_when_the_handler_throws_after_committing() throws Exception {
+    MockHttpServletRequest request = handledBy(new UCSBDatesController(), "allUCSBDates");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    response.setStatus(206);
+    response.setCommitted(true);
+
+    assertThrows(ServletException.class,
+        () -> filter.doFilter(request, response, chainThrowing(new IllegalStateException("client went away"))));
+    writer.drain();
+
+    assertEquals(206, written.get(0).status());
+  }
+
+  @Test
+  void skips_requests_not_handled_by_a_controller_method() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/index.html");
+    AccessLogWriter mockWriter = mock(AccessLogWriter.class);
+
+    new AccessLogFilter(mockWriter).doFilter(request, new MockHttpServletResponse(), chainRespondingWith(200));
+
+    verify(mockWriter, never()).submit(any());
+  }
+
+  @Test
+  void skips_controllers_in_the_stoplist() throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/src/main.jsx");
+    FrontendProxyController proxy = new FrontendProxyController();
+    request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+        new HandlerMethod(proxy, FrontendProxyController.class.getMethod("proxy", ProxyExchange.class)));
+
+    filter.doFilter(request, new MockHttpServletResponse(), chainRespondingWith(200));
+    writer.drain();
+
+    assertTrue(written.isEmpty());
+  }
+
+  @Test
+  void records_async_requests_when_they_complete() throws Exception {
+    MockHttpServletRequest request = handledBy(new UCSBDatesController(), "allUCSBDates");
+    request.setAsyncSupported(true);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain asyncChain = new MockFilterChain(new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest req, HttpServletResponse resp) {
+        req.startAsync();
+      }
+    });
+
+    filter.doFilter(request, response, asyncChain);
+    writer.drain();
+    assertTrue(written.isEmpty());
+
+    MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+    for (AsyncListener listener : asyncContext.getListeners()) {
+      listener.onStartAsync(null);
+      listener.onTimeout(null);
+      listener.onError(null);
+    }
+    response.setStatus(206);
+    asyncContext.complete();
+    writer.drain();
+
+    assertEquals(1, written.size());
+    assertEquals(206, written.get(0).status());
+  }
+}
@@ -0,0 +1,55 @@
+package edu.ucsb.cs156.example.accesslog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+class AccessLogWriterTests {
+
+  private static AccessLogRecord record(int status) {
+    return new AccessLogRecord(0L, "GET", "/api/ucsbdates/all", "UCSBDatesController.allUCSBDates",
+        "cgaucho@ucsb.edu", status, 1234L);
+  }
+
+  @Test
+  void drain_writes_queued_records_in_order_and_counts_drops() {
+    List<AccessLogRecord> written = new CopyOnWriteArrayList<>();
+    AccessLogWriter writer = new AccessLogWriter(2, written::add);
+
+    writer.submit(record(200));
+    writer.submit(record(404));
+    writer.submit(record(500));
+
+    assertEquals(1, writer.getDroppedCount());
+    assertEquals(2, writer.drain());
+    assertEquals(List.of(record(200), record(404)), written);
+    assertEquals(0, writer.drain());
+    assertEquals(1, writer.getDroppedCount());
+  }
+
+  @Test
+  void background_thread_writes_everything_queued_before_stop() throws Exception {
+    List<AccessLogRecord> written = new CopyOnWriteArrayList<>();
+    AccessLogWriter writer = new AccessLogWriter(64, written::add);
+    writer.start();
+
+    writer.submit(record(200));
+    while (written.isEmpty()) {
+      Thread.sleep(5);
+    }
+    writer.submit(record(201));
+    writer.stop();
+
+    assertEquals(List.of(record(200), record(201)), written);
+  }
+
+  @Test
+  void default_sink_writes_to_the_log() {
+    AccessLogWriter writer = new AccessLogWriter(4);
+    writer.submit(record(200));
+    assertEquals(1, writer.drain());
+  }
+}
@@ -0,0 +1,166 @@
+package edu.ucsb.cs156.example.accesslog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+class RingBufferTests {
+
+  @Test
+  void capacity_must_be_a_power_of_two() {
+    assertThrows(IllegalArgumentException.class, () -> new RingBuffer<String>(0));
+    assertThrows(IllegalArgumentException.class, () -> new RingBuffer<String>(6));
+    assertEquals(8, new RingBuffer<String>(8).capacity());
+  }
+
+  @Test
+  void elements_come_out_in_order_and_offer_fails_when_full() {
+    RingBuffer<String> buffer = new RingBuffer<>(2);
+    assertNull(buffer.poll());
+
+    assertTrue(buffer.offer("a"));
+    assertTrue(buffer.offer("b"));
+    assertFalse(buffer.offer("c"));
+
+    assertEquals("a", buffer.poll());
+    assertTrue(buffer.offer("d"));
+    assertEquals("b", buffer.poll());
+    assertEquals("d", buffer.poll());
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  void nothing_is_lost_or_duplicated_with_many_producers() throws Exception {
+    int producers = 4;
+    int perProducer = 10_000;
+    RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+    CountDownLatch startSignal = new CountDownLatch(1);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < producers; p++) {
+      int base = p * perProducer;
+      threads.add(Thread.ofPlatform().start(() -> {
+        try {
+          startSignal.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        for (int i = 0; i < perProducer; i++) {
+          while (!buffer.offer(base + i)) {
+            Thread.onSpinWait();
+          }
+        }
+      }));
+    }
+
+    Set<Integer> seen = new HashSet<>();
+    startSignal.countDown();
+    while (seen.size() < producers * perProducer) {
+      Integer element = buffer.poll();
+      if (element != null) {
+        assertTrue(seen.add(element), "duplicate " + element);
+      }
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertNull(buffer.poll());
+    assertEquals(producers * perProducer, seen.size());
+  }
+
+  /** A ring buffer whose next tail read returns a stale position, as if another producer raced ahead. */
+  private static class StaleTailRingBuffer<E> extends RingBuffer<E> {
+    private long staleValue = -1;
+
+    StaleTailRingBuffer(int capacity) {
+      super(capacity);
+    }
+
+    void readStaleOnce(long value) {
+      staleValue = value;
+    }
+
+    @Override
+    long readTail() {
+      long value = staleValue;
+      staleValue = -1;
+      return value < 0 ? super.readTail() : value;
+    }
+  }
+
+  /** A ring buffer whose next claim fails, as if another producer took the position first. */
+  private static class ContendedRingBuffer<E> extends RingBuffer<E> {
+    private boolean contended;
+    private int claims;
+
+    ContendedRingBuffer(int capacity) {
+      super(capacity);
+    }
+
+    void loseNextRace() {
+      contended = true;
+    }
+
+    @Override
+    boolean claim(long position) {
+      claims++;
+      if (contended) {
+        contended = false;
+        return false;
+      }
+      return super.claim(position);
+    }
+  }
+
+  @Test
+  void producer_that_read_a_position_already_filled_retries_at_the_new_tail() {
+    StaleTailRingBuffer<String> buffer = new StaleTailRingBuffer<>(4);
+    assertTrue(buffer.offer("a"));
+
+    buffer.readStaleOnce(0);
+    assertTrue(buffer.offer("b"));
+
+    assertEquals("a", buffer.poll());
+    assertEquals("b", buffer.poll());
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  void producer_that_read_a_position_from_before_a_wrap_around_retries_at_the_new_tail() {
+    StaleTailRingBuffer<String> buffer = new StaleTailRingBuffer<>(2);
+    assertTrue(buffer.offer("a"));
+    assertTrue(buffer.offer("b"));
+    assertEquals("a", buffer.poll());
+
+    // slot 0 is now free for position 2, so its sequence is ahead of the stale position 0
+    buffer.readStaleOnce(0);
+    assertTrue(buffer.offer("c"));
+
+    assertEquals("b", buffer.poll());
+    assertEquals("c", buffer.poll());
+    assertNull(buffer.poll());
+  }
+
+  @Test
+  void producer_that_loses_the_race_for_a_position_retries() {
+    ContendedRingBuffer<String> buffer = new ContendedRingBuffer<>(2);
+
+    buffer.loseNextRace();
+    assertTrue(buffer.offer("a"));
+
+    assertEquals(2, buffer.claims);
+    assertEquals("a", buffer.poll());
+    assertNull(buffer.poll());
+  }
+}
@@ -0,0 +1,113 @@
+package edu.ucsb.cs156.example.changes;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.User;
+
+class ChangeRecorderTests {
+
+  ChangeRecorder changeRecorder = new ChangeRecorder();
+
+  EventSource session = mock(EventSource.class, Answers.RETURNS_DEEP_STUBS);
+  JdbcCoordinator jdbc = mock(JdbcCoordinator.class, Answers.RETURNS_DEEP_STUBS);
+  PreparedStatement statement = mock(PreparedStatement.class);
+  AbstractEntityPersister persister = mock(AbstractEntityPersister.class);
+
+  @BeforeEach
+  void setUp() {
+    when(session.asEventSource()).thenReturn(session);
+    when(session.getJdbcServices().getDialect()).thenReturn(new H2Dialect());
+    when(session.getFactory().getJpaMetamodel().entity(HelpRequest.class).getName()).thenReturn("helprequests");
+    when(session.getJdbcCoordinator()).thenReturn(jdbc);
+    when(jdbc.getStatementPreparer().prepareStatement(any())).thenReturn(statement);
+    when(persister.getIdentifierTableName()).thenReturn("HELPREQUESTS");
+    when(persister.getIdentifierColumnNames()).thenReturn(new String[] { "ID" });
+    when(persister.getPropertyColumnNames(PendingChanges.CHANGE_VERSION_PROPERTY))
+        .thenReturn(new String[] { "CHANGE_VERSION" });
+  }
+
+  @AfterEach
+  void tearDown() {
+    PendingChanges.of(session).doAfterTransactionCompletion(true, session);
+  }
+
+  private void commit() {
+    ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCommit =
+        ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+    verify(session.getActionQueue()).registerProcess(beforeCommit.capture());
+    beforeCommit.getValue().doBeforeTransactionCompletion(session);
+  }
+
+  @Test
+  void inserting_a_tracked_row_numbers_it_on_commit() throws Exception {
+    PostInsertEvent event = new PostInsertEvent(HelpRequest.builder().id(7L).build(), 7L, null, persister, session);
+
+    changeRecorder.onPostInsert(event);
+    commit();
+
+    verify(jdbc.getStatementPreparer()).prepareStatement(
+        "update HELPREQUESTS set CHANGE_VERSION = next value for CHANGE_SEQ where ID = ?");
+    verify(statement).setObject(1, 7L);
+  }
+
+  @Test
+  void updating_a_tracked_row_numbers_it_on_commit() throws Exception {
+    PostUpdateEvent event = new PostUpdateEvent(HelpRequest.builder().id(7L).build(), 7L, null, null, null, persister,
+        session);
+
+    changeRecorder.onPostUpdate(event);
+    commit();
+
+    verify(statement).setObject(1, 7L);
+  }
+
+  @Test
+  void deleting_a_tracked_row_leaves_a_tombstone_on_commit() throws Exception {
+    PostDeleteEvent event = new PostDeleteEvent(HelpRequest.builder().id(7L).build(), 7L, null, persister, session);
+
+    changeRecorder.onPostDelete(event);
+    commit();
+
+    verify(statement).setString(1, "helprequests");
+    verify(statement).setString(2, "7");
+  }
+
+  @Test
+  void changes_to_untracked_rows_are_not_recorded() {
+    User user = User.builder().id(1L).build();
+
+    changeRecorder.onPostInsert(new PostInsertEvent(user, 1L, null, persister, session));
+    changeRecorder.onPostUpdate(new PostUpdateEvent(user, 1L, null, null, null, persister, session));
+    changeRecorder.onPostDelete(new PostDeleteEvent(user, 1L, null, persister, session));
+
+    verify(session.getActionQueue(), never()).registerProcess(any(BeforeTransactionCompletionProcess.class));
+  }
+
+  @Test
+  void changes_are_numbered_in_the_committing_transaction() {
+    assertFalse(changeRecorder.requiresPostCommitHandling(mock(EntityPersister.class)));
+  }
+}
@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.changes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.junit.jupiter.api.Test;
+
+class ChangeSequenceTests {
+
+  @Test
+  void nextValueSql_is_an_expression_for_the_dialect() {
+    assertEquals("next value for CHANGE_SEQ", ChangeSequence.nextValueSql(new H2Dialect()));
+  }
+
+  @Test
+  void generator_clears_the_version_on_inserts_and_updates_without_touching_the_session() {
+    ChangeVersionGenerator generator = new ChangeVersionGenerator();
+    SharedSessionContractImplementor session = mock(SharedSessionContractImplementor.class);
+
+    assertEquals(EventTypeSets.INSERT_AND_UPDATE, generator.getEventTypes());
+    assertNull(generator.generate(session, new Object(), 6L, EventType.UPDATE));
+    verifyNoInteractions(session);
+  }
+}
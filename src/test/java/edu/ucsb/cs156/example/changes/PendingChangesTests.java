@@ -0,0 +1,118 @@
+package edu.ucsb.cs156.example.changes;
+
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import org.hibernate.JDBCException;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.jdbc.spi.SqlExceptionHelper;
+import org.hibernate.engine.jdbc.spi.StatementPreparer;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.InOrder;
+
+class PendingChangesTests {
+
+  static final String LOCK = "update CHANGE_CLOCK set VERSION = VERSION where ID = 1";
+  static final String NUMBER = "update HELPREQUESTS set CHANGE_VERSION = next value for CHANGE_SEQ where ID = ?";
+  static final String TOMBSTONE = "insert into TOMBSTONES (CHANGE_VERSION, ENTITY_TYPE, ENTITY_ID, DELETED_AT) values (next value for CHANGE_SEQ, ?, ?, ?)";
+  static final String ADVANCE = "update CHANGE_CLOCK set VERSION = next value for CHANGE_SEQ where ID = 1";
+
+  EventSource session = mock(EventSource.class, Answers.RETURNS_DEEP_STUBS);
+  JdbcCoordinator jdbc = mock(JdbcCoordinator.class, Answers.RETURNS_DEEP_STUBS);
+  StatementPreparer preparer = mock(StatementPreparer.class);
+  PreparedStatement lock = mock(PreparedStatement.class);
+  PreparedStatement number = mock(PreparedStatement.class);
+  PreparedStatement tombstone = mock(PreparedStatement.class);
+  PreparedStatement advance = mock(PreparedStatement.class);
+  AbstractEntityPersister persister = mock(AbstractEntityPersister.class);
+
+  PendingChanges pending = new PendingChanges();
+
+  @BeforeEach
+  void setUp() {
+    when(session.asEventSource()).thenReturn(session);
+    when(session.getJdbcServices().getDialect()).thenReturn(new H2Dialect());
+    when(session.getJdbcServices().getSqlExceptionHelper()).thenReturn(new SqlExceptionHelper(false));
+    when(session.getJdbcCoordinator()).thenReturn(jdbc);
+    when(jdbc.getStatementPreparer()).thenReturn(preparer);
+    when(preparer.prepareStatement(LOCK)).thenReturn(lock);
+    when(preparer.prepareStatement(NUMBER)).thenReturn(number);
+    when(preparer.prepareStatement(TOMBSTONE)).thenReturn(tombstone);
+    when(preparer.prepareStatement(ADVANCE)).thenReturn(advance);
+    when(persister.getIdentifierTableName()).thenReturn("HELPREQUESTS");
+    when(persister.getIdentifierColumnNames()).thenReturn(new String[] { "ID" });
+    when(persister.getPropertyColumnNames(PendingChanges.CHANGE_VERSION_PROPERTY))
+        .thenReturn(new String[] { "CHANGE_VERSION" });
+  }
+
+  @Test
+  void one_set_of_changes_is_registered_per_transaction() {
+    PendingChanges first = PendingChanges.of(session);
+
+    assertSame(first, PendingChanges.of(session));
+    verify(session.getActionQueue()).registerProcess((BeforeTransactionCompletionProcess) first);
+    verify(session.getActionQueue()).registerProcess((AfterTransactionCompletionProcess) first);
+
+    first.doAfterTransactionCompletion(false, session);
+
+    PendingChanges next = PendingChanges.of(session);
+    assertNotSame(first, next);
+    next.doAfterTransactionCompletion(true, session);
+  }
+
+  @Test
+  void changes_are_numbered_while_holding_the_clock_and_the_clock_moves_on_last() throws Exception {
+    pending.written(persister, 7L);
+    pending.written(persister, 8L);
+    pending.written(persister, 7L);
+    pending.deleted("ucsborgs", List.of("SKI", "ZPR"));
+
+    pending.doBeforeTransactionCompletion(session);
+
+    InOrder order = inOrder(lock, number, tombstone, advance);
+    order.verify(lock).executeBatch();
+    order.verify(number).executeBatch();
+    order.verify(tombstone).executeBatch();
+    order.verify(advance).executeBatch();
+    verify(number).setObject(1, 7L);
+    verify(number).setObject(1, 8L);
+    verify(number, times(2)).addBatch();
+    verify(tombstone, times(2)).setString(1, "ucsborgs");
+    verify(tombstone).setString(2, "SKI");
+    verify(tombstone).setString(2, "ZPR");
+    verify(tombstone, times(2)).setTimestamp(eq(3), any(Timestamp.class));
+    verify(jdbc.getLogicalConnection().getResourceRegistry()).release(tombstone);
+    verify(jdbc, times(4)).afterStatementExecution();
+  }
+
+  @Test
+  void sql_errors_are_converted_and_the_statement_released() throws Exception {
+    pending.deleted("ucsborgs", List.of("SKI"));
+    doThrow(new SQLException("Table not found")).when(tombstone).setString(1, "ucsborgs");
+
+    assertThrows(JDBCException.class, () -> pending.doBeforeTransactionCompletion(session));
+
+    verify(jdbc.getLogicalConnection().getResourceRegistry()).release(tombstone);
+  }
+}
@@ -0,0 +1,104 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.AdminRoleService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+@WebMvcTest(controllers = AdminEmailsController.class)
+@Import(TestConfig.class)
+public class AdminEmailsControllerTests extends ControllerTestCase {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @Autowired
+  AdminRoleService adminRoleService;
+
+  @AfterEach
+  public void restoreAdminEmails() {
+    adminRoleService.reloadAdminEmails(List.of("phtcon@ucsb.edu"));
+  }
+
+  @Test
+  public void adminEmails__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/adminemails"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void adminEmails__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/adminemails"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void reloadAdminEmails__user_logged_in() throws Exception {
+    mockMvc.perform(put("/api/admin/adminemails?emails=cgaucho@ucsb.edu").with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void adminEmails__admin_logged_in() throws Exception {
+
+    // arrange
+
+    adminRoleService.reloadAdminEmails(List.of("phtcon@ucsb.edu", "admingaucho@ucsb.edu"));
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/adminemails"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String expectedJson = mapper.writeValueAsString(List.of("admingaucho@ucsb.edu", "phtcon@ucsb.edu"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void reloadAdminEmails__admin_logged_in() throws Exception {
+
+    // act
+
+    MvcResult response = mockMvc.perform(
+        put("/api/admin/adminemails?emails=ldelplaya@ucsb.edu,cgaucho@ucsb.edu").with(csrf()))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String expectedJson = mapper.writeValueAsString(List.of("cgaucho@ucsb.edu", "ldelplaya@ucsb.edu"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+    assertTrue(adminRoleService.isAdminEmail("cgaucho@ucsb.edu"));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void reloadAdminEmails__cannot_remove_every_admin() throws Exception {
+    mockMvc.perform(put("/api/admin/adminemails?emails= ").with(csrf()))
+        .andExpect(status().isBadRequest());
+
+    assertTrue(adminRoleService.isAdminEmail("phtcon@ucsb.edu"));
+  }
+}
@@ -4,12 +4,19 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Articles;
+import edu.ucsb.cs156.example.models.ArticlesView;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.SearchPage;
 import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import edu.ucsb.cs156.example.services.ArticlesViewService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.mockito.ArgumentCaptor;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
@@ -29,6 +36,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +48,12 @@ public class ArticlesControllerTests extends ControllerTestCase {
         @MockBean
         ArticlesRepository articlesRepository;
 
+        @MockBean
+        ArticlesViewService articlesViews;
+
+        @MockBean
+        RowDeleteService rowDeletes;
+
         @MockBean
         UserRepository userRepository;
 
@@ -96,7 +110,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
                                 .dateAdded(LocalDateTime.parse("2022-01-03T00:00:00"))
                                 .build();
 
-                when(articlesRepository.findById(eq(7L))).thenReturn(Optional.of(article)); // Check not sure why id is
+                when(articlesViews.findArticle(eq(7L))).thenReturn(Optional.of(ArticlesView.of(article))); // Check not sure why id is
                                                                                             // 7
 
                 // act
@@ -105,7 +119,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(articlesRepository, times(1)).findById(eq(7L));
+                verify(articlesViews, times(1)).findArticle(eq(7L));
                 String expectedJson = mapper.writeValueAsString(article);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -117,7 +131,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
                 // arrange
 
-                when(articlesRepository.findById(eq(7L))).thenReturn(Optional.empty());
+                when(articlesViews.findArticle(eq(7L))).thenReturn(Optional.empty());
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/articles?id=7"))
@@ -125,7 +139,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(articlesRepository, times(1)).findById(eq(7L));
+                verify(articlesViews, times(1)).findArticle(eq(7L));
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("EntityNotFoundException", json.get("type"));
                 assertEquals("Articles with id 7 not found", json.get("message"));
@@ -159,7 +173,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
                 ArrayList<Articles> expectedDates = new ArrayList<>();
                 expectedDates.addAll(Arrays.asList(article1, article2));
 
-                when(articlesRepository.findAll()).thenReturn(expectedDates);
+                when(articlesViews.allArticles()).thenReturn(expectedDates.stream().map(ArticlesView::of).toList());
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/articles/all"))
@@ -167,7 +181,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(articlesRepository, times(1)).findAll();
+                verify(articlesViews, times(1)).allArticles();
                 String expectedJson = mapper.writeValueAsString(expectedDates);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -207,16 +221,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
         public void admin_can_delete_an_article() throws Exception {
                 // arrange
 
-                Articles article = Articles.builder()
-                        .title("Original Title")
-                        .url("http://original.com")
-                        .explanation("Original explanation")
-                        .email("hello@original.com")
-                        .dateAdded(LocalDateTime.parse("2022-01-03T00:00:00"))
-                        .id(67L)
-                        .build();
-
-                when(articlesRepository.findById(eq(67L))).thenReturn(Optional.of(article));
+                when(rowDeletes.deleteById(Articles.class, 67L)).thenReturn(true);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -225,8 +230,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(articlesRepository, times(1)).findById(67L);
-                verify(articlesRepository, times(1)).delete(any());
+                verify(rowDeletes, times(1)).deleteById(Articles.class, 67L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Article with id 67 deleted", json.get("message"));
@@ -238,7 +242,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(articlesRepository.findById(eq(67L))).thenReturn(Optional.empty());
+                when(rowDeletes.deleteById(Articles.class, 67L)).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -247,11 +251,44 @@ public class ArticlesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(articlesRepository, times(1)).findById(67L);
+                verify(rowDeletes, times(1)).deleteById(Articles.class, 67L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Articles with id 67 not found", json.get("message"));
         }
 
+        @Test
+        public void logged_out_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/articles/bulk-delete"))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/articles/bulk-delete")
+                                                        .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_bulk_delete_and_gets_back_what_was_deleted() throws Exception {
+                        // arrange
+                        when(rowDeletes.deleteAllById(Articles.class, List.of(15L, 16L, 17L))).thenReturn(List.of(15L, 17L));
+
+                        // act
+                        MvcResult response = mockMvc.perform(
+                                                        post("/api/articles/bulk-delete")
+                                                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                                                        .content("[15,16,17]")
+                                                                                        .with(csrf()))
+                                                        .andExpect(status().isOk()).andReturn();
+
+                        // assert
+                        verify(rowDeletes, times(1)).deleteAllById(Articles.class, List.of(15L, 16L, 17L));
+                        assertEquals("[15,17]", response.getResponse().getContentAsString());
+        }
+
         // Test class modifications
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
@@ -281,6 +318,7 @@ public class ArticlesControllerTests extends ControllerTestCase {
                 String requestBody = mapper.writeValueAsString(articleEdited);
 
                 when(articlesRepository.findById(eq(67L))).thenReturn(Optional.of(articleOrig));
+                when(articlesRepository.save(eq(articleEdited))).thenReturn(articleEdited);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -308,6 +346,77 @@ public class ArticlesControllerTests extends ControllerTestCase {
                 assertEquals(requestBody, responseString);
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_that_changes_nothing_does_not_save_the_article() throws Exception {
+                // arrange
+                LocalDateTime origDateTime = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                Articles orig = Articles.builder()
+                                .title("Original Title")
+                                .url("http://original.com")
+                                .explanation("Original explanation")
+                                .email("hello@original.com")
+                                .dateAdded(origDateTime)
+                                .id(67L)
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(articlesRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/articles?id=67")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"3\"")
+                                        .with(csrf()))
+                        .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(articlesRepository, never()).save(any());
+                assertEquals("\"3\"", response.getResponse().getHeader("ETag"));
+                assertEquals(requestBody, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_a_article_that_changed_since_it_was_read() throws Exception {
+                // arrange
+                LocalDateTime origDateTime = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                Articles orig = Articles.builder()
+                                .title("Original Title")
+                                .url("http://original.com")
+                                .explanation("Original explanation")
+                                .email("hello@original.com")
+                                .dateAdded(origDateTime)
+                                .id(67L)
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(articlesRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/articles?id=67")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"2\"")
+                                        .with(csrf()))
+                        .andExpect(status().isPreconditionFailed()).andReturn();
+
+                // assert
+                verify(articlesRepository, never()).save(any());
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_cannot_edit_article_that_does_not_exist() throws Exception {
@@ -340,4 +449,145 @@ public class ArticlesControllerTests extends ControllerTestCase {
                 assertEquals("Articles with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_articles() throws Exception {
+                // arrange
+                ArrayList<Articles> expected = new ArrayList<>();
+                expected.addAll(Arrays.asList(
+                        Articles.builder().id(8L).title("a").build(),
+                        Articles.builder().id(9L).title("b").build()));
+
+                when(articlesRepository.findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)))).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/articles/all?after=7&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(articlesRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, "9"));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for GET /api/articles/search
+
+        @Test
+        public void logged_out_users_cannot_search() throws Exception {
+                mockMvc.perform(get("/api/articles/search?q=caching"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_a_full_page_of_search_results_and_the_next_page() throws Exception {
+                // arrange
+                Articles first = Articles.builder().id(4L).title("caching").build();
+                Articles second = Articles.builder().id(2L).title("more caching").build();
+                Articles onNextPage = Articles.builder().id(9L).title("also caching").build();
+
+                when(articlesRepository.search(eq("caching"), eq(2), eq(3)))
+                                .thenReturn(new ArrayList<>(Arrays.asList(first, second, onNextPage)));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/articles/search?q=caching&page=1&size=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(articlesRepository, times(1)).search(eq("caching"), eq(2), eq(3));
+                String expectedJson = mapper.writeValueAsString(new SearchPage<>(Arrays.asList(first, second), 2));
+                assertEquals(expectedJson, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_the_last_page_of_search_results() throws Exception {
+                // arrange
+                Articles only = Articles.builder().id(4L).title("caching").build();
+
+                when(articlesRepository.search(eq("caching"), eq(0), eq(21))).thenReturn(Arrays.asList(only));
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/articles/search?q=caching&page=-3"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(articlesRepository, times(1)).search(eq("caching"), eq(0), eq(21));
+                String expectedJson = mapper.writeValueAsString(new SearchPage<>(Arrays.asList(only), null));
+                assertEquals(expectedJson, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_search_up_to_the_largest_offset() throws Exception {
+                // arrange
+                when(articlesRepository.search(eq("caching"), eq(2147483620), eq(21))).thenReturn(new ArrayList<>());
+
+                // act
+                mockMvc.perform(get("/api/articles/search?q=caching&page=107374181"))
+                                .andExpect(status().isOk());
+
+                // assert
+                verify(articlesRepository, times(1)).search(eq("caching"), eq(2147483620), eq(21));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void search_returns_400_when_the_offset_overflows() throws Exception {
+                // act
+                mockMvc.perform(get("/api/articles/search?q=caching&page=107374182"))
+                                .andExpect(status().isBadRequest());
+
+                // assert
+                verify(articlesRepository, never()).search(any(), any(Integer.class), any(Integer.class));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void search_returns_400_when_the_next_page_number_overflows() throws Exception {
+                // act
+                mockMvc.perform(get("/api/articles/search?q=caching&page=2147483647&size=1"))
+                                .andExpect(status().isBadRequest());
+
+                // assert
+                verify(articlesRepository, never()).search(any(), any(Integer.class), any(Integer.class));
+        }
+
+        // Tests for conditional GET (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(Articles.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/articles/all").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(articlesViews, times(0)).allArticles();
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(Articles.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/articles?id=7").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(articlesViews, times(0)).findArticle(eq(7L));
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
 }
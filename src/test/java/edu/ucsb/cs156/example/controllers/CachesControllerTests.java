@@ -0,0 +1,162 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+@WebMvcTest(controllers = CachesController.class)
+@Import(TestConfig.class)
+public class CachesControllerTests extends ControllerTestCase {
+
+  @MockBean
+  CacheManager cacheManager;
+
+  @MockBean
+  javax.cache.CacheManager hibernateCacheManager;
+
+  @MockBean
+  UserRepository userRepository;
+
+  @Test
+  public void caches__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/caches"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void caches__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/caches"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void caches__admin_logged_in() throws Exception {
+
+    // arrange
+
+    CaffeineCache orgs = new CaffeineCache("ucsborgs", Caffeine.newBuilder().recordStats().build());
+    orgs.put("SKI", "skiing");
+    orgs.get("SKI");
+    orgs.get("SKI");
+    orgs.get("ABC");
+    ConcurrentMapCache other = new ConcurrentMapCache("other");
+
+    when(cacheManager.getCacheNames()).thenReturn(List.of("ucsborgs", "other"));
+    when(cacheManager.getCache("ucsborgs")).thenReturn(orgs);
+    when(cacheManager.getCache("other")).thenReturn(other);
+
+    List<CacheStatistics> expected = List.of(CacheStatistics.builder()
+        .name("ucsborgs")
+        .size(1)
+        .hitCount(2)
+        .missCount(1)
+        .hitRate(2.0 / 3.0)
+        .evictionCount(0)
+        .build());
+    String expectedJson = mapper.writeValueAsString(expected);
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/caches"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+
+  @Test
+  public void hibernate_regions__logged_out() throws Exception {
+    mockMvc.perform(get("/api/admin/caches/hibernate"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void hibernate_regions__user_logged_in() throws Exception {
+    mockMvc.perform(get("/api/admin/caches/hibernate"))
+        .andExpect(status().is(403));
+  }
+
+  @SuppressWarnings("unchecked")
+  private javax.cache.Cache<Object, Object> region(Cache<Object, Object> nativeCache) {
+    javax.cache.Cache<Object, Object> region = mock(javax.cache.Cache.class);
+    when(region.unwrap(Cache.class)).thenReturn(nativeCache);
+    return region;
+  }
+
+  @WithMockUser(roles = { "ADMIN", "USER" })
+  @Test
+  public void hibernate_regions__admin_logged_in() throws Exception {
+
+    // arrange
+
+    Cache<Object, Object> dates = Caffeine.newBuilder().recordStats().build();
+    dates.put(1L, "date 1");
+    dates.put(2L, "date 2");
+    dates.getIfPresent(1L);
+    dates.getIfPresent(3L);
+    Cache<Object, Object> dateQueries = Caffeine.newBuilder().recordStats().build();
+    dateQueries.getIfPresent("20241");
+
+    when(hibernateCacheManager.getCacheNames()).thenReturn(List.of("ucsbdates.queries", "ucsbdates"));
+    javax.cache.Cache<Object, Object> datesRegion = region(dates);
+    javax.cache.Cache<Object, Object> dateQueriesRegion = region(dateQueries);
+    when(hibernateCacheManager.getCache("ucsbdates")).thenReturn(datesRegion);
+    when(hibernateCacheManager.getCache("ucsbdates.queries")).thenReturn(dateQueriesRegion);
+
+    List<CacheStatistics> expected = List.of(
+        CacheStatistics.builder()
+            .name("ucsbdates")
+            .size(2)
+            .hitCount(1)
+            .missCount(1)
+            .hitRate(0.5)
+            .evictionCount(0)
+            .build(),
+        CacheStatistics.builder()
+            .name("ucsbdates.queries")
+            .size(0)
+            .hitCount(0)
+            .missCount(1)
+            .hitRate(0.0)
+            .evictionCount(0)
+            .build());
+    String expectedJson = mapper.writeValueAsString(expected);
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/admin/caches/hibernate"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    String responseString = response.getResponse().getContentAsString();
+    assertEquals(expectedJson, responseString);
+  }
+}
@@ -0,0 +1,92 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.UCSBOrgs;
+import edu.ucsb.cs156.example.models.ChangeFeedPage;
+import edu.ucsb.cs156.example.models.EntityChange;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ChangeFeedService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@WebMvcTest(controllers = ChangesController.class)
+@Import(TestConfig.class)
+public class ChangesControllerTests extends ControllerTestCase {
+
+  @MockBean
+  ChangeFeedService changeFeed;
+
+  @MockBean
+  UserRepository userRepository;
+
+  @Test
+  public void changes__logged_out() throws Exception {
+    mockMvc.perform(get("/api/changes"))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void changes__user_logged_in__defaults_to_the_first_100_changes() throws Exception {
+
+    // arrange
+
+    UCSBOrgs org = UCSBOrgs.builder()
+        .orgCode("ZPR")
+        .orgTranslationShort("ZETA PHI RHO")
+        .orgTranslation("ZETA PHI RHO")
+        .inactive(false)
+        .build();
+    ChangeFeedPage page = new ChangeFeedPage(List.of(
+        new EntityChange(3, "ucsborgs", "ZPR", EntityChange.Operation.UPSERT,
+            LocalDateTime.parse("2022-01-03T00:00:00"), org),
+        new EntityChange(4, "helprequests", "7", EntityChange.Operation.DELETE,
+            LocalDateTime.parse("2022-01-03T00:00:01"), null)),
+        4, false);
+    when(changeFeed.changesSince(0, 100)).thenReturn(page);
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/changes"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    assertEquals(mapper.writeValueAsString(page), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = { "USER" })
+  @Test
+  public void changes__user_logged_in__page_size_is_capped() throws Exception {
+
+    // arrange
+
+    ChangeFeedPage page = new ChangeFeedPage(List.of(), 42, false);
+    when(changeFeed.changesSince(42, ApiController.MAX_PAGE_SIZE)).thenReturn(page);
+
+    // act
+
+    MvcResult response = mockMvc.perform(get("/api/changes?since=42&limit=100000"))
+        .andExpect(status().isOk()).andReturn();
+
+    // assert
+
+    verify(changeFeed).changesSince(42, ApiController.MAX_PAGE_SIZE);
+    assertEquals(mapper.writeValueAsString(page), response.getResponse().getContentAsString());
+  }
+}
@@ -5,22 +5,33 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.HelpRequest;
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.HelpRequestChange;
+import edu.ucsb.cs156.example.models.HelpRequestView;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.services.HelpRequestExportService;
+import edu.ucsb.cs156.example.services.HelpRequestFeedService;
+import edu.ucsb.cs156.example.services.HelpRequestViewService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
 
 import org.h2.command.dml.Help;
 import org.hibernate.boot.model.source.internal.hbm.Helper;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.github.jknack.handlebars.HelperRegistry;
 
@@ -30,11 +41,14 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 
 import java.time.LocalDateTime;
 
+import java.io.OutputStream;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -45,9 +59,21 @@ public class HelpRequestControllerTests extends ControllerTestCase{
     @MockBean
     HelpRequestRepository helpRequestRepository;
 
+    @MockBean
+    RowDeleteService rowDeletes;
+
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    HelpRequestExportService helpRequestExportService;
+
+    @MockBean
+    HelpRequestFeedService helpRequestFeed;
+
+    @MockBean
+    HelpRequestViewService helpRequestViews;
+
     @Test
     public void logged_out_users_cannot_get_all() throws Exception {
         mockMvc.perform(get("/api/helprequests/all"))
@@ -108,10 +134,9 @@ public class HelpRequestControllerTests extends ControllerTestCase{
                         .solved(false)
                         .build(); 
 
-        ArrayList<HelpRequest> expectedHelpRequests = new ArrayList<>();
-        expectedHelpRequests.addAll(Arrays.asList(helpRequest1, helpRequest2));
+        List<HelpRequestView> expectedHelpRequests = List.of(HelpRequestView.of(helpRequest1), HelpRequestView.of(helpRequest2));
 
-        when(helpRequestRepository.findAll()).thenReturn(expectedHelpRequests);
+        when(helpRequestViews.allHelpRequests()).thenReturn(expectedHelpRequests);
 
         // act
         MvcResult response = mockMvc.perform(get("/api/helprequests/all"))
@@ -119,8 +144,8 @@ public class HelpRequestControllerTests extends ControllerTestCase{
 
         // assert
 
-        verify(helpRequestRepository, times(1)).findAll();
-        String expectedJson = mapper.writeValueAsString(expectedHelpRequests);
+        verify(helpRequestViews, times(1)).allHelpRequests();
+        String expectedJson = mapper.writeValueAsString(List.of(helpRequest1, helpRequest2));
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedJson, responseString);
 
@@ -141,14 +166,14 @@ public class HelpRequestControllerTests extends ControllerTestCase{
                             .solved(false)
                             .build(); 
 
-        when(helpRequestRepository.findById(eq(7L))).thenReturn(Optional.of(helpRequest));
+        when(helpRequestViews.findHelpRequest(eq(7L))).thenReturn(Optional.of(HelpRequestView.of(helpRequest)));
 
         // act
         MvcResult response = mockMvc.perform(get("/api/helprequests?id=7"))
                         .andExpect(status().isOk()).andReturn();
 
         // assert
-        verify(helpRequestRepository, times(1)).findById(eq(7L));
+        verify(helpRequestViews, times(1)).findHelpRequest(eq(7L));
         String expectedJson = mapper.writeValueAsString(helpRequest);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedJson, responseString);
@@ -159,14 +184,14 @@ public class HelpRequestControllerTests extends ControllerTestCase{
     public void test_that_logged_in_user_can_get_by_id_when_the_id_does_not_exist() throws Exception {
 
         // arrange
-        when(helpRequestRepository.findById(eq(7L))).thenReturn(Optional.empty());
+        when(helpRequestViews.findHelpRequest(eq(7L))).thenReturn(Optional.empty());
 
         // act
         MvcResult response = mockMvc.perform(get("/api/helprequests?id=7"))
                             .andExpect(status().isNotFound()).andReturn();
 
         // assert
-        verify(helpRequestRepository, times(1)).findById(eq(7L));
+        verify(helpRequestViews, times(1)).findHelpRequest(eq(7L));
         Map<String, Object> json = responseToJson(response);
         assertEquals("EntityNotFoundException", json.get("type"));
         assertEquals("HelpRequest with id 7 not found", json.get("message"));
@@ -199,6 +224,7 @@ public class HelpRequestControllerTests extends ControllerTestCase{
         
         // assert
         verify(helpRequestRepository, times(1)).save(helpRequest1);
+        verify(helpRequestFeed, times(1)).publish(HelpRequestChange.created(helpRequest1));
         String expectedJson = mapper.writeValueAsString(helpRequest1);
         String responseString = response.getResponse().getContentAsString();
         assertEquals(expectedJson, responseString);
@@ -209,18 +235,7 @@ public class HelpRequestControllerTests extends ControllerTestCase{
     public void admin_can_delete_a_helprequest() throws Exception {
             // arrange
 
-            LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
-
-            HelpRequest helpRequest1 = HelpRequest.builder()
-                                .requesterEmail("requester_email")
-                                .teamId("team_id")
-                                .tableOrBreakoutRoom("table_or_breakout")
-                                .requestTime(ldt1) 
-                                .explanation("explain")
-                                .solved(true)
-                                .build(); 
-
-            when(helpRequestRepository.findById(eq(15L))).thenReturn(Optional.of(helpRequest1));
+            when(rowDeletes.deleteById(HelpRequest.class, 15L)).thenReturn(true);
 
             // act
             MvcResult response = mockMvc.perform(
@@ -229,8 +244,8 @@ public class HelpRequestControllerTests extends ControllerTestCase{
                             .andExpect(status().isOk()).andReturn();
 
             // assert
-            verify(helpRequestRepository, times(1)).findById(15L);
-            verify(helpRequestRepository, times(1)).delete(any());
+            verify(rowDeletes, times(1)).deleteById(HelpRequest.class, 15L);
+            verify(helpRequestFeed, times(1)).publish(HelpRequestChange.deleted(15L));
 
             Map<String, Object> json = responseToJson(response);
             assertEquals("HelpRequest with id 15 deleted", json.get("message"));
@@ -242,7 +257,7 @@ public class HelpRequestControllerTests extends ControllerTestCase{
                     throws Exception {
             // arrange
 
-            when(helpRequestRepository.findById(eq(15L))).thenReturn(Optional.empty());
+            when(rowDeletes.deleteById(HelpRequest.class, 15L)).thenReturn(false);
 
             // act
             MvcResult response = mockMvc.perform(
@@ -251,11 +266,46 @@ public class HelpRequestControllerTests extends ControllerTestCase{
                             .andExpect(status().isNotFound()).andReturn();
 
             // assert
-            verify(helpRequestRepository, times(1)).findById(15L);
+            verify(rowDeletes, times(1)).deleteById(HelpRequest.class, 15L);
             Map<String, Object> json = responseToJson(response);
             assertEquals("HelpRequest with id 15 not found", json.get("message"));
     }
 
+    @Test
+    public void logged_out_users_cannot_bulk_delete() throws Exception {
+                    mockMvc.perform(post("/api/helprequests/bulk-delete"))
+                                                    .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_regular_users_cannot_bulk_delete() throws Exception {
+                    mockMvc.perform(post("/api/helprequests/bulk-delete")
+                                                    .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                                    .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_can_bulk_delete_and_gets_back_what_was_deleted() throws Exception {
+                    // arrange
+                    when(rowDeletes.deleteAllById(HelpRequest.class, List.of(15L, 16L, 17L))).thenReturn(List.of(15L, 17L));
+
+                    // act
+                    MvcResult response = mockMvc.perform(
+                                                    post("/api/helprequests/bulk-delete")
+                                                                                    .contentType(MediaType.APPLICATION_JSON)
+                                                                                    .content("[15,16,17]")
+                                                                                    .with(csrf()))
+                                                    .andExpect(status().isOk()).andReturn();
+
+                    // assert
+                    verify(rowDeletes, times(1)).deleteAllById(HelpRequest.class, List.of(15L, 16L, 17L));
+                    verify(helpRequestFeed, times(1)).publish(HelpRequestChange.deleted(15L));
+                    verify(helpRequestFeed, times(1)).publish(HelpRequestChange.deleted(17L));
+                    assertEquals("[15,17]", response.getResponse().getContentAsString());
+    }
+
     @WithMockUser(roles = { "ADMIN", "USER" })
     @Test
     public void admin_can_edit_an_existing_helprequest() throws Exception {
@@ -285,6 +335,7 @@ public class HelpRequestControllerTests extends ControllerTestCase{
             String requestBody = mapper.writeValueAsString(helpRequestEdited);
 
             when(helpRequestRepository.findById(eq(67L))).thenReturn(Optional.of(helpReuqestOrig));
+            when(helpRequestRepository.save(eq(helpRequestEdited))).thenReturn(helpRequestEdited);
 
             // act
             MvcResult response = mockMvc.perform(
@@ -298,10 +349,125 @@ public class HelpRequestControllerTests extends ControllerTestCase{
             // assert
             verify(helpRequestRepository, times(1)).findById(67L);
             verify(helpRequestRepository, times(1)).save(helpRequestEdited); // should be saved with correct user
+            verify(helpRequestFeed, times(1)).publish(HelpRequestChange.updated(helpRequestEdited));
             String responseString = response.getResponse().getContentAsString();
             assertEquals(requestBody, responseString);
     }
 
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_edit_that_changes_nothing_does_not_save_the_helprequest() throws Exception {
+            // arrange
+            LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+
+            HelpRequest orig = HelpRequest.builder()
+                            .requesterEmail("requester_email")
+                            .teamId("team_id")
+                            .tableOrBreakoutRoom("table_or_breakout")
+                            .requestTime(ldt1) 
+                            .explanation("explain")
+                            .solved(true)
+                            .version(3)
+                            .build();
+
+            String requestBody = mapper.writeValueAsString(orig);
+
+            when(helpRequestRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+            // act
+            MvcResult response = mockMvc.perform(
+                            put("/api/helprequests?id=67")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding("utf-8")
+                                    .content(requestBody)
+                                    .header("If-Match", "\"3\"")
+                                    .with(csrf()))
+                    .andExpect(status().isOk()).andReturn();
+
+            // assert
+            verify(helpRequestRepository, never()).save(any());
+            verify(helpRequestFeed, never()).publish(any());
+            assertEquals("\"3\"", response.getResponse().getHeader("ETag"));
+            assertEquals(requestBody, response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_cannot_edit_a_helprequest_that_changed_since_it_was_read() throws Exception {
+            // arrange
+            LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+
+            HelpRequest orig = HelpRequest.builder()
+                            .requesterEmail("requester_email")
+                            .teamId("team_id")
+                            .tableOrBreakoutRoom("table_or_breakout")
+                            .requestTime(ldt1) 
+                            .explanation("explain")
+                            .solved(true)
+                            .version(3)
+                            .build();
+
+            String requestBody = mapper.writeValueAsString(orig);
+
+            when(helpRequestRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+            // act
+            MvcResult response = mockMvc.perform(
+                            put("/api/helprequests?id=67")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding("utf-8")
+                                    .content(requestBody)
+                                    .header("If-Match", "\"2\"")
+                                    .with(csrf()))
+                    .andExpect(status().isPreconditionFailed()).andReturn();
+
+            // assert
+            verify(helpRequestRepository, never()).save(any());
+            verify(helpRequestFeed, never()).publish(any());
+            assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_edit_that_loses_a_race_with_another_edit_is_a_conflict() throws Exception {
+            // arrange
+            LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+
+            HelpRequest orig = HelpRequest.builder()
+                            .requesterEmail("requester_email")
+                            .teamId("team_id")
+                            .tableOrBreakoutRoom("table_or_breakout")
+                            .requestTime(ldt1)
+                            .explanation("explain")
+                            .solved(false)
+                            .version(3)
+                            .build();
+
+            HelpRequest edited = orig.toBuilder().solved(true).build();
+
+            String requestBody = mapper.writeValueAsString(edited);
+
+            when(helpRequestRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+            when(helpRequestRepository.save(any()))
+                            .thenThrow(new ObjectOptimisticLockingFailureException(HelpRequest.class, 67L));
+
+            // act
+            MvcResult response = mockMvc.perform(
+                            put("/api/helprequests?id=67")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding("utf-8")
+                                    .content(requestBody)
+                                    .header("If-Match", "\"3\"")
+                                    .with(csrf()))
+                    .andExpect(status().isConflict()).andReturn();
+
+            // assert
+            verify(helpRequestFeed, never()).publish(any());
+            Map<String, Object> json = responseToJson(response);
+            assertEquals("ObjectOptimisticLockingFailureException", json.get("type"));
+            assertEquals("The row was changed by someone else; reload it and try again", json.get("message"));
+    }
+
     @WithMockUser(roles = { "ADMIN", "USER" })
     @Test
     public void admin_cannot_edit_helprequest_that_does_not_exist() throws Exception {
@@ -337,4 +503,250 @@ public class HelpRequestControllerTests extends ControllerTestCase{
             assertEquals("HelpRequest with id 67 not found", json.get("message"));
 
     }
-}
\ No newline at end of file
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_a_page_of_helprequests() throws Exception {
+        // arrange
+        ArrayList<HelpRequest> expected = new ArrayList<>();
+        expected.addAll(Arrays.asList(
+            HelpRequest.builder().id(8L).teamId("t1").build(),
+            HelpRequest.builder().id(9L).teamId("t2").build()));
+
+        when(helpRequestRepository.findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)))).thenReturn(expected);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/helprequests/all?after=7&limit=2"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(helpRequestRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)));
+        String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, "9"));
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    @Test
+    public void logged_out_users_cannot_get_a_page() throws Exception {
+        mockMvc.perform(get("/api/helprequests/all?limit=2"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void last_page_of_helprequests_has_no_next_cursor() throws Exception {
+        // arrange
+        ArrayList<HelpRequest> expected = new ArrayList<>();
+        expected.add(HelpRequest.builder().id(1L).teamId("t1").build());
+
+        when(helpRequestRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(5)))).thenReturn(expected);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/helprequests/all?limit=5"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(helpRequestRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(5)));
+        String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, null));
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void page_size_is_clamped_between_one_and_max_page_size() throws Exception {
+        // arrange
+        when(helpRequestRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any())).thenReturn(new ArrayList<>());
+
+        // act
+        mockMvc.perform(get("/api/helprequests/all?limit=5000")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/helprequests/all?limit=0")).andExpect(status().isOk());
+
+        // assert
+        verify(helpRequestRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(ApiController.MAX_PAGE_SIZE)));
+        verify(helpRequestRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(1)));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_regular_users_cannot_export() throws Exception {
+        mockMvc.perform(get("/api/helprequests/export"))
+                .andExpect(status().is(403)); // only admins can export
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void an_admin_user_can_export_helprequests_as_ndjson() throws Exception {
+        // arrange
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(0);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes());
+            return 2L;
+        }).when(helpRequestExportService).writeNdjson(any());
+
+        // act
+        MvcResult started = mockMvc.perform(get("/api/helprequests/export"))
+                .andExpect(request().asyncStarted()).andReturn();
+        MvcResult response = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"helprequests.ndjson\""))
+                .andReturn();
+
+        // assert
+        verify(helpRequestExportService, times(1)).writeNdjson(any());
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void filters_on_all_are_answered_by_a_query_instead_of_find_all() throws Exception {
+        // arrange
+        LocalDateTime from = LocalDateTime.parse("2022-01-03T00:00:00");
+        LocalDateTime to = LocalDateTime.parse("2022-01-04T00:00:00");
+        List<HelpRequestView> expected = List.of(HelpRequestView.of(HelpRequest.builder().id(1L).teamId("t1").solved(false).build()));
+        when(helpRequestViews.matchingHelpRequests(any(), any(), any(), any(), any())).thenReturn(expected);
+
+        // act
+        String[] queries = {
+            "solved=false",
+            "teamId=t1",
+            "tableOrBreakoutRoom=7",
+            "requestTimeFrom=2022-01-03T00:00:00",
+            "requestTimeTo=2022-01-04T00:00:00"
+        };
+        for (String query : queries) {
+            MvcResult response = mockMvc.perform(get("/api/helprequests/all?" + query))
+                    .andExpect(status().isOk()).andReturn();
+            assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        // assert
+        verify(helpRequestViews, times(1)).matchingHelpRequests(false, null, null, null, null);
+        verify(helpRequestViews, times(1)).matchingHelpRequests(null, "t1", null, null, null);
+        verify(helpRequestViews, times(1)).matchingHelpRequests(null, null, "7", null, null);
+        verify(helpRequestViews, times(1)).matchingHelpRequests(null, null, null, from, null);
+        verify(helpRequestViews, times(1)).matchingHelpRequests(null, null, null, null, to);
+        verify(helpRequestViews, times(0)).allHelpRequests();
+    }
+
+    // Tests for conditional GET (ETag / If-None-Match)
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void get_all_returns_304_without_loading_when_etag_matches() throws Exception {
+        // arrange
+        String eTag = "\"3\"";
+        when(tableVersionService.eTag(HelpRequest.class)).thenReturn(eTag);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/helprequests/all").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified()).andReturn();
+
+        // assert
+        verify(helpRequestViews, times(0)).allHelpRequests();
+        assertEquals(eTag, response.getResponse().getHeader("ETag"));
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void get_by_id_returns_304_without_loading_when_etag_matches() throws Exception {
+        // arrange
+        String eTag = "\"3\"";
+        when(tableVersionService.eTag(HelpRequest.class)).thenReturn(eTag);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/helprequests?id=7").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified()).andReturn();
+
+        // assert
+        verify(helpRequestViews, times(0)).findHelpRequest(eq(7L));
+        assertEquals(eTag, response.getResponse().getHeader("ETag"));
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    // Tests for POST /bulk
+
+    private HelpRequest bulkHelpRequest(long id) {
+        return HelpRequest.builder()
+                .id(id)
+                .requesterEmail("cgaucho@ucsb.edu")
+                .teamId("s22-5pm-3")
+                .tableOrBreakoutRoom("7")
+                .requestTime(LocalDateTime.parse("2022-04-20T17:35:00"))
+                .explanation("Need help with Swagger-ui")
+                .solved(false)
+                .build();
+    }
+
+    @Test
+    public void logged_out_users_cannot_post_bulk() throws Exception {
+        mockMvc.perform(post("/api/helprequests/bulk"))
+                            .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+        mockMvc.perform(post("/api/helprequests/bulk")
+                            .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                            .andExpect(status().is(403));
+    }
+
+    @Test
+    public void logged_out_users_cannot_follow_the_feed() throws Exception {
+        mockMvc.perform(get("/api/helprequests/feed"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_users_can_follow_the_feed() throws Exception {
+        // arrange
+        SseEmitter emitter = new SseEmitter();
+        when(helpRequestFeed.subscribe()).thenReturn(emitter);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/helprequests/feed"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        emitter.send(SseEmitter.event().comment("heartbeat"));
+
+        // assert
+        verify(helpRequestFeed, times(1)).subscribe();
+        assertEquals("text/event-stream", response.getResponse().getContentType());
+        assertEquals(":heartbeat\n\n", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void an_admin_user_can_post_many_at_once_and_ids_are_ignored() throws Exception {
+        // arrange
+
+        List<HelpRequest> incoming = List.of(bulkHelpRequest(17), bulkHelpRequest(18));
+        List<HelpRequest> expectedToSave = List.of(bulkHelpRequest(0), bulkHelpRequest(0));
+        List<HelpRequest> saved = List.of(bulkHelpRequest(1), bulkHelpRequest(2));
+
+        when(helpRequestRepository.saveAll(eq(expectedToSave))).thenReturn(saved);
+
+        String requestBody = mapper.writeValueAsString(incoming);
+
+        // act
+        MvcResult response = mockMvc.perform(
+                            post("/api/helprequests/bulk")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding("utf-8")
+                                    .content(requestBody)
+                                    .with(csrf()))
+                            .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(helpRequestRepository, times(1)).saveAll(eq(expectedToSave));
+        verify(helpRequestFeed, times(1)).publish(HelpRequestChange.created(saved.get(0)));
+        verify(helpRequestFeed, times(1)).publish(HelpRequestChange.created(saved.get(1)));
+        String expectedJson = mapper.writeValueAsString(saved);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+}
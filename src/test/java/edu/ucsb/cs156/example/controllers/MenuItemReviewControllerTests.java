@@ -3,13 +3,22 @@ package edu.ucsb.cs156.example.controllers;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.MenuItemRating;
 import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.MenuItemReviewView;
 import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.services.MenuItemRatingService;
+import edu.ucsb.cs156.example.services.MenuItemReviewViewService;
+
+import jakarta.persistence.EntityManager;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -27,7 +36,9 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,9 +49,18 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
     @MockBean
     MenuItemReviewRepository menuItemReviewRepository;
 
+    @MockBean
+    MenuItemReviewViewService menuItemReviewViews;
+
     @MockBean
     UserRepository userRepository;
 
+    @MockBean
+    MenuItemRatingService menuItemRatingService;
+
+    @MockBean
+    EntityManager entityManager;
+
     // Authorization tests for /api/ucsbdates/admin/all
 
     @Test
@@ -73,7 +93,7 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
                                     .comments("test")
                                     .build();
 
-            when(menuItemReviewRepository.findById(eq(7L))).thenReturn(Optional.of(menuItemReview));
+            when(menuItemReviewViews.findMenuItemReview(eq(7L))).thenReturn(Optional.of(MenuItemReviewView.of(menuItemReview)));
 
             // act
             MvcResult response = mockMvc.perform(get("/api/menuitemreview?id=7"))
@@ -81,7 +101,7 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
 
             // assert
 
-            verify(menuItemReviewRepository, times(1)).findById(eq(7L));
+            verify(menuItemReviewViews, times(1)).findMenuItemReview(eq(7L));
             String expectedJson = mapper.writeValueAsString(menuItemReview);
             String responseString = response.getResponse().getContentAsString();
             assertEquals(expectedJson, responseString);
@@ -93,7 +113,7 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
 
             // arrange
 
-            when(menuItemReviewRepository.findById(eq(7L))).thenReturn(Optional.empty());
+            when(menuItemReviewViews.findMenuItemReview(eq(7L))).thenReturn(Optional.empty());
 
             // act
             MvcResult response = mockMvc.perform(get("/api/menuitemreview?id=7"))
@@ -101,7 +121,7 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
 
             // assert
 
-            verify(menuItemReviewRepository, times(1)).findById(eq(7L));
+            verify(menuItemReviewViews, times(1)).findMenuItemReview(eq(7L));
             Map<String, Object> json = responseToJson(response);
             assertEquals("EntityNotFoundException", json.get("type"));
             assertEquals("MenuItemReview with id 7 not found", json.get("message"));
@@ -148,12 +168,29 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
             // assert
 
             verify(menuItemReviewRepository, times(1)).save(menuItemReview);
+            verify(menuItemRatingService, times(1)).addReview(1L, 5);
             String expectedJson = mapper.writeValueAsString(menuItemReview);
             String responseString = response.getResponse().getContentAsString();
             assertEquals(expectedJson, responseString);
 
     }
 
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_cannot_post_a_review_with_out_of_range_stars() throws Exception {
+            // act
+            for (int stars : new int[] { 0, 6 }) {
+                    MvcResult response = mockMvc.perform(post("/api/menuitemreview/post?itemId=1&reviewerEmail=testemail@ucsb.edu&dateReviewed=2022-01-03T00:00:00&stars=" + stars + "&comments=test")
+                            .with(csrf()))
+                        .andExpect(status().isBadRequest()).andReturn();
+                    assertEquals("stars must be between 1 and 5", response.getResponse().getErrorMessage());
+            }
+
+            // assert
+            verify(menuItemReviewRepository, never()).save(any());
+            verify(menuItemRatingService, never()).addReview(any(), anyInt());
+    }
+
     @WithMockUser(roles = { "USER" })
     @Test
     public void logged_in_user_can_get_all_menuitemreviews() throws Exception {
@@ -181,7 +218,7 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
             ArrayList<MenuItemReview> expectedReviews = new ArrayList<>();
             expectedReviews.addAll(Arrays.asList(menuItemReview1, menuItemReview2));
 
-            when(menuItemReviewRepository.findAll()).thenReturn(expectedReviews);
+            when(menuItemReviewViews.allMenuItemReviews()).thenReturn(expectedReviews.stream().map(MenuItemReviewView::of).toList());
 
             // act
             MvcResult response = mockMvc.perform(get("/api/menuitemreview/all"))
@@ -189,7 +226,7 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
 
             // assert
 
-            verify(menuItemReviewRepository, times(1)).findAll();
+            verify(menuItemReviewViews, times(1)).allMenuItemReviews();
             String expectedJson = mapper.writeValueAsString(expectedReviews);
             String responseString = response.getResponse().getContentAsString();
             assertEquals(expectedJson, responseString);
@@ -222,6 +259,7 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
             String requestBody = mapper.writeValueAsString(menuItemReviewEdited);
 
             when(menuItemReviewRepository.findById(eq(67L))).thenReturn(Optional.of(menuItemReviewOrig));
+            when(menuItemReviewRepository.save(eq(menuItemReviewEdited))).thenReturn(menuItemReviewEdited);
 
             // act
             MvcResult response = mockMvc.perform(
@@ -235,6 +273,8 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
             // assert
             verify(menuItemReviewRepository, times(1)).findById(67L);
             verify(menuItemReviewRepository, times(1)).save(menuItemReviewEdited); // should be saved with correct user
+            verify(menuItemRatingService, times(1)).updateReview(1L, 4, 2L, 5);
+            verify(entityManager, times(1)).flush();
             String responseString = response.getResponse().getContentAsString();
 
             Map<String, Object> json = responseToJson(response);
@@ -248,6 +288,79 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
             assertEquals(requestBody, responseString);
     }
 
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_edit_that_changes_nothing_does_not_save_the_menuitemreview() throws Exception {
+            // arrange
+            LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+
+            MenuItemReview orig = MenuItemReview.builder()
+                            .itemId(1L)
+                            .reviewerEmail("testuser@ucsb.edu")
+                            .dateReviewed(ldt1)
+                            .stars(4)
+                            .comments("Good food!")
+                            .version(3)
+                            .build();
+
+            String requestBody = mapper.writeValueAsString(orig);
+
+            when(menuItemReviewRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+            // act
+            MvcResult response = mockMvc.perform(
+                            put("/api/menuitemreview?id=67")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding("utf-8")
+                                    .content(requestBody)
+                                    .header("If-Match", "\"3\"")
+                                    .with(csrf()))
+                    .andExpect(status().isOk()).andReturn();
+
+            // assert
+            verify(menuItemReviewRepository, never()).save(any());
+            verify(menuItemRatingService, never()).updateReview(any(), anyInt(), any(), anyInt());
+            verify(entityManager, never()).flush();
+            assertEquals("\"3\"", response.getResponse().getHeader("ETag"));
+            assertEquals(requestBody, response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_cannot_edit_a_menuitemreview_that_changed_since_it_was_read() throws Exception {
+            // arrange
+            LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+
+            MenuItemReview orig = MenuItemReview.builder()
+                            .itemId(1L)
+                            .reviewerEmail("testuser@ucsb.edu")
+                            .dateReviewed(ldt1)
+                            .stars(4)
+                            .comments("Good food!")
+                            .version(3)
+                            .build();
+
+            String requestBody = mapper.writeValueAsString(orig);
+
+            when(menuItemReviewRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+            // act
+            MvcResult response = mockMvc.perform(
+                            put("/api/menuitemreview?id=67")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding("utf-8")
+                                    .content(requestBody)
+                                    .header("If-Match", "\"2\"")
+                                    .with(csrf()))
+                    .andExpect(status().isPreconditionFailed()).andReturn();
+
+            // assert
+            verify(menuItemReviewRepository, never()).save(any());
+            verify(menuItemRatingService, never()).updateReview(any(), anyInt(), any(), anyInt());
+            verify(entityManager, never()).flush();
+            assertEquals("", response.getResponse().getContentAsString());
+    }
+
     @WithMockUser(roles = { "ADMIN", "USER" })
     @Test
     public void admin_cannot_edit_menuitemreview_that_does_not_exist() throws Exception {
@@ -283,6 +396,64 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
 
     }
 
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_cannot_edit_a_menuitemreview_to_have_no_item() throws Exception {
+            // arrange
+            MenuItemReview menuItemReviewEdited = MenuItemReview.builder()
+                    .itemId(null)
+                    .reviewerEmail("testuser@ucsb.edu")
+                    .dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00"))
+                    .stars(5)
+                    .comments("Great food!")
+                    .build();
+
+            String requestBody = mapper.writeValueAsString(menuItemReviewEdited);
+
+            // act
+            mockMvc.perform(
+                            put("/api/menuitemreview?id=67")
+                                            .contentType(MediaType.APPLICATION_JSON)
+                                            .characterEncoding("utf-8")
+                                            .content(requestBody)
+                                            .with(csrf()))
+                            .andExpect(status().isBadRequest());
+
+            // assert
+            verify(menuItemReviewRepository, never()).findById(any());
+            verify(menuItemReviewRepository, never()).save(any());
+            verify(menuItemRatingService, never()).addReview(any(), anyInt());
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_cannot_edit_a_menuitemreview_to_have_out_of_range_stars() throws Exception {
+            // arrange
+            MenuItemReview menuItemReviewEdited = MenuItemReview.builder()
+                    .itemId(1L)
+                    .reviewerEmail("testuser@ucsb.edu")
+                    .dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00"))
+                    .stars(6)
+                    .comments("Great food!")
+                    .build();
+
+            String requestBody = mapper.writeValueAsString(menuItemReviewEdited);
+
+            // act
+            MvcResult response = mockMvc.perform(
+                            put("/api/menuitemreview?id=67")
+                                            .contentType(MediaType.APPLICATION_JSON)
+                                            .characterEncoding("utf-8")
+                                            .content(requestBody)
+                                            .with(csrf()))
+                            .andExpect(status().isBadRequest()).andReturn();
+
+            // assert
+            assertEquals("stars must be between 1 and 5", response.getResponse().getErrorMessage());
+            verify(menuItemReviewRepository, never()).findById(any());
+            verify(menuItemRatingService, never()).updateReview(any(), anyInt(), any(), anyInt());
+    }
+
     @WithMockUser(roles = { "ADMIN", "USER" })
     @Test
     public void admin_can_delete_a_menuitemreview() throws Exception {
@@ -309,6 +480,7 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
         // assert
         verify(menuItemReviewRepository, times(1)).findById(15L);
         verify(menuItemReviewRepository, times(1)).delete(any());
+        verify(menuItemRatingService, times(1)).removeReview(1L, 5);
 
         Map<String, Object> json = responseToJson(response);
         assertEquals("MenuItemReview with id 15 deleted", json.get("message"));
@@ -333,4 +505,172 @@ public class MenuItemReviewControllerTests  extends ControllerTestCase {
         Map<String, Object> json = responseToJson(response);
         assertEquals("MenuItemReview with id 15 not found", json.get("message"));
     }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_a_page_of_menuitemreviews() throws Exception {
+        // arrange
+        ArrayList<MenuItemReview> expected = new ArrayList<>();
+        expected.addAll(Arrays.asList(
+            MenuItemReview.builder().id(8L).itemId(1L).stars(4).build(),
+            MenuItemReview.builder().id(9L).itemId(1L).stars(5).build()));
+
+        when(menuItemReviewRepository.findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)))).thenReturn(expected);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/menuitemreview/all?after=7&limit=2"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(menuItemReviewRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)));
+        String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, "9"));
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    @Test
+    public void logged_out_users_cannot_get_stats() throws Exception {
+        mockMvc.perform(get("/api/menuitemreview/stats?itemId=1"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_stats_for_an_item() throws Exception {
+        // arrange
+        MenuItemRating rating = MenuItemRating.builder()
+                .itemId(1L)
+                .reviewCount(3)
+                .sumStars(12)
+                .threeStars(1)
+                .fourStars(1)
+                .fiveStars(1)
+                .build();
+        when(menuItemRatingService.getRating(eq(1L))).thenReturn(rating);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/menuitemreview/stats?itemId=1"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(menuItemRatingService, times(1)).getRating(1L);
+        Map<String, Object> json = responseToJson(response);
+        assertEquals(3, json.get("reviewCount"));
+        assertEquals(4.0, json.get("averageStars"));
+        assertEquals(mapper.writeValueAsString(rating), response.getResponse().getContentAsString());
+    }
+
+    // Tests for conditional GET (ETag / If-None-Match)
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void get_all_returns_304_without_loading_when_etag_matches() throws Exception {
+        // arrange
+        String eTag = "\"3\"";
+        when(tableVersionService.eTag(MenuItemReview.class)).thenReturn(eTag);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/menuitemreview/all").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified()).andReturn();
+
+        // assert
+        verify(menuItemReviewViews, times(0)).allMenuItemReviews();
+        assertEquals(eTag, response.getResponse().getHeader("ETag"));
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void get_by_id_returns_304_without_loading_when_etag_matches() throws Exception {
+        // arrange
+        String eTag = "\"3\"";
+        when(tableVersionService.eTag(MenuItemReview.class)).thenReturn(eTag);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/menuitemreview?id=7").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified()).andReturn();
+
+        // assert
+        verify(menuItemReviewViews, times(0)).findMenuItemReview(eq(7L));
+        assertEquals(eTag, response.getResponse().getHeader("ETag"));
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    // Tests for POST /bulk
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void a_bulk_post_with_any_out_of_range_stars_saves_nothing() throws Exception {
+        // arrange
+        MenuItemReview outOfRange = bulkMenuItemReview(null).toBuilder().stars(0).build();
+        String requestBody = mapper.writeValueAsString(List.of(bulkMenuItemReview(null), outOfRange));
+
+        // act
+        mockMvc.perform(
+                            post("/api/menuitemreview/bulk")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding("utf-8")
+                                    .content(requestBody)
+                                    .with(csrf()))
+                            .andExpect(status().isBadRequest());
+
+        // assert
+        verify(menuItemReviewRepository, never()).saveAll(any());
+        verify(menuItemRatingService, never()).addReviews(any());
+    }
+
+    private MenuItemReview bulkMenuItemReview(Long id) {
+        return MenuItemReview.builder()
+                .id(id)
+                .itemId(27L)
+                .reviewerEmail("cgaucho@ucsb.edu")
+                .stars(3)
+                .dateReviewed(LocalDateTime.parse("2022-04-20T12:00:00"))
+                .comments("bland af but edible I guess")
+                .build();
+    }
+
+    @Test
+    public void logged_out_users_cannot_post_bulk() throws Exception {
+        mockMvc.perform(post("/api/menuitemreview/bulk"))
+                            .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+        mockMvc.perform(post("/api/menuitemreview/bulk")
+                            .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                            .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void an_admin_user_can_post_many_at_once_and_ids_are_ignored() throws Exception {
+        // arrange
+
+        List<MenuItemReview> incoming = List.of(bulkMenuItemReview(17L), bulkMenuItemReview(18L));
+        List<MenuItemReview> expectedToSave = List.of(bulkMenuItemReview(null), bulkMenuItemReview(null));
+        List<MenuItemReview> saved = List.of(bulkMenuItemReview(1L), bulkMenuItemReview(2L));
+
+        when(menuItemReviewRepository.saveAll(eq(expectedToSave))).thenReturn(saved);
+
+        String requestBody = mapper.writeValueAsString(incoming);
+
+        // act
+        MvcResult response = mockMvc.perform(
+                            post("/api/menuitemreview/bulk")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding("utf-8")
+                                    .content(requestBody)
+                                    .with(csrf()))
+                            .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(menuItemReviewRepository, times(1)).saveAll(eq(expectedToSave));
+        verify(menuItemRatingService, times(1)).addReviews(saved);
+        String expectedJson = mapper.writeValueAsString(saved);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
 }
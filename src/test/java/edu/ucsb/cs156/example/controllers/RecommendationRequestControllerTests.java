@@ -4,12 +4,18 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.RecommendationRequestView;
 import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+import edu.ucsb.cs156.example.services.RecommendationRequestViewService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -28,6 +34,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -39,6 +46,12 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
         @MockBean
         RecommendationRequestRepository recommendationRequestRepository;
 
+        @MockBean
+        RecommendationRequestViewService recommendationRequestViews;
+
+        @MockBean
+        RowDeleteService rowDeletes;
+
         @MockBean
         UserRepository userRepository;
 
@@ -92,7 +105,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                                 .done(false)
                                 .build();
 
-                when(recommendationRequestRepository.findById(eq(7L))).thenReturn(Optional.of(recommendationRequest));
+                when(recommendationRequestViews.findRecommendationRequest(eq(7L))).thenReturn(Optional.of(RecommendationRequestView.of(recommendationRequest)));
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/recommendationrequest?id=7"))
@@ -100,7 +113,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(recommendationRequestRepository, times(1)).findById(eq(7L));
+                verify(recommendationRequestViews, times(1)).findRecommendationRequest(eq(7L));
                 String expectedJson = mapper.writeValueAsString(recommendationRequest);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -112,7 +125,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
 
                 // arrange
 
-                when(recommendationRequestRepository.findById(eq(7L))).thenReturn(Optional.empty());
+                when(recommendationRequestViews.findRecommendationRequest(eq(7L))).thenReturn(Optional.empty());
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/recommendationrequest?id=7"))
@@ -120,7 +133,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(recommendationRequestRepository, times(1)).findById(eq(7L));
+                verify(recommendationRequestViews, times(1)).findRecommendationRequest(eq(7L));
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("EntityNotFoundException", json.get("type"));
                 assertEquals("RecommendationRequest with id 7 not found", json.get("message"));
@@ -157,7 +170,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                 ArrayList<RecommendationRequest> expectedRequests = new ArrayList<>();
                 expectedRequests.addAll(Arrays.asList(recommendationRequest1, recommendationRequest2));
 
-                when(recommendationRequestRepository.findAll()).thenReturn(expectedRequests);
+                when(recommendationRequestViews.allRecommendationRequests()).thenReturn(expectedRequests.stream().map(RecommendationRequestView::of).toList());
 
                 // act
                 MvcResult response = mockMvc.perform(get("/api/recommendationrequest/all"))
@@ -165,7 +178,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
 
                 // assert
 
-                verify(recommendationRequestRepository, times(1)).findAll();
+                verify(recommendationRequestViews, times(1)).allRecommendationRequests();
                 String expectedJson = mapper.writeValueAsString(expectedRequests);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -207,18 +220,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_recommendationrequest() throws Exception {
                 // arrange
 
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
-
-                RecommendationRequest recommendationRequest1 = RecommendationRequest.builder()
-                                .requesterEmail("petrus@ucsb.edu")
-                                .professorEmail("pconrad@ucsb.edu")
-                                .explanation("Gradschool")
-                                .dateRequested(ldt1)
-                                .dateNeeded(ldt1)
-                                .done(true)
-                                .build();
-
-                when(recommendationRequestRepository.findById(eq(15L))).thenReturn(Optional.of(recommendationRequest1));
+                when(rowDeletes.deleteById(RecommendationRequest.class, 15L)).thenReturn(true);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -227,8 +229,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(recommendationRequestRepository, times(1)).findById(15L);
-                verify(recommendationRequestRepository, times(1)).delete(any());
+                verify(rowDeletes, times(1)).deleteById(RecommendationRequest.class, 15L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Recommendation Request with id 15 deleted", json.get("message"));
@@ -240,7 +241,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(recommendationRequestRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(rowDeletes.deleteById(RecommendationRequest.class, 15L)).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -249,11 +250,44 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(recommendationRequestRepository, times(1)).findById(15L);
+                verify(rowDeletes, times(1)).deleteById(RecommendationRequest.class, 15L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("RecommendationRequest with id 15 not found", json.get("message"));
         }
 
+        @Test
+        public void logged_out_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/recommendationrequest/bulk-delete"))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/recommendationrequest/bulk-delete")
+                                                        .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_bulk_delete_and_gets_back_what_was_deleted() throws Exception {
+                        // arrange
+                        when(rowDeletes.deleteAllById(RecommendationRequest.class, List.of(15L, 16L, 17L))).thenReturn(List.of(15L, 17L));
+
+                        // act
+                        MvcResult response = mockMvc.perform(
+                                                        post("/api/recommendationrequest/bulk-delete")
+                                                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                                                        .content("[15,16,17]")
+                                                                                        .with(csrf()))
+                                                        .andExpect(status().isOk()).andReturn();
+
+                        // assert
+                        verify(rowDeletes, times(1)).deleteAllById(RecommendationRequest.class, List.of(15L, 16L, 17L));
+                        assertEquals("[15,17]", response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_can_edit_an_existing_recommendationrequest() throws Exception {
@@ -283,6 +317,7 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                 String requestBody = mapper.writeValueAsString(recommendationRequestEdited);
 
                 when(recommendationRequestRepository.findById(eq(67L))).thenReturn(Optional.of(recommendationRequestOrig));
+                when(recommendationRequestRepository.save(eq(recommendationRequestEdited))).thenReturn(recommendationRequestEdited);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -300,6 +335,77 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                 assertEquals(requestBody, responseString);
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_that_changes_nothing_does_not_save_the_recommendationrequest() throws Exception {
+                // arrange
+                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                RecommendationRequest orig = RecommendationRequest.builder()
+                                .requesterEmail("petrus@ucsb.edu")
+                                .professorEmail("pconrad@ucsb.edu")
+                                .explanation("Gradschool")
+                                .dateRequested(ldt1)
+                                .dateNeeded(ldt1)
+                                .done(true)
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(recommendationRequestRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/recommendationrequest?id=67")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"3\"")
+                                        .with(csrf()))
+                        .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(recommendationRequestRepository, never()).save(any());
+                assertEquals("\"3\"", response.getResponse().getHeader("ETag"));
+                assertEquals(requestBody, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_a_recommendationrequest_that_changed_since_it_was_read() throws Exception {
+                // arrange
+                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                RecommendationRequest orig = RecommendationRequest.builder()
+                                .requesterEmail("petrus@ucsb.edu")
+                                .professorEmail("pconrad@ucsb.edu")
+                                .explanation("Gradschool")
+                                .dateRequested(ldt1)
+                                .dateNeeded(ldt1)
+                                .done(true)
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(recommendationRequestRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/recommendationrequest?id=67")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"2\"")
+                                        .with(csrf()))
+                        .andExpect(status().isPreconditionFailed()).andReturn();
+
+                // assert
+                verify(recommendationRequestRepository, never()).save(any());
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_cannot_edit_recommendationrequest_that_does_not_exist() throws Exception {
@@ -335,4 +441,62 @@ public class RecommendationRequestControllerTests extends ControllerTestCase {
                 assertEquals("RecommendationRequest with id 67 not found", json.get("message"));
 
         }
-}
\ No newline at end of file
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_recommendationrequests() throws Exception {
+                // arrange
+                ArrayList<RecommendationRequest> expected = new ArrayList<>();
+                expected.addAll(Arrays.asList(
+                        RecommendationRequest.builder().id(8L).requesterEmail("a@ucsb.edu").build(),
+                        RecommendationRequest.builder().id(9L).requesterEmail("b@ucsb.edu").build()));
+
+                when(recommendationRequestRepository.findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)))).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/recommendationrequest/all?after=7&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(recommendationRequestRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, "9"));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for conditional GET (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(RecommendationRequest.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/recommendationrequest/all").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(recommendationRequestViews, times(0)).allRecommendationRequests();
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(RecommendationRequest.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/recommendationrequest?id=7").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(recommendationRequestViews, times(0)).findRecommendationRequest(eq(7L));
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+}
@@ -4,12 +4,16 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -26,6 +30,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,6 +42,9 @@ public class RestaurantsControllerTests extends ControllerTestCase {
         @MockBean
         RestaurantRepository restaurantRepository;
 
+        @MockBean
+        RowDeleteService rowDeletes;
+
         @MockBean
         UserRepository userRepository;
 
@@ -187,12 +195,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_restaurant() throws Exception {
                 // arrange
 
-                Restaurant restaurant = Restaurant.builder()
-                                .name("Taco Bell")
-                                .description("Mexican")
-                                .build();
-
-                when(restaurantRepository.findById(eq(15L))).thenReturn(Optional.of(restaurant));
+                when(rowDeletes.deleteById(Restaurant.class, 15L)).thenReturn(true);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -201,8 +204,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(15L);
-                verify(restaurantRepository, times(1)).delete(any());
+                verify(rowDeletes, times(1)).deleteById(Restaurant.class, 15L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Restaurant with id 15 deleted", json.get("message"));
@@ -214,7 +216,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(restaurantRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(rowDeletes.deleteById(Restaurant.class, 15L)).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -223,11 +225,44 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(restaurantRepository, times(1)).findById(15L);
+                verify(rowDeletes, times(1)).deleteById(Restaurant.class, 15L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("Restaurant with id 15 not found", json.get("message"));
         }
 
+        @Test
+        public void logged_out_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/restaurants/bulk-delete"))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/restaurants/bulk-delete")
+                                                        .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_bulk_delete_and_gets_back_what_was_deleted() throws Exception {
+                        // arrange
+                        when(rowDeletes.deleteAllById(Restaurant.class, List.of(15L, 16L, 17L))).thenReturn(List.of(15L, 17L));
+
+                        // act
+                        MvcResult response = mockMvc.perform(
+                                                        post("/api/restaurants/bulk-delete")
+                                                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                                                        .content("[15,16,17]")
+                                                                                        .with(csrf()))
+                                                        .andExpect(status().isOk()).andReturn();
+
+                        // assert
+                        verify(rowDeletes, times(1)).deleteAllById(Restaurant.class, List.of(15L, 16L, 17L));
+                        assertEquals("[15,17]", response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_can_edit_an_existing_restaurant() throws Exception {
@@ -246,6 +281,7 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 String requestBody = mapper.writeValueAsString(restaurantEdited);
 
                 when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.of(restaurantOrig));
+                when(restaurantRepository.save(eq(restaurantEdited))).thenReturn(restaurantEdited);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -263,6 +299,65 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 assertEquals(requestBody, responseString);
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_that_changes_nothing_does_not_save_the_restaurant() throws Exception {
+                // arrange
+                Restaurant orig = Restaurant.builder()
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/restaurants?id=67")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"3\"")
+                                        .with(csrf()))
+                        .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, never()).save(any());
+                assertEquals("\"3\"", response.getResponse().getHeader("ETag"));
+                assertEquals(requestBody, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_a_restaurant_that_changed_since_it_was_read() throws Exception {
+                // arrange
+                Restaurant orig = Restaurant.builder()
+                                .name("Chipotle")
+                                .description("Mexican")
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(restaurantRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/restaurants?id=67")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"2\"")
+                                        .with(csrf()))
+                        .andExpect(status().isPreconditionFailed()).andReturn();
+
+                // assert
+                verify(restaurantRepository, never()).save(any());
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_cannot_edit_restaurant_that_does_not_exist() throws Exception {
@@ -294,4 +389,62 @@ public class RestaurantsControllerTests extends ControllerTestCase {
                 assertEquals("Restaurant with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_restaurants() throws Exception {
+                // arrange
+                ArrayList<Restaurant> expected = new ArrayList<>();
+                expected.addAll(Arrays.asList(
+                        Restaurant.builder().id(8L).name("a").build(),
+                        Restaurant.builder().id(9L).name("b").build()));
+
+                when(restaurantRepository.findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)))).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all?after=7&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, "9"));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for conditional GET (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(Restaurant.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants/all").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(0)).findAll();
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(Restaurant.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/restaurants?id=7").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(restaurantRepository, times(0)).findById(eq(7L));
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
 }
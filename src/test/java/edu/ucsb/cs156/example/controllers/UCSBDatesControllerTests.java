@@ -4,12 +4,16 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -28,6 +32,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -39,6 +44,9 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
         @MockBean
         UCSBDateRepository ucsbDateRepository;
 
+        @MockBean
+        RowDeleteService rowDeletes;
+
         @MockBean
         UserRepository userRepository;
 
@@ -199,15 +207,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_date() throws Exception {
                 // arrange
 
-                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
-
-                UCSBDate ucsbDate1 = UCSBDate.builder()
-                                .name("firstDayOfClasses")
-                                .quarterYYYYQ("20222")
-                                .localDateTime(ldt1)
-                                .build();
-
-                when(ucsbDateRepository.findById(eq(15L))).thenReturn(Optional.of(ucsbDate1));
+                when(rowDeletes.deleteById(UCSBDate.class, 15L)).thenReturn(true);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -216,8 +216,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(15L);
-                verify(ucsbDateRepository, times(1)).delete(any());
+                verify(rowDeletes, times(1)).deleteById(UCSBDate.class, 15L);
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 15 deleted", json.get("message"));
@@ -229,7 +228,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(ucsbDateRepository.findById(eq(15L))).thenReturn(Optional.empty());
+                when(rowDeletes.deleteById(UCSBDate.class, 15L)).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -238,11 +237,44 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDateRepository, times(1)).findById(15L);
+                verify(rowDeletes, times(1)).deleteById(UCSBDate.class, 15L);
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDate with id 15 not found", json.get("message"));
         }
 
+        @Test
+        public void logged_out_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/ucsbdates/bulk-delete"))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/ucsbdates/bulk-delete")
+                                                        .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_bulk_delete_and_gets_back_what_was_deleted() throws Exception {
+                        // arrange
+                        when(rowDeletes.deleteAllById(UCSBDate.class, List.of(15L, 16L, 17L))).thenReturn(List.of(15L, 17L));
+
+                        // act
+                        MvcResult response = mockMvc.perform(
+                                                        post("/api/ucsbdates/bulk-delete")
+                                                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                                                        .content("[15,16,17]")
+                                                                                        .with(csrf()))
+                                                        .andExpect(status().isOk()).andReturn();
+
+                        // assert
+                        verify(rowDeletes, times(1)).deleteAllById(UCSBDate.class, List.of(15L, 16L, 17L));
+                        assertEquals("[15,17]", response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_can_edit_an_existing_ucsbdate() throws Exception {
@@ -266,6 +298,7 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 String requestBody = mapper.writeValueAsString(ucsbDateEdited);
 
                 when(ucsbDateRepository.findById(eq(67L))).thenReturn(Optional.of(ucsbDateOrig));
+                when(ucsbDateRepository.save(eq(ucsbDateEdited))).thenReturn(ucsbDateEdited);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -283,6 +316,71 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 assertEquals(requestBody, responseString);
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_that_changes_nothing_does_not_save_the_ucsbdate() throws Exception {
+                // arrange
+                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                UCSBDate orig = UCSBDate.builder()
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(ldt1)
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(ucsbDateRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdates?id=67")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"3\"")
+                                        .with(csrf()))
+                        .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, never()).save(any());
+                assertEquals("\"3\"", response.getResponse().getHeader("ETag"));
+                assertEquals(requestBody, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_a_ucsbdate_that_changed_since_it_was_read() throws Exception {
+                // arrange
+                LocalDateTime ldt1 = LocalDateTime.parse("2022-01-03T00:00:00");
+
+                UCSBDate orig = UCSBDate.builder()
+                                .name("firstDayOfClasses")
+                                .quarterYYYYQ("20222")
+                                .localDateTime(ldt1)
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(ucsbDateRepository.findById(eq(67L))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdates?id=67")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"2\"")
+                                        .with(csrf()))
+                        .andExpect(status().isPreconditionFailed()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, never()).save(any());
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_cannot_edit_ucsbdate_that_does_not_exist() throws Exception {
@@ -315,4 +413,116 @@ public class UCSBDatesControllerTests extends ControllerTestCase {
                 assertEquals("UCSBDate with id 67 not found", json.get("message"));
 
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_ucsbdates() throws Exception {
+                // arrange
+                ArrayList<UCSBDate> expected = new ArrayList<>();
+                expected.addAll(Arrays.asList(
+                        UCSBDate.builder().id(8L).name("a").build(),
+                        UCSBDate.builder().id(9L).name("b").build()));
+
+                when(ucsbDateRepository.findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)))).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all?after=7&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, "9"));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for conditional GET (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(UCSBDate.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates/all").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(0)).findAll();
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(UCSBDate.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdates?id=7").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(0)).findById(eq(7L));
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        // Tests for POST /bulk
+
+        private UCSBDate bulkUCSBDate(long id) {
+                return UCSBDate.builder()
+                                .id(id)
+                                .quarterYYYYQ("20222")
+                                .name("firstDayOfClasses")
+                                .localDateTime(LocalDateTime.parse("2022-03-28T00:00:00"))
+                                .build();
+        }
+
+        @Test
+        public void logged_out_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/ucsbdates/bulk"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+                mockMvc.perform(post("/api/ucsbdates/bulk")
+                                .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_post_many_at_once_and_ids_are_ignored() throws Exception {
+                // arrange
+
+                List<UCSBDate> incoming = List.of(bulkUCSBDate(17), bulkUCSBDate(18));
+                List<UCSBDate> expectedToSave = List.of(bulkUCSBDate(0), bulkUCSBDate(0));
+                List<UCSBDate> saved = List.of(bulkUCSBDate(1), bulkUCSBDate(2));
+
+                when(ucsbDateRepository.saveAll(eq(expectedToSave))).thenReturn(saved);
+
+                String requestBody = mapper.writeValueAsString(incoming);
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsbdates/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .characterEncoding("utf-8")
+                                                .content(requestBody)
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDateRepository, times(1)).saveAll(eq(expectedToSave));
+                String expectedJson = mapper.writeValueAsString(saved);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
 }
@@ -4,12 +4,20 @@ import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.KeysetPage;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrgsRepository;
+import edu.ucsb.cs156.example.services.DiningCommonsLocator;
+import edu.ucsb.cs156.example.services.ReferenceDataCacheService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -26,20 +34,30 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @WebMvcTest(controllers = UCSBDiningCommonsController.class)
-@Import(TestConfig.class)
+@Import({TestConfig.class, ReferenceDataCacheService.class})
 public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
         @MockBean
         UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
 
+        @MockBean
+        RowDeleteService rowDeletes;
+
+        @MockBean
+        UCSBOrgsRepository ucsbOrgsRepository;
+
         @MockBean
         UserRepository userRepository;
 
+        @MockBean
+        DiningCommonsLocator diningCommonsLocator;
+
         // Authorization tests for /api/ucsbdiningcommons/admin/all
 
         @Test
@@ -197,6 +215,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
 
                 // assert
                 verify(ucsbDiningCommonsRepository, times(1)).save(ortega);
+                verify(diningCommonsLocator, times(1)).put(ortega);
                 String expectedJson = mapper.writeValueAsString(ortega);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
@@ -207,17 +226,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
         public void admin_can_delete_a_date() throws Exception {
                 // arrange
 
-                UCSBDiningCommons portola = UCSBDiningCommons.builder()
-                                .name("Portola")
-                                .code("portola")
-                                .hasSackMeal(true)
-                                .hasTakeOutMeal(true)
-                                .hasDiningCam(true)
-                                .latitude(34.417723)
-                                .longitude(-119.867427)
-                                .build();
-
-                when(ucsbDiningCommonsRepository.findById(eq("portola"))).thenReturn(Optional.of(portola));
+                when(rowDeletes.deleteById(UCSBDiningCommons.class, "portola")).thenReturn(true);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -226,8 +235,8 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isOk()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("portola");
-                verify(ucsbDiningCommonsRepository, times(1)).delete(any());
+                verify(rowDeletes, times(1)).deleteById(UCSBDiningCommons.class, "portola");
+                verify(diningCommonsLocator, times(1)).remove("portola");
 
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommons with id portola deleted", json.get("message"));
@@ -239,7 +248,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                         throws Exception {
                 // arrange
 
-                when(ucsbDiningCommonsRepository.findById(eq("munger-hall"))).thenReturn(Optional.empty());
+                when(rowDeletes.deleteById(UCSBDiningCommons.class, "munger-hall")).thenReturn(false);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -248,11 +257,46 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                                 .andExpect(status().isNotFound()).andReturn();
 
                 // assert
-                verify(ucsbDiningCommonsRepository, times(1)).findById("munger-hall");
+                verify(rowDeletes, times(1)).deleteById(UCSBDiningCommons.class, "munger-hall");
                 Map<String, Object> json = responseToJson(response);
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
         }
 
+        @Test
+        public void logged_out_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/ucsbdiningcommons/bulk-delete"))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_regular_users_cannot_bulk_delete() throws Exception {
+                        mockMvc.perform(post("/api/ucsbdiningcommons/bulk-delete")
+                                                        .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                                        .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_can_bulk_delete_and_gets_back_what_was_deleted() throws Exception {
+                        // arrange
+                        when(rowDeletes.deleteAllById(UCSBDiningCommons.class, List.of("portola", "munger-hall", "ortega"))).thenReturn(List.of("portola", "ortega"));
+
+                        // act
+                        MvcResult response = mockMvc.perform(
+                                                        post("/api/ucsbdiningcommons/bulk-delete")
+                                                                                        .contentType(MediaType.APPLICATION_JSON)
+                                                                                        .content("[\"portola\",\"munger-hall\",\"ortega\"]")
+                                                                                        .with(csrf()))
+                                                        .andExpect(status().isOk()).andReturn();
+
+                        // assert
+                        verify(rowDeletes, times(1)).deleteAllById(UCSBDiningCommons.class, List.of("portola", "munger-hall", "ortega"));
+                        verify(diningCommonsLocator, times(1)).remove("portola");
+                        verify(diningCommonsLocator, times(1)).remove("ortega");
+                        assertEquals("[\"portola\",\"ortega\"]", response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_can_edit_an_existing_commons() throws Exception {
@@ -281,6 +325,7 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 String requestBody = mapper.writeValueAsString(carrilloEdited);
 
                 when(ucsbDiningCommonsRepository.findById(eq("carrillo"))).thenReturn(Optional.of(carrilloOrig));
+                when(ucsbDiningCommonsRepository.save(eq(carrilloEdited))).thenReturn(carrilloEdited);
 
                 // act
                 MvcResult response = mockMvc.perform(
@@ -294,10 +339,82 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 // assert
                 verify(ucsbDiningCommonsRepository, times(1)).findById("carrillo");
                 verify(ucsbDiningCommonsRepository, times(1)).save(carrilloEdited); // should be saved with updated info
+                verify(diningCommonsLocator, times(1)).put(carrilloEdited);
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(requestBody, responseString);
         }
 
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_edit_that_changes_nothing_does_not_save_the_commons() throws Exception {
+                // arrange
+                UCSBDiningCommons orig = UCSBDiningCommons.builder()
+                                .name("Carrillo")
+                                .code("carrillo")
+                                .hasSackMeal(false)
+                                .hasTakeOutMeal(false)
+                                .hasDiningCam(true)
+                                .latitude(34.409953)
+                                .longitude(-119.85277)
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(ucsbDiningCommonsRepository.findById(eq("carrillo"))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdiningcommons?code=carrillo")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"3\"")
+                                        .with(csrf()))
+                        .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, never()).save(any());
+                verify(diningCommonsLocator, never()).put(any());
+                assertEquals("\"3\"", response.getResponse().getHeader("ETag"));
+                assertEquals(requestBody, response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void admin_cannot_edit_a_commons_that_changed_since_it_was_read() throws Exception {
+                // arrange
+                UCSBDiningCommons orig = UCSBDiningCommons.builder()
+                                .name("Carrillo")
+                                .code("carrillo")
+                                .hasSackMeal(false)
+                                .hasTakeOutMeal(false)
+                                .hasDiningCam(true)
+                                .latitude(34.409953)
+                                .longitude(-119.85277)
+                                .version(3)
+                                .build();
+
+                String requestBody = mapper.writeValueAsString(orig);
+
+                when(ucsbDiningCommonsRepository.findById(eq("carrillo"))).thenReturn(Optional.of(orig));
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                put("/api/ucsbdiningcommons?code=carrillo")
+                                        .contentType(MediaType.APPLICATION_JSON)
+                                        .characterEncoding("utf-8")
+                                        .content(requestBody)
+                                        .header("If-Match", "\"2\"")
+                                        .with(csrf()))
+                        .andExpect(status().isPreconditionFailed()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, never()).save(any());
+                verify(diningCommonsLocator, never()).put(any());
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
         @WithMockUser(roles = { "ADMIN", "USER" })
         @Test
         public void admin_cannot_edit_commons_that_does_not_exist() throws Exception {
@@ -332,4 +449,130 @@ public class UCSBDiningCommonsControllerTests extends ControllerTestCase {
                 assertEquals("UCSBDiningCommons with id munger-hall not found", json.get("message"));
 
         }
+
+        @Test
+        public void logged_out_users_cannot_get_nearest() throws Exception {
+                mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.85"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_nearest_commons() throws Exception {
+
+                // arrange
+
+                UCSBDiningCommons carrillo = UCSBDiningCommons.builder()
+                                .name("Carrillo")
+                                .code("carrillo")
+                                .hasSackMeal(false)
+                                .hasTakeOutMeal(false)
+                                .hasDiningCam(true)
+                                .latitude(34.409953)
+                                .longitude(-119.85277)
+                                .build();
+
+                UCSBDiningCommons dlg = UCSBDiningCommons.builder()
+                                .name("De La Guerra")
+                                .code("de-la-guerra")
+                                .hasSackMeal(false)
+                                .hasTakeOutMeal(false)
+                                .hasDiningCam(true)
+                                .latitude(34.409811)
+                                .longitude(-119.845026)
+                                .build();
+
+                List<NearbyDiningCommons> nearest = List.of(
+                                new NearbyDiningCommons(carrillo, 120.5),
+                                new NearbyDiningCommons(dlg, 830.25));
+
+                when(diningCommonsLocator.nearest(eq(34.41), eq(-119.854), eq(2))).thenReturn(nearest);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.854&k=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+
+                verify(diningCommonsLocator, times(1)).nearest(34.41, -119.854, 2);
+                String expectedJson = mapper.writeValueAsString(nearest);
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void nearest_defaults_to_one_commons_and_clamps_k() throws Exception {
+
+                // act
+                mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.854"))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.854&k=0"))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/ucsbdiningcommons/nearest?lat=34.41&lon=-119.854&k=5000"))
+                                .andExpect(status().isOk());
+
+                // assert
+
+                verify(diningCommonsLocator, times(2)).nearest(34.41, -119.854, 1);
+                verify(diningCommonsLocator, times(1)).nearest(34.41, -119.854, ApiController.MAX_PAGE_SIZE);
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_can_get_a_page_of_commons() throws Exception {
+                // arrange
+                ArrayList<UCSBDiningCommons> expected = new ArrayList<>();
+                expected.addAll(Arrays.asList(
+                        UCSBDiningCommons.builder().code("ortega").name("Ortega").build(),
+                        UCSBDiningCommons.builder().code("portola").name("Portola").build()));
+
+                when(ucsbDiningCommonsRepository.findByCodeGreaterThanOrderByCodeAsc(eq("de-la-guerra"), eq(Limit.of(2)))).thenReturn(expected);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all?after=de-la-guerra&limit=2"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(1)).findByCodeGreaterThanOrderByCodeAsc(eq("de-la-guerra"), eq(Limit.of(2)));
+                String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, "portola"));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        // Tests for conditional GET (ETag / If-None-Match)
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_all_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(UCSBDiningCommons.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons/all").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(0)).findAll();
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void get_by_id_returns_304_without_loading_when_etag_matches() throws Exception {
+                // arrange
+                String eTag = "\"3\"";
+                when(tableVersionService.eTag(UCSBDiningCommons.class)).thenReturn(eTag);
+
+                // act
+                MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommons?code=carrillo").header("If-None-Match", eTag))
+                                                                .andExpect(status().isNotModified()).andReturn();
+
+                // assert
+                verify(ucsbDiningCommonsRepository, times(0)).findById(eq("carrillo"));
+                assertEquals(eTag, response.getResponse().getHeader("ETag"));
+                assertEquals("", response.getResponse().getContentAsString());
+        }
 }
@@ -5,15 +5,19 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDate;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommonsMenuItem;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsMenuItemRepository;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Arrays;
 import java.util.Map;
 
 import org.glassfish.jaxb.runtime.v2.runtime.unmarshaller.XsiNilLoader.Array;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -33,6 +37,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -43,6 +48,9 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
     @MockBean
     UCSBDiningCommonsMenuItemRepository ucsbDiningCommonsMenuItemRepository;
 
+    @MockBean
+    RowDeleteService rowDeletes;
+
     @MockBean
     UserRepository userRepository;
 
@@ -175,14 +183,7 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
     public void admin_can_delete_a_row() throws Exception {
             // arrange
 
-            UCSBDiningCommonsMenuItem ucsbDCMI1 = UCSBDiningCommonsMenuItem.builder()
-                            .diningCommonsCode("Test1")
-                            .name("TEST2")
-                            .station("TEST3")
-                            .build();
-
-            when(ucsbDiningCommonsMenuItemRepository.findById(eq(15L)))
-                            .thenReturn(Optional.of(ucsbDCMI1));
+            when(rowDeletes.deleteById(UCSBDiningCommonsMenuItem.class, 15L)).thenReturn(true);
 
             // act
             MvcResult response = mockMvc.perform(
@@ -191,8 +192,7 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                             .andExpect(status().isOk()).andReturn();
 
             // assert
-            verify(ucsbDiningCommonsMenuItemRepository, times(1)).findById(15L);
-            verify(ucsbDiningCommonsMenuItemRepository, times(1)).delete(any());
+            verify(rowDeletes, times(1)).deleteById(UCSBDiningCommonsMenuItem.class, 15L);
 
             Map<String, Object> json = responseToJson(response);
             assertEquals("UCSBDiningCommonsMenuItem with id 15 deleted", json.get("message"));
@@ -204,7 +204,7 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                     throws Exception {
             // arrange
 
-            when(ucsbDiningCommonsMenuItemRepository.findById(eq(15L))).thenReturn(Optional.empty());
+            when(rowDeletes.deleteById(UCSBDiningCommonsMenuItem.class, 15L)).thenReturn(false);
 
             // act
             MvcResult response = mockMvc.perform(
@@ -213,11 +213,44 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
                             .andExpect(status().isNotFound()).andReturn();
 
             // assert
-            verify(ucsbDiningCommonsMenuItemRepository, times(1)).findById(15L);
+            verify(rowDeletes, times(1)).deleteById(UCSBDiningCommonsMenuItem.class, 15L);
             Map<String, Object> json = responseToJson(response);
             assertEquals("UCSBDiningCommonsMenuItem with id 15 not found", json.get("message"));
     }
 
+    @Test
+    public void logged_out_users_cannot_bulk_delete() throws Exception {
+                    mockMvc.perform(post("/api/ucsbdiningcommonsmenuitem/bulk-delete"))
+                                                    .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_regular_users_cannot_bulk_delete() throws Exception {
+                    mockMvc.perform(post("/api/ucsbdiningcommonsmenuitem/bulk-delete")
+                                                    .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                                                    .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_can_bulk_delete_and_gets_back_what_was_deleted() throws Exception {
+                    // arrange
+                    when(rowDeletes.deleteAllById(UCSBDiningCommonsMenuItem.class, List.of(15L, 16L, 17L))).thenReturn(List.of(15L, 17L));
+
+                    // act
+                    MvcResult response = mockMvc.perform(
+                                                    post("/api/ucsbdiningcommonsmenuitem/bulk-delete")
+                                                                                    .contentType(MediaType.APPLICATION_JSON)
+                                                                                    .content("[15,16,17]")
+                                                                                    .with(csrf()))
+                                                    .andExpect(status().isOk()).andReturn();
+
+                    // assert
+                    verify(rowDeletes, times(1)).deleteAllById(UCSBDiningCommonsMenuItem.class, List.of(15L, 16L, 17L));
+                    assertEquals("[15,17]", response.getResponse().getContentAsString());
+    }
+
     //TESTS FOR PUT
     @WithMockUser(roles = { "ADMIN", "USER" })
     @Test
@@ -238,6 +271,7 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
 
         when(ucsbDiningCommonsMenuItemRepository.findById(eq(15L)))
                         .thenReturn(Optional.of(ucsbDCMI1));
+        when(ucsbDiningCommonsMenuItemRepository.save(eq(ucsbDCMI2))).thenReturn(ucsbDCMI2);
 
         MvcResult response = mockMvc.perform(
                         put("/api/ucsbdiningcommonsmenuitem?id=15")
@@ -253,6 +287,67 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
            
     }
 
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_edit_that_changes_nothing_does_not_save_the_ucsbDCMI() throws Exception {
+        // arrange
+        UCSBDiningCommonsMenuItem orig = UCSBDiningCommonsMenuItem.builder()
+                .diningCommonsCode("Test1")
+                .name("TEST2")
+                .station("TEST3")
+                .version(3)
+                .build();
+
+        String requestBody = mapper.writeValueAsString(orig);
+
+        when(ucsbDiningCommonsMenuItemRepository.findById(eq(15L))).thenReturn(Optional.of(orig));
+
+        // act
+        MvcResult response = mockMvc.perform(
+                put("/api/ucsbdiningcommonsmenuitem?id=15")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .characterEncoding("utf-8")
+                    .content(requestBody)
+                    .header("If-Match", "\"3\"")
+                    .with(csrf()))
+            .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(ucsbDiningCommonsMenuItemRepository, never()).save(any());
+        assertEquals("\"3\"", response.getResponse().getHeader("ETag"));
+        assertEquals(requestBody, response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_cannot_edit_a_ucsbDCMI_that_changed_since_it_was_read() throws Exception {
+        // arrange
+        UCSBDiningCommonsMenuItem orig = UCSBDiningCommonsMenuItem.builder()
+                .diningCommonsCode("Test1")
+                .name("TEST2")
+                .station("TEST3")
+                .version(3)
+                .build();
+
+        String requestBody = mapper.writeValueAsString(orig);
+
+        when(ucsbDiningCommonsMenuItemRepository.findById(eq(15L))).thenReturn(Optional.of(orig));
+
+        // act
+        MvcResult response = mockMvc.perform(
+                put("/api/ucsbdiningcommonsmenuitem?id=15")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .characterEncoding("utf-8")
+                    .content(requestBody)
+                    .header("If-Match", "\"2\"")
+                    .with(csrf()))
+            .andExpect(status().isPreconditionFailed()).andReturn();
+
+        // assert
+        verify(ucsbDiningCommonsMenuItemRepository, never()).save(any());
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
     @WithMockUser(roles = { "ADMIN", "USER" })
     @Test
     public void admin_cannot_edit_ucsbDCMI_that_DNI() throws Exception {
@@ -278,4 +373,116 @@ public class UCSBDiningCommonsMenuItemControllerTests extends ControllerTestCase
         Map<String, Object> json = responseToJson(response);
         assertEquals("UCSBDiningCommonsMenuItem with id 15 not found", json.get("message"));
     }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_a_page_of_menuitems() throws Exception {
+        // arrange
+        ArrayList<UCSBDiningCommonsMenuItem> expected = new ArrayList<>();
+        expected.addAll(Arrays.asList(
+            UCSBDiningCommonsMenuItem.builder().id(8L).name("a").build(),
+            UCSBDiningCommonsMenuItem.builder().id(9L).name("b").build()));
+
+        when(ucsbDiningCommonsMenuItemRepository.findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)))).thenReturn(expected);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all?after=7&limit=2"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(ucsbDiningCommonsMenuItemRepository, times(1)).findByIdGreaterThanOrderByIdAsc(eq(7L), eq(Limit.of(2)));
+        String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, "9"));
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    // Tests for conditional GET (ETag / If-None-Match)
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void get_all_returns_304_without_loading_when_etag_matches() throws Exception {
+        // arrange
+        String eTag = "\"3\"";
+        when(tableVersionService.eTag(UCSBDiningCommonsMenuItem.class)).thenReturn(eTag);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem/all").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified()).andReturn();
+
+        // assert
+        verify(ucsbDiningCommonsMenuItemRepository, times(0)).findAll();
+        assertEquals(eTag, response.getResponse().getHeader("ETag"));
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void get_by_id_returns_304_without_loading_when_etag_matches() throws Exception {
+        // arrange
+        String eTag = "\"3\"";
+        when(tableVersionService.eTag(UCSBDiningCommonsMenuItem.class)).thenReturn(eTag);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/ucsbdiningcommonsmenuitem?id=15").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified()).andReturn();
+
+        // assert
+        verify(ucsbDiningCommonsMenuItemRepository, times(0)).findById(eq(15L));
+        assertEquals(eTag, response.getResponse().getHeader("ETag"));
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    // Tests for POST /bulk
+
+    private UCSBDiningCommonsMenuItem bulkUCSBDiningCommonsMenuItem(long id) {
+        return UCSBDiningCommonsMenuItem.builder()
+                .id(id)
+                .diningCommonsCode("ortega")
+                .name("Baked Pesto Pasta with Chicken")
+                .station("Entree Specials")
+                .build();
+    }
+
+    @Test
+    public void logged_out_users_cannot_post_bulk() throws Exception {
+        mockMvc.perform(post("/api/ucsbdiningcommonsmenuitem/bulk"))
+                            .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_regular_users_cannot_post_bulk() throws Exception {
+        mockMvc.perform(post("/api/ucsbdiningcommonsmenuitem/bulk")
+                            .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                            .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void an_admin_user_can_post_many_at_once_and_ids_are_ignored() throws Exception {
+        // arrange
+
+        List<UCSBDiningCommonsMenuItem> incoming = List.of(bulkUCSBDiningCommonsMenuItem(17), bulkUCSBDiningCommonsMenuItem(18));
+        List<UCSBDiningCommonsMenuItem> expectedToSave = List.of(bulkUCSBDiningCommonsMenuItem(0), bulkUCSBDiningCommonsMenuItem(0));
+        List<UCSBDiningCommonsMenuItem> saved = List.of(bulkUCSBDiningCommonsMenuItem(1), bulkUCSBDiningCommonsMenuItem(2));
+
+        when(ucsbDiningCommonsMenuItemRepository.saveAll(eq(expectedToSave))).thenReturn(saved);
+
+        String requestBody = mapper.writeValueAsString(incoming);
+
+        // act
+        MvcResult response = mockMvc.perform(
+                            post("/api/ucsbdiningcommonsmenuitem/bulk")
+                                    .contentType(MediaType.APPLICATION_JSON)
+                                    .characterEncoding("utf-8")
+                                    .content(requestBody)
+                                    .with(csrf()))
+                            .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(ucsbDiningCommonsMenuItemRepository, times(1)).saveAll(eq(expectedToSave));
+        String expectedJson = mapper.writeValueAsString(saved);
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
 }
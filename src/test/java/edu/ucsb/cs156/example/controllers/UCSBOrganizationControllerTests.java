@@ -5,13 +5,18 @@ import edu.ucsb.cs156.example.testconfig.TestConfig;
 import edu.ucsb.cs156.example.ControllerTestCase;
 import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
 import edu.ucsb.cs156.example.entities.UCSBOrgs;
+import edu.ucsb.cs156.example.models.KeysetPage;
 import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
 import edu.ucsb.cs156.example.repositories.UCSBOrgsRepository;
+import edu.ucsb.cs156.example.services.ReferenceDataCacheService;
+import edu.ucsb.cs156.example.services.RowDeleteService;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
@@ -28,18 +33,25 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
 @WebMvcTest(controllers = UCSBOrganizationController.class)
-@Import(TestConfig.class)
+@Import({TestConfig.class, ReferenceDataCacheService.class})
 public class UCSBOrganizationControllerTests extends ControllerTestCase {
 
     @MockBean
     UCSBOrgsRepository ucsbOrgsRepository;
 
+    @MockBean
+    RowDeleteService rowDeletes;
+
+    @MockBean
+    UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
     @MockBean
     UserRepository userRepository;
 
@@ -207,7 +219,7 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
     public void admin_tries_to_delete_non_existant_orgnization_and_gets_right_error_message() throws Exception {
         // arrange
 
-        when(ucsbOrgsRepository.findById(eq("WER"))).thenReturn(Optional.empty());
+        when(rowDeletes.deleteById(UCSBOrgs.class, "WER")).thenReturn(false);
 
         // act
         MvcResult response = mockMvc.perform(
@@ -216,23 +228,50 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
             .andExpect(status().isNotFound()).andReturn();
 
         // assert
-        verify(ucsbOrgsRepository, times(1)).findById("WER");
+        verify(rowDeletes, times(1)).deleteById(UCSBOrgs.class, "WER");
         Map<String, Object> json = responseToJson(response);
         assertEquals("UCSBOrgs with id WER not found", json.get("message"));
     }
 
+    @Test
+    public void logged_out_users_cannot_bulk_delete() throws Exception {
+        mockMvc.perform(post("/api/ucsborganization/bulk-delete"))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_regular_users_cannot_bulk_delete() throws Exception {
+        mockMvc.perform(post("/api/ucsborganization/bulk-delete")
+                .contentType(MediaType.APPLICATION_JSON).content("[]").with(csrf()))
+                .andExpect(status().is(403));
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_can_bulk_delete_and_gets_back_what_was_deleted() throws Exception {
+        // arrange
+        when(rowDeletes.deleteAllById(UCSBOrgs.class, List.of("SKI", "WER", "ZPR"))).thenReturn(List.of("SKI", "ZPR"));
+
+        // act
+        MvcResult response = mockMvc.perform(
+                post("/api/ucsborganization/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"SKI\",\"WER\",\"ZPR\"]")
+                        .with(csrf()))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(rowDeletes, times(1)).deleteAllById(UCSBOrgs.class, List.of("SKI", "WER", "ZPR"));
+        assertEquals("[\"SKI\",\"ZPR\"]", response.getResponse().getContentAsString());
+    }
+
     @WithMockUser(roles = { "ADMIN", "USER" })
     @Test
     public void admin_can_delete_an_orgnization() throws Exception {
         // arrange
-        UCSBOrgs skiing = UCSBOrgs.builder()
-            .orgCode("SKI")
-            .orgTranslationShort("SKIING CLUB")
-            .orgTranslation("SKIING CLUB AT UCSB")
-            .inactive(false)
-            .build();
 
-        when(ucsbOrgsRepository.findById(eq("SKI"))).thenReturn(Optional.of(skiing));
+        when(rowDeletes.deleteById(UCSBOrgs.class, "SKI")).thenReturn(true);
 
         // act
         MvcResult response = mockMvc.perform(
@@ -241,8 +280,7 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
             .andExpect(status().isOk()).andReturn();
         
         // assert
-        verify(ucsbOrgsRepository, times(1)).findById("SKI");
-        verify(ucsbOrgsRepository, times(1)).delete(any());
+        verify(rowDeletes, times(1)).deleteById(UCSBOrgs.class, "SKI");
 
         Map<String, Object> json = responseToJson(response);
         assertEquals("UCSBOrgs with id SKI deleted", json.get("message"));
@@ -272,6 +310,7 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
         String requestBody = mapper.writeValueAsString(skiEdited);
 
         when(ucsbOrgsRepository.findById(eq("SKI"))).thenReturn(Optional.of(skiOrigin));
+        when(ucsbOrgsRepository.save(eq(skiEdited))).thenReturn(skiEdited);
 
         // act
         MvcResult response = mockMvc.perform(
@@ -289,6 +328,69 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
         assertEquals(requestBody, responseString);
     }
 
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_edit_that_changes_nothing_does_not_save_the_ucsborg() throws Exception {
+        // arrange
+        UCSBOrgs orig = UCSBOrgs.builder()
+                .orgCode("SKI")
+                .orgTranslationShort("SKIING CLUB")
+                .orgTranslation("SKIING CLUB AT UCSB")
+                .inactive(false)
+                .version(3)
+                .build();
+
+        String requestBody = mapper.writeValueAsString(orig);
+
+        when(ucsbOrgsRepository.findById(eq("SKI"))).thenReturn(Optional.of(orig));
+
+        // act
+        MvcResult response = mockMvc.perform(
+                put("/api/ucsborganization?orgCode=SKI")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .characterEncoding("utf-8")
+                    .content(requestBody)
+                    .header("If-Match", "\"3\"")
+                    .with(csrf()))
+            .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(ucsbOrgsRepository, never()).save(any());
+        assertEquals("\"3\"", response.getResponse().getHeader("ETag"));
+        assertEquals(requestBody, response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void admin_cannot_edit_a_ucsborg_that_changed_since_it_was_read() throws Exception {
+        // arrange
+        UCSBOrgs orig = UCSBOrgs.builder()
+                .orgCode("SKI")
+                .orgTranslationShort("SKIING CLUB")
+                .orgTranslation("SKIING CLUB AT UCSB")
+                .inactive(false)
+                .version(3)
+                .build();
+
+        String requestBody = mapper.writeValueAsString(orig);
+
+        when(ucsbOrgsRepository.findById(eq("SKI"))).thenReturn(Optional.of(orig));
+
+        // act
+        MvcResult response = mockMvc.perform(
+                put("/api/ucsborganization?orgCode=SKI")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .characterEncoding("utf-8")
+                    .content(requestBody)
+                    .header("If-Match", "\"2\"")
+                    .with(csrf()))
+            .andExpect(status().isPreconditionFailed()).andReturn();
+
+        // assert
+        verify(ucsbOrgsRepository, never()).save(any());
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
     @WithMockUser(roles = { "ADMIN", "USER" })
     @Test
     public void admin_cannot_edit_ucbsorg_that_does_not_exist() throws Exception {
@@ -319,4 +421,62 @@ public class UCSBOrganizationControllerTests extends ControllerTestCase {
         Map<String, Object> json = responseToJson(response);
         assertEquals("UCSBOrgs with id ABC not found", json.get("message"));
     }
-}
\ No newline at end of file
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void logged_in_user_can_get_a_page_of_organizations() throws Exception {
+        // arrange
+        ArrayList<UCSBOrgs> expected = new ArrayList<>();
+        expected.addAll(Arrays.asList(
+            UCSBOrgs.builder().orgCode("KRC").orgTranslationShort("KOREAN RADIO CL").build(),
+            UCSBOrgs.builder().orgCode("ZPR").orgTranslationShort("ZETA PHI RHO").build()));
+
+        when(ucsbOrgsRepository.findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq("GCC"), eq(Limit.of(2)))).thenReturn(expected);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/ucsborganization/all?after=GCC&limit=2"))
+                .andExpect(status().isOk()).andReturn();
+
+        // assert
+        verify(ucsbOrgsRepository, times(1)).findByOrgCodeGreaterThanOrderByOrgCodeAsc(eq("GCC"), eq(Limit.of(2)));
+        String expectedJson = mapper.writeValueAsString(new KeysetPage<>(expected, "ZPR"));
+        String responseString = response.getResponse().getContentAsString();
+        assertEquals(expectedJson, responseString);
+    }
+
+    // Tests for conditional GET (ETag / If-None-Match)
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void get_all_returns_304_without_loading_when_etag_matches() throws Exception {
+        // arrange
+        String eTag = "\"3\"";
+        when(tableVersionService.eTag(UCSBOrgs.class)).thenReturn(eTag);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/ucsborganization/all").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified()).andReturn();
+
+        // assert
+        verify(ucsbOrgsRepository, times(0)).findAll();
+        assertEquals(eTag, response.getResponse().getHeader("ETag"));
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void get_by_id_returns_304_without_loading_when_etag_matches() throws Exception {
+        // arrange
+        String eTag = "\"3\"";
+        when(tableVersionService.eTag(UCSBOrgs.class)).thenReturn(eTag);
+
+        // act
+        MvcResult response = mockMvc.perform(get("/api/ucsborganization?orgCode=SKI").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified()).andReturn();
+
+        // assert
+        verify(ucsbOrgsRepository, times(0)).findById(eq("SKI"));
+        assertEquals(eTag, response.getResponse().getHeader("ETag"));
+        assertEquals("", response.getResponse().getContentAsString());
+    }
+}
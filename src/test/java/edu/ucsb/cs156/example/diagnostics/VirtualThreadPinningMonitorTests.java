@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class VirtualThreadPinningMonitorTests {
+
+  private final Object lock = new Object();
+
+  private void blockWhilePinned() {
+    synchronized (lock) {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  @Test
+  void counts_and_logs_virtual_threads_that_block_inside_synchronized() throws Exception {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(Duration.ofMillis(10), registry);
+    monitor.start();
+    try {
+      long deadline = System.nanoTime() + Duration.ofSeconds(20).toNanos();
+      while (registry.counter("jvm.threads.virtual.pinned").count() == 0 && System.nanoTime() < deadline) {
+        Thread.ofVirtual().start(this::blockWhilePinned).join();
+        Thread.sleep(100);
+      }
+    } finally {
+      monitor.stop();
+    }
+    assertTrue(registry.counter("jvm.threads.virtual.pinned").count() >= 1);
+  }
+
+  @Test
+  void frames_without_a_stack_trace() {
+    assertEquals(" (no stack trace)", VirtualThreadPinningMonitor.frames(null));
+  }
+}
@@ -2,6 +2,8 @@ package edu.ucsb.cs156.example.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +27,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 
 import edu.ucsb.cs156.example.entities.Articles;
 import edu.ucsb.cs156.example.entities.Restaurant;
+import edu.ucsb.cs156.example.models.SearchPage;
 import edu.ucsb.cs156.example.repositories.ArticlesRepository;
 import edu.ucsb.cs156.example.repositories.RestaurantRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
@@ -81,4 +84,69 @@ public class ArticleIT {
             String responseString = response.getResponse().getContentAsString();
             assertEquals(expectedJson, responseString);
     }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void test_that_logged_in_user_can_search_articles_with_title_matches_first() throws Exception {
+            // arrange
+
+            Articles inExplanation = articlesRepository.save(Articles.builder()
+                            .title("Postgres full text search")
+                            .explanation("tsvector columns make caching search results unnecessary")
+                            .build());
+            Articles inTitle = articlesRepository.save(Articles.builder()
+                            .title("Caching with Caffeine")
+                            .explanation("An in-process cache for Spring")
+                            .build());
+            articlesRepository.save(Articles.builder()
+                            .title("Unrelated")
+                            .explanation("Nothing to see here")
+                            .build());
+            inExplanation.setTitle("Postgres full text search, revisited");
+            inExplanation = articlesRepository.save(inExplanation);
+
+            // act
+            MvcResult firstPage = mockMvc.perform(get("/api/articles/search?q=caching&size=1"))
+                            .andExpect(status().isOk()).andReturn();
+            MvcResult secondPage = mockMvc.perform(get("/api/articles/search?q=caching&size=1&page=1"))
+                            .andExpect(status().isOk()).andReturn();
+            MvcResult allWords = mockMvc.perform(get("/api/articles/search?q=REVISITED caching"))
+                            .andExpect(status().isOk()).andReturn();
+
+            // assert
+            assertEquals(mapper.writeValueAsString(new SearchPage<>(List.of(inTitle), 1)),
+                            firstPage.getResponse().getContentAsString());
+            assertEquals(mapper.writeValueAsString(new SearchPage<>(List.of(inExplanation), null)),
+                            secondPage.getResponse().getContentAsString());
+            assertEquals(mapper.writeValueAsString(new SearchPage<>(List.of(inExplanation), null)),
+                            allWords.getResponse().getContentAsString());
+    }
+
+    @WithMockUser(roles = { "USER" })
+    @Test
+    public void test_that_logged_in_user_can_get_all_articles() throws Exception {
+            // arrange
+
+            Articles first = articlesRepository.save(Articles.builder()
+                            .title("First")
+                            .url("https://www.example.com/1")
+                            .explanation("The first article")
+                            .email("example@gmail.com")
+                            .build());
+            Articles second = articlesRepository.save(Articles.builder()
+                            .title("Second")
+                            .url("https://www.example.com/2")
+                            .explanation("The second article")
+                            .email("example@gmail.com")
+                            .build());
+
+            // act
+            MvcResult response = mockMvc.perform(get("/api/articles/all"))
+                            .andExpect(status().isOk()).andReturn();
+
+            // assert
+            String expectedJson = mapper.writeValueAsString(List.of(first, second));
+            String responseString = response.getResponse().getContentAsString();
+            assertEquals(expectedJson, responseString);
+    }
 }
@@ -0,0 +1,192 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.jpa.SpecHints;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.UCSBOrgs;
+import edu.ucsb.cs156.example.models.ChangeFeedPage;
+import edu.ucsb.cs156.example.models.EntityChange;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrgsRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.ChangeFeedService;
+import edu.ucsb.cs156.example.services.CurrentUserService;
+import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+
+public class ChangesIT {
+    @Autowired
+    public CurrentUserService currentUserService;
+
+    @Autowired
+    public GrantedAuthoritiesService grantedAuthoritiesService;
+
+    @Autowired
+    HelpRequestRepository helpRequestRepository;
+
+    @Autowired
+    UCSBOrgsRepository ucsbOrgsRepository;
+
+    @Autowired
+    ChangeFeedService changeFeed;
+
+    @Autowired
+    EntityManager entityManager;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    public MockMvc mockMvc;
+
+    @Autowired
+    public ObjectMapper mapper;
+
+    @MockBean
+    UserRepository userRepository;
+
+    private JsonNode changesSince(long since, int limit) throws Exception {
+            String body = mockMvc.perform(get("/api/changes?since=" + since + "&limit=" + limit))
+                            .andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            return mapper.readTree(body);
+    }
+
+    private static List<String> summary(JsonNode page) {
+            List<String> result = new ArrayList<>();
+            page.get("changes").forEach(change -> result.add(
+                            change.get("operation").asText() + " " + change.get("type").asText() + " " + change.get("id").asText()));
+            return result;
+    }
+
+    private static HelpRequest helpRequest(String explanation) {
+            return HelpRequest.builder()
+                            .requesterEmail("cgaucho@ucsb.edu")
+                            .teamId("s22-5pm-3")
+                            .tableOrBreakoutRoom("7")
+                            .requestTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                            .explanation(explanation)
+                            .solved(false)
+                            .build();
+    }
+
+    @WithMockUser(roles = { "ADMIN", "USER" })
+    @Test
+    public void changes_are_served_in_order_with_tombstones_for_deletes() throws Exception {
+            // arrange
+
+            mockMvc.perform(post("/api/ucsborganization/post?orgCode=ZPR&orgTranslationShort=ZETA PHI RHO&orgTranslation=ZETA PHI RHO&inactive=false")
+                            .with(csrf())).andExpect(status().isOk());
+            HelpRequest deleted = helpRequestRepository.save(helpRequest("Need help with Swagger-ui"));
+            HelpRequest kept = helpRequestRepository.save(helpRequest("Need help with Dokku"));
+            mockMvc.perform(put("/api/ucsborganization?orgCode=ZPR")
+                            .contentType("application/json")
+                            .content(mapper.writeValueAsString(UCSBOrgs.builder()
+                                            .orgCode("ZPR")
+                                            .orgTranslationShort("ZETA PHI RHO")
+                                            .orgTranslation("ZETA PHI RHO FRATERNITY")
+                                            .inactive(true)
+                                            .build()))
+                            .with(csrf())).andExpect(status().isOk());
+            mockMvc.perform(delete("/api/helprequests?id=" + deleted.getId()).with(csrf()))
+                            .andExpect(status().isOk());
+
+            // act
+
+            JsonNode firstPage = changesSince(0, 1);
+            JsonNode rest = changesSince(firstPage.get("cursor").asLong(), 100);
+            JsonNode nothingNew = changesSince(rest.get("cursor").asLong(), 100);
+
+            // assert
+
+            // a deleted row is only sent as its tombstone, and an updated row only as it is now
+            assertEquals(List.of("UPSERT helprequests " + kept.getId()), summary(firstPage));
+            assertTrue(firstPage.get("more").asBoolean());
+            assertEquals(List.of("UPSERT ucsborgs ZPR", "DELETE helprequests " + deleted.getId()), summary(rest));
+            assertFalse(rest.get("more").asBoolean());
+            assertEquals("ZETA PHI RHO FRATERNITY",
+                            rest.get("changes").get(0).get("data").get("orgTranslation").asText());
+            assertTrue(rest.get("changes").get(1).get("data").isNull());
+            assertTrue(firstPage.get("cursor").asLong() < rest.get("cursor").asLong());
+
+            assertEquals(List.of(), summary(nothingNew));
+            assertEquals(rest.get("cursor").asLong(), nothingNew.get("cursor").asLong());
+            // the version is not read back after a write, so skip the cached copy
+            assertEquals(entityManager.find(UCSBOrgs.class, "ZPR",
+                            Map.of(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS)).getChangeVersion(),
+                            rest.get("changes").get(0).get("version").asLong());
+    }
+
+    @Test
+    public void a_long_running_transaction_that_commits_after_a_later_one_is_not_skipped() throws Exception {
+            // arrange
+
+            TransactionTemplate longRunning = new TransactionTemplate(transactionManager);
+            TransactionTemplate other = new TransactionTemplate(transactionManager);
+            other.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            List<Long> ids = new ArrayList<>();
+
+            // act
+
+            ChangeFeedPage whileOpen = longRunning.execute(status -> {
+                    // written first, committed last
+                    ids.add(helpRequestRepository.save(helpRequest("Need help with Swagger-ui")).getId());
+                    entityManager.flush();
+                    other.executeWithoutResult(inner -> ids.add(helpRequestRepository.save(helpRequest("Need help with Dokku")).getId()));
+                    return other.execute(inner -> changeFeed.changesSince(0, 100));
+            });
+            ChangeFeedPage afterCommit = changeFeed.changesSince(whileOpen.getCursor(), 100);
+
+            // assert
+
+            // the later transaction is served as soon as it commits, and the cursor moves past it
+            assertEquals(List.of(String.valueOf(ids.get(1))),
+                            whileOpen.getChanges().stream().map(EntityChange::getId).toList());
+            assertEquals(whileOpen.getChanges().get(0).getVersion(), whileOpen.getCursor());
+            // the long-running one is numbered when it commits, so it comes after the cursor
+            assertEquals(List.of(String.valueOf(ids.get(0))),
+                            afterCommit.getChanges().stream().map(EntityChange::getId).toList());
+            assertTrue(whileOpen.getCursor() < afterCommit.getCursor());
+    }
+}
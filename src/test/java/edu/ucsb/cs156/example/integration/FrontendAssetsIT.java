@@ -0,0 +1,100 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+/**
+ * Requests the fixture files under src/test/resources/public through Tomcat, so
+ * that the bodies checked here are the ones Tomcat sent with sendfile.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+public class FrontendAssetsIT {
+
+        private static final String HASHED_ASSET = "/static/js/assettest.0123abcd.js";
+
+        @LocalServerPort
+        private int port;
+
+        @MockBean
+        UserRepository userRepository;
+
+        private final HttpClient client = HttpClient.newHttpClient();
+
+        private HttpResponse<byte[]> get(String path, String acceptEncoding) throws Exception {
+                HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+                if (acceptEncoding != null) {
+                        request.header("Accept-Encoding", acceptEncoding);
+                }
+                return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        }
+
+        private static byte[] fixture(String path) throws Exception {
+                return new ClassPathResource("public" + path).getContentAsByteArray();
+        }
+
+        @Test
+        public void hashed_assets_are_sent_brotli_compressed_and_cached_as_immutable() throws Exception {
+                HttpResponse<byte[]> response = get(HASHED_ASSET, "gzip, deflate, br");
+
+                assertEquals(200, response.statusCode());
+                assertEquals("br", response.headers().firstValue("Content-Encoding").orElseThrow());
+                assertEquals("max-age=31536000, public, immutable",
+                                response.headers().firstValue("Cache-Control").orElseThrow());
+                assertTrue(response.headers().allValues("Vary").contains("Accept-Encoding"));
+                assertArrayEquals(fixture(HASHED_ASSET + ".br"), response.body());
+        }
+
+        @Test
+        public void hashed_assets_are_sent_gzip_compressed_to_clients_without_brotli() throws Exception {
+                HttpResponse<byte[]> response = get(HASHED_ASSET, "gzip");
+
+                assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElseThrow());
+                assertArrayEquals(fixture(HASHED_ASSET + ".gz"), response.body());
+        }
+
+        @Test
+        public void hashed_assets_are_sent_as_is_to_clients_without_compression() throws Exception {
+                HttpResponse<byte[]> response = get(HASHED_ASSET, null);
+
+                assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+                assertEquals(String.valueOf(fixture(HASHED_ASSET).length),
+                                response.headers().firstValue("Content-Length").orElseThrow());
+                assertArrayEquals(fixture(HASHED_ASSET), response.body());
+        }
+
+        @Test
+        public void top_level_files_must_be_revalidated() throws Exception {
+                HttpResponse<byte[]> response = get("/assettest.json", "gzip, deflate, br");
+
+                assertEquals(200, response.statusCode());
+                assertEquals("no-cache", response.headers().firstValue("Cache-Control").orElseThrow());
+                assertArrayEquals(fixture("/assettest.json"), response.body());
+        }
+
+        @Test
+        public void missing_files_are_not_found() throws Exception {
+                assertEquals(404, get("/static/js/missing.0123abcd.js", null).statusCode());
+        }
+}
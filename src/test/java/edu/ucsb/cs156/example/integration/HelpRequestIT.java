@@ -1,6 +1,7 @@
 package edu.ucsb.cs156.example.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +10,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
@@ -23,14 +26,18 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
 import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.HelpRequestChange;
 import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.HelpRequestFeedService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 
 @ExtendWith(SpringExtension.class)
@@ -49,6 +56,12 @@ public class HelpRequestIT {
         @Autowired
         HelpRequestRepository helpRequestRepository;
 
+        @Autowired
+        HelpRequestFeedService helpRequestFeed;
+
+        @Autowired
+        JdbcTemplate jdbcTemplate;
+
         @Autowired
         public MockMvc mockMvc;
 
@@ -115,4 +128,191 @@ public class HelpRequestIT {
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
         }
-}
\ No newline at end of file
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void feed_subscribers_are_sent_new_and_deleted_help_requests() throws Exception {
+
+                // arrange
+                MvcResult feed = mockMvc.perform(get("/api/helprequests/feed"))
+                                .andExpect(request().asyncStarted()).andReturn();
+                assertEquals(1, helpRequestFeed.subscriberCount());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/helprequests/post?requesterEmail=requesterEmail@gmail.com&teamId=7&tableOrBreakoutRoom=breakout&requestTime=2022-01-03T00:00:00&explanation=explain&solved=false")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+                HelpRequest created = mapper.readValue(response.getResponse().getContentAsString(), HelpRequest.class);
+                mockMvc.perform(delete("/api/helprequests?id=" + created.getId()).with(csrf()))
+                                .andExpect(status().isOk());
+
+                // assert
+                String expected = "id:1\nevent:created\ndata:" + mapper.writeValueAsString(HelpRequestChange.created(created)) + "\n\n"
+                                + "id:2\nevent:deleted\ndata:" + mapper.writeValueAsString(HelpRequestChange.deleted(created.getId())) + "\n\n";
+                long deadline = System.currentTimeMillis() + 5000;
+                while (!feed.getResponse().getContentAsString().equals(expected) && System.currentTimeMillis() < deadline) {
+                        Thread.sleep(10);
+                }
+                assertEquals(expected, feed.getResponse().getContentAsString());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void test_that_logged_in_user_can_filter_help_requests() throws Exception {
+
+                // arrange
+                HelpRequest open = HelpRequest.builder()
+                                .requesterEmail("a@ucsb.edu").teamId("7").tableOrBreakoutRoom("breakout")
+                                .requestTime(LocalDateTime.parse("2022-01-03T10:00:00"))
+                                .explanation("open").solved(false).build();
+                HelpRequest solved = HelpRequest.builder()
+                                .requesterEmail("b@ucsb.edu").teamId("7").tableOrBreakoutRoom("breakout")
+                                .requestTime(LocalDateTime.parse("2022-01-03T11:00:00"))
+                                .explanation("solved").solved(true).build();
+                HelpRequest otherTeam = HelpRequest.builder()
+                                .requesterEmail("c@ucsb.edu").teamId("8").tableOrBreakoutRoom("breakout")
+                                .requestTime(LocalDateTime.parse("2022-01-03T12:00:00"))
+                                .explanation("other team").solved(false).build();
+                HelpRequest tooLate = HelpRequest.builder()
+                                .requesterEmail("d@ucsb.edu").teamId("7").tableOrBreakoutRoom("breakout")
+                                .requestTime(LocalDateTime.parse("2022-01-04T10:00:00"))
+                                .explanation("too late").solved(false).build();
+                helpRequestRepository.saveAll(java.util.List.of(open, solved, otherTeam, tooLate));
+
+                // act
+                MvcResult response = mockMvc.perform(get(
+                                "/api/helprequests/all?solved=false&teamId=7&tableOrBreakoutRoom=breakout&requestTimeFrom=2022-01-03T00:00:00&requestTimeTo=2022-01-04T00:00:00"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                String expectedJson = mapper.writeValueAsString(java.util.List.of(open));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void etag_of_all_changes_only_when_a_help_request_is_written() throws Exception {
+
+                // arrange
+                MvcResult first = mockMvc.perform(get("/api/helprequests/all"))
+                                .andExpect(status().isOk()).andReturn();
+                String eTag = first.getResponse().getHeader("ETag");
+
+                mockMvc.perform(get("/api/helprequests/all").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified());
+
+                // act
+                mockMvc.perform(
+                                post("/api/helprequests/post?requesterEmail=requesterEmail@gmail.com&teamId=7&tableOrBreakoutRoom=breakout&requestTime=2022-01-03T00:00:00&explanation=explain&solved=true")
+                                                .with(csrf()))
+                                .andExpect(status().isOk());
+
+                // assert
+                MvcResult after = mockMvc.perform(get("/api/helprequests/all").header("If-None-Match", eTag))
+                                .andExpect(status().isOk()).andReturn();
+                String newETag = after.getResponse().getHeader("ETag");
+                assertNotEquals(eTag, newETag);
+
+                mockMvc.perform(get("/api/helprequests/all").header("If-None-Match", newETag))
+                                .andExpect(status().isNotModified());
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void etag_of_all_changes_when_a_help_request_is_written_outside_this_instance() throws Exception {
+
+                // arrange
+                String eTag = mockMvc.perform(get("/api/helprequests/all"))
+                                .andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+
+                // act
+                // as another instance, a migration or a manual fix would: CHANGE_VERSION takes its default from CHANGE_SEQ
+                jdbcTemplate.update("insert into HELPREQUESTS (REQUESTER_EMAIL, TEAM_ID, TABLE_OR_BREAKOUT_ROOM, REQUEST_TIME,"
+                                + " EXPLANATION, SOLVED) values ('cgaucho@ucsb.edu', 's22-5pm-3', '7', TIMESTAMP '2022-01-03 00:00:00',"
+                                + " 'Need help with Swagger-ui', false)");
+
+                // assert
+                MvcResult after = mockMvc.perform(get("/api/helprequests/all").header("If-None-Match", eTag))
+                                .andExpect(status().isOk()).andReturn();
+                assertNotEquals(eTag, after.getResponse().getHeader("ETag"));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_bulk_load_help_requests() throws Exception {
+
+                // arrange
+                List<HelpRequest> incoming = new ArrayList<>();
+                for (int i = 0; i < 120; i++) {
+                        incoming.add(HelpRequest.builder()
+                                        .requesterEmail("student" + i + "@ucsb.edu")
+                                        .teamId("7")
+                                        .tableOrBreakoutRoom("breakout")
+                                        .requestTime(LocalDateTime.parse("2022-01-03T00:00:00").plusMinutes(i))
+                                        .explanation("explain " + i)
+                                        .solved(false)
+                                        .build());
+                }
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/helprequests/bulk")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content(mapper.writeValueAsString(incoming))
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                HelpRequest[] saved = mapper.readValue(response.getResponse().getContentAsString(), HelpRequest[].class);
+                assertEquals(120, saved.length);
+                for (int i = 0; i < saved.length; i++) {
+                        assertEquals(i + 1, saved[i].getId());
+                }
+                assertEquals(120, helpRequestRepository.count());
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_update_is_checked_against_the_version_the_client_last_saw() throws Exception {
+
+                // arrange
+                HelpRequest saved = helpRequestRepository.save(HelpRequest.builder()
+                                .requesterEmail("requesterEmail@gmail.com")
+                                .teamId("7")
+                                .tableOrBreakoutRoom("breakout")
+                                .requestTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .explanation("explain")
+                                .solved(false)
+                                .build());
+                String solved = mapper.writeValueAsString(saved.toBuilder().solved(true).build());
+
+                // act
+                MvcResult updated = mockMvc.perform(put("/api/helprequests?id=" + saved.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(solved)
+                                .header("If-Match", "\"0\"")
+                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+                MvcResult unchanged = mockMvc.perform(put("/api/helprequests?id=" + saved.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(solved)
+                                .header("If-Match", "\"1\"")
+                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+                mockMvc.perform(put("/api/helprequests?id=" + saved.getId())
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(solved)
+                                .header("If-Match", "\"0\"")
+                                .with(csrf()))
+                                .andExpect(status().isPreconditionFailed());
+
+                // assert
+                assertEquals("\"1\"", updated.getResponse().getHeader("ETag"));
+                assertEquals("\"1\"", unchanged.getResponse().getHeader("ETag"));
+                HelpRequest stored = helpRequestRepository.findById(saved.getId()).get();
+                assertEquals(1, stored.getVersion());
+                assertEquals(true, stored.getSolved());
+        }
+}
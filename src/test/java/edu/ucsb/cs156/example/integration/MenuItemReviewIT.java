@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
@@ -17,6 +18,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -24,14 +26,22 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 
+import edu.ucsb.cs156.example.entities.MenuItemRating;
 import edu.ucsb.cs156.example.entities.MenuItemReview;
 import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
+import edu.ucsb.cs156.example.services.MenuItemRatingService;
 import edu.ucsb.cs156.example.testconfig.TestConfig;
 
 @ExtendWith(SpringExtension.class)
@@ -50,6 +60,12 @@ public class MenuItemReviewIT {
         @Autowired
         MenuItemReviewRepository menuItemReviewRepository;
 
+        @Autowired
+        MenuItemRatingService menuItemRatingService;
+
+        @Autowired
+        TransactionTemplate transactionTemplate;
+
         @Autowired
         public MockMvc mockMvc;
 
@@ -84,4 +100,87 @@ public class MenuItemReviewIT {
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
         }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void stats_follow_reviews_as_they_are_posted_edited_and_deleted() throws Exception {
+                // arrange
+                mockMvc.perform(post("/api/menuitemreview/post?itemId=3&reviewerEmail=a@ucsb.edu&dateReviewed=2022-01-03T00:00:00&stars=5&comments=great")
+                                .with(csrf())).andExpect(status().isOk());
+                mockMvc.perform(post("/api/menuitemreview/post?itemId=3&reviewerEmail=b@ucsb.edu&dateReviewed=2022-01-03T00:00:00&stars=2&comments=meh")
+                                .with(csrf())).andExpect(status().isOk());
+                MenuItemReview edited = MenuItemReview.builder()
+                                .itemId(3L).reviewerEmail("b@ucsb.edu")
+                                .dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .stars(4).comments("better").build();
+
+                // act
+                mockMvc.perform(put("/api/menuitemreview?id=2")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(mapper.writeValueAsString(edited))
+                                .with(csrf())).andExpect(status().isOk());
+                mockMvc.perform(delete("/api/menuitemreview?id=1").with(csrf())).andExpect(status().isOk());
+                MvcResult response = mockMvc.perform(get("/api/menuitemreview/stats?itemId=3"))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                MenuItemRating expected = MenuItemRating.builder()
+                                .itemId(3L).reviewCount(1).sumStars(4).fourStars(1).build();
+                assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+        }
+
+        @Test
+        public void concurrent_first_reviews_of_an_item_are_both_counted() throws Exception {
+                // arrange
+                CountDownLatch firstHasInserted = new CountDownLatch(1);
+                ExecutorService executor = Executors.newFixedThreadPool(2);
+
+                // act: the first review's transaction is still open when the second one starts
+                Future<?> first = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                        menuItemRatingService.addReview(9L, 5);
+                        firstHasInserted.countDown();
+                        sleep(300);
+                }));
+                firstHasInserted.await();
+                Future<?> second = executor.submit(() -> transactionTemplate.executeWithoutResult(
+                                status -> menuItemRatingService.addReview(9L, 3)));
+                first.get(10, TimeUnit.SECONDS);
+                second.get(10, TimeUnit.SECONDS);
+                executor.shutdown();
+
+                // assert
+                assertEquals(MenuItemRating.builder().itemId(9L).reviewCount(2).sumStars(8).threeStars(1).fiveStars(1).build(),
+                                menuItemRatingService.getRating(9L));
+        }
+
+        private static void sleep(long millis) {
+                try {
+                        Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                }
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_the_same_json_from_all_and_get_by_id() throws Exception {
+                // arrange
+                MenuItemReview menuItemReview = menuItemReviewRepository.save(MenuItemReview.builder()
+                                .itemId(1L)
+                                .reviewerEmail("testemail@ucsb.edu")
+                                .dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00"))
+                                .stars(5)
+                                .comments("test")
+                                .build());
+
+                // act
+                MvcResult all = mockMvc.perform(get("/api/menuitemreview/all"))
+                                .andExpect(status().isOk()).andReturn();
+                MvcResult one = mockMvc.perform(get("/api/menuitemreview?id=" + menuItemReview.getId()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals(mapper.writeValueAsString(List.of(menuItemReview)), all.getResponse().getContentAsString());
+                assertEquals(mapper.writeValueAsString(menuItemReview), one.getResponse().getContentAsString());
+        }
 }
@@ -0,0 +1,75 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class MetricsIT {
+        @Autowired
+        public MockMvc mockMvc;
+
+        @MockBean
+        UserRepository userRepository;
+
+        @Test
+        public void test_that_logged_out_users_cannot_scrape_metrics() throws Exception {
+                mockMvc.perform(get("/actuator/prometheus"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void test_that_regular_users_cannot_scrape_metrics() throws Exception {
+                mockMvc.perform(get("/actuator/prometheus"))
+                                .andExpect(status().is(403));
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void test_that_admins_can_scrape_per_endpoint_pool_and_jvm_metrics() throws Exception {
+                // arrange
+
+                mockMvc.perform(get("/api/ucsbdates/all")).andExpect(status().isOk());
+
+                // act
+
+                String metrics = mockMvc.perform(get("/actuator/prometheus"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+
+                // assert
+
+                assertTrue(metrics.contains("http_server_requests_seconds_bucket{"), "percentile histogram");
+                assertTrue(metrics.contains("handler=\"UCSBDatesController.allUCSBDates\""), "handler tag");
+                assertTrue(metrics.contains("status=\"200\""), "status tag");
+                assertTrue(metrics.contains("hikaricp_connections_active"), "Hikari gauges");
+                assertTrue(metrics.contains("jvm_gc_"), "GC metrics");
+                assertTrue(metrics.contains("jvm_memory_used_bytes"), "JVM gauges");
+        }
+}
@@ -20,6 +20,7 @@ import org.springframework.test.web.servlet.MvcResult;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -85,4 +86,28 @@ public class RecommendationRequestIT {
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
         }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void logged_in_user_gets_the_same_json_from_all_and_get_by_id() throws Exception {
+                // arrange
+                RecommendationRequest recommendationRequest = recommendationRequestRepository.save(RecommendationRequest.builder()
+                                .requesterEmail("request@ucsb.edu")
+                                .professorEmail("professor@ucsb.edu")
+                                .explanation("research")
+                                .dateRequested(LocalDateTime.parse("2024-09-20T00:00:00"))
+                                .dateNeeded(LocalDateTime.parse("2024-10-31T12:59:00"))
+                                .done(true)
+                                .build());
+
+                // act
+                MvcResult all = mockMvc.perform(get("/api/recommendationrequest/all"))
+                                .andExpect(status().isOk()).andReturn();
+                MvcResult one = mockMvc.perform(get("/api/recommendationrequest?id=" + recommendationRequest.getId()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals(mapper.writeValueAsString(List.of(recommendationRequest)), all.getResponse().getContentAsString());
+                assertEquals(mapper.writeValueAsString(recommendationRequest), one.getResponse().getContentAsString());
+        }
 }
@@ -0,0 +1,116 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * The "replica" here is a second pool on the same in-memory H2 database as the
+ * primary, so what is tested is which pool each request uses.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:replicarouting;DB_CLOSE_DELAY=-1",
+    "app.datasource.replica.url=jdbc:h2:mem:replicarouting;DB_CLOSE_DELAY=-1",
+    "app.datasource.replica.username=sa",
+    "app.datasource.replica.password=password",
+    "app.datasource.replica.lag-query=SELECT 0"
+})
+public class ReplicaRoutingIT {
+        @Autowired
+        public MockMvc mockMvc;
+
+        @Autowired
+        MeterRegistry meterRegistry;
+
+        @MockBean
+        UserRepository userRepository;
+
+        private double reads(String target) {
+                return meterRegistry.get("datasource.reads").tag("target", target).counter().count();
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void reads_go_to_the_replica_pool() throws Exception {
+                double fromReplica = reads("replica");
+                double fromPrimary = reads("primary");
+
+                mockMvc.perform(get("/api/helprequests/all?limit=10")).andExpect(status().isOk());
+
+                assertEquals(fromReplica + 1, reads("replica"));
+                assertEquals(fromPrimary, reads("primary"));
+                meterRegistry.get("hikaricp.connections").tag("pool", "replica").gauge();
+                meterRegistry.get("hikaricp.connections").tag("pool", "primary").gauge();
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void a_session_reads_its_own_writes_from_the_primary() throws Exception {
+                MockHttpSession session = new MockHttpSession();
+                MockHttpSession otherSession = new MockHttpSession();
+                double fromReplica = reads("replica");
+                double fromPrimary = reads("primary");
+
+                mockMvc.perform(post("/api/helprequests/post?requesterEmail=cgaucho@ucsb.edu&teamId=7&tableOrBreakoutRoom=7&requestTime=2022-01-03T00:00:00&explanation=explain&solved=false")
+                                .session(session).with(csrf()))
+                                .andExpect(status().isOk());
+                mockMvc.perform(get("/api/helprequests/all?limit=10").session(session)).andExpect(status().isOk());
+
+                assertEquals(fromPrimary + 1, reads("primary"));
+                assertEquals(fromReplica, reads("replica"));
+
+                mockMvc.perform(get("/api/helprequests/all?limit=10").session(otherSession)).andExpect(status().isOk());
+
+                assertEquals(fromReplica + 1, reads("replica"));
+        }
+
+        @WithMockUser(roles = { "USER" })
+        @Test
+        public void responses_served_under_an_etag_read_their_version_from_the_same_database() throws Exception {
+                double fromReplica = reads("replica");
+                double fromPrimary = reads("primary");
+
+                String eTag = mockMvc.perform(get("/api/helprequests/all")).andExpect(status().isOk())
+                                .andReturn().getResponse().getHeader("ETag");
+                mockMvc.perform(get("/api/ucsbdates/all")).andExpect(status().isOk());
+
+                // the version and the response are read in one transaction, on one connection
+                assertEquals(fromReplica + 2, reads("replica"));
+                assertEquals(fromPrimary, reads("primary"));
+
+                // a 304 reads nothing but the version
+                mockMvc.perform(get("/api/helprequests/all").header("If-None-Match", eTag))
+                                .andExpect(status().isNotModified());
+
+                assertEquals(fromReplica + 3, reads("replica"));
+                assertEquals(fromPrimary, reads("primary"));
+        }
+}
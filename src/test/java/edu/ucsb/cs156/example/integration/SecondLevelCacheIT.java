@@ -0,0 +1,139 @@
+package edu.ucsb.cs156.example.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.util.Streamable;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import edu.ucsb.cs156.example.entities.CacheRegions;
+import edu.ucsb.cs156.example.entities.UCSBDate;
+import edu.ucsb.cs156.example.models.CacheStatistics;
+import edu.ucsb.cs156.example.repositories.UCSBDateRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+public class SecondLevelCacheIT {
+        @Autowired
+        UCSBDateRepository ucsbDateRepository;
+
+        @Autowired
+        javax.cache.CacheManager hibernateCacheManager;
+
+        @Autowired
+        public MockMvc mockMvc;
+
+        @Autowired
+        public ObjectMapper mapper;
+
+        @MockBean
+        UserRepository userRepository;
+
+        private Cache<?, ?> region(String name) {
+                return hibernateCacheManager.getCache(name).unwrap(Cache.class);
+        }
+
+        private UCSBDate date(String quarterYYYYQ, String name) {
+                return UCSBDate.builder()
+                                .quarterYYYYQ(quarterYYYYQ)
+                                .name(name)
+                                .localDateTime(LocalDateTime.parse("2024-01-08T00:00:00"))
+                                .build();
+        }
+
+        @Test
+        public void test_that_query_results_are_cached_until_the_table_is_written() throws Exception {
+                // arrange
+
+                ucsbDateRepository.save(date("20241", "first day of classes"));
+                ucsbDateRepository.save(date("20242", "first day of spring"));
+
+                // act
+
+                List<UCSBDate> first = Streamable.of(ucsbDateRepository.findAllByQuarterYYYYQ("20241")).toList();
+                long hitsBefore = region(CacheRegions.UCSB_DATES_QUERIES).stats().hitCount();
+                List<UCSBDate> second = Streamable.of(ucsbDateRepository.findAllByQuarterYYYYQ("20241")).toList();
+                long hitsAfter = region(CacheRegions.UCSB_DATES_QUERIES).stats().hitCount();
+
+                ucsbDateRepository.save(date("20241", "last day of classes"));
+                List<UCSBDate> afterWrite = Streamable.of(ucsbDateRepository.findAllByQuarterYYYYQ("20241")).toList();
+
+                // assert
+
+                assertEquals(1, first.size());
+                assertEquals(first, second);
+                assertEquals(hitsBefore + 1, hitsAfter);
+                assertEquals(2, afterWrite.size());
+        }
+
+        @Test
+        public void test_that_entities_are_read_from_the_entity_region() throws Exception {
+                // arrange
+
+                UCSBDate saved = ucsbDateRepository.save(date("20241", "first day of classes"));
+                long hitsBefore = region(CacheRegions.UCSB_DATES).stats().hitCount();
+
+                // act
+
+                UCSBDate found = ucsbDateRepository.findById(saved.getId()).orElseThrow();
+
+                // assert
+
+                assertEquals(saved, found);
+                assertTrue(region(CacheRegions.UCSB_DATES).stats().hitCount() > hitsBefore);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void test_that_admins_can_see_region_statistics() throws Exception {
+                // arrange
+
+                ucsbDateRepository.save(date("20241", "first day of classes"));
+                ucsbDateRepository.findAllByQuarterYYYYQ("20241");
+                ucsbDateRepository.findAllByQuarterYYYYQ("20241");
+
+                // act
+
+                String response = mockMvc.perform(get("/api/admin/caches/hibernate"))
+                                .andExpect(status().isOk())
+                                .andReturn().getResponse().getContentAsString();
+                List<CacheStatistics> regions = mapper.readValue(response, new TypeReference<List<CacheStatistics>>() { });
+
+                // assert
+
+                CacheStatistics queries = regions.stream()
+                                .filter(r -> r.getName().equals(CacheRegions.UCSB_DATES_QUERIES))
+                                .findFirst().orElseThrow();
+                assertEquals(1, queries.getHitCount());
+                assertEquals(1, queries.getMissCount());
+                assertTrue(regions.stream().anyMatch(r -> r.getName().equals(CacheRegions.RESTAURANTS)));
+        }
+}
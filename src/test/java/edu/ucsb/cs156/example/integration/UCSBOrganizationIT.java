@@ -2,6 +2,9 @@ package edu.ucsb.cs156.example.integration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.util.List;
+import java.util.stream.StreamSupport;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
@@ -25,6 +29,7 @@ import static org.springframework.security.test.web.servlet.request.SecurityMock
 
 import edu.ucsb.cs156.example.entities.Restaurant;
 import edu.ucsb.cs156.example.entities.UCSBOrgs;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
 import edu.ucsb.cs156.example.repositories.UCSBOrgsRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
@@ -47,6 +52,9 @@ public class UCSBOrganizationIT {
         @Autowired
         UCSBOrgsRepository ucsbOrgsRepository;
 
+        @Autowired
+        TombstoneRepository tombstoneRepository;
+
         @Autowired
         public MockMvc mockMvc;
 
@@ -104,4 +112,72 @@ public class UCSBOrganizationIT {
                 String responseString = response.getResponse().getContentAsString();
                 assertEquals(expectedJson, responseString);
         }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void posting_a_ucsborg_refreshes_the_cached_list() throws Exception {
+                // arrange
+
+                mockMvc.perform(get("/api/ucsborganization/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(content().json("[]"));
+
+                // act
+                mockMvc.perform(
+                                post("/api/ucsborganization/post?orgCode=SKI&orgTranslationShort=SKIING CLUB&orgTranslation=SKIING CLUB AT UCSB&inactive=false")
+                                                .with(csrf()))
+                                .andExpect(status().isOk());
+
+                // assert
+                UCSBOrgs skiing = UCSBOrgs.builder()
+                    .orgCode("SKI")
+                    .orgTranslationShort("SKIING CLUB")
+                    .orgTranslation("SKIING CLUB AT UCSB")
+                    .inactive(false)
+                    .build();
+
+                MvcResult response = mockMvc.perform(get("/api/ucsborganization/all"))
+                                .andExpect(status().isOk()).andReturn();
+                String expectedJson = mapper.writeValueAsString(List.of(skiing));
+                String responseString = response.getResponse().getContentAsString();
+                assertEquals(expectedJson, responseString);
+        }
+
+        @WithMockUser(roles = { "ADMIN", "USER" })
+        @Test
+        public void an_admin_user_can_bulk_delete_ucsborgs() throws Exception {
+                // arrange
+                for (String code : List.of("SKI", "ZPR", "OSLI")) {
+                        ucsbOrgsRepository.save(UCSBOrgs.builder()
+                                .orgCode(code)
+                                .orgTranslationShort(code)
+                                .orgTranslation(code)
+                                .inactive(false)
+                                .build());
+                }
+                mockMvc.perform(get("/api/ucsborganization/all"))
+                                .andExpect(status().isOk());
+
+                // act
+                MvcResult response = mockMvc.perform(
+                                post("/api/ucsborganization/bulk-delete")
+                                                .contentType(MediaType.APPLICATION_JSON)
+                                                .content("[\"ZPR\",\"NONE\",\"SKI\"]")
+                                                .with(csrf()))
+                                .andExpect(status().isOk()).andReturn();
+
+                // assert
+                assertEquals("[\"ZPR\",\"SKI\"]", response.getResponse().getContentAsString());
+                assertEquals(1, ucsbOrgsRepository.count());
+                assertEquals(true, ucsbOrgsRepository.existsById("OSLI"));
+                assertEquals(List.of("ucsborgs SKI", "ucsborgs ZPR"), StreamSupport.stream(tombstoneRepository.findAll().spliterator(), false)
+                                .map(tombstone -> tombstone.getEntityType() + " " + tombstone.getEntityId())
+                                .sorted()
+                                .toList());
+                mockMvc.perform(get("/api/ucsborganization/all"))
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.length()").value(1));
+                mockMvc.perform(delete("/api/ucsborganization?orgCode=SKI").with(csrf()))
+                                .andExpect(status().isNotFound());
+        }
 }
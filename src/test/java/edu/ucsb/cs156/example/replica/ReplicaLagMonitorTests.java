@@ -0,0 +1,121 @@
+package edu.ucsb.cs156.example.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ReplicaLagMonitorTests {
+
+  SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  JdbcDataSource replica = new JdbcDataSource();
+
+  ReplicaLagMonitor monitor;
+
+  /** The lag query reads the lag from a table, so each test can set it */
+  @BeforeEach
+  void setup() throws SQLException {
+    replica.setURL("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    execute("CREATE TABLE lag (seconds DOUBLE)");
+    execute("INSERT INTO lag VALUES (0)");
+    monitor = new ReplicaLagMonitor(replica, "SELECT seconds FROM lag", Duration.ofSeconds(5), registry);
+  }
+
+  @AfterEach
+  void tearDown() throws SQLException {
+    execute("SHUTDOWN");
+  }
+
+  private void execute(String sql) throws SQLException {
+    try (Connection connection = replica.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private double gauge(String name) {
+    return registry.get(name).gauge().value();
+  }
+
+  @Test
+  void replica_is_not_used_until_it_has_been_checked() {
+    assertFalse(monitor.isUsable());
+    assertTrue(Double.isNaN(gauge("datasource.replica.lag")));
+    assertEquals(0, gauge("datasource.replica.usable"));
+  }
+
+  @Test
+  void replica_within_max_lag_is_used() throws SQLException {
+    execute("UPDATE lag SET seconds = 5");
+
+    monitor.check();
+
+    assertTrue(monitor.isUsable());
+    assertEquals(5, gauge("datasource.replica.lag"));
+    assertEquals(1, gauge("datasource.replica.usable"));
+  }
+
+  @Test
+  void replica_stays_in_use_while_it_keeps_up() throws SQLException {
+    monitor.check();
+    execute("UPDATE lag SET seconds = 4.9");
+    monitor.check();
+
+    assertTrue(monitor.isUsable());
+    assertEquals(4.9, monitor.getLagSeconds());
+  }
+
+  @Test
+  void replica_too_far_behind_is_not_used_until_it_catches_up() throws SQLException {
+    monitor.check();
+    assertTrue(monitor.isUsable());
+
+    execute("UPDATE lag SET seconds = 5.5");
+    monitor.check();
+    assertFalse(monitor.isUsable());
+    assertEquals(5.5, monitor.getLagSeconds());
+    monitor.check();
+    assertFalse(monitor.isUsable());
+
+    execute("UPDATE lag SET seconds = 0.2");
+    monitor.check();
+    assertTrue(monitor.isUsable());
+    assertEquals(0.2, monitor.getLagSeconds());
+  }
+
+  @Test
+  void replica_that_cannot_be_checked_is_not_used() throws SQLException {
+    monitor.check();
+    assertTrue(monitor.isUsable());
+
+    execute("DROP TABLE lag");
+    monitor.check();
+    assertFalse(monitor.isUsable());
+    assertTrue(Double.isNaN(monitor.getLagSeconds()));
+
+    monitor.check();
+    assertFalse(monitor.isUsable());
+  }
+
+  @Test
+  void lag_query_without_a_row_is_a_failed_check() throws SQLException {
+    execute("DELETE FROM lag");
+
+    monitor.check();
+
+    assertFalse(monitor.isUsable());
+    assertTrue(Double.isNaN(monitor.getLagSeconds()));
+  }
+}
@@ -0,0 +1,166 @@
+package edu.ucsb.cs156.example.replica;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.sql.Connection;
+import java.time.Duration;
+import java.time.Instant;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+class ReplicaRoutingTests {
+
+  SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  DataSource primary = mock(DataSource.class);
+  DataSource replica = mock(DataSource.class);
+  ReplicaLagMonitor lagMonitor = mock(ReplicaLagMonitor.class);
+
+  Connection primaryConnection = mock(Connection.class);
+  Connection replicaConnection = mock(Connection.class);
+
+  MockHttpSession session = new MockHttpSession();
+
+  ReplicaRouting routing = new ReplicaRouting(primary, replica, lagMonitor, Duration.ofSeconds(10), registry);
+
+  @BeforeEach
+  void setup() throws Exception {
+    when(primary.getConnection()).thenReturn(primaryConnection);
+    when(primary.getConnection("u", "p")).thenReturn(primaryConnection);
+    when(replica.getConnection()).thenReturn(replicaConnection);
+    when(replica.getConnection("u", "p")).thenReturn(replicaConnection);
+    when(lagMonitor.isUsable()).thenReturn(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    RequestContextHolder.resetRequestAttributes();
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+  }
+
+  private void inRequest() {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setSession(session);
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+  }
+
+  private void inTransaction(boolean readOnly) {
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+  }
+
+  private double reads(String target) {
+    return registry.get("datasource.reads").tag("target", target).counter().count();
+  }
+
+  @Test
+  void read_only_connections_go_to_the_replica() throws Exception {
+    DataSource dataSource = routing.dataSource();
+    inRequest();
+    inTransaction(true);
+
+    Connection connection = dataSource.getConnection();
+    connection.setReadOnly(true);
+    connection.createStatement();
+
+    verify(replica.getConnection()).createStatement();
+    assertEquals(1, reads("replica"));
+    assertEquals(0, reads("primary"));
+  }
+
+  @Test
+  void other_connections_go_to_the_primary() throws Exception {
+    DataSource dataSource = routing.dataSource();
+
+    dataSource.getConnection("u", "p").createStatement();
+
+    verify(primaryConnection).createStatement();
+    verify(replica, never()).getConnection("u", "p");
+    assertEquals(0, reads("replica"));
+  }
+
+  @Test
+  void read_only_connections_go_to_the_primary_while_the_replica_is_behind() throws Exception {
+    DataSource dataSource = routing.dataSource();
+    when(lagMonitor.isUsable()).thenReturn(false);
+
+    Connection connection = dataSource.getConnection("u", "p");
+    connection.setReadOnly(true);
+    connection.createStatement();
+
+    verify(primaryConnection).createStatement();
+    assertEquals(1, reads("primary"));
+  }
+
+  @Test
+  void a_session_reads_from_the_primary_after_it_writes() {
+    inRequest();
+    inTransaction(false);
+    assertSame(primary, routing.writeTarget());
+    Instant until = (Instant) session.getAttribute(ReplicaRouting.PRIMARY_UNTIL);
+    assertTrue(until.isAfter(Instant.now().plusSeconds(9)));
+
+    inTransaction(true);
+    assertSame(primary, routing.readTarget());
+
+    session.setAttribute(ReplicaRouting.PRIMARY_UNTIL, Instant.now().minusSeconds(1));
+    assertSame(replica, routing.readTarget());
+  }
+
+  @Test
+  void connections_outside_a_write_transaction_do_not_make_the_session_sticky() {
+    inRequest();
+    assertSame(primary, routing.writeTarget());
+
+    inTransaction(true);
+    assertSame(primary, routing.writeTarget());
+    assertNull(session.getAttribute(ReplicaRouting.PRIMARY_UNTIL));
+
+    assertSame(replica, routing.readTarget());
+  }
+
+  @Test
+  void writes_outside_a_request_do_not_make_any_session_sticky() {
+    inTransaction(false);
+    assertSame(primary, routing.writeTarget());
+
+    inRequest();
+    assertSame(replica, routing.readTarget());
+  }
+
+  @Test
+  void a_session_reads_from_the_replica_again_once_its_sticky_window_has_passed() {
+    inRequest();
+    session.setAttribute(ReplicaRouting.PRIMARY_UNTIL, Instant.now().minusMillis(1));
+    inTransaction(true);
+
+    assertSame(replica, routing.readTarget());
+    assertEquals(1, reads("replica"));
+  }
+
+  @Test
+  void reads_outside_a_request_go_to_the_replica() {
+    inTransaction(true);
+
+    assertSame(replica, routing.readTarget());
+  }
+}
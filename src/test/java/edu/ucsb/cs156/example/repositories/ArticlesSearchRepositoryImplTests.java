@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import edu.ucsb.cs156.example.entities.Articles;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Query;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ArticlesSearchRepositoryImplTests {
+
+  @Mock
+  EntityManager entityManager;
+
+  @Mock
+  EntityManagerFactory entityManagerFactory;
+
+  @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+  SessionFactoryImplementor sessionFactory;
+
+  @Mock
+  Query query;
+
+  @InjectMocks
+  ArticlesSearchRepositoryImpl repository;
+
+  List<Articles> results = List.of(Articles.builder().id(1L).title("Caching").build());
+
+  @BeforeEach
+  void setup() {
+    when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+    when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+    when(query.setParameter(anyString(), any())).thenReturn(query);
+    when(query.getResultList()).thenReturn(results);
+  }
+
+  private void dialect(Class<? extends org.hibernate.dialect.Dialect> dialect) {
+    when(sessionFactory.getJdbcServices().getDialect()).thenReturn(mock(dialect));
+  }
+
+  @Test
+  void on_postgres_the_query_is_matched_against_the_search_vector() {
+    dialect(PostgreSQLDialect.class);
+    when(entityManager.createNativeQuery(ArticlesSearchRepositoryImpl.POSTGRES_SEARCH, Articles.class))
+        .thenReturn(query);
+
+    assertEquals(results, repository.search("spring \"boot caching\"", 40, 21));
+
+    verify(query).setParameter("query", "spring \"boot caching\"");
+    verify(query).setParameter("limit", 21);
+    verify(query).setParameter("offset", 40);
+  }
+
+  @Test
+  void on_h2_the_words_are_matched_against_the_full_text_index_and_ranked() {
+    dialect(H2Dialect.class);
+    String sql = ArticlesSearchRepositoryImpl.H2_SEARCH.formatted(ArticlesSearchRepositoryImpl.h2Rank(2));
+    when(entityManager.createNativeQuery(sql, Articles.class)).thenReturn(query);
+
+    assertEquals(results, repository.search("Spring, caching!", 0, 11));
+
+    verify(query).setParameter("query", "SPRING CACHING");
+    verify(query).setParameter("word0", "%SPRING%");
+    verify(query).setParameter("word1", "%CACHING%");
+    verify(query).setParameter("limit", 11);
+    verify(query).setParameter("offset", 0);
+  }
+
+  @Test
+  void a_query_without_words_matches_nothing() {
+    assertEquals(List.of(), repository.search(" -- ", 0, 11));
+    verify(entityManager, never()).createNativeQuery(anyString(), any(Class.class));
+  }
+
+  @Test
+  void words_are_split_on_anything_but_letters_and_digits() {
+    assertArrayEquals(new String[] { "DON", "T", "CACHE", "2024", "ÉTÉ" },
+        ArticlesSearchRepositoryImpl.words("  don't cache-2024 été"));
+  }
+
+  @Test
+  void h2_rank_weights_title_matches_above_explanation_matches() {
+    assertEquals("(0 + CASE WHEN UPPER(a.title) LIKE :word0 THEN 2 ELSE 0 END"
+        + " + CASE WHEN UPPER(a.explanation) LIKE :word0 THEN 1 ELSE 0 END)",
+        ArticlesSearchRepositoryImpl.h2Rank(1));
+  }
+}
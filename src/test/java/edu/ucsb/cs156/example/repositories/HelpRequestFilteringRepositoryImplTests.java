@@ -0,0 +1,108 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class HelpRequestFilteringRepositoryImplTests {
+
+  @Mock
+  EntityManager entityManager;
+
+  @Mock
+  CriteriaBuilder cb;
+
+  @Mock
+  CriteriaQuery<HelpRequest> query;
+
+  @Mock
+  Root<HelpRequest> root;
+
+  @Mock
+  TypedQuery<HelpRequest> typedQuery;
+
+  @Mock
+  Path<Object> solved, teamId, tableOrBreakoutRoom, id;
+
+  @Mock
+  Path<LocalDateTime> requestTime;
+
+  @Mock
+  Predicate solvedPredicate, teamIdPredicate, roomPredicate, fromPredicate, toPredicate;
+
+  @Mock
+  Order byId;
+
+  @InjectMocks
+  HelpRequestFilteringRepositoryImpl repository;
+
+  List<HelpRequest> results = List.of(HelpRequest.builder().id(1L).build());
+
+  @BeforeEach
+  void setup() {
+    when(entityManager.getCriteriaBuilder()).thenReturn(cb);
+    when(cb.createQuery(HelpRequest.class)).thenReturn(query);
+    when(query.from(HelpRequest.class)).thenReturn(root);
+    when(root.get("solved")).thenReturn(solved);
+    when(root.get("teamId")).thenReturn(teamId);
+    when(root.get("tableOrBreakoutRoom")).thenReturn(tableOrBreakoutRoom);
+    when(root.<LocalDateTime>get("requestTime")).thenReturn(requestTime);
+    when(root.get("id")).thenReturn(id);
+    when(cb.asc(id)).thenReturn(byId);
+    when(entityManager.createQuery(query)).thenReturn(typedQuery);
+    when(typedQuery.getResultList()).thenReturn(results);
+  }
+
+  @Test
+  void test_findAllMatching_adds_a_predicate_per_criterion() {
+    LocalDateTime from = LocalDateTime.parse("2022-01-03T00:00:00");
+    LocalDateTime to = LocalDateTime.parse("2022-01-04T00:00:00");
+    when(cb.equal(solved, false)).thenReturn(solvedPredicate);
+    when(cb.equal(teamId, "7")).thenReturn(teamIdPredicate);
+    when(cb.equal(tableOrBreakoutRoom, "breakout")).thenReturn(roomPredicate);
+    when(cb.greaterThanOrEqualTo(requestTime, from)).thenReturn(fromPredicate);
+    when(cb.lessThan(requestTime, to)).thenReturn(toPredicate);
+
+    assertEquals(results, repository.findAllMatching(false, "7", "breakout", from, to));
+
+    verify(query).where(solvedPredicate, teamIdPredicate, roomPredicate, fromPredicate, toPredicate);
+    verify(query).select(root);
+    verify(query).orderBy(byId);
+  }
+
+  @Test
+  void test_findAllMatching_leaves_out_null_criteria() {
+    assertEquals(results, repository.findAllMatching(null, null, null, null, null));
+
+    verify(query).where(new Predicate[0]);
+    verify(cb, never()).equal(any(), any(Object.class));
+    verify(cb, never()).greaterThanOrEqualTo(any(), any(LocalDateTime.class));
+    verify(cb, never()).lessThan(any(), any(LocalDateTime.class));
+  }
+}
@@ -0,0 +1,116 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.hibernate.Session;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jdbc.Work;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MenuItemRatingUpsertRepositoryImplTests {
+
+  @Mock
+  EntityManager entityManager;
+
+  @Mock
+  EntityManagerFactory entityManagerFactory;
+
+  @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+  SessionFactoryImplementor sessionFactory;
+
+  @Mock
+  Session session;
+
+  @Mock
+  Connection connection;
+
+  @Mock
+  PreparedStatement insert;
+
+  @InjectMocks
+  MenuItemRatingUpsertRepositoryImpl repository;
+
+  @BeforeEach
+  void setup() throws SQLException {
+    when(entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+    when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+    when(entityManager.unwrap(Session.class)).thenReturn(session);
+    doAnswer(invocation -> {
+      invocation.<Work>getArgument(0).execute(connection);
+      return null;
+    }).when(session).doWork(any());
+  }
+
+  private void dialect(Class<? extends org.hibernate.dialect.Dialect> dialect) {
+    when(sessionFactory.getJdbcServices().getDialect()).thenReturn(mock(dialect));
+  }
+
+  @Test
+  void on_postgres_the_row_is_inserted_on_conflict_do_nothing() throws SQLException {
+    dialect(PostgreSQLDialect.class);
+    when(connection.prepareStatement(MenuItemRatingUpsertRepositoryImpl.POSTGRES_INSERT)).thenReturn(insert);
+
+    repository.insertIfAbsent(7L);
+
+    verify(insert).setLong(1, 7L);
+    verify(insert).executeUpdate();
+    verify(insert).close();
+  }
+
+  @Test
+  void on_h2_the_row_is_merged_in_when_not_matched() throws SQLException {
+    dialect(H2Dialect.class);
+    when(connection.prepareStatement(MenuItemRatingUpsertRepositoryImpl.H2_INSERT)).thenReturn(insert);
+
+    repository.insertIfAbsent(7L);
+
+    verify(insert).setLong(1, 7L);
+    verify(insert).executeUpdate();
+  }
+
+  @Test
+  void a_concurrent_insert_of_the_same_row_is_ignored() throws SQLException {
+    dialect(H2Dialect.class);
+    when(connection.prepareStatement(MenuItemRatingUpsertRepositoryImpl.H2_INSERT)).thenReturn(insert);
+    when(insert.executeUpdate()).thenThrow(new SQLException("duplicate", MenuItemRatingUpsertRepositoryImpl.UNIQUE_VIOLATION));
+
+    repository.insertIfAbsent(7L);
+
+    verify(insert).close();
+  }
+
+  @Test
+  void other_errors_are_thrown() throws SQLException {
+    dialect(H2Dialect.class);
+    SQLException error = new SQLException("broken", "08006");
+    when(connection.prepareStatement(MenuItemRatingUpsertRepositoryImpl.H2_INSERT)).thenReturn(insert);
+    when(insert.executeUpdate()).thenThrow(error);
+
+    assertSame(error, assertThrows(SQLException.class, () -> repository.insertIfAbsent(7L)));
+  }
+}
@@ -0,0 +1,71 @@
+package edu.ucsb.cs156.example.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionAttribute;
+
+import edu.ucsb.cs156.example.services.ArticlesViewService;
+import edu.ucsb.cs156.example.services.HelpRequestViewService;
+import edu.ucsb.cs156.example.services.MenuItemReviewViewService;
+import edu.ucsb.cs156.example.services.RecommendationRequestViewService;
+
+/**
+ * The queries behind the GET endpoints must run in read-only transactions, so that
+ * Hibernate keeps no dirty-checking snapshots of the rows and never flushes.
+ * ({@code findAll} and {@code findById} already are, through SimpleJpaRepository.)
+ */
+class ReadOnlyQueryTests {
+
+  AnnotationTransactionAttributeSource transactions = new AnnotationTransactionAttributeSource();
+
+  private void assertReadOnly(Class<?> type, String methodName, Class<?> implementation) {
+    List<Method> methods = Arrays.stream(type.getMethods()).filter(m -> m.getName().equals(methodName)).toList();
+    assertTrue(!methods.isEmpty(), type.getSimpleName() + "." + methodName + " not found");
+    for (Method method : methods) {
+      TransactionAttribute attribute = transactions.getTransactionAttribute(method, implementation);
+      assertNotNull(attribute, type.getSimpleName() + "." + methodName + " is not transactional");
+      assertTrue(attribute.isReadOnly(), type.getSimpleName() + "." + methodName + " is not read-only");
+    }
+  }
+
+  @Test
+  void paging_and_lookup_queries_are_read_only() {
+    Map<Class<?>, List<String>> queries = Map.of(
+        ArticlesRepository.class, List.of("findByIdGreaterThanOrderByIdAsc", "findAllViewsByOrderByIdAsc", "findViewById"),
+        HelpRequestRepository.class, List.of("findByIdGreaterThanOrderByIdAsc", "findAllViewsByOrderByIdAsc", "findViewById"),
+        MenuItemReviewRepository.class, List.of("findByIdGreaterThanOrderByIdAsc", "findAllViewsByOrderByIdAsc", "findViewById"),
+        RecommendationRequestRepository.class, List.of("findByIdGreaterThanOrderByIdAsc", "findAllViewsByOrderByIdAsc", "findViewById"),
+        RestaurantRepository.class, List.of("findByIdGreaterThanOrderByIdAsc"),
+        UCSBDateRepository.class, List.of("findAllByQuarterYYYYQ", "findByIdGreaterThanOrderByIdAsc"),
+        UCSBDiningCommonsMenuItemRepository.class, List.of("findAllByDiningCommonsCode", "findByIdGreaterThanOrderByIdAsc"),
+        UCSBDiningCommonsRepository.class, List.of("findByCodeGreaterThanOrderByCodeAsc"),
+        UCSBOrgsRepository.class, List.of("findByOrgCodeGreaterThanOrderByOrgCodeAsc"));
+
+    queries.forEach((repository, methods) -> methods.forEach(method -> assertReadOnly(repository, method, repository)));
+  }
+
+  @Test
+  void search_and_filter_fragments_are_read_only() {
+    assertReadOnly(ArticlesSearchRepositoryImpl.class, "search", ArticlesSearchRepositoryImpl.class);
+    assertReadOnly(HelpRequestFilteringRepositoryImpl.class, "findAllMatching", HelpRequestFilteringRepositoryImpl.class);
+  }
+
+  @Test
+  void view_services_are_read_only() {
+    Map<Class<?>, List<String>> reads = Map.of(
+        ArticlesViewService.class, List.of("allArticles", "findArticle"),
+        HelpRequestViewService.class, List.of("allHelpRequests", "matchingHelpRequests", "findHelpRequest"),
+        MenuItemReviewViewService.class, List.of("allMenuItemReviews", "findMenuItemReview"),
+        RecommendationRequestViewService.class, List.of("allRecommendationRequests", "findRecommendationRequest"));
+
+    reads.forEach((service, methods) -> methods.forEach(method -> assertReadOnly(service, method, service)));
+  }
+}
@@ -0,0 +1,160 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import edu.ucsb.cs156.example.entities.AdminEmail;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.AdminEmailRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { AdminRoleService.class })
+@TestPropertySource(properties = { "app.admin.emails=phtcon@ucsb.edu, admingaucho@ucsb.edu,," })
+@RecordApplicationEvents
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class AdminRoleServiceTests {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  AdminEmailRepository adminEmailRepository;
+
+  @Autowired
+  AdminRoleService adminRoleService;
+
+  @Autowired
+  ApplicationEvents applicationEvents;
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private long reloadEvents() {
+    return applicationEvents.stream(AdminRoleService.AdminEmailsReloadedEvent.class).count();
+  }
+
+  @Test
+  void configured_admin_emails_are_trimmed_and_never_query_the_database() {
+    assertEquals(Set.of("phtcon@ucsb.edu", "admingaucho@ucsb.edu"), adminRoleService.getAdminEmails());
+    assertTrue(adminRoleService.isAdminEmail("admingaucho@ucsb.edu"));
+    assertTrue(adminRoleService.isAdmin("admingaucho@ucsb.edu"));
+    assertFalse(adminRoleService.isAdminEmail("cgaucho@ucsb.edu"));
+    assertFalse(adminRoleService.isAdminEmail(null));
+    assertFalse(adminRoleService.isAdmin(null));
+    verify(userRepository, never()).findByEmail("admingaucho@ucsb.edu");
+  }
+
+  @Test
+  void database_admin_flag_is_cached() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu"))
+        .thenReturn(Optional.of(User.builder().email("cgaucho@ucsb.edu").admin(true).build()));
+    when(userRepository.findByEmail("ldelplaya@ucsb.edu"))
+        .thenReturn(Optional.of(User.builder().email("ldelplaya@ucsb.edu").admin(false).build()));
+
+    assertTrue(adminRoleService.isAdmin("cgaucho@ucsb.edu"));
+    assertTrue(adminRoleService.isAdmin("cgaucho@ucsb.edu"));
+    assertFalse(adminRoleService.isAdmin("ldelplaya@ucsb.edu"));
+    assertFalse(adminRoleService.isAdmin("nobody@ucsb.edu"));
+
+    verify(userRepository, times(1)).findByEmail("cgaucho@ucsb.edu");
+  }
+
+  @Test
+  void reload_stores_the_list_demotes_removed_admins_forgets_cached_flags_and_publishes_event() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.empty());
+    assertFalse(adminRoleService.isAdmin("cgaucho@ucsb.edu"));
+
+    Set<String> reloaded = adminRoleService.reloadAdminEmails(List.of(" cgaucho@ucsb.edu ", "admingaucho@ucsb.edu", ""));
+
+    assertEquals(Set.of("cgaucho@ucsb.edu", "admingaucho@ucsb.edu"), reloaded);
+    verify(adminEmailRepository).deleteAll();
+    verify(adminEmailRepository).saveAll(org.mockito.ArgumentMatchers.argThat(saved ->
+        Set.copyOf((List<?>) saved).equals(Set.of(new AdminEmail("cgaucho@ucsb.edu"), new AdminEmail("admingaucho@ucsb.edu")))));
+    verify(userRepository).clearAdmin(Set.of("phtcon@ucsb.edu"));
+    assertTrue(adminRoleService.isAdmin("cgaucho@ucsb.edu"));
+    assertFalse(adminRoleService.isAdminEmail("phtcon@ucsb.edu"));
+    assertEquals(1, applicationEvents.stream(AdminRoleService.AdminEmailsReloadedEvent.class)
+        .filter(event -> event.adminEmails().equals(reloaded))
+        .filter(event -> event.changedEmails().equals(Set.of("cgaucho@ucsb.edu", "phtcon@ucsb.edu")))
+        .count());
+
+    when(userRepository.findByEmail("phtcon@ucsb.edu"))
+        .thenReturn(Optional.of(User.builder().email("phtcon@ucsb.edu").admin(false).build()));
+    assertFalse(adminRoleService.isAdmin("phtcon@ucsb.edu"));
+    verify(userRepository, times(1)).findByEmail("phtcon@ucsb.edu");
+  }
+
+  @Test
+  void reload_that_only_adds_emails_demotes_nobody() {
+    adminRoleService.reloadAdminEmails(List.of("phtcon@ucsb.edu", "admingaucho@ucsb.edu", "cgaucho@ucsb.edu"));
+
+    verify(userRepository, never()).clearAdmin(any());
+    assertTrue(adminRoleService.isAdminEmail("cgaucho@ucsb.edu"));
+  }
+
+  @Test
+  void reload_in_a_transaction_takes_effect_when_it_commits() {
+    TransactionSynchronizationManager.initSynchronization();
+
+    adminRoleService.reloadAdminEmails(List.of("cgaucho@ucsb.edu"));
+
+    assertFalse(adminRoleService.isAdminEmail("cgaucho@ucsb.edu"));
+    assertEquals(0, reloadEvents());
+
+    TransactionSynchronizationUtils.triggerAfterCommit();
+
+    assertTrue(adminRoleService.isAdminEmail("cgaucho@ucsb.edu"));
+    assertEquals(1, reloadEvents());
+  }
+
+  @Test
+  void refresh_picks_up_the_list_stored_by_another_instance() {
+    when(adminEmailRepository.findAll()).thenReturn(List.of(new AdminEmail("cgaucho@ucsb.edu")));
+
+    adminRoleService.refreshAdminEmails();
+
+    assertEquals(Set.of("cgaucho@ucsb.edu"), adminRoleService.getAdminEmails());
+    assertEquals(1, reloadEvents());
+
+    adminRoleService.refreshAdminEmails();
+
+    assertEquals(1, reloadEvents());
+  }
+
+  @Test
+  void refresh_falls_back_to_the_configured_list_while_none_is_stored() {
+    adminRoleService.refreshAdminEmails();
+
+    assertEquals(Set.of("phtcon@ucsb.edu", "admingaucho@ucsb.edu"), adminRoleService.getAdminEmails());
+    assertEquals(0, reloadEvents());
+  }
+}
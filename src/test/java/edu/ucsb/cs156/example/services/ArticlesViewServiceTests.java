@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.entities.Articles;
+import edu.ucsb.cs156.example.models.ArticlesView;
+import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = ArticlesViewService.class)
+class ArticlesViewServiceTests {
+
+  @MockBean
+  ArticlesRepository articlesRepository;
+
+  @Autowired
+  ArticlesViewService articlesViewService;
+
+  @Test
+  void test_allArticles_returns_the_views_from_the_repository() {
+    List<ArticlesView> views = List.of(ArticlesView.of(Articles.builder().id(7L).title("title").url("https://example.org").explanation("explanation").email("a@ucsb.edu").dateAdded(LocalDateTime.parse("2022-01-03T00:00:00")).build()));
+    when(articlesRepository.findAllViewsByOrderByIdAsc()).thenReturn(views);
+
+    assertEquals(views, articlesViewService.allArticles());
+  }
+
+  @Test
+  void test_findArticle_returns_the_view_from_the_repository() {
+    Optional<ArticlesView> view = Optional.of(ArticlesView.of(Articles.builder().id(7L).title("title").url("https://example.org").explanation("explanation").email("a@ucsb.edu").dateAdded(LocalDateTime.parse("2022-01-03T00:00:00")).build()));
+    when(articlesRepository.findViewById(7L)).thenReturn(view);
+
+    assertEquals(view, articlesViewService.findArticle(7L));
+    assertEquals(Optional.empty(), articlesViewService.findArticle(8L));
+  }
+}
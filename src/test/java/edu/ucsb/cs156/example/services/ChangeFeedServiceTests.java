@@ -0,0 +1,189 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.hibernate.jpa.SpecHints;
+import org.mockito.Answers;
+import org.springframework.data.domain.Limit;
+
+import edu.ucsb.cs156.example.changes.ChangeClock;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.Tombstone;
+import edu.ucsb.cs156.example.entities.UCSBOrgs;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.models.ChangeFeedPage;
+import edu.ucsb.cs156.example.models.EntityChange;
+import edu.ucsb.cs156.example.repositories.TombstoneRepository;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+
+class ChangeFeedServiceTests {
+
+  ChangeFeedService changeFeed = new ChangeFeedService();
+
+  TypedQuery<HelpRequest> helpRequestQuery = typedQuery();
+  TypedQuery<UCSBOrgs> orgsQuery = typedQuery();
+
+  HelpRequest helpRequest = HelpRequest.builder()
+      .id(7L)
+      .requesterEmail("cgaucho@ucsb.edu")
+      .teamId("s24-5pm-3")
+      .tableOrBreakoutRoom("7")
+      .requestTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+      .explanation("Need help with Swagger-ui")
+      .solved(false)
+      .changeVersion(5L)
+      .updatedAt(LocalDateTime.parse("2022-01-03T00:00:05"))
+      .build();
+
+  UCSBOrgs org = UCSBOrgs.builder()
+      .orgCode("ZPR")
+      .orgTranslationShort("ZETA PHI RHO")
+      .orgTranslation("ZETA PHI RHO")
+      .inactive(false)
+      .changeVersion(2L)
+      .updatedAt(LocalDateTime.parse("2022-01-03T00:00:02"))
+      .build();
+
+  Tombstone tombstone = new Tombstone(3L, "helprequests", "6", LocalDateTime.parse("2022-01-03T00:00:03"));
+
+  @SuppressWarnings("unchecked")
+  private static <T> TypedQuery<T> typedQuery() {
+    return mock(TypedQuery.class, Answers.RETURNS_SELF);
+  }
+
+  private static EntityType<?> entityType(String name, Class<?> javaType) {
+    EntityType<?> type = mock(EntityType.class);
+    when(type.getName()).thenReturn(name);
+    doReturn(javaType).when(type).getJavaType();
+    return type;
+  }
+
+  @BeforeEach
+  void setUp() {
+    changeFeed.entityManager = mock(EntityManager.class);
+    changeFeed.tombstoneRepository = mock(TombstoneRepository.class);
+    Query clock = mock(Query.class);
+    when(clock.getSingleResult()).thenReturn(6L);
+    when(changeFeed.entityManager.createNativeQuery(ChangeClock.READ_SQL)).thenReturn(clock);
+
+    Set<EntityType<?>> entities = Set.of(
+        entityType("users", User.class),
+        entityType("ucsborgs", UCSBOrgs.class),
+        entityType("helprequests", HelpRequest.class));
+    Metamodel metamodel = mock(Metamodel.class);
+    when(metamodel.getEntities()).thenReturn(entities);
+    when(changeFeed.entityManager.getMetamodel()).thenReturn(metamodel);
+
+    PersistenceUnitUtil persistenceUnitUtil = mock(PersistenceUnitUtil.class);
+    when(persistenceUnitUtil.getIdentifier(helpRequest)).thenReturn(7L);
+    when(persistenceUnitUtil.getIdentifier(org)).thenReturn("ZPR");
+    EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+    when(entityManagerFactory.getPersistenceUnitUtil()).thenReturn(persistenceUnitUtil);
+    when(changeFeed.entityManager.getEntityManagerFactory()).thenReturn(entityManagerFactory);
+
+    when(changeFeed.entityManager.createQuery(anyString(), eq(HelpRequest.class))).thenReturn(helpRequestQuery);
+    when(changeFeed.entityManager.createQuery(anyString(), eq(UCSBOrgs.class))).thenReturn(orgsQuery);
+    when(helpRequestQuery.getResultList()).thenReturn(List.of(helpRequest));
+    when(orgsQuery.getResultList()).thenReturn(List.of(org));
+    when(changeFeed.tombstoneRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanOrderByChangeVersionAsc(1L, 6L, Limit.of(11)))
+        .thenReturn(List.of(tombstone));
+  }
+
+  @Test
+  void changes_from_every_tracked_table_and_the_tombstones_are_merged_in_version_order() {
+    ChangeFeedPage page = changeFeed.changesSince(1, 10);
+
+    assertEquals(List.of(
+        new EntityChange(2, "ucsborgs", "ZPR", EntityChange.Operation.UPSERT, org.getUpdatedAt(), org),
+        new EntityChange(3, "helprequests", "6", EntityChange.Operation.DELETE, tombstone.getDeletedAt(), null),
+        new EntityChange(5, "helprequests", "7", EntityChange.Operation.UPSERT, helpRequest.getUpdatedAt(), helpRequest)),
+        page.getChanges());
+    assertEquals(5, page.getCursor());
+    assertFalse(page.getMore());
+
+    verify(changeFeed.entityManager).createQuery(
+        "select e from helprequests e where e.changeVersion > :since and e.changeVersion < :committed"
+            + " order by e.changeVersion",
+        HelpRequest.class);
+    verify(helpRequestQuery).setParameter("since", 1L);
+    verify(helpRequestQuery).setParameter("committed", 6L);
+    verify(helpRequestQuery).setMaxResults(11);
+    verify(helpRequestQuery).setHint(SpecHints.HINT_SPEC_CACHE_RETRIEVE_MODE, CacheRetrieveMode.BYPASS);
+  }
+
+  @Test
+  void page_ends_below_the_change_clock() {
+    // versions 4 and up are numbered by a transaction that has not committed yet
+    Query clock = mock(Query.class);
+    when(clock.getSingleResult()).thenReturn(4L);
+    when(changeFeed.entityManager.createNativeQuery(ChangeClock.READ_SQL)).thenReturn(clock);
+    when(helpRequestQuery.getResultList()).thenReturn(List.of());
+    when(changeFeed.tombstoneRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanOrderByChangeVersionAsc(1L, 4L,
+        Limit.of(11))).thenReturn(List.of(tombstone));
+
+    ChangeFeedPage page = changeFeed.changesSince(1, 10);
+
+    assertEquals(List.of("ZPR", "6"), page.getChanges().stream().map(EntityChange::getId).toList());
+    assertEquals(3, page.getCursor());
+    assertFalse(page.getMore());
+    verify(helpRequestQuery).setParameter("committed", 4L);
+    verify(orgsQuery).setParameter("committed", 4L);
+  }
+
+  @Test
+  void page_stops_at_the_limit_and_says_there_are_more() {
+    when(changeFeed.tombstoneRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanOrderByChangeVersionAsc(1L, 6L, Limit.of(3)))
+        .thenReturn(List.of(tombstone));
+
+    ChangeFeedPage page = changeFeed.changesSince(1, 2);
+
+    assertEquals(List.of("ZPR", "6"), page.getChanges().stream().map(EntityChange::getId).toList());
+    assertEquals(3, page.getCursor());
+    assertTrue(page.getMore());
+  }
+
+  @Test
+  void full_page_with_nothing_after_it_says_there_are_no_more() {
+    when(changeFeed.tombstoneRepository.findByChangeVersionGreaterThanAndChangeVersionLessThanOrderByChangeVersionAsc(1L, 6L, Limit.of(4)))
+        .thenReturn(List.of(tombstone));
+
+    ChangeFeedPage page = changeFeed.changesSince(1, 3);
+
+    assertEquals(3, page.getChanges().size());
+    assertEquals(5, page.getCursor());
+    assertFalse(page.getMore());
+  }
+
+  @Test
+  void empty_page_keeps_the_cursor() {
+    when(helpRequestQuery.getResultList()).thenReturn(List.of());
+    when(orgsQuery.getResultList()).thenReturn(List.of());
+
+    ChangeFeedPage page = changeFeed.changesSince(9, 10);
+
+    assertEquals(List.of(), page.getChanges());
+    assertEquals(9, page.getCursor());
+    assertFalse(page.getMore());
+  }
+}
@@ -0,0 +1,178 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { CurrentUserServiceImpl.class })
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class CurrentUserServiceImplTests {
+
+  @MockBean
+  UserRepository userRepository;
+
+  @MockBean
+  GrantedAuthoritiesService grantedAuthoritiesService;
+
+  @MockBean
+  AdminRoleService adminRoleService;
+
+  @Autowired
+  CurrentUserServiceImpl currentUserService;
+
+  User cgaucho = User.builder()
+      .id(7L)
+      .email("cgaucho@ucsb.edu")
+      .googleSub("115856948234298493496")
+      .fullName("Chris Gaucho")
+      .emailVerified(true)
+      .build();
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  private void loggedInAs(String email) {
+    Map<String, Object> attributes = new HashMap<>();
+    attributes.put("sub", "115856948234298493496");
+    attributes.put("email", email);
+    attributes.put("name", "Chris Gaucho");
+    attributes.put("email_verified", true);
+    DefaultOAuth2User principal = new DefaultOAuth2User(List.of(new SimpleGrantedAuthority("ROLE_USER")),
+        attributes, "sub");
+    SecurityContextHolder.getContext().setAuthentication(
+        new OAuth2AuthenticationToken(principal, principal.getAuthorities(), "google"));
+  }
+
+  @Test
+  void a_user_is_looked_up_once_and_then_served_from_the_cache() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(cgaucho));
+    loggedInAs("cgaucho@ucsb.edu");
+
+    User first = currentUserService.getUser();
+    User second = currentUserService.getUser();
+
+    assertEquals(cgaucho, first);
+    assertEquals(cgaucho, second);
+    verify(userRepository, times(1)).findByEmail("cgaucho@ucsb.edu");
+  }
+
+  @Test
+  void each_request_gets_its_own_copy_of_a_cached_user() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(cgaucho));
+    loggedInAs("cgaucho@ucsb.edu");
+
+    User first = currentUserService.getUser();
+    first.setAdmin(true);
+    User second = currentUserService.getUser();
+
+    assertNotSame(cgaucho, first);
+    assertNotSame(first, second);
+    assertFalse(second.getAdmin());
+  }
+
+  @Test
+  void a_new_user_is_saved_with_the_admin_flag_from_the_admin_emails() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.empty());
+    when(adminRoleService.isAdminEmail("cgaucho@ucsb.edu")).thenReturn(true);
+    loggedInAs("cgaucho@ucsb.edu");
+
+    User user = currentUserService.getUser();
+
+    assertEquals("cgaucho@ucsb.edu", user.getEmail());
+    assertTrue(user.getAdmin());
+    verify(userRepository, times(1)).save(any(User.class));
+  }
+
+  @Test
+  void an_existing_user_on_the_admin_emails_is_made_an_admin() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(cgaucho));
+    when(adminRoleService.isAdminEmail("cgaucho@ucsb.edu")).thenReturn(true);
+    loggedInAs("cgaucho@ucsb.edu");
+
+    assertTrue(currentUserService.getUser().getAdmin());
+    verify(userRepository, times(1)).save(cgaucho);
+  }
+
+  @Test
+  void an_evicted_user_is_looked_up_again() {
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(cgaucho));
+    loggedInAs("cgaucho@ucsb.edu");
+    currentUserService.getUser();
+
+    cgaucho.setAdmin(true);
+    currentUserService.evictUser("cgaucho@ucsb.edu");
+
+    assertTrue(currentUserService.getUser().getAdmin());
+    verify(userRepository, times(2)).findByEmail("cgaucho@ucsb.edu");
+  }
+
+  @Test
+  void a_reload_of_the_admin_emails_evicts_only_the_users_it_changes() {
+    User ldelplaya = User.builder().email("ldelplaya@ucsb.edu").build();
+    when(userRepository.findByEmail("cgaucho@ucsb.edu")).thenReturn(Optional.of(cgaucho));
+    when(userRepository.findByEmail("ldelplaya@ucsb.edu")).thenReturn(Optional.of(ldelplaya));
+    loggedInAs("cgaucho@ucsb.edu");
+    currentUserService.getUser();
+    loggedInAs("ldelplaya@ucsb.edu");
+    currentUserService.getUser();
+
+    currentUserService.onAdminEmailsReloaded(new AdminRoleService.AdminEmailsReloadedEvent(
+        Set.of("phtcon@ucsb.edu"), Set.of("phtcon@ucsb.edu", "cgaucho@ucsb.edu")));
+    currentUserService.getUser();
+    loggedInAs("cgaucho@ucsb.edu");
+    currentUserService.getUser();
+
+    verify(userRepository, times(2)).findByEmail("cgaucho@ucsb.edu");
+    verify(userRepository, times(1)).findByEmail("ldelplaya@ucsb.edu");
+  }
+
+  @Test
+  void a_login_without_an_email_is_not_cached() {
+    when(userRepository.findByEmail(null)).thenReturn(Optional.of(User.builder().googleSub("115856948234298493496").build()));
+    loggedInAs(null);
+
+    assertNull(currentUserService.getUser().getEmail());
+    assertNull(currentUserService.getUser().getEmail());
+
+    verify(userRepository, times(2)).findByEmail(null);
+    verify(userRepository, never()).save(any());
+  }
+
+  @Test
+  void no_user_is_logged_in_without_an_oauth2_login() {
+    assertNull(currentUserService.getUser());
+    assertFalse(currentUserService.isLoggedIn());
+  }
+}
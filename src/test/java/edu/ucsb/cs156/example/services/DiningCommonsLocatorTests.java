@@ -0,0 +1,142 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.models.NearbyDiningCommons;
+
+class DiningCommonsLocatorTests {
+
+  DiningCommonsLocator locator = new DiningCommonsLocator();
+
+  private static UCSBDiningCommons commons(String code, Double latitude, Double longitude) {
+    return UCSBDiningCommons.builder()
+        .code(code)
+        .name(code)
+        .latitude(latitude)
+        .longitude(longitude)
+        .build();
+  }
+
+  private static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double a = Math.pow(Math.sin(dLat / 2), 2)
+        + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+    return 2 * DiningCommonsLocator.EARTH_RADIUS_METERS * Math.asin(Math.sqrt(a));
+  }
+
+  private static List<String> codes(List<NearbyDiningCommons> nearby) {
+    return nearby.stream().map(n -> n.getCommons().getCode()).toList();
+  }
+
+  @Test
+  void empty_index_finds_nothing() {
+    assertEquals(List.of(), locator.nearest(34.41, -119.85, 3));
+    assertEquals(0, locator.size());
+  }
+
+  @Test
+  void finds_the_nearest_commons_with_haversine_distances() {
+    locator.load(List.of(
+        commons("carrillo", 34.409953, -119.85277),
+        commons("de-la-guerra", 34.409811, -119.845026),
+        commons("ortega", 34.410987, -119.84709),
+        commons("portola", 34.417723, -119.867427)));
+
+    List<NearbyDiningCommons> nearest = locator.nearest(34.4100, -119.8460, 2);
+
+    assertEquals(List.of("de-la-guerra", "ortega"), codes(nearest));
+    assertEquals(haversineMeters(34.4100, -119.8460, 34.409811, -119.845026),
+        nearest.get(0).getDistanceMeters(), 1e-6);
+    assertEquals(haversineMeters(34.4100, -119.8460, 34.410987, -119.84709),
+        nearest.get(1).getDistanceMeters(), 1e-6);
+    assertEquals(4, locator.nearest(34.4100, -119.8460, 10).size());
+    assertEquals(List.of(), locator.nearest(34.4100, -119.8460, 0));
+  }
+
+  @Test
+  void commons_without_a_location_are_left_out() {
+    locator.load(List.of(
+        commons("carrillo", 34.409953, -119.85277),
+        commons("munger-hall", null, -119.852617),
+        commons("nowhere", 34.420799, null)));
+
+    assertEquals(1, locator.size());
+    assertEquals(List.of("carrillo"), codes(locator.nearest(34.420799, -119.852617, 5)));
+  }
+
+  @Test
+  void put_and_remove_update_the_index() {
+    locator.load(List.of(
+        commons("carrillo", 34.409953, -119.85277),
+        commons("portola", 34.417723, -119.867427)));
+
+    locator.put(commons("ortega", 34.410987, -119.84709));
+    assertEquals(List.of("ortega"), codes(locator.nearest(34.411, -119.847, 1)));
+
+    // moving a commons replaces its old location
+    locator.put(commons("ortega", 34.417723, -119.867500));
+    assertEquals(3, locator.size());
+    assertEquals(List.of("carrillo"), codes(locator.nearest(34.411, -119.847, 1)));
+
+    // a commons whose location is cleared drops out
+    locator.put(commons("portola", null, null));
+    assertEquals(2, locator.size());
+
+    locator.remove("carrillo");
+    locator.remove("no-such-commons");
+    assertEquals(List.of("ortega"), codes(locator.nearest(34.411, -119.847, 5)));
+  }
+
+  @Test
+  void works_across_the_antimeridian_and_at_the_poles() {
+    locator.load(List.of(
+        commons("east", 0.0, 179.9),
+        commons("west", 0.0, -179.95),
+        commons("greenwich", 0.0, 0.0),
+        commons("north", 89.99, 45.0)));
+
+    assertEquals(List.of("west", "east"), codes(locator.nearest(0.0, -179.99, 2)));
+    assertEquals(List.of("north"), codes(locator.nearest(90.0, -135.0, 1)));
+  }
+
+  @Test
+  void agrees_with_a_full_haversine_scan() {
+    Random random = new Random(156);
+    List<UCSBDiningCommons> all = new ArrayList<>();
+    for (int i = 0; i < 500; i++) {
+      all.add(commons("c" + i, random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180));
+    }
+    locator.load(all);
+
+    for (int query = 0; query < 200; query++) {
+      double lat = random.nextDouble() * 180 - 90;
+      double lon = random.nextDouble() * 360 - 180;
+      int k = 1 + random.nextInt(8);
+
+      List<NearbyDiningCommons> expected = all.stream()
+          .map(c -> new NearbyDiningCommons(c, haversineMeters(lat, lon, c.getLatitude(), c.getLongitude())))
+          .sorted(Comparator.comparingDouble(NearbyDiningCommons::getDistanceMeters))
+          .limit(k)
+          .toList();
+      List<NearbyDiningCommons> actual = locator.nearest(lat, lon, k);
+
+      assertEquals(codes(expected), codes(actual));
+      for (int i = 0; i < k; i++) {
+        assertEquals(expected.get(i).getDistanceMeters(), actual.get(i).getDistanceMeters(), 1e-3);
+      }
+      for (int i = 1; i < k; i++) {
+        assertTrue(actual.get(i - 1).getDistanceMeters() <= actual.get(i).getDistanceMeters());
+      }
+    }
+  }
+}
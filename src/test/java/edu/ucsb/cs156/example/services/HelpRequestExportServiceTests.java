@@ -0,0 +1,94 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import jakarta.persistence.EntityManager;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { HelpRequestExportService.class, JacksonAutoConfiguration.class })
+class HelpRequestExportServiceTests {
+
+  @MockBean
+  HelpRequestRepository helpRequestRepository;
+
+  @MockBean
+  EntityManager entityManager;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  @Autowired
+  HelpRequestExportService helpRequestExportService;
+
+  HelpRequest helpRequest1 = HelpRequest.builder()
+      .id(1L)
+      .requesterEmail("cgaucho@ucsb.edu")
+      .teamId("s24-5pm-3")
+      .tableOrBreakoutRoom("7")
+      .requestTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+      .explanation("Need help with Swagger-ui")
+      .solved(false)
+      .build();
+
+  HelpRequest helpRequest2 = HelpRequest.builder()
+      .id(2L)
+      .requesterEmail("ldelplaya@ucsb.edu")
+      .teamId("s24-6pm-4")
+      .tableOrBreakoutRoom("11")
+      .requestTime(LocalDateTime.parse("2022-01-04T00:00:00"))
+      .explanation("Dokku problems")
+      .solved(true)
+      .build();
+
+  @Test
+  void test_writeNdjson_writes_one_line_per_row_and_detaches_each_row() throws Exception {
+    when(helpRequestRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(helpRequest1, helpRequest2));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    long count = helpRequestExportService.writeNdjson(out);
+
+    assertEquals(2L, count);
+    String expected = mapper.writeValueAsString(helpRequest1) + "\n" + mapper.writeValueAsString(helpRequest2) + "\n";
+    assertEquals(expected, out.toString());
+    verify(entityManager, times(1)).detach(helpRequest1);
+    verify(entityManager, times(1)).detach(helpRequest2);
+  }
+
+  @Test
+  void test_writeNdjson_wraps_io_errors() {
+    when(helpRequestRepository.streamAllByOrderByIdAsc()).thenReturn(Stream.of(helpRequest1));
+    OutputStream broken = new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("client went away");
+      }
+    };
+
+    UncheckedIOException e = assertThrows(UncheckedIOException.class,
+        () -> helpRequestExportService.writeNdjson(broken));
+    assertEquals("client went away", e.getCause().getMessage());
+  }
+}
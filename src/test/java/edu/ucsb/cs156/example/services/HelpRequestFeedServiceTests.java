@@ -0,0 +1,277 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.HelpRequestChange;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { HelpRequestFeedService.class, HelpRequestFeedServiceTests.Config.class })
+@TestPropertySource(properties = {
+    "app.helprequests.feed.buffer=4",
+    "app.helprequests.feed.threads=2",
+    "app.helprequests.feed.heartbeat=PT1H",
+    "app.helprequests.feed.timeout=PT5M"
+})
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+class HelpRequestFeedServiceTests {
+
+  @TestConfiguration
+  static class Config {
+    @Bean
+    public ObjectMapper objectMapper() {
+      return new ObjectMapper().findAndRegisterModules();
+    }
+
+    @Bean
+    public ConversionService conversionService() {
+      return ApplicationConversionService.getSharedInstance();
+    }
+  }
+
+  /** Queues tasks until the test runs them, so each test decides when subscribers are drained */
+  static class QueueingExecutor implements Executor {
+    final List<Runnable> tasks = new ArrayList<>();
+
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        tasks.remove(0).run();
+      }
+    }
+  }
+
+  @Autowired
+  HelpRequestFeedService helpRequestFeed;
+
+  @Autowired
+  ObjectMapper mapper;
+
+  QueueingExecutor executor = new QueueingExecutor();
+
+  HelpRequest helpRequest = HelpRequest.builder()
+      .id(7L)
+      .requesterEmail("cgaucho@ucsb.edu")
+      .teamId("s24-5pm-3")
+      .tableOrBreakoutRoom("7")
+      .requestTime(LocalDateTime.parse("2022-01-03T00:00:00"))
+      .explanation("Need help with Swagger-ui")
+      .solved(false)
+      .build();
+
+  SseEmitter emitter;
+
+  @BeforeEach
+  void subscribe() {
+    helpRequestFeed.stopExecutor();
+    helpRequestFeed.feedExecutor = executor;
+    emitter = mock(SseEmitter.class);
+    helpRequestFeed.subscribe(emitter);
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Set<DataWithMediaType>> sentEvents(SseEmitter emitter, int count) throws IOException {
+    ArgumentCaptor<Set<DataWithMediaType>> captor = ArgumentCaptor.forClass(Set.class);
+    verify(emitter, times(count)).send(captor.capture());
+    return captor.getAllValues();
+  }
+
+  private static String text(Set<DataWithMediaType> event) {
+    StringBuilder text = new StringBuilder();
+    event.forEach(part -> text.append(part.getData()));
+    return text.toString();
+  }
+
+  @Test
+  void subscribe_opens_a_feed_with_the_configured_timeout() {
+    SseEmitter feed = helpRequestFeed.subscribe();
+
+    assertEquals(5 * 60 * 1000L, feed.getTimeout());
+    assertEquals(2, helpRequestFeed.subscriberCount());
+  }
+
+  @Test
+  void publish_sends_the_change_to_every_subscriber() throws Exception {
+    SseEmitter other = mock(SseEmitter.class);
+    helpRequestFeed.subscribe(other);
+
+    helpRequestFeed.publish(HelpRequestChange.created(helpRequest));
+    helpRequestFeed.publish(HelpRequestChange.deleted(7L));
+    executor.runAll();
+
+    List<Set<DataWithMediaType>> events = sentEvents(emitter, 2);
+    assertEquals("id:1\nevent:created\ndata:" + mapper.writeValueAsString(HelpRequestChange.created(helpRequest)) + "\n\n",
+        text(events.get(0)));
+    assertEquals("id:2\nevent:deleted\ndata:" + mapper.writeValueAsString(HelpRequestChange.deleted(7L)) + "\n\n",
+        text(events.get(1)));
+    // every subscriber is sent the same already-serialized event
+    List<Set<DataWithMediaType>> otherEvents = sentEvents(other, 2);
+    assertSame(events.get(0), otherEvents.get(0));
+    assertSame(events.get(1), otherEvents.get(1));
+  }
+
+  @Test
+  void change_that_cannot_be_serialized_is_not_sent() throws Exception {
+    ObjectMapper failing = mock(ObjectMapper.class);
+    when(failing.writeValueAsString(any())).thenThrow(new JsonMappingException(null, "no serializer"));
+    helpRequestFeed.mapper = failing;
+
+    helpRequestFeed.publish(HelpRequestChange.deleted(7L));
+    executor.runAll();
+
+    verify(emitter, never()).send(anySet());
+    assertEquals(1, helpRequestFeed.subscriberCount());
+  }
+
+  @Test
+  void drains_run_on_the_feeds_own_platform_threads() throws Exception {
+    assertEquals("helprequest-feed-0", threadThatRunsADrain(false).getName());
+  }
+
+  @Test
+  void drains_run_on_virtual_threads_in_virtual_thread_mode() throws Exception {
+    Thread thread = threadThatRunsADrain(true);
+
+    assertTrue(thread.isVirtual());
+    assertEquals("helprequest-feed-0", thread.getName());
+  }
+
+  private Thread threadThatRunsADrain(boolean virtualThreads) throws Exception {
+    CompletableFuture<Thread> sender = new CompletableFuture<>();
+    doAnswer(invocation -> sender.complete(Thread.currentThread())).when(emitter).send(anySet());
+    helpRequestFeed.virtualThreads = virtualThreads;
+    helpRequestFeed.startExecutor();
+    try {
+      helpRequestFeed.heartbeat();
+      return sender.get(10, TimeUnit.SECONDS);
+    } finally {
+      helpRequestFeed.stopExecutor();
+    }
+  }
+
+  @Test
+  void publish_without_subscribers_does_nothing() {
+    HelpRequestFeedService idle = new HelpRequestFeedService();
+
+    idle.publish(HelpRequestChange.updated(helpRequest));
+    idle.heartbeat();
+
+    assertEquals(0, idle.subscriberCount());
+  }
+
+  @Test
+  void one_drain_at_a_time_sends_events_in_order() throws Exception {
+    // a change published while a drain is sending is picked up by the same drain
+    doAnswer(invocation -> {
+      helpRequestFeed.heartbeat();
+      doAnswer(ignored -> null).when(emitter).send(anySet());
+      return null;
+    }).when(emitter).send(anySet());
+
+    helpRequestFeed.publish(HelpRequestChange.created(helpRequest));
+    helpRequestFeed.publish(HelpRequestChange.updated(helpRequest));
+    assertEquals(1, executor.tasks.size());
+    executor.runAll();
+
+    List<Set<DataWithMediaType>> events = sentEvents(emitter, 3);
+    assertTrue(text(events.get(0)).contains("event:created"));
+    assertTrue(text(events.get(1)).contains("event:updated"));
+    assertEquals(":heartbeat\n\n", text(events.get(2)));
+  }
+
+  @Test
+  void heartbeat_is_sent_as_a_comment() throws Exception {
+    helpRequestFeed.heartbeat();
+    executor.runAll();
+
+    assertEquals(":heartbeat\n\n", text(sentEvents(emitter, 1).get(0)));
+  }
+
+  @Test
+  void subscriber_that_falls_behind_is_disconnected() throws Exception {
+    for (int i = 0; i < 5; i++) {
+      helpRequestFeed.heartbeat();
+    }
+
+    verify(emitter).complete();
+    assertEquals(0, helpRequestFeed.subscriberCount());
+
+    // what was already queued is not sent to a disconnected subscriber
+    executor.runAll();
+    verify(emitter, never()).send(anySet());
+  }
+
+  @Test
+  void subscriber_whose_connection_fails_is_removed() throws Exception {
+    doThrow(new IOException("Broken pipe")).when(emitter).send(anySet());
+
+    helpRequestFeed.heartbeat();
+    executor.runAll();
+    helpRequestFeed.heartbeat();
+    executor.runAll();
+
+    verify(emitter, times(1)).send(anySet());
+    assertEquals(0, helpRequestFeed.subscriberCount());
+  }
+
+  @Test
+  void subscriber_is_removed_when_its_feed_completes_or_fails() {
+    ArgumentCaptor<Runnable> onCompletion = ArgumentCaptor.forClass(Runnable.class);
+    verify(emitter).onCompletion(onCompletion.capture());
+    onCompletion.getValue().run();
+    assertEquals(0, helpRequestFeed.subscriberCount());
+
+    SseEmitter other = mock(SseEmitter.class);
+    helpRequestFeed.subscribe(other);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Consumer<Throwable>> onError = ArgumentCaptor.forClass(Consumer.class);
+    verify(other).onError(onError.capture());
+    onError.getValue().accept(new IOException("Connection reset"));
+    assertEquals(0, helpRequestFeed.subscriberCount());
+  }
+}
@@ -0,0 +1,59 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.models.HelpRequestView;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = HelpRequestViewService.class)
+class HelpRequestViewServiceTests {
+
+  @MockBean
+  HelpRequestRepository helpRequestRepository;
+
+  @Autowired
+  HelpRequestViewService helpRequestViewService;
+
+  @Test
+  void test_allHelpRequests_returns_the_views_from_the_repository() {
+    List<HelpRequestView> views = List.of(HelpRequestView.of(HelpRequest.builder().id(7L).requesterEmail("a@ucsb.edu").teamId("t1").tableOrBreakoutRoom("7").requestTime(LocalDateTime.parse("2022-01-03T00:00:00")).explanation("explanation").solved(true).build()));
+    when(helpRequestRepository.findAllViewsByOrderByIdAsc()).thenReturn(views);
+
+    assertEquals(views, helpRequestViewService.allHelpRequests());
+  }
+
+  @Test
+  void test_findHelpRequest_returns_the_view_from_the_repository() {
+    Optional<HelpRequestView> view = Optional.of(HelpRequestView.of(HelpRequest.builder().id(7L).requesterEmail("a@ucsb.edu").teamId("t1").tableOrBreakoutRoom("7").requestTime(LocalDateTime.parse("2022-01-03T00:00:00")).explanation("explanation").solved(true).build()));
+    when(helpRequestRepository.findViewById(7L)).thenReturn(view);
+
+    assertEquals(view, helpRequestViewService.findHelpRequest(7L));
+    assertEquals(Optional.empty(), helpRequestViewService.findHelpRequest(8L));
+  }
+
+  @Test
+  void test_matchingHelpRequests_copies_the_matching_entities_into_views() {
+    HelpRequest helpRequest = HelpRequest.builder().id(7L).requesterEmail("a@ucsb.edu").teamId("t1").tableOrBreakoutRoom("7").requestTime(LocalDateTime.parse("2022-01-03T00:00:00")).explanation("explanation").solved(true).build();
+    LocalDateTime from = LocalDateTime.parse("2022-01-01T00:00:00");
+    when(helpRequestRepository.findAllMatching(true, "t1", null, from, null)).thenReturn(List.of(helpRequest));
+
+    List<HelpRequestView> result = helpRequestViewService.matchingHelpRequests(true, "t1", null, from, null);
+
+    assertEquals(List.of(new HelpRequestView(7L, "a@ucsb.edu", "t1", "7", LocalDateTime.parse("2022-01-03T00:00:00"),
+        "explanation", true, 0L)), result);
+  }
+}
@@ -0,0 +1,197 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.entities.MenuItemRating;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.repositories.MenuItemRatingRepository;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = MenuItemRatingService.class)
+class MenuItemRatingServiceTests {
+
+  @MockBean
+  MenuItemRatingRepository menuItemRatingRepository;
+
+  @Autowired
+  MenuItemRatingService menuItemRatingService;
+
+  @Test
+  void test_getRating_returns_stored_totals() {
+    MenuItemRating rating = MenuItemRating.builder().itemId(1L).reviewCount(2).sumStars(7).build();
+    when(menuItemRatingRepository.findById(1L)).thenReturn(Optional.of(rating));
+
+    MenuItemRating result = menuItemRatingService.getRating(1L);
+
+    assertEquals(rating, result);
+    assertEquals(3.5, result.getAverageStars());
+  }
+
+  @Test
+  void test_getRating_for_unreviewed_item_is_all_zero() {
+    when(menuItemRatingRepository.findById(2L)).thenReturn(Optional.empty());
+
+    MenuItemRating result = menuItemRatingService.getRating(2L);
+
+    assertEquals(MenuItemRating.builder().itemId(2L).build(), result);
+    assertEquals(0.0, result.getAverageStars());
+  }
+
+  @Test
+  void test_addReview_creates_totals_for_first_review() {
+    when(menuItemRatingRepository.findForUpdateByItemId(1L))
+        .thenReturn(Optional.of(MenuItemRating.builder().itemId(1L).build()));
+
+    menuItemRatingService.addReview(1L, 4);
+
+    InOrder inOrder = inOrder(menuItemRatingRepository);
+    inOrder.verify(menuItemRatingRepository).insertIfAbsent(1L);
+    inOrder.verify(menuItemRatingRepository).findForUpdateByItemId(1L);
+    inOrder.verify(menuItemRatingRepository, times(1)).save(
+        MenuItemRating.builder().itemId(1L).reviewCount(1).sumStars(4).fourStars(1).build());
+  }
+
+  @Test
+  void test_addReview_updates_histogram_for_each_star_value() {
+    MenuItemRating rating = MenuItemRating.builder().itemId(1L).build();
+    when(menuItemRatingRepository.findForUpdateByItemId(1L)).thenReturn(Optional.of(rating));
+
+    for (int stars = 1; stars <= 5; stars++) {
+      menuItemRatingService.addReview(1L, stars);
+    }
+
+    assertEquals(MenuItemRating.builder()
+        .itemId(1L).reviewCount(5).sumStars(15)
+        .oneStar(1).twoStars(1).threeStars(1).fourStars(1).fiveStars(1)
+        .build(), rating);
+    verify(menuItemRatingRepository, times(5)).save(rating);
+  }
+
+  @Test
+  void test_removeReview_decrements_totals() {
+    MenuItemRating rating = MenuItemRating.builder()
+        .itemId(1L).reviewCount(2).sumStars(8).threeStars(1).fiveStars(1).build();
+    when(menuItemRatingRepository.findForUpdateByItemId(1L)).thenReturn(Optional.of(rating));
+
+    menuItemRatingService.removeReview(1L, 5);
+
+    assertEquals(MenuItemRating.builder()
+        .itemId(1L).reviewCount(1).sumStars(3).threeStars(1).build(), rating);
+    verify(menuItemRatingRepository, times(1)).save(rating);
+  }
+
+  @Test
+  void test_reviews_without_an_item_are_not_counted() {
+    menuItemRatingService.addReview(null, 4);
+    menuItemRatingService.removeReview(null, 4);
+
+    verifyNoInteractions(menuItemRatingRepository);
+  }
+
+  @Test
+  void test_out_of_range_stars_cannot_be_added() {
+    MenuItemRating rating = MenuItemRating.builder().itemId(1L).build();
+    when(menuItemRatingRepository.findForUpdateByItemId(1L)).thenReturn(Optional.of(rating));
+
+    assertThrows(IllegalArgumentException.class, () -> menuItemRatingService.addReview(1L, 0));
+    assertThrows(IllegalArgumentException.class, () -> menuItemRatingService.addReview(1L, 6));
+
+    assertEquals(MenuItemRating.builder().itemId(1L).build(), rating);
+    verify(menuItemRatingRepository, never()).save(any());
+  }
+
+  @Test
+  void test_out_of_range_stars_stored_earlier_can_be_removed() {
+    MenuItemRating rating = MenuItemRating.builder().itemId(1L).reviewCount(3).sumStars(6).oneStar(1).fiveStars(1).build();
+    when(menuItemRatingRepository.findForUpdateByItemId(1L)).thenReturn(Optional.of(rating));
+
+    menuItemRatingService.removeReview(1L, 1);
+    menuItemRatingService.removeReview(1L, 0);
+
+    assertEquals(MenuItemRating.builder().itemId(1L).reviewCount(1).sumStars(5).fiveStars(1).build(), rating);
+  }
+
+  @Test
+  void test_updateReview_locks_both_items_in_id_order() {
+    MenuItemRating one = MenuItemRating.builder().itemId(1L).reviewCount(1).sumStars(2).twoStars(1).build();
+    MenuItemRating two = MenuItemRating.builder().itemId(2L).reviewCount(1).sumStars(4).fourStars(1).build();
+    when(menuItemRatingRepository.findForUpdateByItemId(1L)).thenReturn(Optional.of(one));
+    when(menuItemRatingRepository.findForUpdateByItemId(2L)).thenReturn(Optional.of(two));
+
+    // moving a review from item 2 to item 1 must still lock item 1 first
+    menuItemRatingService.updateReview(2L, 4, 1L, 5);
+
+    InOrder inOrder = inOrder(menuItemRatingRepository);
+    inOrder.verify(menuItemRatingRepository).findForUpdateByItemId(1L);
+    inOrder.verify(menuItemRatingRepository).findForUpdateByItemId(2L);
+    inOrder.verify(menuItemRatingRepository).save(
+        MenuItemRating.builder().itemId(1L).reviewCount(2).sumStars(7).twoStars(1).fiveStars(1).build());
+    inOrder.verify(menuItemRatingRepository).save(MenuItemRating.builder().itemId(2L).build());
+  }
+
+  @Test
+  void test_updateReview_of_the_same_item_locks_it_once() {
+    MenuItemRating rating = MenuItemRating.builder().itemId(1L).reviewCount(1).sumStars(2).twoStars(1).build();
+    when(menuItemRatingRepository.findForUpdateByItemId(1L)).thenReturn(Optional.of(rating));
+
+    menuItemRatingService.updateReview(1L, 2, 1L, 3);
+
+    verify(menuItemRatingRepository, times(1)).findForUpdateByItemId(1L);
+    verify(menuItemRatingRepository, times(1)).save(
+        MenuItemRating.builder().itemId(1L).reviewCount(1).sumStars(3).threeStars(1).build());
+  }
+
+  @Test
+  void test_updateReview_to_or_from_no_item() {
+    MenuItemRating rating = MenuItemRating.builder().itemId(1L).reviewCount(1).sumStars(2).twoStars(1).build();
+    when(menuItemRatingRepository.findForUpdateByItemId(1L)).thenReturn(Optional.of(rating));
+
+    menuItemRatingService.updateReview(1L, 2, null, 2);
+    assertEquals(MenuItemRating.builder().itemId(1L).build(), rating);
+
+    menuItemRatingService.updateReview(null, 2, 1L, 4);
+    assertEquals(MenuItemRating.builder().itemId(1L).reviewCount(1).sumStars(4).fourStars(1).build(), rating);
+  }
+
+  @Test
+  void test_addReviews_locks_and_saves_each_item_once() {
+    MenuItemRating existing = MenuItemRating.builder().itemId(1L).reviewCount(1).sumStars(5).fiveStars(1).build();
+    when(menuItemRatingRepository.findForUpdateByItemId(1L)).thenReturn(Optional.of(existing));
+    when(menuItemRatingRepository.findForUpdateByItemId(2L))
+        .thenReturn(Optional.of(MenuItemRating.builder().itemId(2L).build()));
+
+    menuItemRatingService.addReviews(List.of(
+        MenuItemReview.builder().itemId(2L).stars(3).build(),
+        MenuItemReview.builder().itemId(1L).stars(4).build(),
+        MenuItemReview.builder().itemId(null).stars(1).build(),
+        MenuItemReview.builder().itemId(2L).stars(1).build()));
+
+    verify(menuItemRatingRepository, times(1)).insertIfAbsent(1L);
+    verify(menuItemRatingRepository, times(1)).insertIfAbsent(2L);
+    verify(menuItemRatingRepository, times(1)).findForUpdateByItemId(1L);
+    verify(menuItemRatingRepository, times(1)).findForUpdateByItemId(2L);
+    verify(menuItemRatingRepository, times(1)).save(MenuItemRating.builder()
+        .itemId(1L).reviewCount(2).sumStars(9).fourStars(1).fiveStars(1).build());
+    verify(menuItemRatingRepository, times(1)).save(MenuItemRating.builder()
+        .itemId(2L).reviewCount(2).sumStars(4).oneStar(1).threeStars(1).build());
+  }
+}
@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.MenuItemReviewView;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = MenuItemReviewViewService.class)
+class MenuItemReviewViewServiceTests {
+
+  @MockBean
+  MenuItemReviewRepository menuItemReviewRepository;
+
+  @Autowired
+  MenuItemReviewViewService menuItemReviewViewService;
+
+  @Test
+  void test_allMenuItemReviews_returns_the_views_from_the_repository() {
+    List<MenuItemReviewView> views = List.of(MenuItemReviewView.of(MenuItemReview.builder().id(7L).itemId(1L).reviewerEmail("a@ucsb.edu").stars(5).dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00")).comments("comments").build()));
+    when(menuItemReviewRepository.findAllViewsByOrderByIdAsc()).thenReturn(views);
+
+    assertEquals(views, menuItemReviewViewService.allMenuItemReviews());
+  }
+
+  @Test
+  void test_findMenuItemReview_returns_the_view_from_the_repository() {
+    Optional<MenuItemReviewView> view = Optional.of(MenuItemReviewView.of(MenuItemReview.builder().id(7L).itemId(1L).reviewerEmail("a@ucsb.edu").stars(5).dateReviewed(LocalDateTime.parse("2022-01-03T00:00:00")).comments("comments").build()));
+    when(menuItemReviewRepository.findViewById(7L)).thenReturn(view);
+
+    assertEquals(view, menuItemReviewViewService.findMenuItemReview(7L));
+    assertEquals(Optional.empty(), menuItemReviewViewService.findMenuItemReview(8L));
+  }
+}
@@ -0,0 +1,47 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import edu.ucsb.cs156.example.entities.RecommendationRequest;
+import edu.ucsb.cs156.example.models.RecommendationRequestView;
+import edu.ucsb.cs156.example.repositories.RecommendationRequestRepository;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = RecommendationRequestViewService.class)
+class RecommendationRequestViewServiceTests {
+
+  @MockBean
+  RecommendationRequestRepository recommendationRequestRepository;
+
+  @Autowired
+  RecommendationRequestViewService recommendationRequestViewService;
+
+  @Test
+  void test_allRecommendationRequests_returns_the_views_from_the_repository() {
+    List<RecommendationRequestView> views = List.of(RecommendationRequestView.of(RecommendationRequest.builder().id(7L).requesterEmail("a@ucsb.edu").professorEmail("p@ucsb.edu").explanation("explanation").dateRequested(LocalDateTime.parse("2022-01-03T00:00:00")).dateNeeded(LocalDateTime.parse("2022-01-04T00:00:00")).done(true).build()));
+    when(recommendationRequestRepository.findAllViewsByOrderByIdAsc()).thenReturn(views);
+
+    assertEquals(views, recommendationRequestViewService.allRecommendationRequests());
+  }
+
+  @Test
+  void test_findRecommendationRequest_returns_the_view_from_the_repository() {
+    Optional<RecommendationRequestView> view = Optional.of(RecommendationRequestView.of(RecommendationRequest.builder().id(7L).requesterEmail("a@ucsb.edu").professorEmail("p@ucsb.edu").explanation("explanation").dateRequested(LocalDateTime.parse("2022-01-03T00:00:00")).dateNeeded(LocalDateTime.parse("2022-01-04T00:00:00")).done(true).build()));
+    when(recommendationRequestRepository.findViewById(7L)).thenReturn(view);
+
+    assertEquals(view, recommendationRequestViewService.findRecommendationRequest(7L));
+    assertEquals(Optional.empty(), recommendationRequestViewService.findRecommendationRequest(8L));
+  }
+}
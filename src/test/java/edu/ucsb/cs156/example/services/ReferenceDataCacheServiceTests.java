@@ -0,0 +1,179 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import edu.ucsb.cs156.example.config.CacheConfig;
+import edu.ucsb.cs156.example.entities.UCSBDiningCommons;
+import edu.ucsb.cs156.example.entities.UCSBOrgs;
+import edu.ucsb.cs156.example.repositories.UCSBDiningCommonsRepository;
+import edu.ucsb.cs156.example.repositories.UCSBOrgsRepository;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = { ReferenceDataCacheService.class, DiningCommonsLocator.class, CacheConfig.class,
+    CacheAutoConfiguration.class })
+@TestPropertySource(properties = {
+    "spring.cache.type=caffeine",
+    "spring.cache.cache-names=ucsbdiningcommons,ucsborgs",
+    "spring.cache.caffeine.spec=maximumSize=100,recordStats"
+})
+class ReferenceDataCacheServiceTests {
+
+  @MockBean
+  UCSBDiningCommonsRepository ucsbDiningCommonsRepository;
+
+  @MockBean
+  UCSBOrgsRepository ucsbOrgsRepository;
+
+  @MockBean
+  PlatformTransactionManager transactionManager;
+
+  @Autowired
+  CacheManager cacheManager;
+
+  @Autowired
+  CacheConfig cacheConfig;
+
+  @Autowired
+  ReferenceDataCacheService referenceDataCache;
+
+  @Autowired
+  DiningCommonsLocator diningCommonsLocator;
+
+  @MockBean
+  TableVersionService tableVersionService;
+
+  UCSBDiningCommons carrillo = UCSBDiningCommons.builder()
+      .code("carrillo")
+      .name("Carrillo")
+      .latitude(34.409953)
+      .longitude(-119.85277)
+      .build();
+
+  UCSBOrgs skiing = UCSBOrgs.builder()
+      .orgCode("SKI")
+      .orgTranslationShort("SKIING CLUB")
+      .orgTranslation("SKIING CLUB AT UCSB")
+      .inactive(false)
+      .build();
+
+  @BeforeEach
+  void clearCaches() {
+    when(tableVersionService.version(UCSBDiningCommons.class)).thenReturn(1L);
+    when(tableVersionService.version(UCSBOrgs.class)).thenReturn(1L);
+    cacheManager.getCache(ReferenceDataCacheService.DINING_COMMONS_CACHE).clear();
+    cacheManager.getCache(ReferenceDataCacheService.ORGS_CACHE).clear();
+  }
+
+  @Test
+  void allDiningCommons_only_queries_the_database_once() {
+    when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo));
+
+    assertEquals(List.of(carrillo), referenceDataCache.allDiningCommons());
+    assertEquals(List.of(carrillo), referenceDataCache.allDiningCommons());
+
+    verify(ucsbDiningCommonsRepository, times(1)).findAll();
+  }
+
+  @Test
+  void findDiningCommons_caches_hits_and_misses_by_code() {
+    when(ucsbDiningCommonsRepository.findById("carrillo")).thenReturn(Optional.of(carrillo));
+    when(ucsbDiningCommonsRepository.findById("munger-hall")).thenReturn(Optional.empty());
+
+    assertEquals(Optional.of(carrillo), referenceDataCache.findDiningCommons("carrillo"));
+    assertEquals(Optional.of(carrillo), referenceDataCache.findDiningCommons("carrillo"));
+    assertTrue(referenceDataCache.findDiningCommons("munger-hall").isEmpty());
+    assertTrue(referenceDataCache.findDiningCommons("munger-hall").isEmpty());
+
+    verify(ucsbDiningCommonsRepository, times(1)).findById("carrillo");
+    verify(ucsbDiningCommonsRepository, times(1)).findById("munger-hall");
+  }
+
+  @Test
+  void allOrgs_only_queries_the_database_once() {
+    when(ucsbOrgsRepository.findAll()).thenReturn(List.of(skiing));
+
+    assertEquals(List.of(skiing), referenceDataCache.allOrgs());
+    assertEquals(List.of(skiing), referenceDataCache.allOrgs());
+
+    verify(ucsbOrgsRepository, times(1)).findAll();
+  }
+
+  @Test
+  void findOrg_caches_by_orgCode() {
+    when(ucsbOrgsRepository.findById("SKI")).thenReturn(Optional.of(skiing));
+
+    assertEquals(Optional.of(skiing), referenceDataCache.findOrg("SKI"));
+    assertEquals(Optional.of(skiing), referenceDataCache.findOrg("SKI"));
+
+    verify(ucsbOrgsRepository, times(1)).findById("SKI");
+  }
+
+  @Test
+  void a_committed_write_to_a_table_makes_its_entries_reload() {
+    UCSBOrgs renamed = skiing.toBuilder().orgTranslationShort("SKI CLUB").build();
+    when(ucsbOrgsRepository.findAll()).thenReturn(List.of(skiing), List.of(renamed));
+    when(ucsbOrgsRepository.findById("SKI")).thenReturn(Optional.of(skiing), Optional.of(renamed));
+    when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo));
+    assertEquals(List.of(skiing), referenceDataCache.allOrgs());
+    assertEquals(Optional.of(skiing), referenceDataCache.findOrg("SKI"));
+    assertEquals(List.of(carrillo), referenceDataCache.allDiningCommons());
+
+    when(tableVersionService.version(UCSBOrgs.class)).thenReturn(2L);
+
+    assertEquals(List.of(renamed), referenceDataCache.allOrgs());
+    assertEquals(Optional.of(renamed), referenceDataCache.findOrg("SKI"));
+    assertEquals(List.of(carrillo), referenceDataCache.allDiningCommons());
+    verify(ucsbOrgsRepository, times(2)).findAll();
+    verify(ucsbOrgsRepository, times(2)).findById("SKI");
+    verify(ucsbDiningCommonsRepository, times(1)).findAll();
+  }
+
+  @Test
+  void entries_loaded_before_a_write_committed_are_not_served_after_it() {
+    String keyBeforeCommit = referenceDataCache.diningCommonsKey(ReferenceDataCacheService.ALL_KEY);
+    when(tableVersionService.version(UCSBDiningCommons.class)).thenReturn(2L);
+    // a GET that read the table before the commit stores what it read late
+    cacheManager.getCache(ReferenceDataCacheService.DINING_COMMONS_CACHE).put(keyBeforeCommit, List.of());
+    when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo));
+
+    assertEquals(List.of(carrillo), referenceDataCache.allDiningCommons());
+  }
+
+  @Test
+  void preload_fills_both_caches_and_the_dining_commons_locator() {
+    when(ucsbDiningCommonsRepository.findAll()).thenReturn(List.of(carrillo));
+    when(ucsbOrgsRepository.findAll()).thenReturn(List.of(skiing));
+
+    cacheConfig.preloadReferenceData();
+
+    assertEquals(List.of(carrillo), referenceDataCache.allDiningCommons());
+    assertEquals(Optional.of(carrillo), referenceDataCache.findDiningCommons("carrillo"));
+    assertEquals(List.of(skiing), referenceDataCache.allOrgs());
+    assertEquals(Optional.of(skiing), referenceDataCache.findOrg("SKI"));
+    assertEquals(carrillo, diningCommonsLocator.nearest(34.41, -119.85, 1).get(0).getCommons());
+
+    verify(ucsbDiningCommonsRepository, times(1)).findAll();
+    verify(ucsbDiningCommonsRepository, times(0)).findById("carrillo");
+    verify(ucsbOrgsRepository, times(1)).findAll();
+    verify(ucsbOrgsRepository, times(0)).findById("SKI");
+  }
+}
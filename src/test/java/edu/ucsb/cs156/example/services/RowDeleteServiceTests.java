@@ -0,0 +1,140 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+import org.mockito.ArgumentCaptor;
+
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.Query;
+
+class RowDeleteServiceTests {
+
+  RowDeleteService rowDeletes = new RowDeleteService();
+
+  EntityManager entityManager = mock(EntityManager.class, Answers.RETURNS_DEEP_STUBS);
+  SessionImplementor session = mock(SessionImplementor.class, Answers.RETURNS_DEEP_STUBS);
+  JdbcCoordinator jdbc = mock(JdbcCoordinator.class, Answers.RETURNS_DEEP_STUBS);
+  PreparedStatement tombstones = mock(PreparedStatement.class);
+
+  Query deleteOne = query();
+  Query selectIds = query();
+  Query deleteMany = query();
+
+  private static Query query() {
+    Query query = mock(Query.class);
+    when(query.setParameter(anyString(), any())).thenReturn(query);
+    when(query.setLockMode(any())).thenReturn(query);
+    return query;
+  }
+
+  @BeforeEach
+  void setUp() {
+    rowDeletes.entityManager = entityManager;
+    rowDeletes.batchSize = 2;
+
+    when(entityManager.getMetamodel().entity(HelpRequest.class).getName()).thenReturn("helprequests");
+    when(entityManager.getMetamodel().entity(User.class).getName()).thenReturn("users");
+    when(entityManager.createQuery("delete from helprequests e where id(e) = :id")).thenReturn(deleteOne);
+    when(entityManager.createQuery("delete from users e where id(e) = :id")).thenReturn(deleteOne);
+    when(entityManager.createQuery("select id(e) from helprequests e where id(e) in :ids")).thenReturn(selectIds);
+    when(entityManager.createQuery("delete from helprequests e where id(e) in :ids")).thenReturn(deleteMany);
+
+    when(entityManager.unwrap(SharedSessionContractImplementor.class)).thenReturn(session);
+    when(session.getJdbcServices().getDialect()).thenReturn(new H2Dialect());
+    when(session.getJdbcCoordinator()).thenReturn(jdbc);
+    when(jdbc.getStatementPreparer().prepareStatement(anyString())).thenReturn(tombstones);
+  }
+
+  private void commit() {
+    ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCommit =
+        ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+    verify(session.asEventSource().getActionQueue()).registerProcess(beforeCommit.capture());
+    beforeCommit.getValue().doBeforeTransactionCompletion(session);
+    ((AfterTransactionCompletionProcess) beforeCommit.getValue()).doAfterTransactionCompletion(true, session);
+  }
+
+  @Test
+  void deleting_a_row_leaves_a_tombstone_on_commit() throws Exception {
+    when(deleteOne.executeUpdate()).thenReturn(1);
+
+    assertTrue(rowDeletes.deleteById(HelpRequest.class, 7L));
+
+    verify(deleteOne).setParameter("id", 7L);
+    verify(tombstones, never()).executeBatch();
+    commit();
+    verify(tombstones).setString(1, "helprequests");
+    verify(tombstones).setString(2, "7");
+  }
+
+  @Test
+  void deleting_a_row_that_does_not_exist_changes_nothing() {
+    when(deleteOne.executeUpdate()).thenReturn(0);
+
+    assertFalse(rowDeletes.deleteById(HelpRequest.class, 7L));
+
+    verify(entityManager, never()).unwrap(any());
+  }
+
+  @Test
+  void deleting_an_untracked_row_leaves_no_tombstone() {
+    when(deleteOne.executeUpdate()).thenReturn(1);
+
+    assertTrue(rowDeletes.deleteById(User.class, 1L));
+
+    verify(entityManager, never()).unwrap(any());
+  }
+
+  @Test
+  void bulk_delete_goes_a_batch_at_a_time_and_skips_missing_ids() throws Exception {
+    when(selectIds.getResultList()).thenReturn(List.of(2L, 1L), List.of(), List.of(5L));
+
+    List<Long> deleted = rowDeletes.deleteAllById(HelpRequest.class, List.of(1L, 2L, 2L, 3L, 4L, 5L));
+
+    assertEquals(List.of(1L, 2L, 5L), deleted);
+    verify(selectIds).setParameter("ids", List.of(1L, 2L));
+    verify(selectIds).setParameter("ids", List.of(3L, 4L));
+    verify(selectIds).setParameter("ids", List.of(5L));
+    verify(selectIds, times(3)).setLockMode(LockModeType.PESSIMISTIC_WRITE);
+    verify(deleteMany).setParameter("ids", List.of(2L, 1L));
+    verify(deleteMany).setParameter("ids", List.of(5L));
+    verify(deleteMany, times(2)).executeUpdate();
+    commit();
+    verify(tombstones).setString(2, "1");
+    verify(tombstones).setString(2, "2");
+    verify(tombstones).setString(2, "5");
+  }
+
+  @Test
+  void bulk_delete_of_rows_that_do_not_exist_changes_nothing() {
+    when(selectIds.getResultList()).thenReturn(List.of());
+
+    assertEquals(List.of(), rowDeletes.deleteAllById(HelpRequest.class, List.of(8L, 9L)));
+
+    verify(deleteMany, never()).executeUpdate();
+    verify(entityManager, never()).unwrap(any());
+  }
+}
@@ -0,0 +1,65 @@
+package edu.ucsb.cs156.example.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Answers;
+
+import edu.ucsb.cs156.example.entities.Articles;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+
+class TableVersionServiceTests {
+
+  static final String WRITTEN = "select max(e.changeVersion) from articles e";
+  static final String DELETED = "select max(t.changeVersion) from tombstones t where t.entityType = :entityType";
+
+  TableVersionService tableVersionService = new TableVersionService();
+
+  TypedQuery<Long> written = query();
+  TypedQuery<Long> deleted = query();
+
+  @SuppressWarnings("unchecked")
+  private static TypedQuery<Long> query() {
+    return mock(TypedQuery.class, Answers.RETURNS_SELF);
+  }
+
+  @BeforeEach
+  void setUp() {
+    tableVersionService.entityManager = mock(EntityManager.class, Answers.RETURNS_DEEP_STUBS);
+    when(tableVersionService.entityManager.getMetamodel().entity(Articles.class).getName()).thenReturn("articles");
+    when(tableVersionService.entityManager.createQuery(WRITTEN, Long.class)).thenReturn(written);
+    when(tableVersionService.entityManager.createQuery(DELETED, Long.class)).thenReturn(deleted);
+  }
+
+  @Test
+  void table_without_rows_or_tombstones_has_version_zero() {
+    when(written.getSingleResult()).thenReturn(null);
+    when(deleted.getSingleResult()).thenReturn(null);
+
+    assertEquals(0, tableVersionService.version(Articles.class));
+    verify(deleted).setParameter("entityType", "articles");
+    assertEquals("\"0\"", tableVersionService.eTag(Articles.class));
+  }
+
+  @Test
+  void version_is_the_newest_write() {
+    when(written.getSingleResult()).thenReturn(12L);
+    when(deleted.getSingleResult()).thenReturn(7L);
+
+    assertEquals(12, tableVersionService.version(Articles.class));
+    assertEquals("\"12\"", tableVersionService.eTag(Articles.class));
+  }
+
+  @Test
+  void version_is_the_newest_delete() {
+    when(written.getSingleResult()).thenReturn(12L);
+    when(deleted.getSingleResult()).thenReturn(15L);
+
+    assertEquals(15, tableVersionService.version(Articles.class));
+  }
+}
@@ -5,6 +5,7 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 
 
+import edu.ucsb.cs156.example.services.AdminRoleService;
 import edu.ucsb.cs156.example.services.CurrentUserService;
 import edu.ucsb.cs156.example.services.GrantedAuthoritiesService;
 import org.springframework.context.annotation.Import;
@@ -23,4 +24,9 @@ public class TestConfig {
         return new GrantedAuthoritiesService();
     }
 
+    @Bean
+    public AdminRoleService adminRoleService() {
+        return new AdminRoleService();
+    }
+
 }
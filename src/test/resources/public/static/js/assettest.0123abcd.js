@@ -0,0 +1,61 @@
+// FrontendAssetsIT fixture
+export const asset0 = "frontend asset fixture 0";
+export const asset1 = "frontend asset fixture 1";
+export const asset2 = "frontend asset fixture 2";
+export const asset3 = "frontend asset fixture 3";
+export const asset4 = "frontend asset fixture 4";
+export const asset5 = "frontend asset fixture 5";
+export const asset6 = "frontend asset fixture 6";
+export const asset7 = "frontend asset fixture 7";
+export const asset8 = "frontend asset fixture 8";
+export const asset9 = "frontend asset fixture 9";
+export const asset10 = "frontend asset fixture 10";
+export const asset11 = "frontend asset fixture 11";
+export const asset12 = "frontend asset fixture 12";
+export const asset13 = "frontend asset fixture 13";
+export const asset14 = "frontend asset fixture 14";
+export const asset15 = "frontend asset fixture 15";
+export const asset16 = "frontend asset fixture 16";
+export const asset17 = "frontend asset fixture 17";
+export const asset18 = "frontend asset fixture 18";
+export const asset19 = "frontend asset fixture 19";
+export const asset20 = "frontend asset fixture 20";
+export const asset21 = "frontend asset fixture 21";
+export const asset22 = "frontend asset fixture 22";
+export const asset23 = "frontend asset fixture 23";
+export const asset24 = "frontend asset fixture 24";
+export const asset25 = "frontend asset fixture 25";
+export const asset26 = "frontend asset fixture 26";
+export const asset27 = "frontend asset fixture 27";
+export const asset28 = "frontend asset fixture 28";
+export const asset29 = "frontend asset fixture 29";
+export const asset30 = "frontend asset fixture 30";
+export const asset31 = "frontend asset fixture 31";
+export const asset32 = "frontend asset fixture 32";
+export const asset33 = "frontend asset fixture 33";
+export const asset34 = "frontend asset fixture 34";
+export const asset35 = "frontend asset fixture 35";
+export const asset36 = "frontend asset fixture 36";
+export const asset37 = "frontend asset fixture 37";
+export const asset38 = "frontend asset fixture 38";
+export const asset39 = "frontend asset fixture 39";
+export const asset40 = "frontend asset fixture 40";
+export const asset41 = "frontend asset fixture 41";
+export const asset42 = "frontend asset fixture 42";
+export const asset43 = "frontend asset fixture 43";
+export const asset44 = "frontend asset fixture 44";
+export const asset45 = "frontend asset fixture 45";
+export const asset46 = "frontend asset fixture 46";
+export const asset47 = "frontend asset fixture 47";
+export const asset48 = "frontend asset fixture 48";
+export const asset49 = "frontend asset fixture 49";
+export const asset50 = "frontend asset fixture 50";
+export const asset51 = "frontend asset fixture 51";
+export const asset52 = "frontend asset fixture 52";
+export const asset53 = "frontend asset fixture 53";
+export const asset54 = "frontend asset fixture 54";
+export const asset55 = "frontend asset fixture 55";
+export const asset56 = "frontend asset fixture 56";
+export const asset57 = "frontend asset fixture 57";
+export const asset58 = "frontend asset fixture 58";
+export const asset59 = "frontend asset fixture 59";